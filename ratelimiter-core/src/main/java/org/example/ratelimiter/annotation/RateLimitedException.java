@@ -0,0 +1,20 @@
+package org.example.ratelimiter.annotation;
+
+import lombok.Getter;
+
+/**
+ * 在超时时间内没有获取到令牌，用于 {@code @RateLimited} 方法、响应式算子和出站调用
+ */
+@Getter
+public class RateLimitedException extends RuntimeException {
+    /**
+     * 限流器名称
+     */
+    private final String name;
+
+    public RateLimitedException(String name) {
+        // 限流时不需要堆栈，避免高并发拒绝时的填充开销
+        super("Rate limited: " + name, null, false, false);
+        this.name = name;
+    }
+}
@@ -0,0 +1,44 @@
+package org.example.ratelimiter.common.constant;
+
+/**
+ * 限流统计的写入目标
+ * 决定 {@link org.example.ratelimiter.limiter.audit.ThrottleAudit} 把每秒的放行/拒绝统计写到哪里
+ */
+public enum AuditSinkEnum {
+    /**
+     * 批量插入 t_ratelimite_throttle 表
+     */
+    DB("db", "DB"),
+
+    /**
+     * 追加到本地按天滚动的 CSV 文件
+     */
+    FILE("file", "FILE");
+
+    AuditSinkEnum(String code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    private final String code;
+
+    private final String desc;
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static String getDesc(String code) {
+        AuditSinkEnum[] enums = AuditSinkEnum.values();
+        for (AuditSinkEnum sinkEnum : enums) {
+            if (sinkEnum.getCode().equals(code)) {
+                return sinkEnum.getDesc();
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.ratelimiter.common.constant;
+
+/**
+ * 令牌桶存储引擎
+ * 由 {@link org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig#setStore} 选择，
+ * 决定 {@link org.example.ratelimiter.limiter.ratelimiter.RateLimiter} 使用的 {@link org.example.ratelimiter.limiter.store.BucketStore}
+ */
+public enum BucketStoreEnum {
+    /**
+     * 令牌桶存储在 Redis 中，由 Lua 脚本原子扣减，支持配额、优先级预留和请求合并
+     */
+    SCRIPT("script", "SCRIPT"),
+
+    /**
+     * 令牌桶存储在本进程内存中，用于测试和单节点部署
+     */
+    MEMORY("memory", "MEMORY"),
+
+    /**
+     * 使用 Redisson 自带的 RRateLimiter，不支持配额、优先级预留和添加令牌
+     */
+    REDISSON("redisson", "REDISSON");
+
+    BucketStoreEnum(String code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    private final String code;
+
+    private final String desc;
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static String getDesc(String code) {
+        BucketStoreEnum[] enums = BucketStoreEnum.values();
+        for (BucketStoreEnum storeEnum : enums) {
+            if (storeEnum.getCode().equals(code)) {
+                return storeEnum.getDesc();
+            }
+        }
+        return "";
+    }
+}
@@ -17,4 +17,5 @@ public class Constants {
      */
     public static final long PERMITS_PER_SECOND = 100L;
     public static final long MAX_PERMITS = 100L;
+    public static final int MAX_BATCH_SIZE = 256;
 }
@@ -0,0 +1,49 @@
+package org.example.ratelimiter.common.constant;
+
+/**
+ * 限流器运行模式
+ * 决定 {@link org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory#getLimiter} 创建的限流器实现
+ */
+public enum LimiterModeEnum {
+    /**
+     * 令牌桶存储在 Redis 中，由 Lua 脚本扣减
+     */
+    REDIS("redis", "REDIS"),
+
+    /**
+     * 令牌桶存储在独立的令牌服务中，通过二进制协议获取令牌
+     */
+    SERVER("server", "SERVER"),
+
+    /**
+     * 令牌桶存储在本机的内存映射文件中，只在同一台机器的进程间共享
+     */
+    MAPPED("mapped", "MAPPED");
+
+    LimiterModeEnum(String code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    private final String code;
+
+    private final String desc;
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static String getDesc(String code) {
+        LimiterModeEnum[] enums = LimiterModeEnum.values();
+        for (LimiterModeEnum modeEnum : enums) {
+            if (modeEnum.getCode().equals(code)) {
+                return modeEnum.getDesc();
+            }
+        }
+        return "";
+    }
+}
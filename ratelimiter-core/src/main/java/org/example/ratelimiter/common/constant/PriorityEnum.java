@@ -0,0 +1,49 @@
+package org.example.ratelimiter.common.constant;
+
+/**
+ * 请求优先级枚举
+ * 优先级越低，需要给更高优先级预留的令牌越多，桶内令牌不足时越先被拒绝
+ */
+public enum PriorityEnum {
+    /**
+     * 高优先级，可以使用桶内全部令牌
+     */
+    HIGH("2", "HIGH"),
+
+    /**
+     * 普通优先级，未指定优先级的请求
+     */
+    NORMAL("1", "NORMAL"),
+
+    /**
+     * 低优先级，最先被拒绝
+     */
+    LOW("0", "LOW");
+
+    PriorityEnum(String code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    private final String code;
+
+    private final String desc;
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static String getDesc(String code) {
+        PriorityEnum[] enums = PriorityEnum.values();
+        for (PriorityEnum priorityEnum : enums) {
+            if (priorityEnum.getCode().equals(code)) {
+                return priorityEnum.getDesc();
+            }
+        }
+        return "";
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.ratelimiter.common.constant;
+
+/**
+ * 配额周期枚举
+ * code 同时作为计数 key 中窗口编号的前缀
+ */
+public enum QuotaPeriodEnum {
+    /**
+     * 自然小时
+     */
+    HOUR("h", "HOUR"),
+
+    /**
+     * 自然日
+     */
+    DAY("d", "DAY"),
+
+    /**
+     * 自然月
+     */
+    MONTH("m", "MONTH"),
+
+    /**
+     * 滚动窗口，窗口长度自定义
+     */
+    ROLLING("r", "ROLLING");
+
+    QuotaPeriodEnum(String code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    private final String code;
+
+    private final String desc;
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static String getDesc(String code) {
+        QuotaPeriodEnum[] enums = QuotaPeriodEnum.values();
+        for (QuotaPeriodEnum periodEnum : enums) {
+            if (periodEnum.getCode().equals(code)) {
+                return periodEnum.getDesc();
+            }
+        }
+        return "";
+    }
+}
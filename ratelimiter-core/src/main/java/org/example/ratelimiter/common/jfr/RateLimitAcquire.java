@@ -0,0 +1,111 @@
+package org.example.ratelimiter.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+import jdk.jfr.Timespan;
+import org.example.ratelimiter.common.constant.PriorityEnum;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * 一次获取令牌，从调用开始到返回（包括等待令牌的时间）
+ * 事件时长 = 得到结果的时间（访问后端、排队提交）+ 为等待令牌而挂起的时间，两者分别记录，用于区分慢在哪里。
+ * 默认只记录超过 10ms 的获取；没有开启 JFR 记录时各方法都是空操作
+ */
+@Name("org.example.ratelimiter.Acquire")
+@Label("Rate Limit Acquire")
+@Category("Rate Limiter")
+@Description("Acquire permits from a rate limiter, including the deliberate wait for permits")
+@StackTrace(false)
+@Threshold("10 ms")
+public class RateLimitAcquire extends Event {
+    @Label("Limiter")
+    private String limiter;
+
+    @Label("Permits")
+    private long permits;
+
+    @Label("Priority")
+    private String priority;
+
+    /**
+     * 得到预定结果的时间，包括访问后端和在等待队列中排队提交
+     */
+    @Label("Decision Time")
+    @Timespan(Timespan.MICROSECONDS)
+    private long decisionTime;
+
+    /**
+     * 为等待令牌而挂起的时间
+     */
+    @Label("Wait Time")
+    @Timespan(Timespan.MICROSECONDS)
+    private long waitTime;
+
+    /**
+     * granted、rejected、quota_exhausted、queue_full；没有得到结果（抛出异常）时为 failed
+     */
+    @Label("Outcome")
+    private String outcome = "failed";
+
+    private transient long startNanos;
+
+    /**
+     * 开始计时
+     *
+     * @return 事件，结束时调用 {@link #finish}
+     */
+    public static RateLimitAcquire start() {
+        RateLimitAcquire event = new RateLimitAcquire();
+        event.begin();
+        if (event.isEnabled()) {
+            event.startNanos = System.nanoTime();
+        }
+        return event;
+    }
+
+    /**
+     * 记录预定结果
+     *
+     * @param waitMicros 预定返回的等待时间，单位为微秒；-1 表示超时时间内无法获取，更小的值表示配额用完
+     */
+    public void decided(long waitMicros) {
+        if (startNanos != 0L) {
+            decisionTime = NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            waitTime = Math.max(waitMicros, 0L);
+            outcome = waitMicros >= 0 ? "granted" : waitMicros == -1 ? "rejected" : "quota_exhausted";
+        }
+    }
+
+    /**
+     * 等待队列已满，没有访问后端
+     */
+    public void queueFull() {
+        if (startNanos != 0L) {
+            decisionTime = NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+            outcome = "queue_full";
+        }
+    }
+
+    /**
+     * 结束计时，超过阈值时提交
+     *
+     * @param limiter 限流器名称
+     * @param permits 请求的令牌数
+     * @param priority 请求优先级
+     */
+    public void finish(String limiter, long permits, PriorityEnum priority) {
+        end();
+        if (shouldCommit()) {
+            this.limiter = limiter;
+            this.permits = permits;
+            this.priority = priority.name();
+            commit();
+        }
+    }
+}
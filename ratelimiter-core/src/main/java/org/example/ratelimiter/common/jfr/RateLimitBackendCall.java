@@ -0,0 +1,61 @@
+package org.example.ratelimiter.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * 一次向存储引擎预定令牌，从提交到收到结果
+ * 开启请求合并时包括在合并窗口中等待的时间。结果在 Redisson 的回调线程上提交，不记录调用栈；
+ * 默认只记录超过 5ms 的调用
+ */
+@Name("org.example.ratelimiter.BackendCall")
+@Label("Rate Limit Backend Call")
+@Category("Rate Limiter")
+@Description("Reserve permits from the bucket store, from submission to result")
+@StackTrace(false)
+@Threshold("5 ms")
+public class RateLimitBackendCall extends Event {
+    @Label("Limiter")
+    private String limiter;
+
+    @Label("Store")
+    private String store;
+
+    @Label("Permits")
+    private long permits;
+
+    /**
+     * 存储引擎返回的等待时间，单位为微秒；调用失败时为 0
+     */
+    @Label("Result")
+    private long result;
+
+    @Label("Failed")
+    private boolean failed;
+
+    /**
+     * 结束计时，超过阈值时提交
+     *
+     * @param limiter 限流器名称
+     * @param store 存储引擎
+     * @param permits 请求的令牌数
+     * @param result 存储引擎返回的等待时间，失败时为 null
+     * @param error 失败原因，成功时为 null
+     */
+    public void finish(String limiter, Object store, long permits, Long result, Throwable error) {
+        end();
+        if (shouldCommit()) {
+            this.limiter = limiter;
+            this.store = store.getClass().getSimpleName();
+            this.permits = permits;
+            this.result = result == null ? 0L : result;
+            this.failed = error != null;
+            commit();
+        }
+    }
+}
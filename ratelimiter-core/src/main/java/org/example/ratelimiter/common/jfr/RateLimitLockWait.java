@@ -0,0 +1,43 @@
+package org.example.ratelimiter.common.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+/**
+ * 等待队列中按到达顺序提交预定时等待公平锁的时间
+ * synchronized 的等待已由 JDK 的 jdk.JavaMonitorEnter 记录；默认只记录超过 1ms 的等待
+ */
+@Name("org.example.ratelimiter.LockWait")
+@Label("Rate Limit Lock Wait")
+@Category("Rate Limiter")
+@Description("Wait for the fair submission lock of a rate limiter wait queue")
+@Threshold("1 ms")
+public class RateLimitLockWait extends Event {
+    @Label("Limiter")
+    private String limiter;
+
+    /**
+     * 开始等待时队列中的请求数
+     */
+    @Label("Queued")
+    private int queued;
+
+    /**
+     * 结束计时，超过阈值时提交
+     *
+     * @param limiter 限流器名称
+     * @param queued 队列中的请求数
+     */
+    public void finish(String limiter, int queued) {
+        end();
+        if (shouldCommit()) {
+            this.limiter = limiter;
+            this.queued = queued;
+            commit();
+        }
+    }
+}
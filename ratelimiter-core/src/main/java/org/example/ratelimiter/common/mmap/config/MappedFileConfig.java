@@ -0,0 +1,17 @@
+package org.example.ratelimiter.common.mmap.config;
+
+import lombok.Data;
+
+/**
+ * 内存映射令牌桶文件配置类
+ * 同一台机器上需要共享限流的进程配置相同的文件路径。Spring 中由自动配置按 ratelimiter.mapped.* 填充
+ */
+@Data
+public class MappedFileConfig {
+    private String path = System.getProperty("java.io.tmpdir") + "/ratelimiter.buckets";
+
+    /**
+     * 新建文件时的槽位数，即最多可以容纳的限流器个数
+     */
+    private int slots = 1024;
+}
@@ -0,0 +1,50 @@
+package org.example.ratelimiter.common.redis.config.factory;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+
+/**
+ * Redis创建工厂
+ * 不依赖 Spring，自动配置和普通 Java 程序使用相同的编码和脚本设置
+ *
+ * @author Percy
+ * @date 2024/12/13
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RedissonFactory {
+    /**
+     * 创建单机模式的客户端
+     *
+     * @param host 地址
+     * @param port 端口
+     * @param database 数据库索引
+     * @param password 密码，为空表示不需要密码
+     * @return Redisson 客户端，使用完需要 shutdown
+     */
+    public static RedissonClient create(String host, String port, int database, String password) {
+        // Redisson密码如果传空字符串会报错无法启动
+        if (password != null && password.isEmpty()) {
+            password = null;
+        }
+
+        Config config = new Config();
+        // 值统一以字符串（JSON）存取，保证 Lua 脚本能直接读写令牌桶；默认的 Kryo 编码脚本无法解析
+        config.setCodec(StringCodec.INSTANCE);
+        // 脚本优先以 EVALSHA 发送，避免每次请求都传输完整脚本
+        config.setUseScriptCache(true);
+        config.useSingleServer()
+                .setAddress("redis://" + host + ":" + port)
+                .setDatabase(database)
+                .setPassword(password);
+        //添加主从配置
+//        config.useMasterSlaveServers()
+//                .setMasterAddress("")
+//                .setPassword("")
+//                .addSlaveAddress(new String[]{"", ""});
+        return Redisson.create(config);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.ratelimiter.common.redis.key.common;
+
+
+import org.example.ratelimiter.common.redis.key.base.BasePrefix;
+
+/**
+ * 按节点划分速率时的成员注册
+ */
+public class MemberKey extends BasePrefix {
+    private MemberKey(String prefix) {
+        super(prefix);
+    }
+
+    /**
+     * 限流器的成员索引（zset）和各节点的需求速率（hash），需求速率的 key 为 索引:demand
+     * NOTE: 限流器名称以 {} 包住作为 hash tag，集群模式下同一限流器的 key 落在同一个槽位
+     */
+    public static final MemberKey member = new MemberKey("MB");
+}
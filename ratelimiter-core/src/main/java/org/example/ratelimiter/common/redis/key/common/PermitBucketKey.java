@@ -15,4 +15,14 @@ public class PermitBucketKey extends BasePrefix {
     }
 
     public static final PermitBucketKey permitBucket = new PermitBucketKey(0, "RL");
+
+    /**
+     * 紧凑存储时同一渠道所有桶所在的 hash
+     */
+    public static final PermitBucketKey channelBuckets = new PermitBucketKey(0, "CH");
+
+    /**
+     * Redisson RRateLimiter 引擎使用的限流器
+     */
+    public static final PermitBucketKey redissonLimiter = new PermitBucketKey(0, "RR");
 }
@@ -0,0 +1,16 @@
+package org.example.ratelimiter.common.redis.key.common;
+
+
+import org.example.ratelimiter.common.redis.key.base.BasePrefix;
+
+/**
+ * 长周期配额计数
+ * 完整的 key 为 前缀 + 限流器名称 + ":" + 窗口编号，过期时间按窗口结束时间单独设置
+ */
+public class QuotaKey extends BasePrefix {
+    private QuotaKey(String prefix) {
+        super(prefix);
+    }
+
+    public static final QuotaKey quota = new QuotaKey("Q");
+}
@@ -0,0 +1,15 @@
+package org.example.ratelimiter.common.redis.key.common;
+
+
+import org.example.ratelimiter.common.redis.key.base.BasePrefix;
+
+/**
+ * 限流参数变更的节点间通知主题
+ */
+public class RateChangeKey extends BasePrefix {
+    private RateChangeKey(String prefix) {
+        super(prefix);
+    }
+
+    public static final RateChangeKey rateChange = new RateChangeKey("RC");
+}
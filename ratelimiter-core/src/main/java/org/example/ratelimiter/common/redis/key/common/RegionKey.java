@@ -0,0 +1,18 @@
+package org.example.ratelimiter.common.redis.key.common;
+
+
+import org.example.ratelimiter.common.redis.key.base.BasePrefix;
+
+/**
+ * 多区域共享配额时各区域的消耗计数
+ */
+public class RegionKey extends BasePrefix {
+    private RegionKey(String prefix) {
+        super(prefix);
+    }
+
+    /**
+     * 限流器的区域计数 hash，字段为 区域:c（放行的令牌数）和 区域:d（请求的令牌数）
+     */
+    public static final RegionKey regionCounter = new RegionKey("RG");
+}
@@ -0,0 +1,15 @@
+package org.example.ratelimiter.common.redis.key.common;
+
+
+import org.example.ratelimiter.common.redis.key.base.BasePrefix;
+
+/**
+ * 高频 key 计数草图的节点间同步主题
+ */
+public class SketchKey extends BasePrefix {
+    private SketchKey(String prefix) {
+        super(prefix);
+    }
+
+    public static final SketchKey sketchSync = new SketchKey("HH");
+}
@@ -0,0 +1,344 @@
+package org.example.ratelimiter.common.redis.service;
+
+import org.example.ratelimiter.common.redis.config.factory.RedissonFactory;
+import org.example.ratelimiter.common.redis.key.base.KeyPrefix;
+import org.example.ratelimiter.utils.BeanUtils;
+import org.redisson.api.*;
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redisson 基本方法以及自带的限流器和锁
+ *
+ * @author Percy
+ * @date 2024/12/10
+ */
+public class RedissonService {
+    private final RedissonClient redissonClient;
+
+    /**
+     * 响应式客户端，与 redissonClient 共用连接，首次使用时创建
+     */
+    private volatile RedissonReactiveClient reactiveClient;
+
+    /**
+     * hash 字段名为字符串、值为原始字节，与 Lua 脚本中 HGET/HSET 的内容一致
+     */
+    private static final Codec BYTES_VALUE_CODEC = new CompositeCodec(StringCodec.INSTANCE, ByteArrayCodec.INSTANCE);
+
+    /**
+     * 使用指定的客户端
+     * Spring 中由自动配置创建，普通程序可以用 {@link RedissonFactory#create} 创建，也可以连接其他区域的 Redis
+     *
+     * @param redissonClient Redisson 客户端
+     */
+    public RedissonService(RedissonClient redissonClient) {
+        this.redissonClient = redissonClient;
+    }
+
+    /**
+     * 获取Redis锁
+     *
+     * @param key 锁的key
+     * @return 锁对象
+     */
+    public RLock getRLock(String key) {
+        return redissonClient.getLock(key);
+    }
+
+    /**
+     * 获取Redis读写锁
+     *
+     * @param key 锁的key
+     * @return 读写锁对象
+     */
+    public RReadWriteLock getRWLock(String key) {
+        return redissonClient.getReadWriteLock(key);
+    }
+
+    /**
+     * 获取限流器
+     *
+     * @param key 限流器名称
+     * @return 限流器实例
+     */
+    public RRateLimiter getRateLimiter(String key) {
+        return redissonClient.getRateLimiter(key);
+    }
+
+    /**
+     * 异步执行 Lua 脚本
+     * 脚本在 Redis 端原子执行，调用方无需再加分布式锁；返回的 Future 可在虚拟线程中直接等待而不会占用载体线程
+     *
+     * @param prefix key前缀
+     * @param key 脚本操作的key
+     * @param script 脚本内容
+     * @param returnType 返回值类型
+     * @param values 脚本参数（ARGV）
+     * @return 脚本执行结果
+     */
+    public <T> RFuture<T> evalAsync(KeyPrefix prefix, String key, String script, RScript.ReturnType returnType, Object... values) {
+        String realKey = prefix.getPrefix() + key;
+        return evalAsync(Collections.singletonList(realKey), script, returnType, values);
+    }
+
+    /**
+     * 异步执行操作多个key的 Lua 脚本
+     *
+     * @param keys 完整的key（KEYS），第一个key决定脚本发往的节点
+     * @param script 脚本内容
+     * @param returnType 返回值类型
+     * @param values 脚本参数（ARGV）
+     * @return 脚本执行结果
+     */
+    public <T> RFuture<T> evalAsync(List<Object> keys, String script, RScript.ReturnType returnType, Object... values) {
+        String routingKey = (String) keys.get(0);
+        return redissonClient.getScript().evalAsync(routingKey, RScript.Mode.READ_WRITE, script, returnType, keys, values);
+    }
+
+    /**
+     * 以响应式 API 执行操作多个key的 Lua 脚本，订阅时才发送，结果在 Redisson 的 IO 线程上发出
+     *
+     * @param keys 完整的key（KEYS），第一个key决定脚本发往的节点
+     * @param script 脚本内容
+     * @param returnType 返回值类型
+     * @param values 脚本参数（ARGV）
+     * @return 脚本执行结果
+     */
+    public <T> Mono<T> evalReactive(List<Object> keys, String script, RScript.ReturnType returnType, Object... values) {
+        String routingKey = (String) keys.get(0);
+        return getReactiveClient().getScript().eval(routingKey, RScript.Mode.READ_WRITE, script, returnType, keys, values);
+    }
+
+    /**
+     * 以响应式 API 读取对象，格式同 {@link #get}
+     *
+     * @param prefix key前缀
+     * @param key key
+     * @param clazz 对象类型
+     * @return 对象，不存在时为空
+     */
+    public <T> Mono<T> getReactive(KeyPrefix prefix, String key, Class<T> clazz) {
+        String realKey = prefix.getPrefix() + key;
+        return getReactiveClient().getBucket(realKey).get().map(str -> BeanUtils.stringToBean((String) str, clazz));
+    }
+
+    private RedissonReactiveClient getReactiveClient() {
+        if (reactiveClient == null) {
+            synchronized (this) {
+                if (reactiveClient == null) {
+                    reactiveClient = redissonClient.reactive();
+                }
+            }
+        }
+        return reactiveClient;
+    }
+
+    /**
+     * 获取发布订阅主题
+     *
+     * @param prefix key前缀
+     * @param key 主题名称
+     * @param codec 消息编码
+     * @return 主题
+     */
+    public RTopic getTopic(KeyPrefix prefix, String key, Codec codec) {
+        return redissonClient.getTopic(prefix.getPrefix() + key, codec);
+    }
+
+    public <T> boolean exists(KeyPrefix prefix, String key) {
+        String realKey = prefix.getPrefix() + key;
+        // 使用 Redisson 的 RBucket 检查键是否存在
+        return redissonClient.getBucket(realKey).isExists();
+    }
+
+    public boolean delete(KeyPrefix prefix, String key) {
+        String realKey = prefix.getPrefix() + key;
+        return redissonClient.getBucket(realKey).delete();
+    }
+
+    public <T> T get(KeyPrefix prefix, String key, Class<T> clazz) {
+        String realKey = prefix.getPrefix() + key;
+        String str = (String) redissonClient.getBucket(realKey).get();
+        return BeanUtils.stringToBean(str, clazz);
+    }
+
+    public <T> boolean set(KeyPrefix prefix, String key, T value) {
+        String realKey = prefix.getPrefix() + key;
+        String str = BeanUtils.beanToString(value);
+        if (str == null || str.isEmpty()) {
+            return false;
+        }
+
+        // 获取过期时间
+        int seconds = prefix.expireSeconds();
+        if (seconds <= 0) {
+            // 永久保存键
+            redissonClient.getBucket(realKey).set(str);
+        } else {
+            // 保存键并设置过期时间
+            redissonClient.getBucket(realKey).set(str, seconds, TimeUnit.SECONDS);
+        }
+        return true;
+    }
+
+    public <T> boolean setwe(KeyPrefix prefix, String key, T value, int expireSeconds) {
+        String realKey = prefix.getPrefix() + key;
+        String str = BeanUtils.beanToString(value);
+        if (str == null || str.isEmpty()) {
+            return false;
+        }
+
+        // 判断是否需要设置过期时间
+        if (expireSeconds <= 0) {
+            // 永不过期（等价于 Jedis 的 set）
+            redissonClient.getBucket(realKey).set(str);
+        } else {
+            // 设置过期时间
+            redissonClient.getBucket(realKey).set(str, expireSeconds, TimeUnit.SECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * key 不存在时写入，已存在时不覆盖
+     *
+     * @param prefix key前缀
+     * @param key key
+     * @param value 值
+     * @param expireSeconds 过期时间，单位为秒，小于等于 0 时永不过期
+     * @return 是否写入
+     */
+    public <T> boolean setnx(KeyPrefix prefix, String key, T value, int expireSeconds) {
+        String realKey = prefix.getPrefix() + key;
+        String str = BeanUtils.beanToString(value);
+        if (str == null || str.isEmpty()) {
+            return false;
+        }
+
+        RBucket<String> bucket = redissonClient.getBucket(realKey);
+        return expireSeconds <= 0 ? bucket.setIfAbsent(str) : bucket.setIfAbsent(str, Duration.ofSeconds(expireSeconds));
+    }
+
+    public <T> T hget(KeyPrefix prefix, String key, String field, Class<T> clazz) {
+        String realKey = prefix.getPrefix() + key;
+        String str = (String) redissonClient.getMap(realKey).get(field);
+        return BeanUtils.stringToBean(str, clazz);
+    }
+
+    /**
+     * 读取 hash 中以二进制存储的字段
+     *
+     * @param prefix key前缀
+     * @param key key
+     * @param field 字段
+     * @return 字段的值，不存在时为 null
+     */
+    public byte[] hgetBytes(KeyPrefix prefix, String key, String field) {
+        return redissonClient.<String, byte[]>getMap(prefix.getPrefix() + key, BYTES_VALUE_CODEC).get(field);
+    }
+
+    /**
+     * 以二进制写入 hash 的字段
+     *
+     * @param prefix key前缀
+     * @param key key
+     * @param field 字段
+     * @param value 字段的值
+     */
+    public void hsetBytes(KeyPrefix prefix, String key, String field, byte[] value) {
+        redissonClient.<String, byte[]>getMap(prefix.getPrefix() + key, BYTES_VALUE_CODEC).fastPut(field, value);
+    }
+
+    /**
+     * 字段不存在时以二进制写入 hash 的字段（HSETNX）
+     *
+     * @param prefix key前缀
+     * @param key key
+     * @param field 字段
+     * @param value 字段的值
+     * @return 是否写入
+     */
+    public boolean hsetnxBytes(KeyPrefix prefix, String key, String field, byte[] value) {
+        return redissonClient.<String, byte[]>getMap(prefix.getPrefix() + key, BYTES_VALUE_CODEC).fastPutIfAbsent(field, value);
+    }
+
+    /**
+     * 以响应式 API 读取 hash 中以二进制存储的字段
+     *
+     * @param prefix key前缀
+     * @param key key
+     * @param field 字段
+     * @return 字段的值，不存在时为空
+     */
+    public Mono<byte[]> hgetBytesReactive(KeyPrefix prefix, String key, String field) {
+        return getReactiveClient().<String, byte[]>getMap(prefix.getPrefix() + key, BYTES_VALUE_CODEC).get(field);
+    }
+
+    public <T> boolean hset(KeyPrefix prefix, String key, String field, T value) {
+        String realKey = prefix.getPrefix() + key;
+        String str = BeanUtils.beanToString(value);
+        if (str == null || str.isEmpty()) {
+            return false;
+        }
+
+        // 获取 RMap 对象，插入字段和值
+        var rMap = redissonClient.getMap(realKey);
+        rMap.put(field, str);
+
+        // 设置过期时间
+        int seconds = prefix.expireSeconds();
+        if (seconds > 0) {
+            rMap.expire(seconds, TimeUnit.SECONDS);
+        }
+
+        return true;
+    }
+
+    public <T> Long incr(KeyPrefix prefix, String key) {
+        String realKey = prefix.getPrefix() + key;
+        return redissonClient.getAtomicLong(realKey).incrementAndGet();
+    }
+
+    public <T> Long decr(KeyPrefix prefix, String key) {
+        String realKey = prefix.getPrefix() + key;
+        return redissonClient.getAtomicLong(realKey).decrementAndGet();
+    }
+
+    public <T> boolean hmcset(KeyPrefix prefix, String key, T value) {
+        String realKey = prefix.getPrefix() + key;
+
+        Map<String, String> map = BeanUtils.beanToMap(value);
+        if (map == null || map.isEmpty()) {
+            return false;
+        }
+
+        // 获取 RMap，向 Redis 中插入数据
+        RMap<String, String> redissonMap = redissonClient.getMap(realKey);
+        redissonMap.putAll(map);
+
+        // 设置过期时间
+        int seconds = prefix.expireSeconds();
+        if (seconds > 0) {
+            // 设置全局 TTL
+            redissonMap.expire(seconds, TimeUnit.SECONDS);
+        }
+
+        return true;
+    }
+
+    public <T> T hmcget(KeyPrefix prefix, String key, Class<T> clazz) {
+        String realKey = prefix.getPrefix() + key;
+        Map<String, String> map = redissonClient.<String, String>getMap(realKey).readAllMap();
+        return BeanUtils.mapToBean(map, clazz);
+    }
+}
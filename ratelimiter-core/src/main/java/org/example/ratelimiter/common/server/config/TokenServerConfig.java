@@ -0,0 +1,22 @@
+package org.example.ratelimiter.common.server.config;
+
+import lombok.Data;
+
+/**
+ * 令牌服务配置类
+ * mode 为 server 时，限流器工厂创建连接令牌服务的限流器，否则使用 Redis。
+ * Spring 中由自动配置按 ratelimiter.mode、ratelimiter.token-server.* 填充
+ */
+@Data
+public class TokenServerConfig {
+    private String mode = "redis";
+
+    private String host = "127.0.0.1";
+
+    private int port = 7380;
+
+    /**
+     * 单次请求的超时时间，超时后使用本地限流兜底
+     */
+    private long timeoutMillis = 50L;
+}
@@ -0,0 +1,131 @@
+package org.example.ratelimiter.limiter.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 写入本地文件的限流统计，每天一个 CSV 文件（ratelimiter-throttle-yyyyMMdd.csv），按统计的那一秒所在的日期分文件
+ * 只保留最近 maxFiles 个文件，每批写入后 flush
+ */
+@Slf4j
+public class RollingFileThrottleSink implements ThrottleSink {
+    static final String PREFIX = "ratelimiter-throttle-";
+
+    static final String SUFFIX = ".csv";
+
+    private static final String HEADER = "time,node,interfaceNo,epochSecond,granted,rejected";
+
+    private static final DateTimeFormatter DAY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final Path dir;
+
+    private final int maxFiles;
+
+    private final ZoneId zone;
+
+    private String currentDay;
+
+    private BufferedWriter writer;
+
+    /**
+     * 构造函数
+     *
+     * @param dir 目录，不存在时创建
+     * @param maxFiles 保留的文件个数
+     */
+    public RollingFileThrottleSink(Path dir, int maxFiles) throws IOException {
+        this(dir, maxFiles, ZoneId.systemDefault());
+    }
+
+    RollingFileThrottleSink(Path dir, int maxFiles, ZoneId zone) throws IOException {
+        this.dir = Files.createDirectories(dir);
+        this.maxFiles = maxFiles;
+        this.zone = zone;
+    }
+
+    @Override
+    public void write(List<ThrottleRecord> records) throws IOException {
+        for (ThrottleRecord record : records) {
+            Instant time = Instant.ofEpochSecond(record.getEpochSecond());
+            roll(DAY_FORMAT.format(time.atZone(zone)));
+            writer.write(TIME_FORMAT.format(time.atZone(zone)));
+            writer.write(',');
+            writer.write(record.getNode());
+            writer.write(',');
+            writer.write(record.getInterfaceNo());
+            writer.write(',');
+            writer.write(Long.toString(record.getEpochSecond()));
+            writer.write(',');
+            writer.write(Long.toString(record.getGranted()));
+            writer.write(',');
+            writer.write(Long.toString(record.getRejected()));
+            writer.newLine();
+        }
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * 切换到这一天的文件，新文件写入表头并删除过期的文件
+     */
+    private void roll(String day) throws IOException {
+        if (day.equals(currentDay)) {
+            return;
+        }
+        close();
+        Path file = dir.resolve(PREFIX + day + SUFFIX);
+        boolean exists = Files.exists(file);
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        currentDay = day;
+        if (!exists) {
+            writer.write(HEADER);
+            writer.newLine();
+            purge();
+        }
+    }
+
+    private void purge() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            stream.forEach(files::add);
+        }
+        if (files.size() <= maxFiles) {
+            return;
+        }
+        // 文件名中的日期可以直接按字符串排序
+        Collections.sort(files);
+        for (Path file : files.subList(0, files.size() - maxFiles)) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Delete throttle file {} failed", file, e);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+            currentDay = null;
+        }
+    }
+}
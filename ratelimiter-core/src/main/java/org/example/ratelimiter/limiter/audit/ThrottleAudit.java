@@ -0,0 +1,240 @@
+package org.example.ratelimiter.limiter.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.limiter.ratelimiter.PriorityMetrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 限流统计的异步写入（write-behind）
+ * 获取令牌时只累加限流器自己的 {@link PriorityMetrics}（LongAdder，无锁），这里不增加任何开销。
+ * 统计线程在每秒开始时读取各限流器的累计值，与上一秒的差值即为这一秒的放行/拒绝次数，有变化的放入有界队列；
+ * 写入线程按批取出交给 {@link ThrottleSink}（数据库批量插入或本地文件）。
+ * 写入跟不上时队列满，新的统计直接丢弃并计数；写入失败的一批同样丢弃并计数，不会阻塞或拖慢获取令牌
+ */
+@Slf4j
+public class ThrottleAudit implements AutoCloseable {
+    private final String node;
+
+    private final ThrottleSink sink;
+
+    private final BlockingQueue<ThrottleRecord> queue;
+
+    private final int batchSize;
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 队列已满被丢弃的统计条数
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 写入失败被丢弃的统计条数
+     */
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * 已写入的统计条数
+     */
+    private final LongAdder written = new LongAdder();
+
+    private ScheduledExecutorService collector;
+
+    private ScheduledExecutorService writer;
+
+    /**
+     * 构造函数
+     *
+     * @param node 节点名称
+     * @param sink 写入目标
+     * @param capacity 队列最多缓存的统计条数
+     * @param batchSize 每次写入的最大条数
+     */
+    public ThrottleAudit(String node, ThrottleSink sink, int capacity, int batchSize) {
+        this.node = node;
+        this.sink = sink;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 开始统计限流器，之前的累计值不计入
+     *
+     * @param name 限流器名称
+     * @param metrics 限流器的获取结果统计
+     */
+    public void register(String name, PriorityMetrics metrics) {
+        counters.computeIfAbsent(name, key -> new Counter(key, metrics));
+    }
+
+    /**
+     * 停止统计限流器，最后不足一秒的统计计入当前这一秒
+     *
+     * @param name 限流器名称
+     */
+    public void unregister(String name) {
+        Counter counter = counters.remove(name);
+        if (counter != null) {
+            counter.collect(System.currentTimeMillis() / 1000);
+        }
+    }
+
+    /**
+     * 开始每秒统计和定期写入
+     *
+     * @param flushMillis 写入间隔，单位为毫秒
+     */
+    public synchronized void start(long flushMillis) {
+        if (collector != null) {
+            return;
+        }
+        collector = daemon("ratelimiter-audit-collect");
+        writer = daemon("ratelimiter-audit-write");
+        // 对齐到整秒，每次统计刚结束的那一秒
+        long delayMillis = 1000 - System.currentTimeMillis() % 1000;
+        collector.scheduleAtFixedRate(() -> {
+            try {
+                collect(Math.round(System.currentTimeMillis() / 1000D) - 1);
+            } catch (RuntimeException e) {
+                log.warn("Collect throttle records failed", e);
+            }
+        }, delayMillis, SECONDS.toMillis(1), MILLISECONDS);
+        writer.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, MILLISECONDS);
+    }
+
+    private static ScheduledExecutorService daemon(String name) {
+        return Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 统计所有限流器在这一秒的放行/拒绝次数
+     *
+     * @param epochSecond 统计的这一秒
+     */
+    void collect(long epochSecond) {
+        for (Counter counter : counters.values()) {
+            counter.collect(epochSecond);
+        }
+    }
+
+    /**
+     * 把队列中的统计按批写入，直到队列为空
+     *
+     * @return 写入的条数
+     */
+    int flush() {
+        List<ThrottleRecord> batch = new ArrayList<>(batchSize);
+        int total = 0;
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                sink.write(batch);
+                written.add(batch.size());
+                total += batch.size();
+            } catch (Exception e) {
+                failed.add(batch.size());
+                log.warn("Write {} throttle records failed", batch.size(), e);
+            }
+            batch.clear();
+        }
+        return total;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    /**
+     * 等待写入的统计条数
+     */
+    public int getQueued() {
+        return queue.size();
+    }
+
+    /**
+     * 停止统计，写入剩余的统计（最后不足一秒的计入当前这一秒）并关闭写入目标
+     */
+    @Override
+    public synchronized void close() {
+        if (collector != null) {
+            collector.shutdownNow();
+            writer.shutdown();
+            try {
+                writer.awaitTermination(5, SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            collector = null;
+            writer = null;
+        }
+        collect(System.currentTimeMillis() / 1000);
+        flush();
+        try {
+            sink.close();
+        } catch (Exception e) {
+            log.warn("Close throttle sink failed", e);
+        }
+    }
+
+    /**
+     * 一个限流器上一次统计时的累计值
+     */
+    private class Counter {
+        private final String name;
+
+        private final PriorityMetrics metrics;
+
+        private long lastGranted;
+
+        private long lastRejected;
+
+        private Counter(String name, PriorityMetrics metrics) {
+            this.name = name;
+            this.metrics = metrics;
+            this.lastGranted = metrics.getGranted();
+            this.lastRejected = metrics.getRejected();
+        }
+
+        /**
+         * 与上一次统计的差值放入队列，没有变化时不产生统计
+         * NOTE: 统计线程和注销限流器的线程可能同时调用
+         */
+        private synchronized void collect(long epochSecond) {
+            long granted = metrics.getGranted();
+            long rejected = metrics.getRejected();
+            if (granted == lastGranted && rejected == lastRejected) {
+                return;
+            }
+            ThrottleRecord record = new ThrottleRecord(node, name, epochSecond,
+                    granted - lastGranted, rejected - lastRejected);
+            lastGranted = granted;
+            lastRejected = rejected;
+            if (!queue.offer(record)) {
+                dropped.increment();
+            }
+        }
+    }
+}
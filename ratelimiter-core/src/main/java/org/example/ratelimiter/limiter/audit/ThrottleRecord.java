@@ -0,0 +1,32 @@
+package org.example.ratelimiter.limiter.audit;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一个限流器在一个节点上一秒内的放行/拒绝次数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ThrottleRecord {
+    /**
+     * 节点名称，多个节点的同一秒需要相加
+     */
+    private String node;
+
+    /**
+     * 限流器名称，即接口名
+     */
+    private String interfaceNo;
+
+    /**
+     * 统计的这一秒，Unix 时间戳（秒）
+     */
+    private long epochSecond;
+
+    private long granted;
+
+    private long rejected;
+}
@@ -0,0 +1,21 @@
+package org.example.ratelimiter.limiter.audit;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 限流统计的写入目标，只在 {@link ThrottleAudit} 的写入线程中调用
+ */
+@FunctionalInterface
+public interface ThrottleSink extends AutoCloseable {
+    /**
+     * 写入一批统计
+     *
+     * @param records 统计，按时间顺序
+     */
+    void write(List<ThrottleRecord> records) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
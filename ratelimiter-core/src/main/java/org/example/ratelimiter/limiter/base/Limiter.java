@@ -0,0 +1,170 @@
+package org.example.ratelimiter.limiter.base;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * 限流器接口
+ *
+ * @author Percy
+ * @date 2024/12/13
+ */
+public interface Limiter {
+    double acquire();
+
+    /**
+     * 获取指定数量令牌，令牌不足时阻塞等待
+     *
+     * @param permits 令牌数
+     * @return 实际等待时间，单位为秒
+     */
+    double acquire(int permits);
+
+    /**
+     * 尝试获取1个令牌，使用限流器预设的最大等待时间
+     *
+     * @return 获取结果
+     */
+    boolean tryAcquire();
+
+    /**
+     * 尝试在超时时间内获取指定数量的令牌，需要等待时阻塞到等待结束
+     *
+     * @param permits 令牌数
+     * @param timeout 允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 获取结果
+     */
+    boolean tryAcquire(long permits, long timeout, TimeUnit unit);
+
+    /**
+     * 异步获取指定数量的令牌，需要等待时在等待结束后完成，不阻塞调用线程
+     * 默认实现在调用线程中同步执行，支持异步的实现应当覆盖
+     *
+     * @param permits 令牌数
+     * @param timeout 允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 获取结果
+     */
+    default CompletableFuture<Boolean> tryAcquireAsync(long permits, long timeout, TimeUnit unit) {
+        return CompletableFuture.completedFuture(tryAcquire(permits, timeout, unit));
+    }
+
+    /**
+     * 把预定结果转换为异步的获取结果：负数立即失败，0 立即成功，否则在等待时间之后成功
+     *
+     * @param waitMicros 需要等待的时间，单位为微秒
+     * @return 获取结果
+     */
+    static CompletableFuture<Boolean> afterWait(long waitMicros) {
+        if (waitMicros < 0) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (waitMicros == 0) {
+            return CompletableFuture.completedFuture(true);
+        }
+        return CompletableFuture.supplyAsync(() -> true, CompletableFuture.delayedExecutor(waitMicros, MICROSECONDS));
+    }
+
+    /**
+     * 休眠指定毫秒数
+     *
+     * @param micros 要休眠的毫秒数
+     */
+    public static void sleepMicrosUninterruptibly(long micros) {
+        if (micros > 0) {
+            sleepUninterruptibly(micros, MICROSECONDS);
+        }
+    }
+
+    /**
+     * 让当前线程休眠指定的时间，即使线程被中断，也会继续完成剩余的休眠时间。
+     * 最终，在休眠结束后，如果线程被中断过，会在 `finally` 块中重置中断状态。
+     *
+     * @param sleepFor 需要休眠的时间
+     * @param unit 时间的单位
+     */
+    public static void sleepUninterruptibly(long sleepFor, TimeUnit unit) {
+        boolean interrupted = false;
+        try {
+            long remainingNanos = unit.toNanos(sleepFor);
+            long end = System.nanoTime() + remainingNanos;
+            while (true) {
+                try {
+                    // TimeUnit.sleep() treats negative timeouts just like zero.
+                    NANOSECONDS.sleep(remainingNanos);
+                    return;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    remainingNanos = end - System.nanoTime();
+                }
+            }
+        } finally {
+            // 不吞掉中断信号，让调用方知道休眠期间被中断过，从而可以正确处理或传播中断
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 挂起指定微秒数
+     *
+     * @param micros 要挂起的微秒数
+     */
+    public static void parkMicrosUninterruptibly(long micros) {
+        if (micros > 0) {
+            parkUninterruptibly(micros, MICROSECONDS);
+        }
+    }
+
+    /**
+     * 以 {@link LockSupport#parkNanos} 挂起当前线程指定的时间，语义同 {@link #sleepUninterruptibly}
+     * 虚拟线程在 park 时会让出载体线程，大量等待令牌的请求不会占满载体线程池
+     *
+     * @param parkFor 需要挂起的时间
+     * @param unit 时间的单位
+     */
+    public static void parkUninterruptibly(long parkFor, TimeUnit unit) {
+        boolean interrupted = false;
+        long remainingNanos = unit.toNanos(parkFor);
+        long end = System.nanoTime() + remainingNanos;
+        // park 可能提前返回（虚假唤醒或中断），需要循环直到时间耗尽
+        while (remainingNanos > 0) {
+            LockSupport.parkNanos(remainingNanos);
+            // 中断标记不清除的话 park 会立即返回，先记录并清除，结束后再恢复
+            if (Thread.interrupted()) {
+                interrupted = true;
+            }
+            remainingNanos = end - System.nanoTime();
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 处理饱和加法
+     * - 该方法实现了一个安全的加法运算。
+     * - 加法若未发生溢出，则直接返回结果（`naiveSum`）。
+     * - 若发生溢出，算法通过符号判断返回：
+     *     - 溢出为正方向时，返回 `Long.MAX_VALUE`。
+     *     - 溢出为负方向时，返回 `Long.MIN_VALUE`
+     * <p>
+     * 暂时使用Guava的@beta(是否有替代函数)
+     */
+    public static long saturatedAdd(long a, long b) {
+        long naiveSum = a + b;
+        if ((a ^ b) < 0 | (a ^ naiveSum) >= 0) {
+            // If a and b have different signs or a has the same sign as the result then there was no
+            // overflow, return.
+            return naiveSum;
+        }
+        // we did over/under flow, if the sign is negative we should return MAX otherwise MIN
+        return Long.MAX_VALUE + ((naiveSum >>> (Long.SIZE - 1)) ^ 1);
+    }
+}
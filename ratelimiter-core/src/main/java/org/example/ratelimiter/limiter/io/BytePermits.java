@@ -0,0 +1,77 @@
+package org.example.ratelimiter.limiter.io;
+
+import org.example.ratelimiter.limiter.base.Limiter;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * 按字节计算的令牌额度
+ * 每次向限流器申请一块令牌作为本地额度，读写时先消耗额度，额度用完再申请下一块，避免每次读写都调用一次限流器。
+ * 块大小自适应：申请时不需要等待说明限流器有余量，块大小翻倍；需要等待说明已达到速率上限，块大小减半，
+ * 从而在速率上限附近保持较小的突发
+ * NOTE: 非线程安全，和流、通道一样由单个线程使用
+ */
+class BytePermits {
+    /**
+     * 默认最小块大小 4KB
+     */
+    static final int DEFAULT_MIN_CHUNK = 4 * 1024;
+
+    /**
+     * 默认最大块大小 64KB
+     */
+    static final int DEFAULT_MAX_CHUNK = 64 * 1024;
+
+    private final Limiter limiter;
+
+    private final int minChunk;
+
+    private final int maxChunk;
+
+    /**
+     * 当前块大小
+     */
+    private int chunk;
+
+    /**
+     * 已申请但还没有消耗的字节数
+     */
+    private long credit;
+
+    BytePermits(Limiter limiter, int minChunk, int maxChunk) {
+        if (minChunk <= 0 || maxChunk < minChunk) {
+            throw new IllegalArgumentException("Invalid chunk size, min: " + minChunk + ", max: " + maxChunk);
+        }
+        this.limiter = limiter;
+        this.minChunk = minChunk;
+        this.maxChunk = maxChunk;
+        this.chunk = minChunk;
+    }
+
+    /**
+     * 为本次读写申请额度，额度不足时向限流器申请并阻塞等待
+     *
+     * @param requested 本次希望读写的字节数
+     * @return 本次允许读写的字节数，大于 0 且不超过 requested
+     */
+    int claim(int requested) {
+        if (credit <= 0) {
+            double waitSeconds = limiter.acquire(chunk);
+            credit += chunk;
+            chunk = waitSeconds > 0 ? max(chunk >> 1, minChunk) : min(chunk << 1, maxChunk);
+        }
+        return (int) min(requested, credit);
+    }
+
+    /**
+     * 记录实际读写的字节数
+     *
+     * @param bytes 实际读写的字节数
+     */
+    void consume(int bytes) {
+        if (bytes > 0) {
+            credit -= bytes;
+        }
+    }
+}
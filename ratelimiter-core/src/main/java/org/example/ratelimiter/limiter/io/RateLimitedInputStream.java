@@ -0,0 +1,64 @@
+package org.example.ratelimiter.limiter.io;
+
+import org.example.ratelimiter.limiter.base.Limiter;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 按字节限速的输入流，每读取或跳过一个字节消耗一个令牌
+ * {@link #transferTo} 使用默认实现，经过本类的 read 方法，同样受到限速；{@link #skipNBytes} 经过本类的 skip 方法
+ */
+public class RateLimitedInputStream extends FilterInputStream {
+    private final BytePermits permits;
+
+    public RateLimitedInputStream(InputStream in, Limiter limiter) {
+        this(in, limiter, BytePermits.DEFAULT_MIN_CHUNK, BytePermits.DEFAULT_MAX_CHUNK);
+    }
+
+    /**
+     * @param in 被限速的输入流
+     * @param limiter 限流器，每个令牌代表一个字节
+     * @param minChunk 单次向限流器申请的最小字节数
+     * @param maxChunk 单次向限流器申请的最大字节数，决定最大突发
+     */
+    public RateLimitedInputStream(InputStream in, Limiter limiter, int minChunk, int maxChunk) {
+        super(in);
+        this.permits = new BytePermits(limiter, minChunk, maxChunk);
+    }
+
+    @Override
+    public int read() throws IOException {
+        permits.claim(1);
+        int b = in.read();
+        if (b >= 0) {
+            permits.consume(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        int n = in.read(b, off, permits.claim(len));
+        permits.consume(n);
+        return n;
+    }
+
+    /**
+     * 跳过的字节同样需要令牌，否则可以用 skip 绕过限速；
+     * 单次最多跳过一块额度，按实际跳过的字节数消耗
+     */
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return in.skip(n);
+        }
+        long skipped = in.skip(permits.claim((int) Math.min(n, Integer.MAX_VALUE)));
+        permits.consume((int) skipped);
+        return skipped;
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.ratelimiter.limiter.io;
+
+import org.example.ratelimiter.limiter.base.Limiter;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 按字节限速的输出流，每写出一个字节消耗一个令牌
+ */
+public class RateLimitedOutputStream extends FilterOutputStream {
+    private final BytePermits permits;
+
+    public RateLimitedOutputStream(OutputStream out, Limiter limiter) {
+        this(out, limiter, BytePermits.DEFAULT_MIN_CHUNK, BytePermits.DEFAULT_MAX_CHUNK);
+    }
+
+    /**
+     * @param out 被限速的输出流
+     * @param limiter 限流器，每个令牌代表一个字节
+     * @param minChunk 单次向限流器申请的最小字节数
+     * @param maxChunk 单次向限流器申请的最大字节数，决定最大突发
+     */
+    public RateLimitedOutputStream(OutputStream out, Limiter limiter, int minChunk, int maxChunk) {
+        super(out);
+        this.permits = new BytePermits(limiter, minChunk, maxChunk);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        permits.claim(1);
+        out.write(b);
+        permits.consume(1);
+    }
+
+    /**
+     * FilterOutputStream 默认逐字节写出，这里按额度分段直接写到下层流
+     */
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = permits.claim(len);
+            out.write(b, off, n);
+            permits.consume(n);
+            off += n;
+            len -= n;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.ratelimiter.limiter.io;
+
+import org.example.ratelimiter.limiter.base.Limiter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+
+/**
+ * 按字节限速的可读通道
+ * 通过临时调整目标缓冲区的 limit 控制单次读取的字节数，直接读入调用方的缓冲区（包括直接内存），不做额外复制
+ */
+public class RateLimitedReadableByteChannel implements ReadableByteChannel {
+    private final ReadableByteChannel channel;
+
+    private final BytePermits permits;
+
+    public RateLimitedReadableByteChannel(ReadableByteChannel channel, Limiter limiter) {
+        this(channel, limiter, BytePermits.DEFAULT_MIN_CHUNK, BytePermits.DEFAULT_MAX_CHUNK);
+    }
+
+    /**
+     * @param channel 被限速的通道
+     * @param limiter 限流器，每个令牌代表一个字节
+     * @param minChunk 单次向限流器申请的最小字节数
+     * @param maxChunk 单次向限流器申请的最大字节数，决定最大突发
+     */
+    public RateLimitedReadableByteChannel(ReadableByteChannel channel, Limiter limiter, int minChunk, int maxChunk) {
+        this.channel = channel;
+        this.permits = new BytePermits(limiter, minChunk, maxChunk);
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int remaining = dst.remaining();
+        if (remaining == 0) {
+            return 0;
+        }
+        int allowed = permits.claim(remaining);
+        int limit = dst.limit();
+        dst.limit(dst.position() + allowed);
+        try {
+            int n = channel.read(dst);
+            permits.consume(n);
+            return n;
+        } finally {
+            dst.limit(limit);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.ratelimiter.limiter.io;
+
+import org.example.ratelimiter.limiter.base.Limiter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * 按字节限速的可写通道
+ * 通过临时调整源缓冲区的 limit 控制单次写出的字节数，直接从调用方的缓冲区（包括直接内存）写出，不做额外复制；
+ * 可以作为 {@link java.nio.channels.FileChannel#transferTo} 的目标通道
+ */
+public class RateLimitedWritableByteChannel implements WritableByteChannel {
+    private final WritableByteChannel channel;
+
+    private final BytePermits permits;
+
+    public RateLimitedWritableByteChannel(WritableByteChannel channel, Limiter limiter) {
+        this(channel, limiter, BytePermits.DEFAULT_MIN_CHUNK, BytePermits.DEFAULT_MAX_CHUNK);
+    }
+
+    /**
+     * @param channel 被限速的通道
+     * @param limiter 限流器，每个令牌代表一个字节
+     * @param minChunk 单次向限流器申请的最小字节数
+     * @param maxChunk 单次向限流器申请的最大字节数，决定最大突发
+     */
+    public RateLimitedWritableByteChannel(WritableByteChannel channel, Limiter limiter, int minChunk, int maxChunk) {
+        this.channel = channel;
+        this.permits = new BytePermits(limiter, minChunk, maxChunk);
+    }
+
+    /**
+     * 与阻塞通道的约定一致，写完全部剩余字节才返回；非阻塞通道可能只写出一部分
+     */
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+        int written = 0;
+        while (src.hasRemaining()) {
+            int allowed = permits.claim(src.remaining());
+            int limit = src.limit();
+            src.limit(src.position() + allowed);
+            int n;
+            try {
+                n = channel.write(src);
+                permits.consume(n);
+            } finally {
+                src.limit(limit);
+            }
+            written += n;
+            if (n < allowed) {
+                // 下层通道暂时写不进去（非阻塞模式），剩余额度留到下次
+                break;
+            }
+        }
+        return written;
+    }
+
+    @Override
+    public boolean isOpen() {
+        return channel.isOpen();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.ratelimiter.limiter.local;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Supplier;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 本地令牌桶状态快照
+ * 定期把进程内令牌桶的状态写入本地文件，进程重启后在接收流量前恢复，避免所有节点重启后同时从新桶开始放行。
+ * <p>
+ * 快照先写临时文件再原子替换，任意时刻崩溃都会留下一个完整的快照；每次写入使用单独的临时文件，
+ * 定期快照和关闭时的最后一次快照不会写同一个文件；
+ * 写快照时逐个桶短暂加锁读取两个字段，不会暂停获取令牌的主流程。
+ * 文件格式：4 字节魔数 + 4 字节条目数 + 8 字节快照时间（微秒），
+ * 每个条目为 2 字节名称长度 + UTF-8 名称 + 每秒令牌数 + 最大令牌数 + 存储令牌数 + 下一次可以获取令牌的时间（均为 8 字节）；
+ * 名称超过 65535 字节的限流器不写入快照。
+ * <p>
+ * 只覆盖 {@link LocalRateLimiter}（令牌服务中的桶）；PartitionedRateLimiter 的本地分片和 RemoteRateLimiter 的本地降级桶
+ * 不写入快照，重启后按当前份额从新桶开始
+ */
+@Slf4j
+public class BucketSnapshotter implements AutoCloseable {
+    private static final int MAGIC = 0x524C5331;
+
+    /**
+     * 名称长度以 2 字节无符号数存储
+     */
+    static final int MAX_NAME_BYTES = 0xFFFF;
+
+    /**
+     * 关闭时等待正在写的快照的最长时间
+     */
+    private static final long CLOSE_TIMEOUT_SECONDS = 10L;
+
+    private final Path path;
+
+    private final Supplier<? extends Iterable<LocalRateLimiter>> limiters;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * 快照恢复时按名称和参数创建（或取出）限流器
+     */
+    @FunctionalInterface
+    public interface LimiterCreator {
+        LocalRateLimiter create(String name, long permitsPerSecond, long maxPermits);
+
+        /**
+         * 恢复前告知快照中的限流器个数，便于一次分配好容量
+         *
+         * @param count 限流器个数
+         */
+        default void expect(int count) {
+        }
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param path 快照文件
+     * @param limiters 需要快照的限流器
+     */
+    public BucketSnapshotter(Path path, Supplier<? extends Iterable<LocalRateLimiter>> limiters) {
+        this.path = path;
+        this.limiters = limiters;
+    }
+
+    private static long nowEpochMicros() {
+        Instant now = Instant.now();
+        return SECONDS.toMicros(now.getEpochSecond()) + now.getNano() / 1000;
+    }
+
+    /**
+     * 从快照文件恢复，文件不存在时直接返回
+     *
+     * @param creator 按快照中的名称和参数创建限流器
+     * @return 恢复的限流器个数
+     */
+    public int restore(LimiterCreator creator) {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(path)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                log.warn("Ignore invalid bucket snapshot: {}", path);
+                return 0;
+            }
+            int count = buffer.getInt();
+            long snapshotMicros = buffer.getLong();
+            creator.expect(count);
+            long nowEpochMicros = nowEpochMicros();
+            byte[] nameBytes = new byte[MAX_NAME_BYTES];
+            for (int i = 0; i < count; i++) {
+                int nameLength = buffer.getShort() & 0xFFFF;
+                buffer.get(nameBytes, 0, nameLength);
+                String name = new String(nameBytes, 0, nameLength, StandardCharsets.UTF_8);
+                LocalRateLimiter limiter = creator.create(name, buffer.getLong(), buffer.getLong());
+                limiter.restore(buffer.getLong(), buffer.getLong(), nowEpochMicros);
+            }
+            log.info("Restore {} buckets from snapshot {} taken {}ms ago in {}ms", count, path,
+                    MILLISECONDS.convert(nowEpochMicros - snapshotMicros, MICROSECONDS),
+                    MILLISECONDS.convert(System.nanoTime() - start, NANOSECONDS));
+            return count;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Restore bucket snapshot failed: " + path, e);
+        }
+    }
+
+    /**
+     * 写一次快照
+     *
+     * @return 写入的限流器个数
+     */
+    public int write() {
+        Path tmp;
+        try {
+            tmp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write bucket snapshot failed: " + path, e);
+        }
+        try {
+            return write(tmp);
+        } finally {
+            // 成功时已经移动，失败（包括关闭时被中断）时删除不完整的临时文件
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+                log.warn("Delete bucket snapshot tmp file {} failed", tmp, e);
+            }
+        }
+    }
+
+    private int write(Path tmp) {
+        long nowEpochMicros = nowEpochMicros();
+        int count = 0;
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 1 << 16))) {
+            // 条目数最后回填
+            out.writeInt(MAGIC);
+            out.writeInt(0);
+            out.writeLong(nowEpochMicros);
+            for (LocalRateLimiter limiter : limiters.get()) {
+                long[] state = limiter.snapshot(nowEpochMicros);
+                byte[] nameBytes = limiter.getName().getBytes(StandardCharsets.UTF_8);
+                if (nameBytes.length > MAX_NAME_BYTES) {
+                    // writeShort 只写低 16 位，继续写入会让之后的条目全部错位
+                    log.warn("Skip bucket snapshot of limiter with {} bytes name, max {}", nameBytes.length, MAX_NAME_BYTES);
+                    continue;
+                }
+                out.writeShort(nameBytes.length);
+                out.write(nameBytes);
+                out.writeLong(limiter.getPermitsPerSecond());
+                out.writeLong(limiter.getMaxPermits());
+                out.writeLong(state[0]);
+                out.writeLong(state[1]);
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write bucket snapshot failed: " + tmp, e);
+        }
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, count), 4);
+            channel.force(false);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Write bucket snapshot failed: " + path, e);
+        }
+        return count;
+    }
+
+    /**
+     * 开始定期写快照
+     *
+     * @param periodMillis 快照间隔，单位为毫秒
+     */
+    public synchronized void start(long periodMillis) {
+        if (scheduler != null) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ratelimiter-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                write();
+            } catch (RuntimeException e) {
+                log.warn("Write bucket snapshot failed: {}", path, e);
+            }
+        }, periodMillis, periodMillis, MILLISECONDS);
+    }
+
+    /**
+     * 停止定期快照，等待正在写的快照完成后写入最后一次快照
+     */
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                if (!scheduler.awaitTermination(CLOSE_TIMEOUT_SECONDS, SECONDS)) {
+                    log.warn("Bucket snapshot still running after {}s, interrupt it", CLOSE_TIMEOUT_SECONDS);
+                    scheduler.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                scheduler.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+            scheduler = null;
+        }
+        write();
+    }
+}
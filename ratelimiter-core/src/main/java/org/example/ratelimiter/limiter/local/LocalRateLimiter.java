@@ -0,0 +1,203 @@
+package org.example.ratelimiter.limiter.local;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 进程内令牌桶限流器
+ * 与 {@link org.example.ratelimiter.limiter.ratelimiter.RateLimiter} 的令牌同步、透支和超时规则一致，
+ * 只是桶的状态保存在内存中，用于令牌服务端的计算引擎以及客户端在服务端不可用时的本地兜底
+ */
+@Slf4j
+@Getter
+public class LocalRateLimiter implements Limiter {
+    /**
+     * 唯一标识
+     */
+    private final String name;
+
+    /**
+     * 每秒存入的令牌数
+     */
+    private final long permitsPerSecond;
+
+    /**
+     * 最大存储令牌数
+     */
+    private final long maxPermits;
+
+    /**
+     * 令牌生成间隔，单位为微秒
+     */
+    private final long intervalMicros;
+
+    /**
+     * 预设允许的最大等待时间，单位为微秒
+     */
+    private final long timeoutMicros;
+
+    /**
+     * 计时起点，桶内时间都是相对该时间点的微秒数
+     */
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * 当前存储令牌数
+     */
+    private long storedPermits = 1L;
+
+    /**
+     * 下一次请求可以获取令牌的时间点
+     */
+    private long nextFreeTicketMicros;
+
+    public LocalRateLimiter(RateLimiterConfig config) {
+        this(config.getName(), config.getPermitsPerSecond(), config.getMaxPermits(), config.getCache());
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param name 限流器名称
+     * @param permitsPerSecond 每秒存入的令牌数
+     * @param maxPermits 最大存储令牌数
+     * @param cache 缓存比例
+     */
+    public LocalRateLimiter(String name, long permitsPerSecond, long maxPermits, float cache) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond == 0L ? 1000L : permitsPerSecond;
+        this.maxPermits = maxPermits;
+        this.intervalMicros = max(SECONDS.toMicros(1) / this.permitsPerSecond, 1L);
+        this.timeoutMicros = (long) (cache * this.permitsPerSecond * intervalMicros);
+        // 令牌服务中可能有大量限流器，创建日志只在 debug 级别输出
+        log.debug("Creat localRateLimiter: {}, maxPermits: {}, permitsPerSecond: {}, intervalMicros:{}, timeoutMicros: {}",
+                name, maxPermits, this.permitsPerSecond, intervalMicros, timeoutMicros);
+    }
+
+    /**
+     * 当前时间，相对计时起点的微秒数
+     */
+    private long nowMicros() {
+        return NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 预定令牌，返回需要等待的时间
+     *
+     * @param permits 请求的令牌数
+     * @param timeoutMicros 允许的最大等待时间，单位为微秒，小于 0 表示不限制
+     * @return 需要等待的时间，单位为微秒；超时时间内无法获取时返回 -1 且不做扣减
+     */
+    public long reserve(long permits, long timeoutMicros) {
+        checkPermits(permits);
+        long nowMicros = nowMicros();
+        synchronized (this) {
+            reSync(nowMicros);
+            long spend = min(permits, storedPermits);
+            long waitMicros = (permits - spend) * intervalMicros;
+            if (timeoutMicros >= 0 && nextFreeTicketMicros + waitMicros - timeoutMicros > nowMicros) {
+                return -1L;
+            }
+            nextFreeTicketMicros = Limiter.saturatedAdd(nextFreeTicketMicros, waitMicros);
+            storedPermits -= spend;
+            return max(nextFreeTicketMicros - nowMicros, 0L);
+        }
+    }
+
+    /**
+     * 按当前时间补充令牌，规则与 {@link org.example.ratelimiter.limiter.ratelimiter.PermitBucket#reSync(long)} 相同
+     */
+    private void reSync(long nowMicros) {
+        if (nowMicros > nextFreeTicketMicros) {
+            long newPermits = (nowMicros - nextFreeTicketMicros) / intervalMicros;
+            storedPermits = min(maxPermits, storedPermits + newPermits);
+            if (newPermits > 0) {
+                nextFreeTicketMicros = nowMicros;
+            }
+        }
+    }
+
+    /**
+     * 导出当前状态，时间换算为墙上时间，便于在进程重启后恢复
+     *
+     * @param nowEpochMicros 当前墙上时间，单位为微秒
+     * @return 状态 [storedPermits, nextFreeTicketEpochMicros]
+     */
+    public long[] snapshot(long nowEpochMicros) {
+        long nowMicros = nowMicros();
+        synchronized (this) {
+            return new long[]{storedPermits, nowEpochMicros - (nowMicros - nextFreeTicketMicros)};
+        }
+    }
+
+    /**
+     * 从快照恢复状态，快照之后经过的时间在下一次获取令牌时按正常规则补充令牌
+     *
+     * @param storedPermits 快照中的存储令牌数
+     * @param nextFreeTicketEpochMicros 快照中下一次可以获取令牌的时间点（墙上时间，微秒）
+     * @param nowEpochMicros 当前墙上时间，单位为微秒
+     */
+    public void restore(long storedPermits, long nextFreeTicketEpochMicros, long nowEpochMicros) {
+        long nowMicros = nowMicros();
+        synchronized (this) {
+            this.storedPermits = min(storedPermits, maxPermits);
+            this.nextFreeTicketMicros = nowMicros - (nowEpochMicros - nextFreeTicketEpochMicros);
+        }
+    }
+
+    @Override
+    public double acquire() {
+        return acquire(1);
+    }
+
+    @Override
+    public double acquire(int permits) {
+        long microsToWait = reserve(permits, -1L);
+        Limiter.parkMicrosUninterruptibly(microsToWait);
+        return 1.0 * microsToWait / SECONDS.toMicros(1L);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return tryAcquire(1, timeoutMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * 尝试在超时时间内获取指定数量的令牌
+     *
+     * @param permits 获取的令牌数
+     * @param timeout 获取这些令牌允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 获取结果
+     */
+    @Override
+    public boolean tryAcquire(long permits, long timeout, TimeUnit unit) {
+        long waitMicros = reserve(permits, max(unit.toMicros(timeout), 0L));
+        if (waitMicros < 0) {
+            return false;
+        }
+        Limiter.parkMicrosUninterruptibly(waitMicros);
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryAcquireAsync(long permits, long timeout, TimeUnit unit) {
+        return Limiter.afterWait(reserve(permits, max(unit.toMicros(timeout), 0L)));
+    }
+
+    private void checkPermits(long permits) {
+        if (permits < 0) {
+            throw new IllegalArgumentException("Request/Put permits " + permits + " must be positive");
+        }
+    }
+}
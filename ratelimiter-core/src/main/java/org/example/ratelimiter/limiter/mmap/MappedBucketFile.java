@@ -0,0 +1,229 @@
+package org.example.ratelimiter.limiter.mmap;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 内存映射的令牌桶文件
+ * 同一台机器上的多个进程映射同一个文件，通过 {@link VarHandle} 在映射内存上做 CAS，共享同一组令牌桶。
+ * <p>
+ * 文件布局：64 字节文件头 + 固定数量、每个 128 字节的槽位，槽位按名称哈希开放寻址，同时作为 名称 -> 槽位 的索引
+ * <pre>
+ * 槽位  0: 控制字，低 2 位为状态（空闲/初始化中/就绪），其余位为初始化进程的 pid
+ *       8: 令牌桶状态，虚拟时间（微秒，桶内令牌恰好为 0 的时间点），见 {@link MappedRateLimiter}
+ *      16: 令牌生成间隔（微秒）
+ *      24: 最大存储令牌数
+ *      32: 预设允许的最大等待时间（微秒）
+ *      40: 名称长度，44 起为 UTF-8 名称
+ * </pre>
+ * 令牌桶状态只有一个 long，每次更新都是一次完整的 CAS，进程在任意时刻崩溃都不会留下不一致的桶；
+ * 槽位初始化期间崩溃时，其他进程发现初始化进程已不存在后会接管该槽位
+ */
+@Slf4j
+public class MappedBucketFile implements AutoCloseable {
+    private static final int MAGIC = 0x524C4D46;
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    static final int SLOT_SIZE = 128;
+    private static final int NAME_OFFSET = 44;
+    private static final int MAX_NAME_LENGTH = SLOT_SIZE - NAME_OFFSET;
+
+    static final int CONTROL_OFFSET = 0;
+    static final int STATE_OFFSET = 8;
+    static final int INTERVAL_OFFSET = 16;
+    static final int MAX_PERMITS_OFFSET = 24;
+    static final int TIMEOUT_OFFSET = 32;
+    private static final int NAME_LENGTH_OFFSET = 40;
+
+    private static final long FREE = 0L;
+    private static final long INITIALIZING = 1L;
+    private static final long READY = 2L;
+    private static final long STATUS_MASK = 3L;
+
+    static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final FileChannel channel;
+
+    @Getter
+    private final MappedByteBuffer buffer;
+
+    @Getter
+    private final int slotCount;
+
+    @Getter
+    private final Path path;
+
+    private final long pid = ProcessHandle.current().pid();
+
+    private MappedBucketFile(Path path, FileChannel channel, MappedByteBuffer buffer, int slotCount) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.slotCount = slotCount;
+    }
+
+    /**
+     * 打开或创建令牌桶文件
+     * 文件已存在时使用文件头中的槽位数，忽略参数
+     *
+     * @param path 文件路径
+     * @param slotCount 新建文件的槽位数
+     * @return 映射后的文件
+     */
+    public static MappedBucketFile open(Path path, int slotCount) {
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            // 文件锁只保护创建文件头，令牌桶的读写不加锁
+            try (FileLock ignored = channel.lock()) {
+                if (channel.size() < HEADER_SIZE) {
+                    long size = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+                    MappedByteBuffer init = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                    init.order(ByteOrder.nativeOrder());
+                    init.putInt(4, VERSION);
+                    init.putInt(8, slotCount);
+                    init.putInt(12, SLOT_SIZE);
+                    // 魔数最后写入，作为文件头完整的标记
+                    init.putInt(0, MAGIC);
+                    init.force();
+                    log.info("Create mapped bucket file: {}, slots: {}", path, slotCount);
+                }
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+                header.order(ByteOrder.nativeOrder());
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION || header.getInt(12) != SLOT_SIZE) {
+                    throw new IllegalStateException("Incompatible mapped bucket file: " + path);
+                }
+                int slots = header.getInt(8);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE + (long) slots * SLOT_SIZE);
+                buffer.order(ByteOrder.nativeOrder());
+                return new MappedBucketFile(path, channel, buffer, slots);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Open mapped bucket file failed: " + path, e);
+        }
+    }
+
+    /**
+     * 槽位在文件中的偏移
+     */
+    static int offset(int slot) {
+        return HEADER_SIZE + slot * SLOT_SIZE;
+    }
+
+    /**
+     * 按名称查找槽位，不存在时占用一个空闲槽位并按参数初始化
+     * 名称已存在时沿用文件中的参数，保证所有进程使用同一套参数
+     *
+     * @param name 限流器名称
+     * @param intervalMicros 令牌生成间隔，单位为微秒
+     * @param maxPermits 最大存储令牌数
+     * @param timeoutMicros 预设允许的最大等待时间，单位为微秒
+     * @param nowMicros 当前时间，单位为微秒
+     * @return 槽位
+     */
+    public int getOrCreate(String name, long intervalMicros, long maxPermits, long timeoutMicros, long nowMicros) {
+        byte[] nameBytes = encode(name);
+        int start = Math.floorMod(name.hashCode(), slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            int slot = (start + i) % slotCount;
+            int base = offset(slot);
+            while (true) {
+                long control = (long) LONGS.getVolatile(buffer, base + CONTROL_OFFSET);
+                long status = control & STATUS_MASK;
+                if (status == READY) {
+                    if (nameEquals(base, nameBytes)) {
+                        return slot;
+                    }
+                    break;
+                }
+                if (status == INITIALIZING && isAlive(control >>> 2)) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                // 空闲，或初始化进程已崩溃，尝试占用
+                long claimed = (pid << 2) | INITIALIZING;
+                if (LONGS.compareAndSet(buffer, base + CONTROL_OFFSET, control, claimed)) {
+                    buffer.putLong(base + INTERVAL_OFFSET, intervalMicros);
+                    buffer.putLong(base + MAX_PERMITS_OFFSET, maxPermits);
+                    buffer.putLong(base + TIMEOUT_OFFSET, timeoutMicros);
+                    buffer.putInt(base + NAME_LENGTH_OFFSET, nameBytes.length);
+                    buffer.put(base + NAME_OFFSET, nameBytes);
+                    // 初始状态与 Redis 桶一致：存有 1 个令牌
+                    LONGS.setVolatile(buffer, base + STATE_OFFSET, nowMicros - intervalMicros);
+                    LONGS.setVolatile(buffer, base + CONTROL_OFFSET, (pid << 2) | READY);
+                    log.info("Create mapped rateLimiter: {}, slot: {}, intervalMicros: {}, maxPermits: {}",
+                            name, slot, intervalMicros, maxPermits);
+                    return slot;
+                }
+            }
+        }
+        throw new IllegalStateException("Mapped bucket file is full: " + path + ", slots: " + slotCount);
+    }
+
+    /**
+     * 按名称查找已存在的槽位
+     *
+     * @param name 限流器名称
+     * @return 槽位，不存在时为 -1
+     */
+    public int find(String name) {
+        byte[] nameBytes = encode(name);
+        int start = Math.floorMod(name.hashCode(), slotCount);
+        for (int i = 0; i < slotCount; i++) {
+            int slot = (start + i) % slotCount;
+            int base = offset(slot);
+            long status = (long) LONGS.getVolatile(buffer, base + CONTROL_OFFSET) & STATUS_MASK;
+            if (status == FREE) {
+                return -1;
+            }
+            if (status == READY && nameEquals(base, nameBytes)) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private boolean nameEquals(int base, byte[] nameBytes) {
+        if (buffer.getInt(base + NAME_LENGTH_OFFSET) != nameBytes.length) {
+            return false;
+        }
+        byte[] stored = new byte[nameBytes.length];
+        buffer.get(base + NAME_OFFSET, stored);
+        return Arrays.equals(stored, nameBytes);
+    }
+
+    private static byte[] encode(String name) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException("Limiter name longer than " + MAX_NAME_LENGTH + " bytes: " + name);
+        }
+        return nameBytes;
+    }
+
+    private boolean isAlive(long ownerPid) {
+        return ownerPid == pid || ProcessHandle.of(ownerPid).map(ProcessHandle::isAlive).orElse(false);
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            log.warn("Close mapped bucket file failed: {}", path, e);
+        }
+    }
+}
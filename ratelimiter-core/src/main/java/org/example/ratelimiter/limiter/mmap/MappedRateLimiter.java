@@ -0,0 +1,176 @@
+package org.example.ratelimiter.limiter.mmap;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+
+import java.nio.MappedByteBuffer;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.example.ratelimiter.limiter.mmap.MappedBucketFile.INTERVAL_OFFSET;
+import static org.example.ratelimiter.limiter.mmap.MappedBucketFile.LONGS;
+import static org.example.ratelimiter.limiter.mmap.MappedBucketFile.MAX_PERMITS_OFFSET;
+import static org.example.ratelimiter.limiter.mmap.MappedBucketFile.STATE_OFFSET;
+import static org.example.ratelimiter.limiter.mmap.MappedBucketFile.TIMEOUT_OFFSET;
+
+/**
+ * 基于内存映射文件的单机跨进程限流器
+ * 同一台机器上的所有进程共享同一个令牌桶，一次获取只是一次 CAS，不经过网络。
+ * <p>
+ * 令牌桶 (storedPermits, nextFreeTicketMicros) 折算为一个虚拟时间 V = nextFree - stored * interval，
+ * 即桶内令牌恰好为 0 的时间点：同步令牌相当于 V = max(V, now - maxPermits * interval)，
+ * 预定 n 个令牌相当于 V += n * interval，需要等待的时间为 max(V - now, 0)，
+ * 与 Redis 桶的同步、透支和超时规则一致，但状态只有一个 long，可以用一次 CAS 原子更新
+ */
+@Getter
+public class MappedRateLimiter implements Limiter {
+    /**
+     * 唯一标识
+     */
+    private final String name;
+
+    @Getter(AccessLevel.NONE)
+    private final MappedByteBuffer buffer;
+
+    /**
+     * 槽位在文件中的偏移
+     */
+    @Getter(AccessLevel.NONE)
+    private final int base;
+
+    private MappedRateLimiter(MappedBucketFile file, int slot, String name) {
+        this.name = name;
+        this.buffer = file.getBuffer();
+        this.base = MappedBucketFile.offset(slot);
+    }
+
+    /**
+     * 按配置获取限流器，文件中不存在时按配置创建
+     * 参数推导规则与 {@link org.example.ratelimiter.limiter.ratelimiter.RateLimiter} 相同
+     *
+     * @param file 令牌桶文件
+     * @param config 限流器配置
+     * @return 限流器
+     */
+    public static MappedRateLimiter getOrCreate(MappedBucketFile file, RateLimiterConfig config) {
+        long permitsPerSecond = config.getPermitsPerSecond() == 0L ? 1000L : config.getPermitsPerSecond();
+        long intervalMicros = max(SECONDS.toMicros(1) / permitsPerSecond, 1L);
+        long timeoutMicros = (long) (config.getCache() * permitsPerSecond * intervalMicros);
+        int slot = file.getOrCreate(config.getName(), intervalMicros, config.getMaxPermits(), timeoutMicros, nowMicros());
+        return new MappedRateLimiter(file, slot, config.getName());
+    }
+
+    /**
+     * 按名称获取其他进程已经创建的限流器
+     *
+     * @param file 令牌桶文件
+     * @param name 限流器名称
+     * @return 限流器，不存在时为 null
+     */
+    public static MappedRateLimiter find(MappedBucketFile file, String name) {
+        int slot = file.find(name);
+        return slot < 0 ? null : new MappedRateLimiter(file, slot, name);
+    }
+
+    /**
+     * 当前时间，单位为微秒
+     * 不同进程的 nanoTime 没有可比性，这里使用墙上时间
+     */
+    private static long nowMicros() {
+        Instant now = Instant.now();
+        return SECONDS.toMicros(now.getEpochSecond()) + now.getNano() / 1000;
+    }
+
+    /**
+     * 令牌生成间隔，以文件中的参数为准
+     */
+    public long getIntervalMicros() {
+        return buffer.getLong(base + INTERVAL_OFFSET);
+    }
+
+    /**
+     * 预设允许的最大等待时间，以文件中的参数为准
+     */
+    public long getTimeoutMicros() {
+        return buffer.getLong(base + TIMEOUT_OFFSET);
+    }
+
+    /**
+     * 最大存储令牌数，以文件中的参数为准
+     */
+    public long getMaxPermits() {
+        return buffer.getLong(base + MAX_PERMITS_OFFSET);
+    }
+
+    /**
+     * 预定令牌，返回需要等待的时间
+     *
+     * @param permits 请求的令牌数
+     * @param timeoutMicros 允许的最大等待时间，单位为微秒，小于 0 表示不限制
+     * @return 需要等待的时间，单位为微秒；超时时间内无法获取时返回 -1 且不做扣减
+     */
+    public long reserve(long permits, long timeoutMicros) {
+        if (permits < 0) {
+            throw new IllegalArgumentException("Request/Put permits " + permits + " must be positive");
+        }
+        long intervalMicros = getIntervalMicros();
+        long burstMicros = getMaxPermits() * intervalMicros;
+        while (true) {
+            long nowMicros = nowMicros();
+            long current = (long) LONGS.getVolatile(buffer, base + STATE_OFFSET);
+            long next = max(current, nowMicros - burstMicros) + permits * intervalMicros;
+            long waitMicros = max(next - nowMicros, 0L);
+            if (timeoutMicros >= 0 && waitMicros > timeoutMicros) {
+                return -1L;
+            }
+            if (LONGS.compareAndSet(buffer, base + STATE_OFFSET, current, next)) {
+                return waitMicros;
+            }
+        }
+    }
+
+    @Override
+    public double acquire() {
+        return acquire(1);
+    }
+
+    @Override
+    public double acquire(int permits) {
+        long microsToWait = reserve(permits, -1L);
+        Limiter.parkMicrosUninterruptibly(microsToWait);
+        return 1.0 * microsToWait / SECONDS.toMicros(1L);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return tryAcquire(1, getTimeoutMicros(), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * 尝试在超时时间内获取指定数量的令牌
+     *
+     * @param permits 获取的令牌数
+     * @param timeout 获取这些令牌允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 获取结果
+     */
+    @Override
+    public boolean tryAcquire(long permits, long timeout, TimeUnit unit) {
+        long waitMicros = reserve(permits, max(unit.toMicros(timeout), 0L));
+        if (waitMicros < 0) {
+            return false;
+        }
+        Limiter.parkMicrosUninterruptibly(waitMicros);
+        return true;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryAcquireAsync(long permits, long timeout, TimeUnit unit) {
+        return Limiter.afterWait(reserve(permits, max(unit.toMicros(timeout), 0L)));
+    }
+}
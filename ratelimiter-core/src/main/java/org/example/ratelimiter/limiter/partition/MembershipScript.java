@@ -0,0 +1,51 @@
+package org.example.ratelimiter.limiter.partition;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * 成员注册 Lua 脚本
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class MembershipScript {
+    /**
+     * 写入本节点的心跳，清理心跳已过期的成员，返回存活成员及其需求速率
+     * 过期时间以 Redis 服务端的时间计算，不受各节点时钟偏差的影响
+     * KEYS[1] 成员索引（zset，分数为过期时间） KEYS[2] 成员的需求速率（hash，字段为节点标识）
+     * ARGV[1] 节点标识 ARGV[2] 需求速率 ARGV[3] 心跳有效期（毫秒）
+     */
+    public static final String HEARTBEAT = """
+            local ttl = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            redis.call('ZADD', KEYS[1], now + ttl, ARGV[1])
+            redis.call('HSET', KEYS[2], ARGV[1], ARGV[2])
+            for _, member in ipairs(redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', now)) do
+                redis.call('HDEL', KEYS[2], member)
+            end
+            redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now)
+            redis.call('PEXPIRE', KEYS[1], ttl)
+            redis.call('PEXPIRE', KEYS[2], ttl)
+            local result = {}
+            for _, member in ipairs(redis.call('ZRANGE', KEYS[1], 0, -1)) do
+                local demand = redis.call('HGET', KEYS[2], member)
+                if demand then
+                    table.insert(result, member)
+                    table.insert(result, demand)
+                else
+                    redis.call('ZREM', KEYS[1], member)
+                end
+            end
+            return result
+            """;
+
+    /**
+     * 节点退出时立即注销
+     * KEYS[1] 成员索引 KEYS[2] 成员的需求速率 ARGV[1] 节点标识
+     */
+    public static final String LEAVE = """
+            redis.call('HDEL', KEYS[2], ARGV[1])
+            redis.call('ZREM', KEYS[1], ARGV[1])
+            return 1
+            """;
+}
@@ -0,0 +1,271 @@
+package org.example.ratelimiter.limiter.partition;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.common.redis.key.common.MemberKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.example.ratelimiter.utils.FairShareUtils;
+import org.redisson.api.RScript;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * 按节点划分速率的限流器
+ * 每个节点分到限流器 permitsPerSecond 的一部分（slice），在进程内的令牌桶中扣减，获取令牌时不访问 Redis；
+ * 各节点只按心跳周期在 Redis 中注册自己（带有效期的心跳 key，值为本节点最近的需求速率），
+ * 并按所有存活节点的需求速率做最大最小公平划分，见 {@link FairShareUtils#allocate}。
+ * Redis 的访问量只与节点数和心跳周期相关，与请求量无关。
+ * <p>
+ * 节点加入后，其他节点在下一次心跳时重新划分；节点正常退出时立即注销，异常退出的节点在心跳有效期之后被清理。
+ * 各节点看到的成员不一致时总速率可能短暂超出，不超过一个心跳有效期；Redis 不可用时继续使用上一次的划分
+ */
+@Slf4j
+public class PartitionedRateLimiter implements Limiter, AutoCloseable {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ratelimiter-membership");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 心跳有效期为心跳周期的倍数，允许连续丢失的心跳数
+     */
+    private static final int TTL_HEARTBEATS = 3;
+
+    /**
+     * 每个节点的最低份额
+     */
+    private static final double MIN_SHARE = 0.05;
+
+    /**
+     * 按需分配时在需求之上留出的余量
+     */
+    private static final double HEADROOM = 0.25;
+
+    /**
+     * 需求速率的平滑系数
+     */
+    private static final double ALPHA = 0.5;
+
+    /**
+     * 分到的速率变化小于该比例时不修改本地令牌桶
+     */
+    private static final double MIN_CHANGE = 0.05;
+
+    /**
+     * 唯一标识，所有节点相同
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * 本节点标识
+     */
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /**
+     * 所有节点共享的每秒令牌数
+     */
+    @Getter
+    private final long permitsPerSecond;
+
+    /**
+     * 所有节点共享的最大存储令牌数，按速率的划分比例分给各节点
+     */
+    private final long maxPermits;
+
+    /**
+     * 心跳周期，单位为毫秒
+     */
+    @Getter
+    private final long heartbeatMillis;
+
+    private final RedissonService redisService;
+
+    /**
+     * 本节点的令牌桶，速率为本节点分到的 slice
+     */
+    @Getter
+    private final RateLimiter rateLimiter;
+
+    /**
+     * 成员索引和本节点心跳 key
+     */
+    private final List<Object> keys;
+
+    /**
+     * 上次心跳之后请求的令牌数，包括被拒绝的
+     */
+    private final LongAdder demand = new LongAdder();
+
+    /**
+     * 平滑后的每秒请求令牌数
+     */
+    private double smoothedDemand;
+
+    private long lastHeartbeatNanos = System.nanoTime();
+
+    /**
+     * 上一次心跳看到的存活节点数
+     */
+    @Getter
+    private volatile int members = 1;
+
+    private final AtomicBoolean beating = new AtomicBoolean();
+
+    private ScheduledFuture<?> task;
+
+    /**
+     * 构造函数，加入成员之前按单节点使用全部速率，{@link #start()} 会先完成一次心跳
+     *
+     * @param config 限流器配置，速率和桶大小为所有节点共享的值
+     * @param heartbeatMillis 心跳周期，单位为毫秒
+     */
+    public PartitionedRateLimiter(RateLimiterConfig config, long heartbeatMillis) {
+        if (!config.getQuotas().isEmpty() || heartbeatMillis <= 0) {
+            throw new IllegalArgumentException("PartitionedRateLimiter " + config.getName()
+                    + " does not support quotas and heartbeatMillis " + heartbeatMillis + " must be positive");
+        }
+        this.name = config.getName();
+        this.permitsPerSecond = config.getPermitsPerSecond();
+        this.maxPermits = config.getMaxPermits();
+        this.heartbeatMillis = heartbeatMillis;
+        this.redisService = config.getRedisService();
+        String index = MemberKey.member.getPrefix() + "{" + name + "}";
+        this.keys = List.of(index, index + ":demand");
+
+        RateLimiterConfig local = new RateLimiterConfig(name, permitsPerSecond, maxPermits, config.getCache(), null);
+        local.setStore(BucketStoreEnum.MEMORY);
+        local.setMaxQueued(config.getMaxQueued());
+        local.setMaxWaitMicros(config.getMaxWaitMicros());
+        config.getReservedRatios().forEach(local::setReservedRatio);
+        this.rateLimiter = new RateLimiter(local);
+        this.rateLimiter.putDefaultBucket();
+    }
+
+    /**
+     * 加入成员并开始定期心跳
+     */
+    public void start() {
+        heartbeat().join();
+        task = SCHEDULER.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, MILLISECONDS);
+    }
+
+    /**
+     * 本节点当前分到的每秒令牌数
+     */
+    public long getSlice() {
+        return rateLimiter.getRate();
+    }
+
+    /**
+     * 上报本节点的需求速率，按返回的存活成员重新划分
+     *
+     * @return 心跳完成后完成
+     */
+    private CompletableFuture<Void> heartbeat() {
+        if (!beating.compareAndSet(false, true)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long nowNanos = System.nanoTime();
+        double elapsedSeconds = max(nowNanos - lastHeartbeatNanos, 1L) / 1e9;
+        lastHeartbeatNanos = nowNanos;
+        smoothedDemand = ALPHA * demand.sumThenReset() / elapsedSeconds + (1 - ALPHA) * smoothedDemand;
+        return redisService.<List<Object>>evalAsync(keys, MembershipScript.HEARTBEAT, RScript.ReturnType.MULTI,
+                        nodeId, Double.toString(smoothedDemand), heartbeatMillis * TTL_HEARTBEATS).toCompletableFuture()
+                .handleAsync((result, e) -> {
+                    try {
+                        if (e != null) {
+                            log.warn("Heartbeat failed, keep slice {}, rateLimiter: {}", getSlice(), name, e);
+                        } else {
+                            rebalance(result);
+                        }
+                    } catch (Exception ex) {
+                        log.error("Rebalance slice failed, rateLimiter: {}", name, ex);
+                    } finally {
+                        beating.set(false);
+                    }
+                    return null;
+                }, SCHEDULER);
+    }
+
+    /**
+     * 按存活成员的需求速率重新划分
+     *
+     * @param result 成员和需求速率交替排列
+     */
+    private void rebalance(List<Object> result) {
+        Map<String, Double> demands = new HashMap<>();
+        for (int i = 0; i + 1 < result.size(); i += 2) {
+            demands.put(String.valueOf(result.get(i)), Double.parseDouble(String.valueOf(result.get(i + 1))));
+        }
+        demands.putIfAbsent(nodeId, smoothedDemand);
+        members = demands.size();
+        long slice = max(Math.round(FairShareUtils.allocate(demands, permitsPerSecond, HEADROOM, MIN_SHARE).get(nodeId)), 1L);
+        long current = rateLimiter.getRate();
+        if (Math.abs(slice - current) >= max(current * MIN_CHANGE, 1D)) {
+            rateLimiter.setRate(slice, max(maxPermits * slice / permitsPerSecond, 1L));
+            log.info("Rebalance slice, rateLimiter: {}, node: {}, members: {}, slice: {} -> {}",
+                    name, nodeId, members, current, slice);
+        }
+    }
+
+    @Override
+    public double acquire() {
+        return acquire(1);
+    }
+
+    @Override
+    public double acquire(int permits) {
+        demand.add(permits);
+        return rateLimiter.acquire(permits);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        demand.increment();
+        return rateLimiter.tryAcquire();
+    }
+
+    @Override
+    public boolean tryAcquire(long permits, long timeout, TimeUnit unit) {
+        demand.add(permits);
+        return rateLimiter.tryAcquire(permits, timeout, unit);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryAcquireAsync(long permits, long timeout, TimeUnit unit) {
+        demand.add(permits);
+        return rateLimiter.tryAcquireAsync(permits, timeout, unit);
+    }
+
+    /**
+     * 停止心跳并立即注销，其他节点在下一次心跳时收回本节点的份额
+     */
+    @Override
+    public void close() {
+        if (task != null) {
+            task.cancel(false);
+        }
+        redisService.evalAsync(keys, MembershipScript.LEAVE, RScript.ReturnType.INTEGER, nodeId)
+                .toCompletableFuture().join();
+    }
+}
@@ -0,0 +1,75 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 紧凑存储的令牌桶编码
+ * 同一渠道的所有桶放在一个 hash 中，字段为限流器名称，值为 32 字节的定长小端整数：
+ * intervalMicros、maxPermits、nextFreeTicketMicros、storedPermits，名称不在值中重复存储。
+ * 与 {@link PermitBucketScript} 中 _COMPACT 脚本的 struct.pack('&lt;i8i8i8i8') 格式一致；
+ * 脚本中的数字是双精度浮点数，只有绝对值不超过 2^53 的整数能原样读写，编码时拒绝超出范围的值
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class CompactBucketCodec {
+    /**
+     * 每个桶的字节数
+     */
+    public static final int SIZE = 4 * Long.BYTES;
+
+    /**
+     * 脚本能精确表示的最大整数
+     */
+    public static final long MAX_VALUE = 1L << 53;
+
+    /**
+     * 编码
+     *
+     * @param bucket 令牌桶
+     * @return 32 字节的值
+     */
+    public static byte[] encode(PermitBucket bucket) {
+        checkRange(bucket, "intervalMicros", bucket.getIntervalMicros());
+        checkRange(bucket, "maxPermits", bucket.getMaxPermits());
+        checkRange(bucket, "nextFreeTicketMicros", bucket.getNextFreeTicketMicros());
+        checkRange(bucket, "storedPermits", bucket.getStoredPermits());
+        return ByteBuffer.allocate(SIZE).order(ByteOrder.LITTLE_ENDIAN)
+                .putLong(bucket.getIntervalMicros())
+                .putLong(bucket.getMaxPermits())
+                .putLong(bucket.getNextFreeTicketMicros())
+                .putLong(bucket.getStoredPermits())
+                .array();
+    }
+
+    /**
+     * 解码
+     *
+     * @param name 限流器名称，即 hash 字段
+     * @param bytes 字段的值，为 null 时表示桶不存在
+     * @return 令牌桶，不存在时为 null
+     */
+    public static PermitBucket decode(String name, byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        if (bytes.length != SIZE) {
+            throw new IllegalStateException("Compact bucket " + name + " has " + bytes.length + " bytes, expected " + SIZE);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        long intervalMicros = buffer.getLong();
+        long maxPermits = buffer.getLong();
+        long nextFreeTicketMicros = buffer.getLong();
+        long storedPermits = buffer.getLong();
+        return new PermitBucket(name, maxPermits, storedPermits, intervalMicros, nextFreeTicketMicros);
+    }
+
+    private static void checkRange(PermitBucket bucket, String field, long value) {
+        if (value > MAX_VALUE || value < -MAX_VALUE) {
+            throw new IllegalArgumentException("Compact bucket " + bucket.getName() + " " + field + " " + value
+                    + " exceeds ±" + MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.redisson.api.RScript;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * 请求合并器
+ * 同一节点上同一限流器的并发请求先在一个很短的窗口内排队，窗口结束或排队数达到上限时，
+ * 通过一次 {@link PermitBucketScript#RESERVE_BATCH} 调用按排队顺序为整批请求预定令牌，再把结果分发给各个请求。
+ * Redis 调用次数只与节点数和窗口数相关，与请求数无关
+ */
+@Slf4j
+public class PermitBatcher {
+    /**
+     * 所有合并器共用的定时线程，只负责发起异步调用，不会阻塞
+     */
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ratelimiter-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final RateLimiter rateLimiter;
+
+    private final RedissonService redisService;
+
+    /**
+     * 合并窗口，单位为微秒
+     */
+    private final long windowMicros;
+
+    /**
+     * 单批最大请求数
+     */
+    private final int maxBatchSize;
+
+    private final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * 当前窗口是否已经安排了提交
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * 统计：Redis 调用次数和被合并的请求数
+     */
+    private final LongAdder backendCalls = new LongAdder();
+    private final LongAdder batchedRequests = new LongAdder();
+
+    public PermitBatcher(RateLimiter rateLimiter, RedissonService redisService, long windowMicros, int maxBatchSize) {
+        this.rateLimiter = rateLimiter;
+        this.redisService = redisService;
+        this.windowMicros = windowMicros;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * 提交一个预定请求，在所在批次提交后完成
+     *
+     * @param permits 请求的令牌数
+     * @param timeoutMicros 允许的最大等待时间，单位为微秒，小于 0 表示不限制
+     * @param reservedPermits 需要给更高优先级预留的令牌数
+     * @return 需要等待的时间，单位为微秒；超时时间内无法获取时为 -1
+     */
+    public CompletableFuture<Long> submit(long permits, long timeoutMicros, long reservedPermits) {
+        Waiter waiter = new Waiter(permits, timeoutMicros, reservedPermits, System.nanoTime());
+        waiters.offer(waiter);
+        if (queued.incrementAndGet() >= maxBatchSize) {
+            // 排满一批直接提交，不等窗口结束
+            flush();
+        } else if (scheduled.compareAndSet(false, true)) {
+            SCHEDULER.schedule(this::flushWindow, windowMicros, MICROSECONDS);
+        }
+        return waiter.result;
+    }
+
+    /**
+     * 窗口结束，提交窗口内排队的所有请求
+     */
+    private void flushWindow() {
+        scheduled.set(false);
+        while (!waiters.isEmpty()) {
+            flush();
+        }
+    }
+
+    /**
+     * 取出最多一批请求，发起一次脚本调用
+     */
+    private void flush() {
+        List<Waiter> batch = new ArrayList<>(maxBatchSize);
+        Waiter waiter;
+        while (batch.size() < maxBatchSize && (waiter = waiters.poll()) != null) {
+            batch.add(waiter);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        queued.addAndGet(-batch.size());
+
+        long nowNanos = System.nanoTime();
+        long nowMillis = System.currentTimeMillis();
+        Quota.Window[] windows = rateLimiter.quotaWindows(nowMillis);
+        // 桶参数和配额参数之后为请求个数和每个请求的参数
+        Object[] args = rateLimiter.scriptArgs(MILLISECONDS.toMicros(nowMillis), windows, 1 + 3 * batch.size());
+        int offset = args.length - 3 * batch.size() - 1;
+        args[offset] = batch.size();
+        for (int i = 0; i < batch.size(); i++) {
+            Waiter w = batch.get(i);
+            args[offset + 1 + 3 * i] = w.permits;
+            // 在窗口内排队的时间要从超时时间里扣掉
+            args[offset + 2 + 3 * i] = w.timeoutMicros < 0 ? -1L
+                    : max(w.timeoutMicros - NANOSECONDS.toMicros(nowNanos - w.enqueueNanos), 0L);
+            args[offset + 3 + 3 * i] = w.reservedPermits;
+        }
+
+        backendCalls.increment();
+        batchedRequests.add(batch.size());
+        redisService.<List<Long>>evalAsync(rateLimiter.scriptKeys(windows),
+                rateLimiter.reserveScript(true), RScript.ReturnType.MULTI, args).whenComplete((results, e) -> {
+            if (e != null) {
+                log.error("Batch reserve failed, rateLimiter: {}, size: {}", rateLimiter.getName(), batch.size(), e);
+                batch.forEach(w -> w.result.completeExceptionally(e));
+                return;
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result.complete(results.get(i));
+            }
+        });
+    }
+
+    /**
+     * Redis 调用次数
+     */
+    public long getBackendCalls() {
+        return backendCalls.sum();
+    }
+
+    /**
+     * 经过合并提交的请求数
+     */
+    public long getBatchedRequests() {
+        return batchedRequests.sum();
+    }
+
+    /**
+     * 排队中的请求
+     */
+    private static final class Waiter {
+        private final long permits;
+        private final long timeoutMicros;
+        private final long reservedPermits;
+        private final long enqueueNanos;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private Waiter(long permits, long timeoutMicros, long reservedPermits, long enqueueNanos) {
+            this.permits = permits;
+            this.timeoutMicros = timeoutMicros;
+            this.reservedPermits = reservedPermits;
+            this.enqueueNanos = enqueueNanos;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * 令牌桶 Lua 脚本
+ * 读取、同步、扣减、回写在 Redis 端一次原子完成，替代 分布式锁 + get + set 的组合，
+ * 调用线程不再持有任何与线程身份绑定的锁
+ * <p>
+ * 桶默认以 {@link PermitBucket} 的 JSON 格式存储，Java 端的读取方法不受影响；
+ * 每个脚本另有一个 _COMPACT 版本，把同一渠道的桶以定长二进制存放在一个 hash 中，见 {@link CompactBucketCodec}
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class PermitBucketScript {
+    /**
+     * 读取 JSON 格式的桶，桶不存在时按参数创建默认桶
+     * ARGV[1] 当前时间（微秒） ARGV[2] name ARGV[3] maxPermits ARGV[4] intervalMicros
+     */
+    private static final String LOAD_JSON = """
+            local now = tonumber(ARGV[1])
+            local name, maxPermits, stored, interval, nextFree
+            local raw = redis.call('GET', KEYS[1])
+            if raw then
+                local bucket = cjson.decode(raw)
+                name = bucket.name
+                maxPermits = tonumber(bucket.maxPermits)
+                stored = tonumber(bucket.storedPermits)
+                interval = tonumber(bucket.intervalMicros)
+                nextFree = tonumber(bucket.nextFreeTicketMicros)
+            else
+                name = ARGV[2]
+                maxPermits = tonumber(ARGV[3])
+                stored = 1
+                interval = tonumber(ARGV[4])
+                nextFree = now
+            end
+            local function save()
+                redis.call('SET', KEYS[1], string.format(
+                        '{"intervalMicros":%d,"maxPermits":%d,"name":%s,"nextFreeTicketMicros":%d,"storedPermits":%d}',
+                        interval, maxPermits, cjson.encode(name), nextFree, stored))
+            end
+            """;
+
+    /**
+     * 读取渠道 hash 中以限流器名称为字段的定长二进制桶，桶不存在时按参数创建默认桶，
+     * 写回时只更新这一个字段；参数同 {@link #LOAD_JSON}，KEYS[1] 为渠道的 hash
+     */
+    private static final String LOAD_COMPACT = """
+            local now = tonumber(ARGV[1])
+            local name, maxPermits, stored, interval, nextFree
+            name = ARGV[2]
+            local raw = redis.call('HGET', KEYS[1], name)
+            if raw then
+                interval, maxPermits, nextFree, stored = struct.unpack('<i8i8i8i8', raw)
+            else
+                maxPermits = tonumber(ARGV[3])
+                stored = 1
+                interval = tonumber(ARGV[4])
+                nextFree = now
+            end
+            local function save()
+                redis.call('HSET', KEYS[1], name, struct.pack('<i8i8i8i8', interval, maxPermits, nextFree, stored))
+            end
+            """;
+
+    /**
+     * 按当前时间同步令牌数
+     */
+    private static final String SYNC = """
+            if now > nextFree then
+                local newPermits = math.floor((now - nextFree) / interval)
+                stored = math.min(maxPermits, stored + newPermits)
+                if newPermits > 0 then
+                    nextFree = now
+                end
+            end
+            """;
+
+    private static final String LOAD_AND_SYNC = LOAD_JSON + SYNC;
+
+    private static final String LOAD_AND_SYNC_COMPACT = LOAD_COMPACT + SYNC;
+
+    /**
+     * 长周期配额计数，与令牌桶在同一个脚本中检查和扣减
+     * ARGV[5] 配额个数 m，之后依次为每个配额的 上限、计数 key 的过期时间点（毫秒）、上一窗口计数的权重；
+     * 第 j 个配额的当前窗口计数 key 为 KEYS[2j]，上一窗口计数 key 为 KEYS[2j+1]（日历配额权重为 0，不读取上一窗口）
+     */
+    private static final String QUOTA_FUNCTION = """
+            local quotaCount = tonumber(ARGV[5])
+            local quotaUsed = {}
+            local quotaCharged = {}
+            for j = 1, quotaCount do
+                local used = tonumber(redis.call('GET', KEYS[2 * j]) or '0')
+                local weight = tonumber(ARGV[5 + 3 * j])
+                if weight > 0 then
+                    used = used + weight * tonumber(redis.call('GET', KEYS[2 * j + 1]) or '0')
+                end
+                quotaUsed[j] = used
+                quotaCharged[j] = 0
+            end
+            local argOffset = 6 + 3 * quotaCount
+            local function checkQuota(permits)
+                for j = 1, quotaCount do
+                    if quotaUsed[j] + permits > tonumber(ARGV[3 + 3 * j]) then
+                        return -1 - j
+                    end
+                end
+                return 0
+            end
+            local function chargeQuota(permits)
+                for j = 1, quotaCount do
+                    quotaUsed[j] = quotaUsed[j] + permits
+                    quotaCharged[j] = quotaCharged[j] + permits
+                end
+            end
+            local function saveQuota()
+                for j = 1, quotaCount do
+                    if quotaCharged[j] > 0 then
+                        redis.call('INCRBY', KEYS[2 * j], quotaCharged[j])
+                        redis.call('PEXPIREAT', KEYS[2 * j], ARGV[4 + 3 * j])
+                    end
+                end
+            end
+            """;
+
+    /**
+     * 预定令牌，返回需要等待的时间（微秒），在超时时间内无法满足时返回 -1，配额不足时返回 -1-j（j 为配额序号），均不做扣减
+     * reserved 为该优先级必须留给更高优先级的令牌数：大于 0 时只能使用桶内超出 reserved 的令牌，不够时直接拒绝、不透支，
+     * 否则透支会推迟 nextFree，更高优先级也要等待；reserved 为 0 时不够的部分按超时时间透支
+     */
+    private static final String RESERVE_FUNCTION = """
+            local function reserve(permits, timeout, reserved)
+                local quota = checkQuota(permits)
+                if quota < 0 then
+                    return quota
+                end
+                if reserved > 0 and stored - reserved < permits then
+                    return -1
+                end
+                local spend = math.min(permits, stored - reserved)
+                local waitMicros = (permits - spend) * interval
+                if timeout >= 0 and nextFree + waitMicros - timeout > now then
+                    return -1
+                end
+                nextFree = nextFree + waitMicros
+                stored = stored - spend
+                chargeQuota(permits)
+                return math.max(nextFree - now, 0)
+            end
+            """;
+
+    private static final String RESERVE_MAIN = """
+            local result = reserve(tonumber(ARGV[argOffset]), tonumber(ARGV[argOffset + 1]), tonumber(ARGV[argOffset + 2]))
+            if result >= 0 then
+                save()
+                saveQuota()
+            end
+            return result
+            """;
+
+    private static final String RESERVE_BATCH_MAIN = """
+            local count = tonumber(ARGV[argOffset])
+            local results = {}
+            for i = 1, count do
+                local base = argOffset + 3 * i
+                results[i] = reserve(tonumber(ARGV[base - 2]), tonumber(ARGV[base - 1]), tonumber(ARGV[base]))
+            end
+            save()
+            saveQuota()
+            return results
+            """;
+
+    private static final String UPDATE_RATE_MAIN = """
+            local newMaxPermits = tonumber(ARGV[5])
+            local newInterval = tonumber(ARGV[6])
+            if maxPermits > 0 then
+                stored = math.floor(stored * newMaxPermits / maxPermits)
+            end
+            stored = math.min(stored, newMaxPermits)
+            if nextFree > now then
+                nextFree = now + math.floor((nextFree - now) * newInterval / interval)
+            end
+            maxPermits = newMaxPermits
+            interval = newInterval
+            save()
+            return stored
+            """;
+
+    private static final String ADD_PERMITS_MAIN = """
+            local newPermits = math.min(stored + tonumber(ARGV[5]), maxPermits)
+            local newNextFree = now + interval * newPermits
+            if newNextFree > nextFree then
+                newNextFree = now
+            end
+            stored = newPermits
+            nextFree = newNextFree
+            save()
+            return stored
+            """;
+
+    /**
+     * 预定令牌并返回需要等待的时间（微秒），无法满足时返回负数且不做扣减
+     * 配额参数之后依次为 请求令牌数、允许的最大等待时间（微秒，小于 0 表示不限制）、预留给更高优先级的令牌数
+     */
+    public static final String RESERVE = LOAD_AND_SYNC + QUOTA_FUNCTION + RESERVE_FUNCTION + RESERVE_MAIN;
+
+    public static final String RESERVE_COMPACT = LOAD_AND_SYNC_COMPACT + QUOTA_FUNCTION + RESERVE_FUNCTION + RESERVE_MAIN;
+
+    /**
+     * 按提交顺序依次为一批请求预定令牌，返回每个请求需要等待的时间（微秒），无法满足的请求为负数
+     * 配额参数之后为请求个数 n，再依次为每个请求的 令牌数、允许的最大等待时间（微秒，小于 0 表示不限制）、预留令牌数
+     */
+    public static final String RESERVE_BATCH = LOAD_AND_SYNC + QUOTA_FUNCTION + RESERVE_FUNCTION + RESERVE_BATCH_MAIN;
+
+    public static final String RESERVE_BATCH_COMPACT = LOAD_AND_SYNC_COMPACT + QUOTA_FUNCTION + RESERVE_FUNCTION
+            + RESERVE_BATCH_MAIN;
+
+    /**
+     * 修改桶的速率和大小
+     * 已存储的令牌按新旧桶大小的比例折算，尚未偿还的透支按新的生成间隔折算等待时间
+     * ARGV[5] 新的最大存储令牌数 ARGV[6] 新的令牌生成间隔（微秒）
+     */
+    public static final String UPDATE_RATE = LOAD_AND_SYNC + UPDATE_RATE_MAIN;
+
+    public static final String UPDATE_RATE_COMPACT = LOAD_AND_SYNC_COMPACT + UPDATE_RATE_MAIN;
+
+    /**
+     * 添加令牌，不超过桶的大小
+     * ARGV[5] 要添加的令牌数
+     */
+    public static final String ADD_PERMITS = LOAD_AND_SYNC + ADD_PERMITS_MAIN;
+
+    public static final String ADD_PERMITS_COMPACT = LOAD_AND_SYNC_COMPACT + ADD_PERMITS_MAIN;
+}
@@ -0,0 +1,89 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import org.example.ratelimiter.common.constant.PriorityEnum;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按优先级统计的获取结果，用于调整各优先级的预留比例
+ */
+public class PriorityMetrics {
+    private final LongAdder[] granted = newAdders();
+
+    private final LongAdder[] rejected = newAdders();
+
+    private static LongAdder[] newAdders() {
+        LongAdder[] adders = new LongAdder[PriorityEnum.values().length];
+        for (int i = 0; i < adders.length; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /**
+     * 记录一次获取结果
+     *
+     * @param priority 请求优先级
+     * @param acquired 是否获取成功
+     */
+    void record(PriorityEnum priority, boolean acquired) {
+        (acquired ? granted : rejected)[priority.ordinal()].increment();
+    }
+
+    /**
+     * 获取成功的次数
+     *
+     * @param priority 请求优先级
+     * @return 次数
+     */
+    public long getGranted(PriorityEnum priority) {
+        return granted[priority.ordinal()].sum();
+    }
+
+    /**
+     * 被拒绝的次数
+     *
+     * @param priority 请求优先级
+     * @return 次数
+     */
+    public long getRejected(PriorityEnum priority) {
+        return rejected[priority.ordinal()].sum();
+    }
+
+    /**
+     * 所有优先级获取成功的次数
+     *
+     * @return 次数
+     */
+    public long getGranted() {
+        return sum(granted);
+    }
+
+    /**
+     * 所有优先级被拒绝的次数
+     *
+     * @return 次数
+     */
+    public long getRejected() {
+        return sum(rejected);
+    }
+
+    private static long sum(LongAdder[] adders) {
+        long sum = 0;
+        for (LongAdder adder : adders) {
+            sum += adder.sum();
+        }
+        return sum;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("PriorityMetrics(");
+        for (PriorityEnum priority : PriorityEnum.values()) {
+            sb.append(priority.getDesc()).append("=")
+                    .append(getGranted(priority)).append("/").append(getRejected(priority)).append(", ");
+        }
+        sb.setLength(sb.length() - 2);
+        return sb.append(")").toString();
+    }
+}
@@ -0,0 +1,195 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.example.ratelimiter.common.constant.QuotaPeriodEnum;
+import org.example.ratelimiter.common.redis.key.common.QuotaKey;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 长周期配额，例如"每天 200 万次"
+ * 与每秒的令牌桶一起使用：令牌桶限制速率和突发，配额限制长周期内的总量。
+ * - 日历配额（小时/日/月）按自然周期对齐，每个周期一个计数 key，周期结束后自动过期
+ * - 滚动配额按 当前窗口计数 + 上一窗口计数 * 上一窗口剩余占比 近似滑动窗口，只需要两个计数 key
+ * 计数 key 包含限流器名称，同一个实例添加到多个限流器时各自计数
+ */
+@Getter
+@ToString(exclude = "windows")
+public class Quota {
+    /**
+     * 日历配额的计数 key 在周期结束后多保留一段时间，容忍节点间的时钟偏差
+     */
+    private static final long EXPIRE_GRACE_MILLIS = 60_000L;
+
+    private final QuotaPeriodEnum period;
+
+    /**
+     * 周期内允许的令牌总数
+     */
+    private final long limit;
+
+    /**
+     * 滚动窗口长度，单位为毫秒，仅滚动配额使用
+     */
+    private final long rollingMillis;
+
+    /**
+     * 日历配额的时区
+     */
+    private final ZoneId zone;
+
+    /**
+     * 限流器名称 -> 当前窗口，跨窗口时才重新计算
+     */
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    private Quota(QuotaPeriodEnum period, long limit, long rollingMillis, ZoneId zone) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Quota limit " + limit + " must be positive");
+        }
+        this.period = period;
+        this.limit = limit;
+        this.rollingMillis = rollingMillis;
+        this.zone = zone;
+    }
+
+    /**
+     * 按系统时区对齐的日历配额
+     *
+     * @param period 周期，不能是滚动窗口
+     * @param limit 周期内允许的令牌总数
+     * @return 配额
+     */
+    public static Quota calendar(QuotaPeriodEnum period, long limit) {
+        return calendar(period, limit, ZoneId.systemDefault());
+    }
+
+    /**
+     * 按指定时区对齐的日历配额
+     *
+     * @param period 周期，不能是滚动窗口
+     * @param limit 周期内允许的令牌总数
+     * @param zone 时区
+     * @return 配额
+     */
+    public static Quota calendar(QuotaPeriodEnum period, long limit, ZoneId zone) {
+        if (period == QuotaPeriodEnum.ROLLING) {
+            throw new IllegalArgumentException("Use Quota.rolling for rolling quota");
+        }
+        return new Quota(period, limit, 0L, zone);
+    }
+
+    /**
+     * 滚动窗口配额
+     *
+     * @param window 窗口长度
+     * @param limit 任意一个窗口长度内允许的令牌总数（近似）
+     * @return 配额
+     */
+    public static Quota rolling(Duration window, long limit) {
+        return new Quota(QuotaPeriodEnum.ROLLING, limit, window.toMillis(), null);
+    }
+
+    /**
+     * 获取当前时间所在的窗口
+     *
+     * @param name 限流器名称
+     * @param nowMillis 当前时间，单位为毫秒
+     * @return 窗口
+     */
+    Window window(String name, long nowMillis) {
+        Window current = windows.get(name);
+        if (current == null || nowMillis < current.start || nowMillis >= current.end) {
+            current = period == QuotaPeriodEnum.ROLLING ? rollingWindow(name, nowMillis) : calendarWindow(name, nowMillis);
+            windows.put(name, current);
+        }
+        return current;
+    }
+
+    private Window rollingWindow(String name, long nowMillis) {
+        long index = nowMillis / rollingMillis;
+        long start = index * rollingMillis;
+        long end = start + rollingMillis;
+        // 当前窗口的计数在下一个窗口还要作为上一窗口使用
+        return new Window(start, end, end + rollingMillis,
+                key(name, Long.toString(index)), key(name, Long.toString(index - 1)));
+    }
+
+    private Window calendarWindow(String name, long nowMillis) {
+        ZonedDateTime now = Instant.ofEpochMilli(nowMillis).atZone(zone);
+        ZonedDateTime start;
+        ZonedDateTime end;
+        long index;
+        switch (period) {
+            case HOUR -> {
+                start = now.truncatedTo(ChronoUnit.HOURS);
+                end = start.plusHours(1);
+                index = now.toLocalDate().toEpochDay() * 24 + now.getHour();
+            }
+            case DAY -> {
+                start = now.toLocalDate().atStartOfDay(zone);
+                end = now.toLocalDate().plusDays(1).atStartOfDay(zone);
+                index = now.toLocalDate().toEpochDay();
+            }
+            default -> {
+                LocalDate firstDay = now.toLocalDate().withDayOfMonth(1);
+                start = firstDay.atStartOfDay(zone);
+                end = firstDay.plusMonths(1).atStartOfDay(zone);
+                index = firstDay.getYear() * 12L + firstDay.getMonthValue() - 1;
+            }
+        }
+        long endMillis = end.toInstant().toEpochMilli();
+        String key = key(name, Long.toString(index));
+        return new Window(start.toInstant().toEpochMilli(), endMillis, endMillis + EXPIRE_GRACE_MILLIS, key, key);
+    }
+
+    /**
+     * 计数 key，例如 QuotaKey:Q:order:d20075
+     */
+    private String key(String name, String index) {
+        return QuotaKey.quota.getPrefix() + name + ":" + period.getCode() + index;
+    }
+
+    /**
+     * 上一窗口计数在当前滑动窗口中的权重，日历配额为 0
+     *
+     * @param window 当前窗口
+     * @param nowMillis 当前时间，单位为毫秒
+     * @return 权重
+     */
+    double previousWeight(Window window, long nowMillis) {
+        if (period != QuotaPeriodEnum.ROLLING) {
+            return 0D;
+        }
+        return 1.0 - (double) (nowMillis - window.start) / rollingMillis;
+    }
+
+    /**
+     * 配额用完后，本地可以确定在此之前都不需要再访问 Redis 的时间点
+     * 日历配额为周期结束；滚动配额随时间逐渐释放，只能短暂跳过
+     *
+     * @param window 当前窗口
+     * @param nowMillis 当前时间，单位为毫秒
+     * @return 时间点，单位为毫秒
+     */
+    long exhaustedUntil(Window window, long nowMillis) {
+        if (period == QuotaPeriodEnum.ROLLING) {
+            return nowMillis + Math.min(rollingMillis / 100, 1000L);
+        }
+        return window.end;
+    }
+
+    /**
+     * 配额的一个计数窗口
+     */
+    record Window(long start, long end, long expireAtMillis, String key, String previousKey) {
+    }
+}
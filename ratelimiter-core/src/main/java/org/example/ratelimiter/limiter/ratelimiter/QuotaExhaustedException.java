@@ -0,0 +1,20 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.Getter;
+
+/**
+ * 长周期配额已用完
+ * 阻塞获取令牌时无法等到配额恢复，直接抛出该异常
+ */
+@Getter
+public class QuotaExhaustedException extends RuntimeException {
+    /**
+     * 用完的配额
+     */
+    private final transient Quota quota;
+
+    public QuotaExhaustedException(String name, Quota quota) {
+        super("Quota of rateLimiter " + name + " exhausted: " + quota);
+        this.quota = quota;
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 限流参数变更通知
+ * Redis 中的令牌桶已经由脚本原子更新，通知只用于刷新各节点本地由参数推导出的值（超时时间、预留令牌数等）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RateChange {
+    /**
+     * 限流器名称
+     */
+    private String name;
+
+    /**
+     * 新的每秒存入令牌数
+     */
+    private long permitsPerSecond;
+
+    /**
+     * 新的最大存储令牌数
+     */
+    private long maxPermits;
+}
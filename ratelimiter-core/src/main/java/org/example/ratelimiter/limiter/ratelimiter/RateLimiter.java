@@ -0,0 +1,936 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import com.alibaba.fastjson.JSON;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.common.constant.PriorityEnum;
+import org.example.ratelimiter.common.constant.SwitchEnum;
+import org.example.ratelimiter.common.jfr.RateLimitAcquire;
+import org.example.ratelimiter.common.jfr.RateLimitBackendCall;
+import org.example.ratelimiter.common.redis.key.common.PermitBucketKey;
+import org.example.ratelimiter.common.redis.key.common.RateChangeKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.store.BucketStore;
+import org.example.ratelimiter.limiter.store.MemoryBucketStore;
+import org.example.ratelimiter.limiter.store.RedissonRateLimiterStore;
+import org.redisson.client.codec.StringCodec;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 分布式令牌桶限流器，以Guava令牌桶为基础
+ * 令牌桶的同步和扣减由 {@link BucketStore} 在存储端原子完成（默认为 Redis 的 Lua 脚本），不使用分布式锁，
+ * 等待令牌时以 park 方式挂起，可直接运行在虚拟线程上
+ *
+ * @author Percy
+ * @date 2024/12/13
+ */
+@Slf4j
+@Getter(AccessLevel.PRIVATE)
+public class RateLimiter implements Limiter {
+    /**
+     * 唯一标识
+     */
+    private final String name;
+
+    /**
+     * 本地限流参数（速率、桶大小、缓存比例及由它们推导出的超时时间和预留令牌数）
+     * NOTE: 可以在运行时通过 {@link #setRate(long, long)} 和 {@link #setCache(float)} 修改，修改时整体替换；
+     * Redis 中的桶以桶内参数为准
+     */
+    private final AtomicReference<RateParams> params;
+
+    /**
+     * 串行执行 {@link #setRate(long, long)}，保证存储端和本地参数按相同的顺序修改；
+     * 持有期间会等待一次存储端的往返，不使用 synchronized，避免在 JDK 21~23 上固定虚拟线程的载体线程
+     */
+    private final ReentrantLock rateLock = new ReentrantLock();
+
+    /**
+     * 脚本返回值小于等于该值时表示配额用完，-2 为第一个配额
+     */
+    private static final long QUOTA_EXHAUSTED = -2L;
+
+    /**
+     * 参数变更通知的主题，所有限流器共用
+     */
+    static final String RATE_CHANGE_TOPIC = "all";
+
+    /**
+     * 用于对Redis进行读取和查找操作
+     */
+    private final RedissonService redisService;
+
+    /**
+     * 紧凑存储的渠道，为 null 时桶以 JSON 单独存为一个 key
+     */
+    @Getter
+    private final String channel;
+
+    /**
+     * 请求合并器，未开启合并时为 null
+     */
+    @Getter
+    private final PermitBatcher batcher;
+
+    /**
+     * 令牌桶存储引擎
+     */
+    private final BucketStore store;
+
+    /**
+     * 有界的等待队列，未设置 maxQueued 和 maxWaitMicros 时为 null
+     */
+    @Getter
+    private final WaitQueue waitQueue;
+
+    /**
+     * 各优先级需要给更高优先级预留的令牌比例
+     */
+    private final Map<PriorityEnum, Float> reservedRatios;
+
+    /**
+     * 按优先级统计的获取结果
+     */
+    @Getter
+    private final PriorityMetrics priorityMetrics = new PriorityMetrics();
+
+    /**
+     * 长周期配额
+     */
+    @Getter
+    private final List<Quota> quotas;
+
+    /**
+     * 各配额在本地确认用完后的恢复时间点（毫秒），在此之前直接拒绝，不访问 Redis
+     */
+    private final AtomicLongArray quotaExhaustedUntil;
+
+    /**
+     * 构造函数
+     *
+     * @param config 配置数据
+     */
+    public RateLimiter(RateLimiterConfig config) {
+        this.name = config.getName();
+        this.redisService = config.getRedisService();
+        this.channel = config.getChannel();
+        if ((config.getStore() != BucketStoreEnum.SCRIPT || config.getBucketStore() != null)
+                && (config.getBatchWindowMicros() > 0 || !config.getQuotas().isEmpty())) {
+            throw new IllegalArgumentException("RateLimiter " + name + ": quotas and batching require the "
+                    + BucketStoreEnum.SCRIPT.getCode() + " store, got " + (config.getBucketStore() != null
+                    ? config.getBucketStore().getClass().getSimpleName() : config.getStore().getCode()));
+        }
+        this.batcher = config.getBatchWindowMicros() > 0
+                ? new PermitBatcher(this, redisService, config.getBatchWindowMicros(), config.getMaxBatchSize())
+                : null;
+        this.reservedRatios = new EnumMap<>(config.getReservedRatios());
+        // 不设置则使用默认值
+        this.params = new AtomicReference<>(new RateParams(
+                (config.getPermitsPerSecond() == 0L) ? 1000L : config.getPermitsPerSecond(),
+                config.getMaxPermits(), config.getCache(), reservedRatios));
+        this.quotas = List.copyOf(config.getQuotas());
+        this.quotaExhaustedUntil = new AtomicLongArray(quotas.size());
+        this.store = config.getBucketStore() != null ? config.getBucketStore() : createStore(config.getStore());
+        if (!reservedRatios.isEmpty() && !store.supportsReservedPermits()) {
+            throw new IllegalArgumentException("RateLimiter " + name + ": reserved ratios are not supported by the "
+                    + (config.getBucketStore() != null ? store.getClass().getSimpleName() : config.getStore().getCode())
+                    + " store");
+        }
+        this.waitQueue = config.getMaxQueued() > 0 || config.getMaxWaitMicros() >= 0
+                ? new WaitQueue(name, config.getMaxQueued(), config.getMaxWaitMicros())
+                : null;
+        RateParams current = params.get();
+        log.info("Creat rateLimiter: {}, store: {}, maxPermits: {}, permitsPerSecond: {}, intervalMicros:{}, timeoutMicros: {}",
+                name, config.getBucketStore() != null ? store.getClass().getSimpleName() : config.getStore().getCode(),
+                current.getMaxPermits(), current.getPermitsPerSecond(), current.getIntervalMicros(), current.getTimeoutMicros());
+    }
+
+    private BucketStore createStore(BucketStoreEnum type) {
+        RateParams current = params.get();
+        return switch (type) {
+            case SCRIPT -> new ScriptBucketStore(this, redisService, batcher);
+            case MEMORY -> new MemoryBucketStore(name, current.getMaxPermits(), current.getIntervalMicros());
+            case REDISSON -> new RedissonRateLimiterStore(name,
+                    redisService.getRateLimiter(PermitBucketKey.redissonLimiter.getPrefix() + name),
+                    current.getMaxPermits(), current.getIntervalMicros());
+        };
+    }
+
+    /**
+     * 返回每秒生成令牌数量
+     *
+     * @return 每秒生成令牌数量
+     */
+    public long getRate() {
+        return params.get().getPermitsPerSecond();
+    }
+
+    /**
+     * 最大存储令牌数
+     *
+     * @return 最大存储令牌数
+     */
+    public long getMaxPermits() {
+        return params.get().getMaxPermits();
+    }
+
+    /**
+     * 缓存比例
+     *
+     * @return 缓存比例
+     */
+    public float getCache() {
+        return params.get().getCache();
+    }
+
+    /**
+     * 令牌生成间隔，单位为微秒
+     */
+    long getIntervalMicros() {
+        return params.get().getIntervalMicros();
+    }
+
+    /**
+     * 超时时间 - 由缓存队列比例计算
+     * TODO 这个设计考虑到令牌在动态生成和消耗吗？
+     */
+    long getTimeoutMicros() {
+        return params.get().getTimeoutMicros();
+    }
+
+    /**
+     * 修改每秒生成令牌数量，桶的大小不变
+     *
+     * @param permitsPerSecond 新的每秒生成令牌数量
+     */
+    public void setRate(long permitsPerSecond) {
+        rateLock.lock();
+        try {
+            setRate(permitsPerSecond, getMaxPermits());
+        } finally {
+            rateLock.unlock();
+        }
+    }
+
+    /**
+     * 修改桶的大小，速率不变
+     *
+     * @param maxPermits 新的最大存储令牌数
+     */
+    public void setMaxPermits(long maxPermits) {
+        rateLock.lock();
+        try {
+            setRate(getRate(), maxPermits);
+        } finally {
+            rateLock.unlock();
+        }
+    }
+
+    /**
+     * 修改缓存比例并重新计算超时时间，只影响本节点的等待，不修改 Redis 中的桶
+     *
+     * @param cache 新的缓存比例
+     */
+    public void setCache(float cache) {
+        if (cache < 0F) {
+            throw new IllegalArgumentException("Cache " + cache + " must not be negative");
+        }
+        RateParams updated = params.updateAndGet(current -> current.getCache() == cache ? current
+                : new RateParams(current.getPermitsPerSecond(), current.getMaxPermits(), cache, reservedRatios));
+        log.info("Update rateLimiter: {}, cache: {}, timeoutMicros: {}", name, cache, updated.getTimeoutMicros());
+    }
+
+    /**
+     * 在运行时修改速率和桶的大小
+     * 桶由存储引擎一次原子更新：已存储的令牌按比例折算，透支部分按新速率折算等待时间，
+     * 所有节点的下一次请求立即按新参数计算；随后通过 pub/sub 通知其他节点刷新本地参数
+     *
+     * @param permitsPerSecond 新的每秒生成令牌数量
+     * @param maxPermits 新的最大存储令牌数
+     */
+    public void setRate(long permitsPerSecond, long maxPermits) {
+        if (permitsPerSecond <= 0 || maxPermits < 0) {
+            throw new IllegalArgumentException("Rate " + permitsPerSecond + " must be positive and maxPermits "
+                    + maxPermits + " must not be negative");
+        }
+        rateLock.lock();
+        try {
+            store.updateRate(maxPermits, TimeUnit.SECONDS.toMicros(1) / permitsPerSecond);
+            applyRate(permitsPerSecond, maxPermits);
+        } finally {
+            rateLock.unlock();
+        }
+        if (redisService == null) {
+            return;
+        }
+        redisService.getTopic(RateChangeKey.rateChange, RATE_CHANGE_TOPIC, StringCodec.INSTANCE)
+                .publish(JSON.toJSONString(new RateChange(name, permitsPerSecond, maxPermits)));
+    }
+
+    /**
+     * 只刷新本地参数，Redis 中的桶已经由发起修改的节点更新
+     * 不加锁，可以在 pub/sub 的回调线程上调用；新参数整体替换，获取令牌时不会读到新旧混合的参数
+     *
+     * @param permitsPerSecond 新的每秒生成令牌数量
+     * @param maxPermits 新的最大存储令牌数
+     */
+    void applyRate(long permitsPerSecond, long maxPermits) {
+        RateParams previous = params.getAndUpdate(current ->
+                current.getPermitsPerSecond() == permitsPerSecond && current.getMaxPermits() == maxPermits ? current
+                        : new RateParams(permitsPerSecond, maxPermits, current.getCache(), reservedRatios));
+        if (previous.getPermitsPerSecond() == permitsPerSecond && previous.getMaxPermits() == maxPermits) {
+            return;
+        }
+        RateParams updated = params.get();
+        log.info("Update rateLimiter: {}, maxPermits: {}, permitsPerSecond: {}, intervalMicros:{}, timeoutMicros: {}",
+                name, maxPermits, permitsPerSecond, updated.getIntervalMicros(), updated.getTimeoutMicros());
+    }
+
+    /**
+     * 获取限流器实例名称
+     *
+     * @return
+     */
+    public String getName() {
+        return this.name;
+    }
+
+//    /**
+//     * 生成并存储默认令牌桶信息到 Redis 中
+//     * TODO 必须在 lock 内调用（避免外部调用，内部也要在lock内）
+//     * TODO 又判断又存又取会消耗一些时间（有的方法调用不需要返回，可以再创建一个不取的方法），并且需要加锁吗
+//     *
+//     * @return 限流器状态
+//     */
+//    public PermitBucket putDefaultBucket() {
+//        if (!redisService.exists(PermitBucketKey.permitBucket, this.name)) {
+//            long intervalMicros = TimeUnit.SECONDS.toMicros(1) / permitsPerSecond;
+//            long nextFreeTicketMicros = MILLISECONDS.toMicros(System.currentTimeMillis());
+//            PermitBucket permitBucket = new PermitBucket(name, maxPermits, 1, intervalMicros, nextFreeTicketMicros);
+//            // 存入缓存，设置有效时间
+//            redisService.setwe(PermitBucketKey.permitBucket, this.name, permitBucket, PermitBucketKey.permitBucket.expireSeconds());
+//        }
+//
+//        // 某方面可以防止存入失败
+//        return redisService.get(PermitBucketKey.permitBucket, this.name, PermitBucket.class);
+//    }
+
+    /**
+     * 从Redis获取令牌桶的状态信息
+     * 不存在则会根据当前限流器实例信息重新创建
+     * NOTE: 非原子操作，仅用于查询和初始化，令牌的扣减和添加都在 Lua 脚本中完成
+     * TODO 又判断又存又取会消耗一些时间（有的方法调用不需要返回，可以再创建一个不取的方法），并且需要加锁吗
+     *
+     * @return 限流器状态
+     */
+    public PermitBucket getOrCreateBucket() {
+        PermitBucket permitBucket = loadBucket();
+        return permitBucket != null ? permitBucket : putDefaultBucket();
+    }
+
+    /**
+     * 桶不存在时创建限流器状态信息并存入Redis，用于初始化
+     * 已存在时不覆盖，保留其他节点或重启前通过 setRate 修改的速率
+     *
+     * @return 限流器状态
+     */
+    public PermitBucket putDefaultBucket() {
+        PermitBucket permitBucket = defaultBucket();
+        if (store.saveIfAbsent(permitBucket)) {
+            return permitBucket;
+        }
+        PermitBucket existing = loadBucket();
+        if (existing == null) {
+            // 桶在两次访问之间被删除（过期或无法读取的旧数据），重新写入
+            store.saveIfAbsent(permitBucket);
+            return permitBucket;
+        }
+        // 以桶中的速率为准，本地参数跟随
+        RateParams current = params.get();
+        if (existing.getIntervalMicros() > 0 && (existing.getIntervalMicros() != current.getIntervalMicros()
+                || existing.getMaxPermits() != current.getMaxPermits())) {
+            applyRate(TimeUnit.SECONDS.toMicros(1) / existing.getIntervalMicros(), existing.getMaxPermits());
+        }
+        return existing;
+    }
+
+    /**
+     * 按限流器当前的参数重建限流器状态信息，覆盖已有的桶，用于重置
+     *
+     * @return 限流器状态
+     */
+    public PermitBucket resetBucket() {
+        PermitBucket permitBucket = defaultBucket();
+        // 存入缓存，设置有效时间
+        setBucket(permitBucket);
+
+        return permitBucket;
+    }
+
+    private PermitBucket defaultBucket() {
+        long nextFreeTicketMicros = MILLISECONDS.toMicros(System.currentTimeMillis());
+        RateParams current = params.get();
+        return new PermitBucket(name, current.getMaxPermits(), 1, current.getIntervalMicros(), nextFreeTicketMicros);
+    }
+
+    /**
+     * 获取令牌桶, 不刷新，用于acquire
+     *
+     * @return 缓存中的令牌桶或者默认的令牌桶
+     */
+    public PermitBucket getBucket() {
+        // 从缓存中获取桶
+        PermitBucket permitBucket = loadBucket();
+        // 如果缓存中没有，进入 putDefaultBucket 中初始化
+        if (permitBucket == null) {
+            return getOrCreateBucket();
+        }
+
+        return permitBucket;
+    }
+
+    /**
+     * 获取令牌桶, 并刷新令牌桶状态, 用于仅查询
+     *
+     * @return 缓存中的令牌桶或者默认的令牌桶
+     */
+    public PermitBucket getBucketAndSync() {
+        PermitBucket permitBucket = loadBucket();
+        if (permitBucket == null) {
+            // 如果缓存中没有，进入 putDefaultBucket 中初始化
+            return getOrCreateBucket();
+        }
+
+        // TODO 刷新桶状态信息但是并不回写 这个方法有问题，这行代码没意义
+        permitBucket.reSync();
+
+        return loadBucket();
+    }
+
+    /**
+     * 从存储引擎读取桶
+     *
+     * @return 令牌桶，不存在时为 null
+     */
+    private PermitBucket loadBucket() {
+        return store.load();
+    }
+
+    /**
+     * 按给定配置重新设置桶的状态信息
+     *
+     * @param permitBucket 新的令牌桶状态信息
+     */
+    private void setBucket(PermitBucket permitBucket) {
+        store.save(permitBucket);
+    }
+
+    /**
+     * 桶所在的完整 key：JSON 存储时为桶自己的 key，紧凑存储时为渠道的 hash
+     *
+     * @return key
+     */
+    String bucketKey() {
+        return channel != null ? PermitBucketKey.channelBuckets.getPrefix() + channel
+                : PermitBucketKey.permitBucket.getPrefix() + name;
+    }
+
+    /**
+     * 按存储方式选择预定脚本
+     *
+     * @param batch 是否为批量预定
+     * @return 脚本
+     */
+    String reserveScript(boolean batch) {
+        if (channel != null) {
+            return batch ? PermitBucketScript.RESERVE_BATCH_COMPACT : PermitBucketScript.RESERVE_COMPACT;
+        }
+        return batch ? PermitBucketScript.RESERVE_BATCH : PermitBucketScript.RESERVE;
+    }
+
+    /**
+     * 根据请求的令牌数量，计算需要等待的时间（微秒）并保留资源（令牌桶中对应的令牌）
+     *
+     * @param permits 请求的令牌数量
+     * @return 成功获取令牌所需的等待时间，单位为微秒
+     */
+    private long reserve(int permits) {
+        checkPermits(permits);
+        long waitMicros = reserveAndGetWaitLength(permits, -1L, 0L);
+        if (waitMicros <= QUOTA_EXHAUSTED) {
+            throw new QuotaExhaustedException(name, quotas.get((int) (QUOTA_EXHAUSTED - waitMicros)));
+        }
+        return waitMicros;
+    }
+
+    /**
+     * 在存储端原子地判断并预定令牌，计算需要等待的时间
+     * NOTE: 只等待异步结果，不持有锁，虚拟线程在此处会被挂起而不会占用载体线程
+     *
+     * @param permits 请求的令牌数
+     * @param timeoutMicros 允许的最大等待时间，单位为微秒，小于 0 表示不限制
+     * @param reservedPermits 需要给更高优先级预留的令牌数
+     * @return 需要等待的时间，单位为微秒；超时时间内无法获取时返回 -1，配额用完时返回 -2-配额下标
+     */
+    private long reserveAndGetWaitLength(long permits, long timeoutMicros, long reservedPermits) {
+        return reserveAsync(permits, timeoutMicros, reservedPermits).join();
+    }
+
+    /**
+     * {@link #reserveAndGetWaitLength} 的异步版本，不阻塞调用线程
+     *
+     * @param permits 请求的令牌数
+     * @param timeoutMicros 允许的最大等待时间，单位为微秒，小于 0 表示不限制
+     * @param reservedPermits 需要给更高优先级预留的令牌数
+     * @return 需要等待的时间，单位为微秒；超时时间内无法获取时为 -1，配额用完时为 -2-配额下标
+     */
+    CompletableFuture<Long> reserveAsync(long permits, long timeoutMicros, long reservedPermits) {
+        long nowMillis = System.currentTimeMillis();
+        long exhausted = checkQuotaLocally(nowMillis);
+        if (exhausted < 0) {
+            return CompletableFuture.completedFuture(exhausted);
+        }
+
+        CompletableFuture<Long> result = waitQueue == null
+                ? reserveFromStore(permits, timeoutMicros, reservedPermits)
+                : waitQueue.submit(() -> reserveFromStore(permits, timeoutMicros, reservedPermits));
+        return quotas.isEmpty() ? result : result.thenApply(this::onReserved);
+    }
+
+    /**
+     * 向存储引擎预定令牌，开启 JFR 记录时记录调用耗时
+     *
+     * @param permits 请求的令牌数
+     * @param timeoutMicros 允许的最大等待时间，单位为微秒，小于 0 表示不限制
+     * @param reservedPermits 需要给更高优先级预留的令牌数
+     * @return 存储引擎返回的等待时间
+     */
+    private CompletableFuture<Long> reserveFromStore(long permits, long timeoutMicros, long reservedPermits) {
+        RateLimitBackendCall event = new RateLimitBackendCall();
+        if (!event.isEnabled()) {
+            return store.reserve(permits, timeoutMicros, reservedPermits);
+        }
+        event.begin();
+        return store.reserve(permits, timeoutMicros, reservedPermits)
+                .whenComplete((waitMicros, e) -> event.finish(name, store, permits, waitMicros, e));
+    }
+
+    /**
+     * 处理脚本的预定结果，配额用完时在本地记录，之后直接拒绝
+     *
+     * @param waitMicros 脚本返回的等待时间
+     * @return 原样返回
+     */
+    long onReserved(long waitMicros) {
+        if (waitMicros <= QUOTA_EXHAUSTED) {
+            markQuotaExhausted((int) (QUOTA_EXHAUSTED - waitMicros));
+        }
+        return waitMicros;
+    }
+
+    /**
+     * 是否可以由调用方直接执行预定脚本，即脚本引擎、没有开启请求合并，也没有需要按顺序提交的等待队列
+     */
+    boolean isScriptReservable() {
+        return store instanceof ScriptBucketStore scriptStore && !scriptStore.isBatched() && waitQueue == null;
+    }
+
+    /**
+     * 该优先级需要给更高优先级预留的令牌数
+     *
+     * @param priority 请求优先级
+     * @return 预留令牌数
+     */
+    long reservedPermits(PriorityEnum priority) {
+        return params.get().reservedPermits(priority);
+    }
+
+    /**
+     * 本地检查是否有已确认用完的配额
+     *
+     * @param nowMillis 当前时间，单位为毫秒
+     * @return 0 表示需要到 Redis 检查；否则为 -2-配额下标
+     */
+    long checkQuotaLocally(long nowMillis) {
+        for (int i = 0; i < quotaExhaustedUntil.length(); i++) {
+            if (nowMillis < quotaExhaustedUntil.get(i)) {
+                return QUOTA_EXHAUSTED - i;
+            }
+        }
+        return 0L;
+    }
+
+    /**
+     * 记录配额已用完，日历配额到周期结束前都不再访问 Redis
+     *
+     * @param index 配额下标
+     */
+    private void markQuotaExhausted(int index) {
+        long nowMillis = System.currentTimeMillis();
+        Quota quota = quotas.get(index);
+        quotaExhaustedUntil.set(index, quota.exhaustedUntil(quota.window(name, nowMillis), nowMillis));
+    }
+
+    /**
+     * 当前时间各配额所在的窗口
+     *
+     * @param nowMillis 当前时间，单位为毫秒
+     * @return 按配额顺序排列的窗口
+     */
+    Quota.Window[] quotaWindows(long nowMillis) {
+        Quota.Window[] windows = new Quota.Window[quotas.size()];
+        for (int i = 0; i < windows.length; i++) {
+            windows[i] = quotas.get(i).window(name, nowMillis);
+        }
+        return windows;
+    }
+
+    /**
+     * 脚本使用的 key：令牌桶，以及每个配额的当前窗口和上一窗口计数
+     * NOTE: 集群模式下脚本的所有 key 需要落在同一个槽位
+     *
+     * @param windows 配额窗口
+     * @return KEYS
+     */
+    List<Object> scriptKeys(Quota.Window[] windows) {
+        List<Object> keys = new ArrayList<>(1 + 2 * windows.length);
+        keys.add(bucketKey());
+        for (Quota.Window window : windows) {
+            keys.add(window.key());
+            keys.add(window.previousKey());
+        }
+        return keys;
+    }
+
+    /**
+     * 脚本参数：桶参数和配额参数，末尾留出 tail 个位置由调用方填写
+     *
+     * @param nowMicros 当前时间，单位为微秒
+     * @param windows 配额窗口
+     * @param tail 末尾预留的参数个数
+     * @return ARGV
+     */
+    Object[] scriptArgs(long nowMicros, Quota.Window[] windows, int tail) {
+        Object[] args = new Object[5 + 3 * windows.length + tail];
+        args[0] = nowMicros;
+        args[1] = name;
+        RateParams current = params.get();
+        args[2] = current.getMaxPermits();
+        args[3] = current.getIntervalMicros();
+        args[4] = windows.length;
+        long nowMillis = MICROSECONDS.toMillis(nowMicros);
+        for (int j = 0; j < windows.length; j++) {
+            Quota quota = quotas.get(j);
+            args[5 + 3 * j] = quota.getLimit();
+            args[6 + 3 * j] = windows[j].expireAtMillis();
+            args[7 + 3 * j] = Double.toString(quota.previousWeight(windows[j], nowMillis));
+        }
+        return args;
+    }
+
+    /**
+     * 估算再过多久可以在预设的超时时间内获取到 1 个令牌，用于拒绝请求时告知调用方重试时间
+     * NOTE: 额外读取一次桶，只应在拒绝之后调用
+     *
+     * @return 等待时间，单位为微秒
+     */
+    public long getRetryAfterMicros() {
+        return retryAfterMicros(getBucket());
+    }
+
+    /**
+     * 按桶的状态估算再过多久可以在预设的超时时间内获取到 1 个令牌
+     *
+     * @param bucket 令牌桶
+     * @return 等待时间，单位为微秒
+     */
+    long retryAfterMicros(PermitBucket bucket) {
+        long nowMicros = MILLISECONDS.toMicros(System.currentTimeMillis());
+        // 桶内已无令牌时，下一个令牌在 nextFree 之后一个间隔生成
+        long availableMicros = bucket.getNextFreeTicketMicros()
+                + (bucket.getStoredPermits() > 0 ? 0L : bucket.getIntervalMicros());
+        return max(availableMicros - nowMicros - getTimeoutMicros(), 0L);
+    }
+
+    /**
+     * 获取一个令牌
+     *
+     * @return 实际等待时间，单位为秒
+     */
+    @Override
+    public double acquire() {
+        return acquire(1);
+    }
+
+    /**
+     * 获取指定数量令牌
+     * NOTE: 阻塞获取不会被拒绝，因此不受优先级预留的限制，统计在 NORMAL 中；
+     * 长周期配额用完时无法等待，抛出 {@link QuotaExhaustedException}
+     *
+     * @return 实际等待时间，单位为秒
+     */
+    @Override
+    public double acquire(int permits) {
+        RateLimitAcquire event = RateLimitAcquire.start();
+        try {
+            // 计算等待时间（并做了实际扣减）
+            long microsToWait = reserve(permits);
+            event.decided(microsToWait);
+            priorityMetrics.record(PriorityEnum.NORMAL, true);
+            Limiter.parkMicrosUninterruptibly(microsToWait);
+            return 1.0 * microsToWait / SECONDS.toMicros(1L);
+        } finally {
+            event.finish(name, permits, PriorityEnum.NORMAL);
+        }
+    }
+
+    /**
+     * 尝试获取1个令牌
+     * - 考虑开关状态
+     * - 使用预设允许的最大等待时间和单位，单位为微秒
+     *
+     * @param switchConf 开关状态
+     * @return 获取结果
+     */
+    public boolean tryAcquire(String switchConf) {
+        if (SwitchEnum.OFF.getCode().equals(switchConf)) {
+            return true;
+        }
+
+        return tryAcquire(1, getTimeoutMicros(), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * 获取1个令牌, 指定预设允许的最大等待时间和单位（以微秒为单位）
+     *
+     * @return 获取结果
+     */
+    @Override
+    public boolean tryAcquire() {
+        return tryAcquire(1, getTimeoutMicros(), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * 按优先级获取1个令牌, 使用预设允许的最大等待时间
+     *
+     * @param priority 请求优先级
+     * @return 获取结果
+     */
+    public boolean tryAcquire(PriorityEnum priority) {
+        return tryAcquire(1, getTimeoutMicros(), TimeUnit.MICROSECONDS, priority);
+    }
+
+    /**
+     * 获取1个令牌, 指定允许的最大等待时间和单位（以毫秒为单位）
+     *
+     * @param timeoutMillis 获取这些令牌允许的最大等待时间（毫秒）
+     * @return 获取结果
+     */
+    public boolean tryAcquire(long timeoutMillis) {
+        return tryAcquire(1, timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取1个令牌, 指定允许的最大等待时间和单位
+     *
+     * @param timeout 获取这些令牌允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 获取结果
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) {
+        return tryAcquire(1, timeout, unit);
+    }
+
+    /**
+     * 尝试根据给定的条件（请求的令牌数量、超时时间）获取指定数量的令牌
+     * 获取成功或超时才返回
+     *
+     * @param permits 获取的令牌数
+     * @param timeout 获取这些令牌允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 获取结果
+     */
+    @Override
+    public boolean tryAcquire(long permits, long timeout, TimeUnit unit) {
+        return tryAcquire(permits, timeout, unit, PriorityEnum.NORMAL);
+    }
+
+    /**
+     * 异步获取指定数量的令牌，Redis 调用和等待都不占用调用线程
+     *
+     * @param permits 获取的令牌数
+     * @param timeout 获取这些令牌允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 获取结果，需要等待时在等待结束后完成
+     */
+    @Override
+    public CompletableFuture<Boolean> tryAcquireAsync(long permits, long timeout, TimeUnit unit) {
+        checkPermits(permits);
+        RateLimitAcquire event = RateLimitAcquire.start();
+        if (waitQueue != null && !waitQueue.tryEnter()) {
+            priorityMetrics.record(PriorityEnum.NORMAL, false);
+            event.queueFull();
+            event.finish(name, permits, PriorityEnum.NORMAL);
+            return CompletableFuture.completedFuture(false);
+        }
+        CompletableFuture<Boolean> result = reserveAsync(permits, boundTimeout(max(unit.toMicros(timeout), 0)),
+                reservedPermits(PriorityEnum.NORMAL))
+                .thenCompose(waitMicros -> {
+                    priorityMetrics.record(PriorityEnum.NORMAL, waitMicros >= 0);
+                    event.decided(waitMicros);
+                    return Limiter.afterWait(waitMicros);
+                });
+        if (waitQueue != null) {
+            result = result.whenComplete((acquired, e) -> waitQueue.leave());
+        }
+        return event.isEnabled()
+                ? result.whenComplete((acquired, e) -> event.finish(name, permits, PriorityEnum.NORMAL))
+                : result;
+    }
+
+    /**
+     * 只预定令牌，不等待，由调用方按返回的时间自行安排（例如虚拟时钟下的模拟、自定义的调度器）
+     * 超时时间按等待队列的最长等待时间限制，但不占用队列的排队数
+     *
+     * @param permits 获取的令牌数
+     * @param timeout 获取这些令牌允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 需要等待的时间，单位为微秒；无法获取时为 -1
+     */
+    public CompletableFuture<Long> tryReserveAsync(long permits, long timeout, TimeUnit unit) {
+        checkPermits(permits);
+        return reserveAsync(permits, boundTimeout(max(unit.toMicros(timeout), 0)),
+                reservedPermits(PriorityEnum.NORMAL))
+                .thenApply(waitMicros -> {
+                    priorityMetrics.record(PriorityEnum.NORMAL, waitMicros >= 0);
+                    return waitMicros >= 0 ? waitMicros : -1L;
+                });
+    }
+
+    /**
+     * 按等待队列的最长等待时间限制超时时间
+     *
+     * @param timeoutMicros 超时时间，单位为微秒
+     * @return 实际使用的超时时间
+     */
+    long boundTimeout(long timeoutMicros) {
+        return waitQueue == null ? timeoutMicros : waitQueue.boundTimeout(timeoutMicros);
+    }
+
+    /**
+     * 按优先级获取指定数量的令牌
+     * 低优先级只能使用预留之外的令牌，不够时直接被拒绝（不透支，避免推迟更高优先级的令牌）；判断和扣减在 Redis 端原子完成。
+     * 设置了等待队列时，队列已满直接拒绝，超时时间不超过队列的最长等待时间
+     *
+     * @param permits 获取的令牌数
+     * @param timeout 获取这些令牌允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @param priority 请求优先级
+     * @return 获取结果
+     */
+    public boolean tryAcquire(long permits, long timeout, TimeUnit unit, PriorityEnum priority) {
+        checkPermits(permits);
+        RateLimitAcquire event = RateLimitAcquire.start();
+        if (waitQueue != null && !waitQueue.tryEnter()) {
+            priorityMetrics.record(priority, false);
+            event.queueFull();
+            event.finish(name, permits, priority);
+            return false;
+        }
+        try {
+            long timeoutMicros = boundTimeout(max(unit.toMicros(timeout), 0));
+            // 判断是否可以在超时时间内获取到指定数量的令牌，可以则直接扣减
+            long waitMicros = reserveAndGetWaitLength(permits, timeoutMicros, reservedPermits(priority));
+            priorityMetrics.record(priority, waitMicros >= 0);
+            event.decided(waitMicros);
+            if (waitMicros < 0) {
+                return false;
+            }
+
+            Limiter.parkMicrosUninterruptibly(waitMicros);
+            return true;
+        } finally {
+            if (waitQueue != null) {
+                waitQueue.leave();
+            }
+            event.finish(name, permits, priority);
+        }
+    }
+
+    /**
+     * 添加指定数量令牌, 不能超过桶的大小
+     *
+     * @param permits 要添加的令牌数
+     * @throws UnsupportedOperationException 存储引擎不支持添加令牌，可以先通过 {@link #supportsAddPermits()} 判断
+     */
+    public void addPermits(long permits) {
+        checkPermits(permits);
+        if (!store.supportsAddPermits()) {
+            throw new UnsupportedOperationException("RateLimiter " + name + ": adding permits is not supported by the "
+                    + store.getClass().getSimpleName());
+        }
+        store.addPermits(permits);
+    }
+
+    /**
+     * 存储引擎是否支持添加令牌
+     *
+     * @return 是否支持
+     */
+    public boolean supportsAddPermits() {
+        return store.supportsAddPermits();
+    }
+
+//    /**
+//     * 当前是否可以获取到令牌，如果获取不到，至少需要等多久
+//     *
+//     * @param permits 请求的令牌数
+//     * @return 等待时间，单位是纳秒。为 0 表示可以马上获取
+//     */
+//    private long canAcquire(long permits) {
+//        // 读取redis中的令牌数据, 同步令牌状态, 写回redis
+//        PermitBucket bucket = getBucket();
+//        long now = System.nanoTime();
+//        bucket.reSync(now);
+//        setBucket(bucket);
+//
+//        if (permits <= bucket.getStoredPermits()) {
+//            return 0L;
+//        } else {
+//            return (permits - bucket.getStoredPermits()) * bucket.getIntervalMicros();
+//        }
+//    }
+
+    private boolean acquireInTime(long startNanos, long waitNanos, long timeoutNanos) {
+//        return waitNanos - timeoutNanos <= startNanos;
+        return waitNanos <= timeoutNanos;
+    }
+
+    /**
+     * 校验 permits 值是否合法
+     *
+     * @param permits permits 值
+     */
+    private void checkPermits(long permits) {
+        if (permits < 0) {
+            throw new IllegalArgumentException("Request/Put permits " + permits + " must be positive");
+        }
+    }
+}
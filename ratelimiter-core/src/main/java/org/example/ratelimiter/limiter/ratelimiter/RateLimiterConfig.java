@@ -0,0 +1,173 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.common.constant.Constants;
+import org.example.ratelimiter.common.constant.PriorityEnum;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.store.BucketStore;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 限流器完整配置
+ *
+ * @author Percy
+ * @date 2024/12/13
+ */
+@Getter
+@ToString
+public class RateLimiterConfig {
+    /**
+     * 唯一标识
+     */
+    private final String name;
+
+    /**
+     * 每秒存入的令牌数
+     */
+    private final long permitsPerSecond;
+
+    /**
+     * 最大存储令牌数
+     */
+    private final long maxPermits;
+
+    /**
+     * 缓存比例
+     */
+    private final float cache;
+
+    /**
+     * 用于对Redis进行读取和查找操作
+     */
+    private final RedissonService redisService;
+
+    /**
+     * 请求合并窗口，单位为微秒，0 表示不合并
+     * 开启后同一节点在窗口内的并发请求会合并为一次 Redis 调用
+     */
+    @Setter
+    private long batchWindowMicros;
+
+    /**
+     * 单次合并的最大请求数，排满后不等窗口结束直接提交
+     */
+    @Setter
+    private int maxBatchSize = Constants.MAX_BATCH_SIZE;
+
+    /**
+     * 紧凑存储的渠道，通常为 channelType；为空时桶以 JSON 单独存为一个 key
+     * 设置后同一渠道的桶以 32 字节定长二进制存放在一个 hash 中，脚本只读写本限流器的字段
+     * NOTE: 一个渠道的所有桶在同一个 key 上，集群模式下落在同一个节点
+     */
+    @Setter
+    private String channel;
+
+    /**
+     * 每个节点最多排队等待令牌的请求数，0 表示不限制；排满后新请求直接拒绝，不访问 Redis
+     */
+    @Setter
+    private int maxQueued;
+
+    /**
+     * 排队等待令牌的最长时间，单位为微秒，小于 0 表示只按缓存比例计算超时时间
+     * 设置了 maxQueued 或 maxWaitMicros 后，同一节点的请求按到达顺序获取令牌，见 {@link WaitQueue}
+     */
+    @Setter
+    private long maxWaitMicros = -1L;
+
+    /**
+     * 令牌桶存储引擎，默认为 Redis Lua 脚本
+     * 配额和请求合并只有脚本引擎支持；内存引擎不访问 Redis，redisService 可以为 null
+     */
+    @Setter
+    private BucketStoreEnum store = BucketStoreEnum.SCRIPT;
+
+    /**
+     * 自定义的存储引擎实例，设置后忽略 store，例如多节点模拟中共享同一个后端的客户端
+     * 与非脚本引擎一样不支持配额和请求合并
+     */
+    @Setter
+    private BucketStore bucketStore;
+
+    /**
+     * 各优先级需要给更高优先级预留的令牌比例（相对最大存储令牌数），未设置的优先级不预留
+     */
+    private final Map<PriorityEnum, Float> reservedRatios = new EnumMap<>(PriorityEnum.class);
+
+    /**
+     * 长周期配额，与每秒的令牌桶一起检查
+     */
+    private final List<Quota> quotas = new ArrayList<>();
+
+    /**
+     * 限流参数取默认值，没有缓存
+     *
+     * @param name 限流器名称
+     * @param redisService redis服务
+     */
+    public RateLimiterConfig(String name, RedissonService redisService) {
+        this(name, Constants.PERMITS_PER_SECOND, Constants.MAX_PERMITS, 0F, redisService);
+    }
+
+    /**
+     * 桶的大小一秒钟就可以填满，没有缓存
+     *
+     * @param name 限流器名称
+     * @param permitsPerSecond 每秒存入的令牌数
+     * @param redisService redis服务
+     */
+    public RateLimiterConfig(String name, long permitsPerSecond, RedissonService redisService) {
+        this(name, permitsPerSecond, permitsPerSecond, 0F, redisService);
+    }
+
+    /**
+     * 桶的大小一秒钟就可以填满，指定缓存大小
+     *
+     * @param name 限流器名称
+     * @param permitsPerSecond 每秒存入的令牌数
+     * @param cache 缓存比例
+     * @param redisService redis服务
+     */
+    public RateLimiterConfig(String name, long permitsPerSecond, float cache, RedissonService redisService) {
+        this(name, permitsPerSecond, permitsPerSecond, cache, redisService);
+    }
+
+    public RateLimiterConfig(String name, long permitsPerSecond, long maxPermits, float cache, RedissonService redisService) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxPermits = maxPermits;
+        this.cache = cache;
+        this.redisService = redisService;
+    }
+
+    /**
+     * 设置优先级的预留比例
+     * 例如 LOW 设置为 0.5 时，桶内令牌低于一半后低优先级请求会被直接拒绝，剩下的令牌留给更高优先级
+     *
+     * @param priority 请求优先级
+     * @param ratio 预留比例，0~1
+     */
+    public void setReservedRatio(PriorityEnum priority, float ratio) {
+        if (ratio < 0F || ratio > 1F) {
+            throw new IllegalArgumentException("Reserved ratio " + ratio + " must be between 0 and 1");
+        }
+        reservedRatios.put(priority, ratio);
+    }
+
+    /**
+     * 添加长周期配额，例如 每小时/每天/每月 的总量，或者滚动窗口总量
+     * 每次获取令牌时在同一次 Redis 调用中与令牌桶一起检查，任意一个配额不足都会拒绝
+     *
+     * @param quota 配额
+     */
+    public void addQuota(Quota quota) {
+        quotas.add(quota);
+    }
+}
@@ -0,0 +1,268 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import com.alibaba.fastjson.JSON;
+import org.example.ratelimiter.common.constant.LimiterModeEnum;
+import org.example.ratelimiter.common.mmap.config.MappedFileConfig;
+import org.example.ratelimiter.common.redis.key.common.RateChangeKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.common.server.config.TokenServerConfig;
+import org.example.ratelimiter.limiter.audit.ThrottleAudit;
+import org.example.ratelimiter.limiter.base.Factory;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.mmap.MappedBucketFile;
+import org.example.ratelimiter.limiter.mmap.MappedRateLimiter;
+import org.example.ratelimiter.limiter.remote.RemoteRateLimiter;
+import org.example.ratelimiter.limiter.remote.TokenClient;
+import org.redisson.api.RTopic;
+import org.redisson.client.codec.StringCodec;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 限流器工厂类
+ * 管理所有实例。不依赖 Spring：普通程序直接 new 一个工厂，Spring 中由自动配置创建为单例。
+ * 限流器和共享的连接、文件都属于工厂实例，多个工厂互不影响
+ *
+ * @author Percy
+ * @date 2024/12/13
+ */
+public class RateLimiterFactory implements Factory {
+    /**
+     * 双向存储检索
+     */
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+    private final Map<RateLimiter, String> rateLimiterNames = new ConcurrentHashMap<>();
+
+    /**
+     * 是否已订阅参数变更通知
+     */
+    private final AtomicBoolean rateChangeSubscribed = new AtomicBoolean();
+
+    /**
+     * 参数变更通知的订阅，关闭时取消
+     */
+    private volatile RTopic rateChangeTopic;
+
+    private volatile int rateChangeListenerId;
+
+    /**
+     * 令牌服务模式下的限流器
+     */
+    private final Map<String, RemoteRateLimiter> remoteRateLimiters = new ConcurrentHashMap<>();
+
+    /**
+     * 内存映射文件模式下的限流器
+     */
+    private final Map<String, MappedRateLimiter> mappedRateLimiters = new ConcurrentHashMap<>();
+
+    private final TokenServerConfig tokenServerConfig;
+
+    private final MappedFileConfig mappedFileConfig;
+
+    /**
+     * 本机共享的令牌桶文件，首次使用时映射
+     */
+    private volatile MappedBucketFile mappedFile;
+
+    /**
+     * 令牌服务客户端，所有限流器共用一条连接，首次使用时创建
+     */
+    private volatile TokenClient tokenClient;
+
+    /**
+     * 限流统计，未开启时为 null
+     */
+    private volatile ThrottleAudit audit;
+
+    /**
+     * 使用默认配置：Redis 模式，内存映射文件位于临时目录
+     */
+    public RateLimiterFactory() {
+        this(new TokenServerConfig(), new MappedFileConfig());
+    }
+
+    /**
+     * 使用指定的配置
+     *
+     * @param tokenServerConfig 运行模式和令牌服务地址
+     * @param mappedFileConfig 内存映射文件模式的文件路径和槽位数
+     */
+    public RateLimiterFactory(TokenServerConfig tokenServerConfig, MappedFileConfig mappedFileConfig) {
+        this.tokenServerConfig = tokenServerConfig;
+        this.mappedFileConfig = mappedFileConfig;
+    }
+
+    /**
+     * 开启限流统计，已创建和之后创建的限流器的放行/拒绝次数每秒汇总一次
+     * NOTE: 只统计 Redis 模式（含内存引擎）的限流器
+     *
+     * @param audit 限流统计
+     */
+    public void setAudit(ThrottleAudit audit) {
+        this.audit = audit;
+        rateLimiters.forEach((name, rateLimiter) -> audit.register(name, rateLimiter.getPriorityMetrics()));
+    }
+
+    /**
+     * 按配置的运行模式获取限流器
+     * ratelimiter.mode=server 时使用令牌服务，mapped 时使用本机内存映射文件，否则使用 Redis
+     *
+     * @param config 限流器配置
+     * @return 取出或创建的限流器
+     */
+    public Limiter getLimiter(RateLimiterConfig config) {
+        if (LimiterModeEnum.SERVER.getCode().equals(tokenServerConfig.getMode())) {
+            return remoteRateLimiters.computeIfAbsent(config.getName(),
+                    name -> new RemoteRateLimiter(config, getTokenClient()));
+        }
+        if (LimiterModeEnum.MAPPED.getCode().equals(tokenServerConfig.getMode())) {
+            return getMappedLimiter(config);
+        }
+        return getPermitLimiter(config);
+    }
+
+    /**
+     * 获取本机进程间共享的限流器，文件中不存在则用配置创建
+     *
+     * @param config 限流器配置
+     * @return 取出或创建的限流器
+     */
+    public MappedRateLimiter getMappedLimiter(RateLimiterConfig config) {
+        return mappedRateLimiters.computeIfAbsent(config.getName(),
+                name -> MappedRateLimiter.getOrCreate(getMappedFile(), config));
+    }
+
+    /**
+     * 按接口名获取本机其他进程已经创建的限流器
+     * 适用于只需要遵守限流、不掌握限流配置的进程（例如 sidecar）
+     *
+     * @param interfaceNo 接口名，即限流器名称
+     * @return 限流器，文件中不存在时为 null
+     */
+    public MappedRateLimiter getMappedLimiter(String interfaceNo) {
+        MappedRateLimiter rateLimiter = mappedRateLimiters.get(interfaceNo);
+        if (rateLimiter == null) {
+            rateLimiter = MappedRateLimiter.find(getMappedFile(), interfaceNo);
+            if (rateLimiter != null) {
+                MappedRateLimiter existing = mappedRateLimiters.putIfAbsent(interfaceNo, rateLimiter);
+                rateLimiter = existing != null ? existing : rateLimiter;
+            }
+        }
+        return rateLimiter;
+    }
+
+    private MappedBucketFile getMappedFile() {
+        if (mappedFile == null) {
+            synchronized (this) {
+                if (mappedFile == null) {
+                    mappedFile = MappedBucketFile.open(Path.of(mappedFileConfig.getPath()), mappedFileConfig.getSlots());
+                }
+            }
+        }
+        return mappedFile;
+    }
+
+    private TokenClient getTokenClient() {
+        if (tokenClient == null) {
+            synchronized (this) {
+                if (tokenClient == null) {
+                    tokenClient = new TokenClient(tokenServerConfig.getHost(), tokenServerConfig.getPort(),
+                            tokenServerConfig.getTimeoutMillis());
+                }
+            }
+        }
+        return tokenClient;
+    }
+
+    /**
+     * 按配置名称获取限流器，不存在则用配置创建
+     *
+     * @param config 限流器配置
+     * @return 取出或创建的限流器
+     */
+    public RateLimiter getPermitLimiter(RateLimiterConfig config) {
+        RateLimiter rateLimiter = rateLimiters.get(config.getName());
+        if (rateLimiter == null) {
+            if (config.getRedisService() != null) {
+                subscribeRateChange(config.getRedisService());
+            }
+            rateLimiter = new RateLimiter(config);
+            String name = rateLimiter.getName();
+            rateLimiters.putIfAbsent(name, rateLimiter);
+            rateLimiterNames.putIfAbsent(rateLimiter, name);
+
+            // TODO 为什么又获取一遍，直接返回会不会更好
+            rateLimiter = rateLimiters.get(name);
+            ThrottleAudit current = audit;
+            if (current != null) {
+                current.register(name, rateLimiter.getPriorityMetrics());
+            }
+            // TODO 这个方法调用需要加锁吗？
+            // 配置存到redis中
+            rateLimiter.putDefaultBucket();
+        }
+
+        return rateLimiter;
+    }
+
+    /**
+     * 订阅参数变更通知，其他节点修改速率后刷新本节点同名限流器的本地参数
+     *
+     * @param redisService redis服务
+     */
+    private void subscribeRateChange(RedissonService redisService) {
+        if (!rateChangeSubscribed.compareAndSet(false, true)) {
+            return;
+        }
+        RTopic topic = redisService.getTopic(RateChangeKey.rateChange, RateLimiter.RATE_CHANGE_TOPIC, StringCodec.INSTANCE);
+        rateChangeListenerId = topic.addListener(String.class, (channel, message) -> {
+            RateChange change = JSON.parseObject(message, RateChange.class);
+            RateLimiter rateLimiter = rateLimiters.get(change.getName());
+            if (rateLimiter != null) {
+                rateLimiter.applyRate(change.getPermitsPerSecond(), change.getMaxPermits());
+            }
+        });
+        rateChangeTopic = topic;
+    }
+
+    /**
+     * 注销限流器
+     *
+     * @param obj the obj
+     */
+    @Override
+    public void destroy(Object obj) {
+        if (obj instanceof RateLimiter) {
+            String name = rateLimiterNames.remove(obj);
+            rateLimiters.remove(name);
+            ThrottleAudit current = audit;
+            if (current != null && name != null) {
+                current.unregister(name);
+            }
+        } else if (obj instanceof RemoteRateLimiter remoteRateLimiter) {
+            remoteRateLimiters.remove(remoteRateLimiter.getName());
+        } else if (obj instanceof MappedRateLimiter mappedRateLimiter) {
+            // 只移除本进程的实例，文件中的槽位由其他进程继续共享
+            mappedRateLimiters.remove(mappedRateLimiter.getName());
+        }
+    }
+
+    /**
+     * 取消参数变更通知的订阅，关闭令牌服务连接和内存映射文件
+     */
+    public void close() {
+        RTopic topic = rateChangeTopic;
+        if (topic != null) {
+            topic.removeListener(rateChangeListenerId);
+        }
+        if (tokenClient != null) {
+            tokenClient.close();
+        }
+        if (mappedFile != null) {
+            mappedFile.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.example.ratelimiter.common.constant.PriorityEnum;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流器的本地参数，不可变
+ * 修改速率、桶大小或缓存比例时整体替换，获取令牌时读到的速率、超时时间和预留令牌数总是同一组参数
+ */
+@Getter
+final class RateParams {
+    /**
+     * 每秒存入的令牌数
+     */
+    private final long permitsPerSecond;
+
+    /**
+     * 最大存储令牌数
+     */
+    private final long maxPermits;
+
+    /**
+     * 令牌生成间隔，单位为微秒
+     */
+    private final long intervalMicros;
+
+    /**
+     * 缓存比例
+     */
+    private final float cache;
+
+    /**
+     * 超时时间 - 由缓存队列比例计算
+     */
+    private final long timeoutMicros;
+
+    /**
+     * 各优先级需要给更高优先级预留的令牌数，按 {@link PriorityEnum#ordinal()} 索引
+     */
+    @Getter(AccessLevel.NONE)
+    private final long[] reservedPermits;
+
+    RateParams(long permitsPerSecond, long maxPermits, float cache, Map<PriorityEnum, Float> reservedRatios) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxPermits = maxPermits;
+        this.intervalMicros = TimeUnit.SECONDS.toMicros(1) / permitsPerSecond;
+        this.cache = cache;
+        // 缓存比例*每秒生成的令牌数=缓存队列长度；缓存队列长度*单个令牌生成速率=该缓存队列生成满的时间
+        this.timeoutMicros = (long) (cache * permitsPerSecond * intervalMicros);
+        this.reservedPermits = new long[PriorityEnum.values().length];
+        reservedRatios.forEach((priority, ratio) ->
+                reservedPermits[priority.ordinal()] = (long) Math.ceil(ratio * maxPermits));
+    }
+
+    /**
+     * 该优先级需要给更高优先级预留的令牌数
+     *
+     * @param priority 请求优先级
+     * @return 预留令牌数
+     */
+    long reservedPermits(PriorityEnum priority) {
+        return reservedPermits[priority.ordinal()];
+    }
+}
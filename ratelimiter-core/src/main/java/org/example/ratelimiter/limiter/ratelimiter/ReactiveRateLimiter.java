@@ -0,0 +1,164 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.Getter;
+import org.example.ratelimiter.common.constant.PriorityEnum;
+import org.example.ratelimiter.common.redis.key.common.PermitBucketKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.redisson.api.RScript;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * {@link RateLimiter} 的响应式视图，适用于 WebFlux 等运行在事件循环上的调用方
+ * 通过 Redisson 的响应式 API 执行与同步版本相同的 {@link PermitBucketScript#RESERVE} 脚本，
+ * 需要等待时以 {@link Mono#delay} 在调度器上延迟发出，不阻塞、不休眠任何线程；
+ * 开启请求合并或使用其他存储引擎的限流器走引擎自己的异步预定
+ */
+public class ReactiveRateLimiter {
+    @Getter
+    private final RateLimiter rateLimiter;
+
+    private final RedissonService redisService;
+
+    /**
+     * 发出延迟信号的调度器
+     */
+    private final Scheduler scheduler;
+
+    public ReactiveRateLimiter(RateLimiter rateLimiter, RedissonService redisService) {
+        this(rateLimiter, redisService, Schedulers.parallel());
+    }
+
+    public ReactiveRateLimiter(RateLimiter rateLimiter, RedissonService redisService, Scheduler scheduler) {
+        this.rateLimiter = rateLimiter;
+        this.redisService = redisService;
+        this.scheduler = scheduler;
+    }
+
+    public String getName() {
+        return rateLimiter.getName();
+    }
+
+    /**
+     * 使用限流器预设的最大等待时间获取 1 个令牌
+     *
+     * @return 获取结果，需要等待时在等待结束后发出
+     */
+    public Mono<Boolean> tryAcquire() {
+        return tryAcquire(1L, rateLimiter.getTimeoutMicros(), TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * 在超时时间内获取指定数量的令牌，订阅时才访问 Redis
+     *
+     * @param permits 令牌数
+     * @param timeout 允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 获取结果，需要等待时在等待结束后发出
+     */
+    public Mono<Boolean> tryAcquire(long permits, long timeout, TimeUnit unit) {
+        long timeoutMicros = rateLimiter.boundTimeout(max(unit.toMicros(timeout), 0L));
+        Mono<Boolean> acquire = reserve(permits, timeoutMicros, rateLimiter.reservedPermits(PriorityEnum.NORMAL))
+                .flatMap(waitMicros -> {
+                    rateLimiter.getPriorityMetrics().record(PriorityEnum.NORMAL, waitMicros >= 0);
+                    if (waitMicros < 0) {
+                        return Mono.just(false);
+                    }
+                    return delay(waitMicros).thenReturn(true);
+                });
+        WaitQueue waitQueue = rateLimiter.getWaitQueue();
+        if (waitQueue == null) {
+            return acquire;
+        }
+        return Mono.defer(() -> {
+            if (!waitQueue.tryEnter()) {
+                rateLimiter.getPriorityMetrics().record(PriorityEnum.NORMAL, false);
+                return Mono.just(false);
+            }
+            return acquire.doFinally(signal -> waitQueue.leave());
+        });
+    }
+
+    /**
+     * 获取指定数量的令牌，不限制等待时间，用于按限流速率匀速发出元素
+     * 与同步的 {@link RateLimiter#acquire(int)} 相同，不受优先级预留的限制；配额用完时以 {@link QuotaExhaustedException} 结束
+     *
+     * @param permits 令牌数
+     * @return 等待结束后完成
+     */
+    public Mono<Void> acquire(long permits) {
+        return reserve(permits, -1L, 0L).flatMap(waitMicros -> {
+            if (waitMicros == -1L) {
+                // 不限制等待时间、不预留时不应被拒绝
+                return Mono.error(new IllegalStateException("Unexpected rejection of " + permits + " permits from " + getName()));
+            }
+            if (waitMicros < 0) {
+                int index = (int) (-2L - waitMicros);
+                return Mono.error(new QuotaExhaustedException(getName(), rateLimiter.getQuotas().get(index)));
+            }
+            return delay(waitMicros);
+        });
+    }
+
+    /**
+     * 估算再过多久可以在预设的超时时间内获取到 1 个令牌，语义同 {@link RateLimiter#getRetryAfterMicros()}
+     *
+     * @return 等待时间，单位为微秒
+     */
+    public Mono<Long> getRetryAfterMicros() {
+        if (!rateLimiter.isScriptReservable()) {
+            return Mono.fromCallable(rateLimiter::getRetryAfterMicros).subscribeOn(Schedulers.boundedElastic());
+        }
+        Mono<PermitBucket> bucket = rateLimiter.getChannel() != null
+                ? redisService.hgetBytesReactive(PermitBucketKey.channelBuckets, rateLimiter.getChannel(), getName())
+                .map(bytes -> CompactBucketCodec.decode(getName(), bytes))
+                : redisService.getReactive(PermitBucketKey.permitBucket, getName(), PermitBucket.class);
+        return bucket.map(rateLimiter::retryAfterMicros)
+                .defaultIfEmpty(0L);
+    }
+
+    /**
+     * 预定令牌
+     *
+     * @param permits 令牌数
+     * @param timeoutMicros 允许的最大等待时间，单位为微秒，小于 0 表示不限制
+     * @param reservedPermits 需要给更高优先级预留的令牌数
+     * @return 需要等待的时间，单位为微秒；超时时间内无法获取时为 -1，配额用完时为 -2-配额下标
+     */
+    private Mono<Long> reserve(long permits, long timeoutMicros, long reservedPermits) {
+        if (permits < 0) {
+            return Mono.error(new IllegalArgumentException("Request/Put permits " + permits + " must be positive"));
+        }
+        return Mono.defer(() -> {
+            if (!rateLimiter.isScriptReservable()) {
+                return Mono.fromFuture(rateLimiter.reserveAsync(permits, timeoutMicros, reservedPermits));
+            }
+            long nowMillis = System.currentTimeMillis();
+            long exhausted = rateLimiter.checkQuotaLocally(nowMillis);
+            if (exhausted < 0) {
+                return Mono.just(exhausted);
+            }
+            Quota.Window[] windows = rateLimiter.quotaWindows(nowMillis);
+            Object[] args = rateLimiter.scriptArgs(MILLISECONDS.toMicros(nowMillis), windows, 3);
+            args[args.length - 3] = permits;
+            args[args.length - 2] = timeoutMicros;
+            args[args.length - 1] = reservedPermits;
+            return redisService.<Long>evalReactive(rateLimiter.scriptKeys(windows),
+                    rateLimiter.reserveScript(false), RScript.ReturnType.INTEGER, args).map(rateLimiter::onReserved);
+        });
+    }
+
+    private Mono<Void> delay(long waitMicros) {
+        if (waitMicros == 0L) {
+            return Mono.empty();
+        }
+        return Mono.delay(Duration.ofNanos(TimeUnit.MICROSECONDS.toNanos(waitMicros)), scheduler).then();
+    }
+}
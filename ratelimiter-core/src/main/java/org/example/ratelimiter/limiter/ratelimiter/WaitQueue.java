@@ -0,0 +1,119 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import lombok.Getter;
+import org.example.ratelimiter.common.jfr.RateLimitLockWait;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static java.lang.Math.min;
+
+/**
+ * 单个节点上等待令牌的请求队列
+ * - 队列长度有上限：正在预定或等待令牌的请求数达到 maxQueued 后，新请求直接拒绝，不访问 Redis
+ * - 等待时间有上限：超时时间不超过 maxWaitMicros，透支的令牌不会超过这段时间内生成的数量
+ * - 按到达顺序授予：预定在公平锁内按到达顺序提交，脚本按收到的顺序分配令牌，等待时间随之递增。
+ *   锁只覆盖提交，不覆盖 Redis 往返；Redisson 使用多个连接时，几乎同时提交的请求可能相邻交换
+ */
+public class WaitQueue {
+    /**
+     * 限流器名称
+     */
+    private final String name;
+
+    /**
+     * 最多排队的请求数
+     */
+    @Getter
+    private final int maxQueued;
+
+    /**
+     * 最长等待时间，单位为微秒，小于 0 表示不限制
+     */
+    @Getter
+    private final long maxWaitMicros;
+
+    private final AtomicInteger queued = new AtomicInteger();
+
+    /**
+     * 公平锁，按到达顺序提交预定
+     */
+    private final ReentrantLock submitLock = new ReentrantLock(true);
+
+    /**
+     * 因队列已满被拒绝的请求数
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    WaitQueue(String name, int maxQueued, long maxWaitMicros) {
+        this.name = name;
+        this.maxQueued = maxQueued > 0 ? maxQueued : Integer.MAX_VALUE;
+        this.maxWaitMicros = maxWaitMicros;
+    }
+
+    /**
+     * 进入队列，已满时立即返回 false
+     *
+     * @return 是否进入队列，进入后必须调用 {@link #leave()}
+     */
+    boolean tryEnter() {
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 获取成功后等待结束，或者获取失败时离开队列
+     */
+    void leave() {
+        queued.decrementAndGet();
+    }
+
+    /**
+     * 按最长等待时间限制超时时间
+     *
+     * @param timeoutMicros 请求的超时时间，单位为微秒，小于 0 表示不限制
+     * @return 实际使用的超时时间
+     */
+    long boundTimeout(long timeoutMicros) {
+        if (maxWaitMicros < 0) {
+            return timeoutMicros;
+        }
+        return timeoutMicros < 0 ? maxWaitMicros : min(timeoutMicros, maxWaitMicros);
+    }
+
+    /**
+     * 按到达顺序提交预定
+     *
+     * @param reserve 发起预定，应当只提交而不等待结果
+     * @return 预定结果
+     */
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> reserve) {
+        RateLimitLockWait event = new RateLimitLockWait();
+        event.begin();
+        submitLock.lock();
+        event.finish(name, queued.get());
+        try {
+            return reserve.get();
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    /**
+     * 正在预定或等待令牌的请求数
+     */
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.ratelimiter.limiter.region;
+
+import lombok.Getter;
+import org.example.ratelimiter.common.redis.key.common.RegionKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.redisson.api.RScript;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 直接读取对端区域 Redis 中的计数
+ */
+public class RedisRegionPeer implements RegionPeer {
+    @Getter
+    private final String region;
+
+    /**
+     * 连接对端区域 Redis 的服务
+     */
+    private final RedissonService redisService;
+
+    public RedisRegionPeer(String region, RedissonService redisService) {
+        this.region = region;
+        this.redisService = redisService;
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Long>> fetch(String name) {
+        return redisService.<List<Object>>evalAsync(RegionKey.regionCounter, name, RegionCounterScript.READ,
+                RScript.ReturnType.MULTI).toCompletableFuture().thenApply(RegionCounters::parse);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.ratelimiter.limiter.region;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * 区域计数 Lua 脚本
+ * 每个区域的计数只由本区域递增（只增计数器），其他区域的计数按字段取最大值合并，
+ * 合并满足交换律、结合律和幂等，同步消息延迟、重复或乱序都不影响最终结果
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class RegionCounterScript {
+    /**
+     * 累加本区域的计数并合并其他区域的计数，返回合并后的全部计数
+     * ARGV[1] 本区域 ARGV[2] 放行的令牌数增量 ARGV[3] 请求的令牌数增量 ARGV[4..] 其他区域的 字段, 计数
+     */
+    public static final String MERGE = """
+            local key = KEYS[1]
+            redis.call('HINCRBY', key, ARGV[1] .. ':c', ARGV[2])
+            redis.call('HINCRBY', key, ARGV[1] .. ':d', ARGV[3])
+            for i = 4, #ARGV, 2 do
+                local current = tonumber(redis.call('HGET', key, ARGV[i]) or '0')
+                if tonumber(ARGV[i + 1]) > current then
+                    redis.call('HSET', key, ARGV[i], ARGV[i + 1])
+                end
+            end
+            return redis.call('HGETALL', key)
+            """;
+
+    /**
+     * 读取全部计数，供其他区域拉取
+     */
+    public static final String READ = """
+            return redis.call('HGETALL', KEYS[1])
+            """;
+}
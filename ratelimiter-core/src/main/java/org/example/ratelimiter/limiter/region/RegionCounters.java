@@ -0,0 +1,55 @@
+package org.example.ratelimiter.limiter.region;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 区域计数的字段格式
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+class RegionCounters {
+    /**
+     * 放行的令牌数
+     */
+    static final String CONSUMED = ":c";
+
+    /**
+     * 请求的令牌数，包括被拒绝的
+     */
+    static final String DEMAND = ":d";
+
+    /**
+     * 解析 HGETALL 的结果
+     *
+     * @param flat 字段和值交替排列
+     * @return 字段 -> 计数
+     */
+    static Map<String, Long> parse(List<Object> flat) {
+        Map<String, Long> counters = new HashMap<>();
+        for (int i = 0; i + 1 < flat.size(); i += 2) {
+            counters.put(String.valueOf(flat.get(i)), Long.parseLong(String.valueOf(flat.get(i + 1))));
+        }
+        return counters;
+    }
+
+    /**
+     * 按区域取出指定类型的计数
+     *
+     * @param counters 字段 -> 计数
+     * @param suffix {@link #CONSUMED} 或 {@link #DEMAND}
+     * @return 区域 -> 计数
+     */
+    static Map<String, Long> byRegion(Map<String, Long> counters, String suffix) {
+        Map<String, Long> regions = new HashMap<>();
+        counters.forEach((field, count) -> {
+            if (field.endsWith(suffix)) {
+                regions.put(field.substring(0, field.length() - suffix.length()), count);
+            }
+        });
+        return regions;
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.ratelimiter.limiter.region;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 其他区域的计数来源
+ */
+public interface RegionPeer {
+    /**
+     * 对端区域名称
+     */
+    String getRegion();
+
+    /**
+     * 拉取对端已知的全部区域计数
+     *
+     * @param name 限流器名称
+     * @return 字段 -> 计数，字段为 区域:c 或 区域:d
+     */
+    CompletableFuture<Map<String, Long>> fetch(String name);
+}
@@ -0,0 +1,332 @@
+package org.example.ratelimiter.limiter.region;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.common.redis.key.common.RegionKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.example.ratelimiter.utils.FairShareUtils;
+import org.redisson.api.RScript;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * 多区域共享一个全局速率的限流器
+ * 每个区域只访问本区域的 Redis：令牌由本区域的 {@link RateLimiter} 按该区域分到的速率（allowance）扣减，
+ * 区域之间只按同步周期交换各区域的放行/请求计数（只增计数器，按字段取最大值合并，见 {@link RegionCounterScript}）。
+ * <p>
+ * 每次同步后按各区域最近的请求速率做最大最小公平划分：请求速率低于平均份额的区域按需分配（留出 {@link #HEADROOM} 的余量），
+ * 剩下的速率在其余区域之间平分，每个区域至少分到 {@link #MIN_SHARE}；
+ * 各区域的划分结果只在看到的计数不一致时不同，这段时间不超过一个同步周期加上链路延迟，
+ * 因此超发量不超过 全局速率 * (同步周期 + 链路延迟)，另加各区域桶内的突发令牌。
+ * 对端不可用时继续使用上一次的划分，不影响本区域的获取。
+ * NOTE: 不支持长周期配额，配额的计数 key 在各区域的 Redis 中相互独立
+ */
+@Slf4j
+public class RegionQuotaLimiter implements Limiter, AutoCloseable {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ratelimiter-region-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 每个区域至少分到的份额，没有流量的区域在流量到来后不必等到下一次同步才能获取令牌
+     */
+    private static final double MIN_SHARE = 0.05;
+
+    /**
+     * 按需分配时在请求速率之上留出的余量，请求有波动时不会在自己的需求附近被拒绝
+     */
+    private static final double HEADROOM = 0.25;
+
+    /**
+     * 需求量的平滑系数，越大越快跟随最近一个周期
+     */
+    private static final double ALPHA = 0.5;
+
+    /**
+     * 分到的速率变化小于该比例时不修改本区域的限流器
+     */
+    private static final double MIN_CHANGE = 0.05;
+
+    /**
+     * 唯一标识，各区域相同
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * 本区域名称
+     */
+    @Getter
+    private final String region;
+
+    /**
+     * 全局每秒令牌数，由所有区域共享
+     */
+    @Getter
+    private final long permitsPerSecond;
+
+    /**
+     * 全局最大存储令牌数，按速率的划分比例分给各区域
+     */
+    private final long maxPermits;
+
+    /**
+     * 同步周期，单位为毫秒
+     */
+    @Getter
+    private final long syncIntervalMillis;
+
+    /**
+     * 本区域的 Redis
+     */
+    private final RedissonService redisService;
+
+    private final List<RegionPeer> peers;
+
+    /**
+     * 本区域的限流器，速率为本区域分到的 allowance
+     */
+    @Getter
+    private final RateLimiter rateLimiter;
+
+    /**
+     * 上次同步之后本节点放行和请求的令牌数
+     */
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder demand = new LongAdder();
+
+    /**
+     * 上次同步时各区域的请求令牌数
+     */
+    private Map<String, Long> lastDemand = Map.of();
+
+    /**
+     * 各区域平滑后的每周期请求令牌数
+     */
+    private final Map<String, Double> smoothedDemand = new HashMap<>();
+
+    /**
+     * 上次同步后各区域累计放行的令牌数
+     */
+    @Getter
+    private volatile Map<String, Long> consumedByRegion = Map.of();
+
+    /**
+     * 上一次同步还没有完成时跳过本次同步
+     */
+    private final AtomicBoolean syncing = new AtomicBoolean();
+
+    private ScheduledFuture<?> task;
+
+    /**
+     * 构造函数，初始时全局速率在所有区域之间平分
+     *
+     * @param config 限流器配置，速率和桶大小为全局值，redisService 为本区域的 Redis
+     * @param region 本区域名称
+     * @param peers 其他区域
+     * @param syncIntervalMillis 同步周期，单位为毫秒
+     */
+    public RegionQuotaLimiter(RateLimiterConfig config, String region, List<RegionPeer> peers, long syncIntervalMillis) {
+        if (!config.getQuotas().isEmpty()) {
+            throw new IllegalArgumentException("RegionQuotaLimiter " + config.getName() + " does not support quotas");
+        }
+        if (region.contains(":") || syncIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Region " + region + " must not contain ':' and syncIntervalMillis "
+                    + syncIntervalMillis + " must be positive");
+        }
+        this.name = config.getName();
+        this.region = region;
+        this.permitsPerSecond = config.getPermitsPerSecond();
+        this.maxPermits = config.getMaxPermits();
+        this.syncIntervalMillis = syncIntervalMillis;
+        this.redisService = config.getRedisService();
+        this.peers = List.copyOf(peers);
+
+        long allowance = max(permitsPerSecond / (peers.size() + 1), 1L);
+        RateLimiterConfig local = new RateLimiterConfig(name, allowance, scaledMaxPermits(allowance),
+                config.getCache(), redisService);
+        local.setStore(config.getStore());
+        local.setChannel(config.getChannel());
+        local.setBatchWindowMicros(config.getBatchWindowMicros());
+        local.setMaxBatchSize(config.getMaxBatchSize());
+        local.setMaxQueued(config.getMaxQueued());
+        local.setMaxWaitMicros(config.getMaxWaitMicros());
+        config.getReservedRatios().forEach(local::setReservedRatio);
+        this.rateLimiter = new RateLimiter(local);
+        this.rateLimiter.putDefaultBucket();
+    }
+
+    private long scaledMaxPermits(long allowance) {
+        return max(maxPermits * allowance / permitsPerSecond, 1L);
+    }
+
+    /**
+     * 开始定期同步
+     */
+    public void start() {
+        task = SCHEDULER.scheduleAtFixedRate(this::sync, syncIntervalMillis, syncIntervalMillis, MILLISECONDS);
+    }
+
+    /**
+     * 本区域当前分到的每秒令牌数
+     */
+    public long getAllowance() {
+        return rateLimiter.getRate();
+    }
+
+    /**
+     * 拉取对端计数，与本节点的增量一起合并到本区域的 Redis，再按合并结果重新划分速率
+     */
+    void sync() {
+        if (!syncing.compareAndSet(false, true)) {
+            return;
+        }
+        long grantedDelta = granted.sumThenReset();
+        long demandDelta = demand.sumThenReset();
+        List<CompletableFuture<Map<String, Long>>> fetches = new ArrayList<>(peers.size());
+        for (RegionPeer peer : peers) {
+            fetches.add(peer.fetch(name)
+                    .completeOnTimeout(Map.of(), syncIntervalMillis, MILLISECONDS)
+                    .exceptionally(e -> {
+                        log.warn("Fetch region counters failed, rateLimiter: {}, peer: {}", name, peer.getRegion(), e);
+                        return Map.of();
+                    }));
+        }
+        CompletableFuture.allOf(fetches.toArray(new CompletableFuture[0]))
+                .thenCompose(ignored -> merge(grantedDelta, demandDelta, fetches))
+                .whenCompleteAsync((counters, e) -> {
+                    try {
+                        if (e != null) {
+                            // 增量没有写入，留到下一次同步
+                            granted.add(grantedDelta);
+                            demand.add(demandDelta);
+                            log.warn("Merge region counters failed, rateLimiter: {}", name, e);
+                        } else {
+                            rebalance(counters);
+                        }
+                    } catch (Exception ex) {
+                        log.error("Rebalance region allowance failed, rateLimiter: {}", name, ex);
+                    } finally {
+                        syncing.set(false);
+                    }
+                }, SCHEDULER);
+    }
+
+    private CompletableFuture<Map<String, Long>> merge(long grantedDelta, long demandDelta,
+                                                       List<CompletableFuture<Map<String, Long>>> fetches) {
+        Map<String, Long> remote = new HashMap<>();
+        for (CompletableFuture<Map<String, Long>> fetch : fetches) {
+            fetch.join().forEach((field, count) -> remote.merge(field, count, Math::max));
+        }
+        Object[] args = new Object[3 + 2 * remote.size()];
+        args[0] = region;
+        args[1] = grantedDelta;
+        args[2] = demandDelta;
+        int i = 3;
+        for (Map.Entry<String, Long> entry : remote.entrySet()) {
+            args[i++] = entry.getKey();
+            args[i++] = entry.getValue();
+        }
+        return redisService.<List<Object>>evalAsync(RegionKey.regionCounter, name, RegionCounterScript.MERGE,
+                RScript.ReturnType.MULTI, args).toCompletableFuture().thenApply(RegionCounters::parse);
+    }
+
+    /**
+     * 按各区域最近的请求速率重新划分全局速率
+     *
+     * @param counters 合并后的全部计数
+     */
+    private void rebalance(Map<String, Long> counters) {
+        consumedByRegion = RegionCounters.byRegion(counters, RegionCounters.CONSUMED);
+        Map<String, Long> demands = RegionCounters.byRegion(counters, RegionCounters.DEMAND);
+        demands.putIfAbsent(region, 0L);
+        peers.forEach(peer -> demands.putIfAbsent(peer.getRegion(), 0L));
+
+        double total = 0D;
+        for (Map.Entry<String, Long> entry : demands.entrySet()) {
+            // 第一次看到的区域没有上一周期的计数，本周期按 0 计
+            long delta = entry.getValue() - lastDemand.getOrDefault(entry.getKey(), entry.getValue());
+            double smoothed = ALPHA * delta + (1 - ALPHA) * smoothedDemand.getOrDefault(entry.getKey(), 0D);
+            smoothedDemand.put(entry.getKey(), smoothed);
+            total += smoothed;
+        }
+        lastDemand = demands;
+        if (total <= 0D) {
+            return;
+        }
+
+        double perSecond = 1000D / syncIntervalMillis;
+        Map<String, Double> rates = new HashMap<>();
+        demands.keySet().forEach(r -> rates.put(r, smoothedDemand.get(r) * perSecond));
+        long allowance = max(Math.round(FairShareUtils.allocate(rates, permitsPerSecond, HEADROOM, MIN_SHARE).get(region)), 1L);
+        long current = rateLimiter.getRate();
+        if (Math.abs(allowance - current) >= max(current * MIN_CHANGE, 1D)) {
+            rateLimiter.setRate(allowance, scaledMaxPermits(allowance));
+            log.info("Rebalance region allowance, rateLimiter: {}, region: {}, allowance: {} -> {}",
+                    name, region, current, allowance);
+        }
+    }
+
+    @Override
+    public double acquire() {
+        return acquire(1);
+    }
+
+    @Override
+    public double acquire(int permits) {
+        demand.add(permits);
+        double waitSeconds = rateLimiter.acquire(permits);
+        granted.add(permits);
+        return waitSeconds;
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        demand.increment();
+        return record(1L, rateLimiter.tryAcquire());
+    }
+
+    @Override
+    public boolean tryAcquire(long permits, long timeout, TimeUnit unit) {
+        demand.add(permits);
+        return record(permits, rateLimiter.tryAcquire(permits, timeout, unit));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> tryAcquireAsync(long permits, long timeout, TimeUnit unit) {
+        demand.add(permits);
+        return rateLimiter.tryAcquireAsync(permits, timeout, unit).thenApply(acquired -> record(permits, acquired));
+    }
+
+    private boolean record(long permits, boolean acquired) {
+        if (acquired) {
+            granted.add(permits);
+        }
+        return acquired;
+    }
+
+    @Override
+    public void close() {
+        if (task != null) {
+            task.cancel(false);
+        }
+    }
+}
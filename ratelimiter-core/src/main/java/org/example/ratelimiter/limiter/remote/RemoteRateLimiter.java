@@ -0,0 +1,180 @@
+package org.example.ratelimiter.limiter.remote;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.local.LocalRateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 基于令牌服务的限流器
+ * 令牌桶保存在令牌服务的内存中，每次决策一次网络往返，不经过 Redis；
+ * 令牌服务不可用或请求超时时，使用按相同配置创建的本地令牌桶兜底（兜底期间限流只在单个节点内生效）
+ */
+@Slf4j
+@Getter
+public class RemoteRateLimiter implements Limiter {
+    /**
+     * 唯一标识
+     */
+    private final String name;
+
+    /**
+     * 每秒存入的令牌数
+     */
+    private final long permitsPerSecond;
+
+    /**
+     * 最大存储令牌数
+     */
+    private final long maxPermits;
+
+    /**
+     * 预设允许的最大等待时间，单位为微秒
+     */
+    private final long timeoutMicros;
+
+    private final TokenClient client;
+
+    /**
+     * 本地兜底限流器
+     */
+    private final LocalRateLimiter fallback;
+
+    /**
+     * 服务端分配的限流器编号，未注册时为 -1
+     */
+    private volatile int limiterId = -1;
+
+    /**
+     * 统计：由本地兜底做出的决策数
+     */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder fallbackDecisions = new LongAdder();
+
+    public RemoteRateLimiter(RateLimiterConfig config, TokenClient client) {
+        this.name = config.getName();
+        // 名称过长时在创建时失败，不等到第一次注册
+        TokenProtocol.encodeName(name);
+        this.client = client;
+        this.fallback = new LocalRateLimiter(config);
+        this.permitsPerSecond = fallback.getPermitsPerSecond();
+        this.maxPermits = fallback.getMaxPermits();
+        this.timeoutMicros = fallback.getTimeoutMicros();
+    }
+
+    /**
+     * 预定令牌，返回需要等待的时间
+     *
+     * @param permits 请求的令牌数
+     * @param timeoutMicros 允许的最大等待时间，单位为微秒，小于 0 表示不限制
+     * @return 需要等待的时间，单位为微秒；超时时间内无法获取时返回 -1
+     */
+    public long reserve(int permits, long timeoutMicros) {
+        if (!client.isAvailable()) {
+            return reserveLocally(permits, timeoutMicros);
+        }
+        try {
+            long waitMicros = client.acquire(getOrRegisterId(), permits, timeoutMicros).join();
+            if (waitMicros == TokenProtocol.UNKNOWN_LIMITER) {
+                // 服务端重启后编号失效，重新注册一次
+                limiterId = -1;
+                waitMicros = client.acquire(getOrRegisterId(), permits, timeoutMicros).join();
+            }
+            return waitMicros;
+        } catch (CompletionException e) {
+            log.warn("Token server acquire failed, rateLimiter: {}, fallback to local: {}", name, e.getCause().toString());
+            return reserveLocally(permits, timeoutMicros);
+        }
+    }
+
+    private int getOrRegisterId() {
+        int id = limiterId;
+        if (id < 0) {
+            id = client.register(name, permitsPerSecond, maxPermits).join().intValue();
+            limiterId = id;
+        }
+        return id;
+    }
+
+    private long reserveLocally(int permits, long timeoutMicros) {
+        fallbackDecisions.increment();
+        return fallback.reserve(permits, timeoutMicros);
+    }
+
+    @Override
+    public double acquire() {
+        return acquire(1);
+    }
+
+    @Override
+    public double acquire(int permits) {
+        long microsToWait = reserve(permits, -1L);
+        Limiter.parkMicrosUninterruptibly(microsToWait);
+        return 1.0 * microsToWait / SECONDS.toMicros(1L);
+    }
+
+    @Override
+    public boolean tryAcquire() {
+        return tryAcquire(1, timeoutMicros, TimeUnit.MICROSECONDS);
+    }
+
+    /**
+     * 尝试在超时时间内获取指定数量的令牌
+     *
+     * @param permits 获取的令牌数
+     * @param timeout 获取这些令牌允许的最大等待时间
+     * @param unit timeout的时间单位
+     * @return 获取结果
+     */
+    @Override
+    public boolean tryAcquire(long permits, long timeout, TimeUnit unit) {
+        long waitMicros = reserve(Math.toIntExact(permits), max(unit.toMicros(timeout), 0L));
+        if (waitMicros < 0) {
+            return false;
+        }
+        Limiter.parkMicrosUninterruptibly(waitMicros);
+        return true;
+    }
+
+    /**
+     * 异步获取令牌，已注册且连接可用时不阻塞调用线程，否则退化为同步的 {@link #reserve}；
+     * 服务端重启导致编号失效时本次使用本地兜底，下一次同步调用时重新注册
+     */
+    @Override
+    public CompletableFuture<Boolean> tryAcquireAsync(long permits, long timeout, TimeUnit unit) {
+        long timeoutMicros = max(unit.toMicros(timeout), 0L);
+        int id = limiterId;
+        if (id < 0 || !client.isAvailable()) {
+            return Limiter.afterWait(reserve(Math.toIntExact(permits), timeoutMicros));
+        }
+        // 回调在 IO 线程中执行，失败时只能使用本地兜底，不能再同步访问令牌服务
+        return client.acquire(id, Math.toIntExact(permits), timeoutMicros)
+                .handle((waitMicros, e) -> {
+                    if (e == null && waitMicros != TokenProtocol.UNKNOWN_LIMITER) {
+                        return waitMicros;
+                    }
+                    if (e == null) {
+                        limiterId = -1;
+                    }
+                    return reserveLocally(Math.toIntExact(permits), timeoutMicros);
+                })
+                .thenCompose(Limiter::afterWait);
+    }
+
+    /**
+     * 由本地兜底做出的决策数
+     */
+    public long getFallbackCount() {
+        return fallbackDecisions.sum();
+    }
+}
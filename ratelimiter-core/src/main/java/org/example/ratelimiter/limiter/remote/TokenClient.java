@@ -0,0 +1,258 @@
+package org.example.ratelimiter.limiter.remote;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.ConnectException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 令牌服务客户端
+ * 一个进程内所有限流器共用一条连接：请求先进入发送队列，由连接所在的 IO 线程一次取出全部排队请求，
+ * 编码到同一个缓冲区后一次写出，请求不等待响应即可连续发送（流水线）
+ */
+@Slf4j
+public class TokenClient implements AutoCloseable {
+    private final String host;
+
+    private final int port;
+
+    /**
+     * 单次请求超时时间，单位为毫秒
+     */
+    private final long timeoutMillis;
+
+    /**
+     * 连接失败后的重连间隔，单位为毫秒
+     */
+    private final long reconnectIntervalMillis;
+
+    private final EventLoopGroup group = new NioEventLoopGroup(1, new DefaultThreadFactory("ratelimiter-token-client", true));
+
+    private final Bootstrap bootstrap;
+
+    private volatile Channel channel;
+
+    private final AtomicBoolean connecting = new AtomicBoolean();
+
+    private volatile long nextConnectMillis;
+
+    private final AtomicInteger requestIds = new AtomicInteger();
+
+    /**
+     * 等待响应的请求
+     */
+    private final Map<Integer, PendingRequest> pending = new ConcurrentHashMap<>();
+
+    /**
+     * 等待发送的请求
+     */
+    private final Queue<Consumer<ByteBuf>> outbound = new ConcurrentLinkedQueue<>();
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    public TokenClient(String host, int port, long timeoutMillis) {
+        this(host, port, timeoutMillis, 1000L);
+    }
+
+    public TokenClient(String host, int port, long timeoutMillis, long reconnectIntervalMillis) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMillis = timeoutMillis;
+        this.reconnectIntervalMillis = reconnectIntervalMillis;
+        this.bootstrap = new Bootstrap()
+                .group(group)
+                .channel(NioSocketChannel.class)
+                .option(ChannelOption.TCP_NODELAY, true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) Math.max(timeoutMillis, 1000L))
+                .handler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline().addLast(new ResponseDecoder());
+                    }
+                });
+        // 统一扫描超时请求，避免为每个请求单独注册定时任务
+        long sweepMillis = Math.max(timeoutMillis / 2, 1L);
+        group.scheduleAtFixedRate(this::expire, sweepMillis, sweepMillis, MILLISECONDS);
+        connect();
+    }
+
+    /**
+     * 连接是否可用，不可用时按重连间隔在后台发起重连
+     *
+     * @return 是否可以发送请求
+     */
+    public boolean isAvailable() {
+        Channel ch = channel;
+        if (ch != null && ch.isActive()) {
+            return true;
+        }
+        if (System.currentTimeMillis() >= nextConnectMillis) {
+            connect();
+        }
+        return false;
+    }
+
+    private void connect() {
+        if (!connecting.compareAndSet(false, true)) {
+            return;
+        }
+        nextConnectMillis = System.currentTimeMillis() + reconnectIntervalMillis;
+        bootstrap.connect(host, port).addListener(future -> {
+            connecting.set(false);
+            if (future.isSuccess()) {
+                channel = ((ChannelFuture) future).channel();
+                log.info("Connected to token server {}:{}", host, port);
+            } else {
+                log.warn("Connect to token server {}:{} failed: {}", host, port, future.cause().toString());
+            }
+        });
+    }
+
+    /**
+     * 注册限流器，服务端已存在同名限流器时直接返回其编号
+     * 名称在调用线程中编码和校验，不合法的请求不会进入发送队列
+     *
+     * @return 限流器编号
+     * @throws IllegalArgumentException 名称超过 {@link TokenProtocol#MAX_NAME_BYTES} 字节
+     */
+    public CompletableFuture<Long> register(String name, long permitsPerSecond, long maxPermits) {
+        byte[] nameBytes = TokenProtocol.encodeName(name);
+        int requestId = requestIds.incrementAndGet();
+        return send(requestId, out -> TokenProtocol.writeRegister(out, requestId, nameBytes, permitsPerSecond, maxPermits));
+    }
+
+    /**
+     * 预定令牌
+     *
+     * @return 需要等待的时间，单位为微秒；结果为负数时见 {@link TokenProtocol} 中的结果定义
+     */
+    public CompletableFuture<Long> acquire(int limiterId, int permits, long timeoutMicros) {
+        int requestId = requestIds.incrementAndGet();
+        return send(requestId, out -> TokenProtocol.writeAcquire(out, requestId, limiterId, permits, timeoutMicros));
+    }
+
+    private CompletableFuture<Long> send(int requestId, Consumer<ByteBuf> request) {
+        PendingRequest future = new PendingRequest(System.nanoTime() + MILLISECONDS.toNanos(timeoutMillis));
+        Channel ch = channel;
+        if (ch == null || !ch.isActive()) {
+            future.completeExceptionally(new ConnectException("Token server " + host + ":" + port + " unavailable"));
+            return future;
+        }
+        pending.put(requestId, future);
+        outbound.offer(request);
+        if (flushScheduled.compareAndSet(false, true)) {
+            ch.eventLoop().execute(() -> flush(ch));
+        }
+        return future;
+    }
+
+    /**
+     * 以超时结束已经超过截止时间的请求
+     */
+    private void expire() {
+        long nowNanos = System.nanoTime();
+        pending.entrySet().removeIf(entry -> {
+            PendingRequest request = entry.getValue();
+            if (nowNanos - request.deadlineNanos < 0) {
+                return false;
+            }
+            request.completeExceptionally(new TimeoutException("Token server request timeout after " + timeoutMillis + "ms"));
+            return true;
+        });
+    }
+
+    /**
+     * 在 IO 线程中把排队的请求编码到一个缓冲区后一次写出
+     */
+    private void flush(Channel ch) {
+        // 先清除标记再取队列：之后入队的请求要么被本次取到，要么会重新安排一次发送
+        flushScheduled.set(false);
+        ByteBuf out = ch.alloc().ioBuffer();
+        Consumer<ByteBuf> request;
+        while ((request = outbound.poll()) != null) {
+            request.accept(out);
+        }
+        if (out.isReadable()) {
+            ch.writeAndFlush(out, ch.voidPromise());
+        } else {
+            out.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        Channel ch = channel;
+        if (ch != null) {
+            ch.close();
+        }
+        group.shutdownGracefully(0, 1, SECONDS);
+    }
+
+    /**
+     * 等待响应的请求，记录截止时间
+     */
+    private static final class PendingRequest extends CompletableFuture<Long> {
+        private final long deadlineNanos;
+
+        private PendingRequest(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+    }
+
+    /**
+     * 按固定长度解析响应并完成对应的请求
+     */
+    private final class ResponseDecoder extends ByteToMessageDecoder {
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) {
+            while (in.readableBytes() >= TokenProtocol.RESPONSE_LENGTH) {
+                int requestId = in.readInt();
+                long result = in.readLong();
+                PendingRequest future = pending.remove(requestId);
+                if (future != null) {
+                    future.complete(result);
+                }
+            }
+        }
+
+        @Override
+        public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+            log.warn("Token server {}:{} disconnected", host, port);
+            ConnectException e = new ConnectException("Token server " + host + ":" + port + " disconnected");
+            pending.values().forEach(future -> future.completeExceptionally(e));
+            pending.clear();
+            super.channelInactive(ctx);
+        }
+
+        @Override
+        public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+            log.warn("Token server {}:{} connection error: {}", host, port, cause.toString());
+            ctx.close();
+        }
+    }
+}
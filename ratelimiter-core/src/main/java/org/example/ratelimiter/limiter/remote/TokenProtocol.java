@@ -0,0 +1,103 @@
+package org.example.ratelimiter.limiter.remote;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.handler.codec.LengthFieldBasedFrameDecoder;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 令牌服务二进制协议
+ * 请求帧：2 字节长度 + 1 字节操作码 + 4 字节请求编号 + 操作参数
+ * - REGISTER：8 字节每秒令牌数 + 8 字节最大令牌数 + UTF-8 限流器名称（帧剩余部分，不超过 {@link #MAX_NAME_BYTES} 字节），返回限流器编号
+ * - ACQUIRE：4 字节限流器编号 + 4 字节令牌数 + 8 字节超时时间（微秒，小于 0 表示不限制），返回需要等待的时间（微秒）
+ * <p>
+ * 响应帧固定 12 字节：4 字节请求编号 + 8 字节结果。
+ * 同一连接上的请求不需要等待上一个响应即可发送，响应按请求编号匹配
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class TokenProtocol {
+    public static final byte OP_REGISTER = 1;
+    public static final byte OP_ACQUIRE = 2;
+
+    /**
+     * 请求帧长度字段的字节数
+     */
+    public static final int LENGTH_FIELD_LENGTH = 2;
+
+    /**
+     * 请求帧的最大长度，包括长度字段本身
+     */
+    public static final int MAX_FRAME_LENGTH = 0xFFFF;
+
+    public static final int RESPONSE_LENGTH = 12;
+
+    private static final int ACQUIRE_LENGTH = 1 + 4 + 4 + 4 + 8;
+
+    private static final int REGISTER_HEADER_LENGTH = 1 + 4 + 8 + 8;
+
+    /**
+     * 限流器名称 UTF-8 编码后的最大字节数
+     */
+    public static final int MAX_NAME_BYTES = MAX_FRAME_LENGTH - LENGTH_FIELD_LENGTH - REGISTER_HEADER_LENGTH;
+
+    /**
+     * 结果：超时时间内无法获取令牌
+     */
+    public static final long REJECTED = -1L;
+
+    /**
+     * 结果：限流器编号不存在（例如服务端重启），需要重新注册
+     */
+    public static final long UNKNOWN_LIMITER = -2L;
+
+    /**
+     * 请求帧的解码器，按长度字段拆出完整的帧，帧内容不包括长度字段
+     */
+    public static LengthFieldBasedFrameDecoder newFrameDecoder() {
+        return new LengthFieldBasedFrameDecoder(MAX_FRAME_LENGTH, 0, LENGTH_FIELD_LENGTH, 0, LENGTH_FIELD_LENGTH);
+    }
+
+    /**
+     * 按 UTF-8 编码限流器名称
+     *
+     * @param name 限流器名称
+     * @return 编码后的名称
+     * @throws IllegalArgumentException 编码后超过 {@link #MAX_NAME_BYTES} 字节
+     */
+    public static byte[] encodeName(String name) {
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        if (nameBytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("RateLimiter name is " + nameBytes.length
+                    + " bytes in UTF-8, token server accepts at most " + MAX_NAME_BYTES);
+        }
+        return nameBytes;
+    }
+
+    public static void writeRegister(ByteBuf out, int requestId, byte[] nameBytes, long permitsPerSecond, long maxPermits) {
+        if (nameBytes.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("RateLimiter name too long: " + nameBytes.length + " bytes");
+        }
+        out.writeShort(REGISTER_HEADER_LENGTH + nameBytes.length);
+        out.writeByte(OP_REGISTER);
+        out.writeInt(requestId);
+        out.writeLong(permitsPerSecond);
+        out.writeLong(maxPermits);
+        out.writeBytes(nameBytes);
+    }
+
+    public static void writeAcquire(ByteBuf out, int requestId, int limiterId, int permits, long timeoutMicros) {
+        out.writeShort(ACQUIRE_LENGTH);
+        out.writeByte(OP_ACQUIRE);
+        out.writeInt(requestId);
+        out.writeInt(limiterId);
+        out.writeInt(permits);
+        out.writeLong(timeoutMicros);
+    }
+
+    public static void writeResponse(ByteBuf out, int requestId, long result) {
+        out.writeInt(requestId);
+        out.writeLong(result);
+    }
+}
@@ -0,0 +1,425 @@
+package org.example.ratelimiter.limiter.sketch;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.limiter.base.Limiter;
+
+import java.time.Clock;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 基于 Count-Min 草图的高基数 key 限流器（例如按 IP 限流）
+ * 用固定大小的计数器矩阵估计每个 key 在当前窗口内的请求数，内存与 key 的数量无关：
+ * - 按时间窗口计数，估计值 = 当前窗口计数 + 上一窗口计数 * 上一窗口在滑动窗口中的剩余占比
+ * - 每行用不同的种子对 key 的全部字符计算 64 位哈希（MurmurHash64A），不依赖 32 位的 String.hashCode，
+ * hashCode 相同的 key（例如 "Aa" 和 "BB"）在各行中仍然相互独立
+ * - 计数器只用原子操作更新，检查过程不加锁、不分配对象
+ * - 估计值只会偏大不会偏小，超过限制的 key 一定会被拒绝，低频 key 有小概率被误伤
+ * <p>
+ * 可选地把估计值超过阈值的高频 key 升级到精确限流器，只有少数高频 key 会创建精确的分布式令牌桶。
+ * 已结束窗口的本地计数可以导出并合并到其他节点，见 {@link SketchSynchronizer}
+ * NOTE: 窗口切换的瞬间可能丢失少量计数
+ */
+@Slf4j
+public class HeavyHitterLimiter {
+    /**
+     * 默认 4 行，每行 4096 个计数器，6 个计数矩阵共约 384KB
+     */
+    public static final int DEFAULT_DEPTH = 4;
+    public static final int DEFAULT_WIDTH = 4096;
+
+    /**
+     * 窗口环：当前窗口、上一窗口，以及提前清空备用的下一窗口
+     */
+    private static final int WINDOWS = 3;
+
+    private static final long MURMUR_M = 0xC6A4A7935BD1E995L;
+
+    private static final int MURMUR_R = 47;
+
+    private static final long SEED_BASE = 0x5EED5EED5EED5EEDL;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /**
+     * 唯一标识，也用于节点间同步
+     */
+    @Getter
+    private final String name;
+
+    /**
+     * 每个 key 每个窗口允许的请求数
+     */
+    @Getter
+    private final long permitsPerWindow;
+
+    /**
+     * 窗口长度，单位为毫秒
+     */
+    @Getter
+    private final long windowMillis;
+
+    @Getter
+    private final int depth;
+
+    @Getter
+    private final int width;
+
+    private final int widthMask;
+
+    /**
+     * 每行哈希函数的种子，各节点相同，合并的计数才能对齐
+     */
+    private final long[] seeds;
+
+    /**
+     * 时间来源，测试时可以替换
+     */
+    private final Clock clock;
+
+    /**
+     * 本节点的计数，按窗口环存放
+     */
+    private final AtomicIntegerArray[] local = new AtomicIntegerArray[WINDOWS];
+
+    /**
+     * 从其他节点合并过来的计数，与本节点计数分开存放，避免再次导出
+     */
+    private final AtomicIntegerArray[] remote = new AtomicIntegerArray[WINDOWS];
+
+    /**
+     * 窗口环中每个位置当前对应的窗口编号
+     */
+    private final AtomicLongArray windowEpochs = new AtomicLongArray(WINDOWS);
+
+    private final AtomicLong currentEpoch;
+
+    /**
+     * 最近一次导出的窗口编号，只由同步线程修改
+     */
+    private volatile long lastExportedEpoch;
+
+    private volatile HeavyHitterPromoter promoter;
+
+    /**
+     * 估计值达到该值的 key 升级为精确限流
+     */
+    private volatile long promoteThreshold = Long.MAX_VALUE;
+
+    private volatile int maxPromoted;
+
+    /**
+     * 已升级的高频 key 及其精确限流器
+     */
+    private final Map<String, Limiter> promoted = new ConcurrentHashMap<>();
+
+    /**
+     * 每秒每个 key 允许的请求数，使用默认大小的草图
+     *
+     * @param name 限流器名称
+     * @param permitsPerSecond 每秒每个 key 允许的请求数
+     */
+    public HeavyHitterLimiter(String name, long permitsPerSecond) {
+        this(name, permitsPerSecond, 1000L, DEFAULT_DEPTH, DEFAULT_WIDTH);
+    }
+
+    /**
+     * @param name 限流器名称
+     * @param permitsPerWindow 每个窗口每个 key 允许的请求数
+     * @param windowMillis 窗口长度，单位为毫秒
+     * @param depth 行数，越大误判概率越低
+     * @param width 每行计数器个数，必须是 2 的幂，越大误差越小
+     */
+    public HeavyHitterLimiter(String name, long permitsPerWindow, long windowMillis, int depth, int width) {
+        this(name, permitsPerWindow, windowMillis, depth, width, Clock.systemUTC());
+    }
+
+    HeavyHitterLimiter(String name, long permitsPerWindow, long windowMillis, int depth, int width, Clock clock) {
+        if (depth <= 0 || width <= 0 || Integer.bitCount(width) != 1) {
+            throw new IllegalArgumentException("Invalid sketch size, depth: " + depth + ", width: " + width);
+        }
+        this.name = name;
+        this.permitsPerWindow = permitsPerWindow;
+        this.windowMillis = windowMillis;
+        this.depth = depth;
+        this.width = width;
+        this.widthMask = width - 1;
+        this.seeds = new long[depth];
+        for (int row = 0; row < depth; row++) {
+            seeds[row] = fmix64(SEED_BASE + row * GOLDEN_GAMMA);
+        }
+        this.clock = clock;
+        for (int i = 0; i < WINDOWS; i++) {
+            local[i] = new AtomicIntegerArray(depth * width);
+            remote[i] = new AtomicIntegerArray(depth * width);
+            windowEpochs.set(i, -1L);
+        }
+        long epoch = clock.millis() / windowMillis;
+        this.currentEpoch = new AtomicLong(epoch);
+        this.lastExportedEpoch = epoch - 1;
+        prepareWindow(epoch);
+        prepareWindow(epoch + 1);
+        log.info("Creat heavyHitterLimiter: {}, permitsPerWindow: {}, windowMillis: {}, depth: {}, width: {}",
+                name, permitsPerWindow, windowMillis, depth, width);
+    }
+
+    /**
+     * 开启高频 key 升级
+     *
+     * @param promoter 精确限流器提供方
+     * @param promoteRatio 估计值达到 permitsPerWindow 的该比例时升级，频率回落到一半以下时降级
+     * @param maxPromoted 同时升级的最大 key 数
+     */
+    public void enablePromotion(HeavyHitterPromoter promoter, float promoteRatio, int maxPromoted) {
+        this.promoteThreshold = Math.max((long) (permitsPerWindow * promoteRatio), 1L);
+        this.maxPromoted = maxPromoted;
+        this.promoter = promoter;
+    }
+
+    /**
+     * 尝试为 key 获取1个令牌，不等待
+     * 已升级的 key 由精确限流器决定，其他 key 由草图估计值决定
+     *
+     * @param key 限流 key，例如 IP
+     * @return 获取结果
+     */
+    public boolean tryAcquire(String key) {
+        long nowMillis = clock.millis();
+        long epoch = nowMillis / windowMillis;
+        if (epoch != currentEpoch.get()) {
+            rotate(epoch);
+        }
+
+        if (!promoted.isEmpty()) {
+            Limiter exact = promoted.get(key);
+            if (exact != null) {
+                // 继续计数，用于判断何时降级
+                increment(key, epoch);
+                return exact.tryAcquire();
+            }
+        }
+
+        double previousWeight = 1.0 - (double) (nowMillis - epoch * windowMillis) / windowMillis;
+        double estimate = estimate(key, epoch, previousWeight);
+        if (estimate + 1 > permitsPerWindow) {
+            return false;
+        }
+        increment(key, epoch);
+
+        if (estimate + 1 >= promoteThreshold) {
+            promote(key);
+        }
+        return true;
+    }
+
+    /**
+     * 查询 key 在当前滑动窗口内的估计请求数
+     *
+     * @param key 限流 key
+     * @return 估计请求数
+     */
+    public long estimate(String key) {
+        long nowMillis = clock.millis();
+        long epoch = nowMillis / windowMillis;
+        double previousWeight = 1.0 - (double) (nowMillis - epoch * windowMillis) / windowMillis;
+        return (long) Math.ceil(estimate(key, epoch, previousWeight));
+    }
+
+    /**
+     * 已升级为精确限流的 key 数
+     */
+    public int getPromotedCount() {
+        return promoted.size();
+    }
+
+    /**
+     * 导出最近一个已结束窗口的本地计数，每个窗口只导出一次
+     *
+     * @return 窗口计数，没有可导出的窗口时返回 null
+     */
+    public SketchSnapshot exportCompletedWindow() {
+        long epoch = currentEpoch.get() - 1;
+        int slot = slot(epoch);
+        if (epoch <= lastExportedEpoch || windowEpochs.get(slot) != epoch) {
+            return null;
+        }
+        lastExportedEpoch = epoch;
+        AtomicIntegerArray counts = local[slot];
+        int[] copy = new int[counts.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = counts.get(i);
+        }
+        return new SketchSnapshot(epoch, depth, width, copy);
+    }
+
+    /**
+     * 合并其他节点导出的窗口计数
+     * 只合并当前窗口和上一窗口，更早的窗口已不参与估计，直接丢弃
+     *
+     * @param snapshot 其他节点的窗口计数
+     */
+    public void merge(SketchSnapshot snapshot) {
+        if (snapshot.getDepth() != depth || snapshot.getWidth() != width) {
+            log.warn("Skip merging sketch of different size, heavyHitterLimiter: {}, depth: {}, width: {}",
+                    name, snapshot.getDepth(), snapshot.getWidth());
+            return;
+        }
+        int slot = slot(snapshot.getEpoch());
+        if (windowEpochs.get(slot) != snapshot.getEpoch()) {
+            return;
+        }
+        AtomicIntegerArray counts = remote[slot];
+        int[] delta = snapshot.getCounts();
+        for (int i = 0; i < delta.length; i++) {
+            if (delta[i] != 0) {
+                counts.addAndGet(i, delta[i]);
+            }
+        }
+    }
+
+    /**
+     * 估计值：每行取 当前窗口计数 + 上一窗口计数 * 权重，再取各行的最小值
+     */
+    private double estimate(String key, long epoch, double previousWeight) {
+        int current = slot(epoch);
+        int previous = slot(epoch - 1);
+        boolean currentValid = windowEpochs.get(current) == epoch;
+        boolean previousValid = windowEpochs.get(previous) == epoch - 1;
+        double min = Double.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            int index = index(key, row);
+            double count = 0;
+            if (currentValid) {
+                count += local[current].get(index) + remote[current].get(index);
+            }
+            if (previousValid) {
+                count += previousWeight * (local[previous].get(index) + remote[previous].get(index));
+            }
+            min = Math.min(min, count);
+        }
+        return min;
+    }
+
+    private void increment(String key, long epoch) {
+        int current = slot(epoch);
+        if (windowEpochs.get(current) != epoch) {
+            // 窗口还在切换中
+            return;
+        }
+        for (int row = 0; row < depth; row++) {
+            local[current].incrementAndGet(index(key, row));
+        }
+    }
+
+    /**
+     * key 在第 row 行的计数器下标
+     */
+    private int index(String key, int row) {
+        return row * width + ((int) hash(key, seeds[row]) & widthMask);
+    }
+
+    /**
+     * 切换到新窗口，只有一个线程会执行
+     */
+    private void rotate(long epoch) {
+        long current = currentEpoch.get();
+        if (epoch <= current || !currentEpoch.compareAndSet(current, epoch)) {
+            return;
+        }
+        prepareWindow(epoch);
+        // 提前清空下一个窗口，正常情况下切换时不需要清空计数
+        prepareWindow(epoch + 1);
+        if (!promoted.isEmpty()) {
+            demote(epoch);
+        }
+    }
+
+    private void prepareWindow(long epoch) {
+        int slot = slot(epoch);
+        if (windowEpochs.get(slot) == epoch) {
+            return;
+        }
+        for (int i = 0; i < local[slot].length(); i++) {
+            local[slot].set(i, 0);
+            remote[slot].set(i, 0);
+        }
+        windowEpochs.set(slot, epoch);
+    }
+
+    private void promote(String key) {
+        HeavyHitterPromoter currentPromoter = promoter;
+        if (currentPromoter == null || promoted.size() >= maxPromoted || promoted.containsKey(key)) {
+            return;
+        }
+        promoted.computeIfAbsent(key, k -> {
+            log.info("Promote heavy hitter, heavyHitterLimiter: {}, key: {}", name, k);
+            return currentPromoter.promote(k);
+        });
+    }
+
+    /**
+     * 上一窗口的计数回落到升级阈值一半以下的 key 降级
+     */
+    private void demote(long epoch) {
+        promoted.forEach((key, limiter) -> {
+            if (estimate(key, epoch, 1.0) * 2 < promoteThreshold && promoted.remove(key, limiter)) {
+                log.info("Demote heavy hitter, heavyHitterLimiter: {}, key: {}", name, key);
+                promoter.demote(key, limiter);
+            }
+        });
+    }
+
+    private static int slot(long epoch) {
+        return (int) Math.floorMod(epoch, (long) WINDOWS);
+    }
+
+    /**
+     * MurmurHash64A，按 UTF-16 字符每 4 个组成一个 64 位块，不需要先编码为字节数组
+     *
+     * @param key 限流 key
+     * @param seed 种子
+     * @return 64 位哈希
+     */
+    static long hash(String key, long seed) {
+        int length = key.length();
+        long h = seed ^ (length * 2L * MURMUR_M);
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            long k = key.charAt(i) | (long) key.charAt(i + 1) << 16
+                    | (long) key.charAt(i + 2) << 32 | (long) key.charAt(i + 3) << 48;
+            k *= MURMUR_M;
+            k ^= k >>> MURMUR_R;
+            k *= MURMUR_M;
+            h ^= k;
+            h *= MURMUR_M;
+        }
+        if (i < length) {
+            long k = 0;
+            for (int shift = 0; i < length; i++, shift += 16) {
+                k |= (long) key.charAt(i) << shift;
+            }
+            h ^= k;
+            h *= MURMUR_M;
+        }
+        h ^= h >>> MURMUR_R;
+        h *= MURMUR_M;
+        h ^= h >>> MURMUR_R;
+        return h;
+    }
+
+    /**
+     * 64 位终结混合，用于从行号生成相互独立的种子
+     */
+    private static long fmix64(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.ratelimiter.limiter.sketch;
+
+import org.example.ratelimiter.limiter.base.Limiter;
+
+/**
+ * 高频 key 的精确限流器提供方
+ * 被草图识别为高频的 key 会升级到精确的（通常是分布式的）限流器，频率回落后降级
+ */
+public interface HeavyHitterPromoter {
+    /**
+     * 为高频 key 创建或获取精确限流器
+     *
+     * @param key 高频 key
+     * @return 精确限流器
+     */
+    Limiter promote(String key);
+
+    /**
+     * key 的频率回落，不再使用精确限流器
+     *
+     * @param key 降级的 key
+     * @param limiter 之前使用的精确限流器
+     */
+    default void demote(String key, Limiter limiter) {
+    }
+}
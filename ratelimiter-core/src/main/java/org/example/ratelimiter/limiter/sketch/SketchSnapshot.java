@@ -0,0 +1,31 @@
+package org.example.ratelimiter.limiter.sketch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 一个已结束窗口的本地计数，用于节点间合并
+ */
+@Getter
+@AllArgsConstructor
+public class SketchSnapshot {
+    /**
+     * 窗口编号（时间戳 / 窗口长度），各节点按相同的编号对齐
+     */
+    private final long epoch;
+
+    /**
+     * 行数（哈希函数个数）
+     */
+    private final int depth;
+
+    /**
+     * 每行的计数器个数
+     */
+    private final int width;
+
+    /**
+     * 按行排列的计数，长度为 depth * width
+     */
+    private final int[] counts;
+}
@@ -0,0 +1,103 @@
+package org.example.ratelimiter.limiter.sketch;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.common.redis.key.common.SketchKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.redisson.api.RTopic;
+import org.redisson.client.codec.ByteArrayCodec;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 通过 Redis 发布订阅在节点间同步草图计数
+ * 每个节点定期发布自己已结束窗口的本地计数，收到其他节点的计数后合并到本地，
+ * 其他节点的流量因此会在下一个窗口中体现，跨节点的限制精度滞后一个窗口
+ */
+@Slf4j
+public class SketchSynchronizer implements AutoCloseable {
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ratelimiter-sketch-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * 节点标识 16 字节、窗口编号 8 字节、行数和列数各 4 字节
+     */
+    private static final int HEADER_BYTES = 32;
+
+    private final HeavyHitterLimiter limiter;
+
+    private final RTopic topic;
+
+    private final UUID nodeId = UUID.randomUUID();
+
+    private int listenerId;
+
+    private ScheduledFuture<?> task;
+
+    public SketchSynchronizer(HeavyHitterLimiter limiter, RedissonService redisService) {
+        this.limiter = limiter;
+        this.topic = redisService.getTopic(SketchKey.sketchSync, limiter.getName(), ByteArrayCodec.INSTANCE);
+    }
+
+    /**
+     * 开始同步，每 1/4 个窗口检查一次是否有已结束的窗口需要发布
+     */
+    public void start() {
+        listenerId = topic.addListener(byte[].class, (channel, message) -> receive(message));
+        long periodMillis = Math.max(limiter.getWindowMillis() / 4, 1L);
+        task = SCHEDULER.scheduleAtFixedRate(this::publish, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void publish() {
+        try {
+            SketchSnapshot snapshot = limiter.exportCompletedWindow();
+            if (snapshot != null) {
+                topic.publishAsync(encode(snapshot));
+            }
+        } catch (Exception e) {
+            // 异常会终止定时任务，这里只记录
+            log.error("Publish sketch failed, heavyHitterLimiter: {}", limiter.getName(), e);
+        }
+    }
+
+    private void receive(byte[] message) {
+        ByteBuffer buffer = ByteBuffer.wrap(message);
+        UUID sender = new UUID(buffer.getLong(), buffer.getLong());
+        if (nodeId.equals(sender)) {
+            return;
+        }
+        long epoch = buffer.getLong();
+        int depth = buffer.getInt();
+        int width = buffer.getInt();
+        int[] counts = new int[buffer.remaining() / Integer.BYTES];
+        buffer.asIntBuffer().get(counts);
+        limiter.merge(new SketchSnapshot(epoch, depth, width, counts));
+    }
+
+    private byte[] encode(SketchSnapshot snapshot) {
+        int[] counts = snapshot.getCounts();
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + counts.length * Integer.BYTES);
+        buffer.putLong(nodeId.getMostSignificantBits())
+                .putLong(nodeId.getLeastSignificantBits())
+                .putLong(snapshot.getEpoch())
+                .putInt(snapshot.getDepth())
+                .putInt(snapshot.getWidth());
+        buffer.asIntBuffer().put(counts);
+        return buffer.array();
+    }
+
+    @Override
+    public void close() {
+        if (task != null) {
+            task.cancel(false);
+        }
+        topic.removeListener(listenerId);
+    }
+}
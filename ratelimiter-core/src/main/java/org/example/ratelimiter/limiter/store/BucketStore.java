@@ -0,0 +1,80 @@
+package org.example.ratelimiter.limiter.store;
+
+import org.example.ratelimiter.limiter.ratelimiter.PermitBucket;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 令牌桶存储引擎
+ * 每个 {@link org.example.ratelimiter.limiter.ratelimiter.RateLimiter} 持有一个实例，只操作自己的桶；
+ * 判断和扣减必须在存储端原子完成，调用方不加锁
+ */
+public interface BucketStore {
+    /**
+     * 预定令牌
+     *
+     * @param permits 请求的令牌数
+     * @param timeoutMicros 允许的最大等待时间，单位为微秒，小于 0 表示不限制
+     * @param reservedPermits 需要给更高优先级预留的令牌数，只在 {@link #supportsReservedPermits()} 为 true 时大于 0
+     * @return 需要等待的时间，单位为微秒；超时时间内无法获取时为 -1，配额用完时为 -2-配额下标
+     */
+    CompletableFuture<Long> reserve(long permits, long timeoutMicros, long reservedPermits);
+
+    /**
+     * 修改桶的速率和大小
+     *
+     * @param maxPermits 新的最大存储令牌数
+     * @param intervalMicros 新的令牌生成间隔，单位为微秒
+     */
+    void updateRate(long maxPermits, long intervalMicros);
+
+    /**
+     * 添加令牌，不超过桶的大小，只在 {@link #supportsAddPermits()} 为 true 时调用
+     *
+     * @param permits 要添加的令牌数
+     */
+    void addPermits(long permits);
+
+    /**
+     * 读取桶的状态
+     *
+     * @return 令牌桶，不存在时为 null
+     */
+    PermitBucket load();
+
+    /**
+     * 写入桶的状态，用于初始化和重建
+     *
+     * @param bucket 令牌桶
+     */
+    void save(PermitBucket bucket);
+
+    /**
+     * 桶不存在时写入，用于初始化；已存在时保留原有状态，不覆盖其他节点或重启前修改过的速率
+     *
+     * @param bucket 令牌桶
+     * @return 是否写入
+     */
+    boolean saveIfAbsent(PermitBucket bucket);
+
+    /**
+     * 是否支持长周期配额
+     */
+    default boolean supportsQuotas() {
+        return false;
+    }
+
+    /**
+     * 是否支持优先级预留
+     */
+    default boolean supportsReservedPermits() {
+        return true;
+    }
+
+    /**
+     * 是否支持添加令牌
+     */
+    default boolean supportsAddPermits() {
+        return true;
+    }
+}
@@ -0,0 +1,121 @@
+package org.example.ratelimiter.limiter.store;
+
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.ratelimiter.PermitBucket;
+
+import java.time.Clock;
+import java.util.concurrent.CompletableFuture;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * 进程内存中的令牌桶，规则与 {@link org.example.ratelimiter.limiter.ratelimiter.PermitBucketScript} 相同（包括优先级预留），
+ * 用于测试和单节点部署；不支持配额。时间取自构造时传入的 {@link Clock}，模拟时可以使用虚拟时钟
+ */
+public class MemoryBucketStore implements BucketStore {
+    private final String name;
+
+    private final Clock clock;
+
+    private long maxPermits;
+
+    private long intervalMicros;
+
+    private long storedPermits = 1L;
+
+    private long nextFreeTicketMicros;
+
+    public MemoryBucketStore(String name, long maxPermits, long intervalMicros) {
+        this(name, maxPermits, intervalMicros, Clock.systemUTC());
+    }
+
+    public MemoryBucketStore(String name, long maxPermits, long intervalMicros, Clock clock) {
+        this.name = name;
+        this.maxPermits = maxPermits;
+        this.intervalMicros = intervalMicros;
+        this.clock = clock;
+        this.nextFreeTicketMicros = nowMicros();
+    }
+
+    private long nowMicros() {
+        return MILLISECONDS.toMicros(clock.millis());
+    }
+
+    @Override
+    public CompletableFuture<Long> reserve(long permits, long timeoutMicros, long reservedPermits) {
+        long nowMicros = nowMicros();
+        synchronized (this) {
+            reSync(nowMicros);
+            // 有预留时不透支，否则推迟的 nextFreeTicketMicros 会让更高优先级也需要等待
+            if (reservedPermits > 0 && storedPermits - reservedPermits < permits) {
+                return CompletableFuture.completedFuture(-1L);
+            }
+            long spend = min(permits, storedPermits - reservedPermits);
+            long waitMicros = (permits - spend) * intervalMicros;
+            if (timeoutMicros >= 0 && nextFreeTicketMicros + waitMicros - timeoutMicros > nowMicros) {
+                return CompletableFuture.completedFuture(-1L);
+            }
+            nextFreeTicketMicros = Limiter.saturatedAdd(nextFreeTicketMicros, waitMicros);
+            storedPermits -= spend;
+            return CompletableFuture.completedFuture(max(nextFreeTicketMicros - nowMicros, 0L));
+        }
+    }
+
+    private void reSync(long nowMicros) {
+        if (nowMicros > nextFreeTicketMicros) {
+            long newPermits = (nowMicros - nextFreeTicketMicros) / intervalMicros;
+            storedPermits = min(maxPermits, storedPermits + newPermits);
+            if (newPermits > 0) {
+                nextFreeTicketMicros = nowMicros;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void updateRate(long maxPermits, long intervalMicros) {
+        long nowMicros = nowMicros();
+        reSync(nowMicros);
+        if (this.maxPermits > 0) {
+            storedPermits = storedPermits * maxPermits / this.maxPermits;
+        }
+        storedPermits = min(storedPermits, maxPermits);
+        if (nextFreeTicketMicros > nowMicros) {
+            nextFreeTicketMicros = nowMicros + (nextFreeTicketMicros - nowMicros) * intervalMicros / this.intervalMicros;
+        }
+        this.maxPermits = maxPermits;
+        this.intervalMicros = intervalMicros;
+    }
+
+    @Override
+    public synchronized void addPermits(long permits) {
+        long nowMicros = nowMicros();
+        reSync(nowMicros);
+        long newPermits = min(storedPermits + permits, maxPermits);
+        long newNextFreeTicketMicros = nowMicros + intervalMicros * newPermits;
+        nextFreeTicketMicros = newNextFreeTicketMicros > nextFreeTicketMicros ? nowMicros : newNextFreeTicketMicros;
+        storedPermits = newPermits;
+    }
+
+    @Override
+    public synchronized PermitBucket load() {
+        return new PermitBucket(name, maxPermits, storedPermits, intervalMicros, nextFreeTicketMicros);
+    }
+
+    @Override
+    public synchronized void save(PermitBucket bucket) {
+        this.maxPermits = bucket.getMaxPermits();
+        this.storedPermits = bucket.getStoredPermits();
+        this.intervalMicros = bucket.getIntervalMicros();
+        this.nextFreeTicketMicros = bucket.getNextFreeTicketMicros();
+    }
+
+    /**
+     * 桶在构造时已经创建，不会再写入
+     */
+    @Override
+    public boolean saveIfAbsent(PermitBucket bucket) {
+        return false;
+    }
+}
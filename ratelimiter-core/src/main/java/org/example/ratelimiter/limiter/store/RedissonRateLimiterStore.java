@@ -0,0 +1,96 @@
+package org.example.ratelimiter.limiter.store;
+
+import org.example.ratelimiter.limiter.ratelimiter.PermitBucket;
+import org.redisson.api.RRateLimiter;
+import org.redisson.api.RateIntervalUnit;
+import org.redisson.api.RateType;
+
+import java.util.concurrent.CompletableFuture;
+
+import static java.lang.Math.max;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * 基于 Redisson {@link RRateLimiter} 的存储引擎
+ * RRateLimiter 是滑动窗口计数：任意一个窗口内最多发出 rate 个令牌，这里取 rate = maxPermits、
+ * 窗口 = maxPermits * intervalMicros，使平均速率和突发大小与令牌桶一致。
+ * <p>
+ * 与脚本引擎的差异：不能透支令牌，需要等待时由 Redisson 在超时时间内重试，完成后返回的等待时间为 0；
+ * 不支持配额、优先级预留和添加令牌
+ */
+public class RedissonRateLimiterStore implements BucketStore {
+    private final String name;
+
+    private final RRateLimiter rateLimiter;
+
+    private volatile long maxPermits;
+
+    private volatile long intervalMicros;
+
+    public RedissonRateLimiterStore(String name, RRateLimiter rateLimiter, long maxPermits, long intervalMicros) {
+        this.name = name;
+        this.rateLimiter = rateLimiter;
+        this.maxPermits = maxPermits;
+        this.intervalMicros = intervalMicros;
+    }
+
+    @Override
+    public CompletableFuture<Long> reserve(long permits, long timeoutMicros, long reservedPermits) {
+        if (timeoutMicros < 0) {
+            return rateLimiter.acquireAsync(permits).toCompletableFuture().thenApply(ignored -> 0L);
+        }
+        return rateLimiter.tryAcquireAsync(permits, timeoutMicros, MICROSECONDS).toCompletableFuture()
+                .thenApply(acquired -> acquired ? 0L : -1L);
+    }
+
+    @Override
+    public void updateRate(long maxPermits, long intervalMicros) {
+        rateLimiter.setRate(RateType.OVERALL, maxPermits, windowMillis(maxPermits, intervalMicros),
+                RateIntervalUnit.MILLISECONDS);
+        this.maxPermits = maxPermits;
+        this.intervalMicros = intervalMicros;
+    }
+
+    @Override
+    public void addPermits(long permits) {
+        throw new UnsupportedOperationException("RRateLimiter " + name + " does not support adding permits");
+    }
+
+    @Override
+    public PermitBucket load() {
+        if (!rateLimiter.isExists()) {
+            return null;
+        }
+        return new PermitBucket(name, maxPermits, rateLimiter.availablePermits(), intervalMicros,
+                MILLISECONDS.toMicros(System.currentTimeMillis()));
+    }
+
+    /**
+     * 只在 Redis 中还没有配置时写入速率，不重置其他节点正在使用的计数
+     */
+    @Override
+    public void save(PermitBucket bucket) {
+        saveIfAbsent(bucket);
+    }
+
+    @Override
+    public boolean saveIfAbsent(PermitBucket bucket) {
+        return rateLimiter.trySetRate(RateType.OVERALL, bucket.getMaxPermits(),
+                windowMillis(bucket.getMaxPermits(), bucket.getIntervalMicros()), RateIntervalUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean supportsReservedPermits() {
+        return false;
+    }
+
+    @Override
+    public boolean supportsAddPermits() {
+        return false;
+    }
+
+    private static long windowMillis(long maxPermits, long intervalMicros) {
+        return max(MICROSECONDS.toMillis(max(maxPermits, 1L) * intervalMicros), 1L);
+    }
+}
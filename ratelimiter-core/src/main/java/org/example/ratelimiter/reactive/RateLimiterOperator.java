@@ -0,0 +1,55 @@
+package org.example.ratelimiter.reactive;
+
+import org.example.ratelimiter.annotation.RateLimitedException;
+import org.example.ratelimiter.limiter.ratelimiter.ReactiveRateLimiter;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.UnaryOperator;
+
+/**
+ * 限流操作符，配合 transformDeferred 使用，每次订阅都重新获取令牌
+ * <pre>
+ * mono.transformDeferred(RateLimiterOperator.of(limiter))
+ * flux.transformDeferred(RateLimiterOperator.of(limiter))
+ * </pre>
+ * Mono 在订阅时按限流器预设的最大等待时间获取 1 个令牌，获取失败以 {@link RateLimitedException} 结束；
+ * Flux 的每个元素获取 permitsPerElement 个令牌后再发出，上一个元素发出之前只向上游多请求 1 个元素，
+ * 因此会按限流速率匀速发出而不会无限缓存上游数据
+ */
+public class RateLimiterOperator<T> implements UnaryOperator<Publisher<T>> {
+    private final ReactiveRateLimiter rateLimiter;
+
+    private final long permitsPerElement;
+
+    private RateLimiterOperator(ReactiveRateLimiter rateLimiter, long permitsPerElement) {
+        this.rateLimiter = rateLimiter;
+        this.permitsPerElement = permitsPerElement;
+    }
+
+    public static <T> RateLimiterOperator<T> of(ReactiveRateLimiter rateLimiter) {
+        return new RateLimiterOperator<>(rateLimiter, 1L);
+    }
+
+    /**
+     * Flux 的每个元素获取指定数量的令牌，例如按字节数限流时传入每个分片的大小
+     *
+     * @param rateLimiter 限流器
+     * @param permitsPerElement 每个元素获取的令牌数
+     * @return 操作符
+     */
+    public static <T> RateLimiterOperator<T> of(ReactiveRateLimiter rateLimiter, long permitsPerElement) {
+        return new RateLimiterOperator<>(rateLimiter, permitsPerElement);
+    }
+
+    @Override
+    public Publisher<T> apply(Publisher<T> publisher) {
+        if (publisher instanceof Mono<T> mono) {
+            return rateLimiter.tryAcquire().flatMap(acquired -> acquired ? mono
+                    : Mono.error(new RateLimitedException(rateLimiter.getName())));
+        }
+        return Flux.from(publisher)
+                .concatMap(element -> rateLimiter.acquire(permitsPerElement).thenReturn(element), 1);
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.ratelimiter.utils;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * 按需求划分总速率的工具类
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class FairShareUtils {
+    /**
+     * 最大最小公平划分：需求低于平均份额的参与方按需分配（另加 headroom 的余量），剩下的在其余参与方之间平分；
+     * 需求总和低于总量时余量平分，每个参与方至少分到 minShare，最后整体缩放使总和等于总量。
+     * 相同的输入在任何节点上得到相同的结果
+     *
+     * @param demands 参与方 -> 需求速率
+     * @param capacity 总速率
+     * @param headroom 按需分配时在需求之上留出的比例
+     * @param minShare 每个参与方的最低份额，相对总速率
+     * @return 参与方 -> 分到的速率
+     */
+    public static Map<String, Double> allocate(Map<String, Double> demands, double capacity, double headroom, double minShare) {
+        List<String> ordered = new ArrayList<>(demands.keySet());
+        ordered.sort(Comparator.comparingDouble((String k) -> demands.get(k)).thenComparing(k -> k));
+        Map<String, Double> allocation = new HashMap<>();
+        double remaining = capacity;
+        for (int i = 0; i < ordered.size(); i++) {
+            double fair = remaining / (ordered.size() - i);
+            double rate = min(demands.get(ordered.get(i)) * (1 + headroom), fair);
+            allocation.put(ordered.get(i), rate);
+            remaining -= rate;
+        }
+        double spare = ordered.isEmpty() ? 0D : remaining / ordered.size();
+        double floor = capacity * minShare;
+        double sum = 0D;
+        for (String k : ordered) {
+            double rate = max(allocation.get(k) + spare, floor);
+            allocation.put(k, rate);
+            sum += rate;
+        }
+        if (sum > 0D) {
+            double scale = capacity / sum;
+            allocation.replaceAll((k, rate) -> rate * scale);
+        }
+        return allocation;
+    }
+}
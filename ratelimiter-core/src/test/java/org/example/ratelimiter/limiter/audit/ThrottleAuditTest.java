@@ -0,0 +1,144 @@
+package org.example.ratelimiter.limiter.audit;
+
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限流统计：每秒的差值、队列满时丢弃、写入失败不影响后续写入、本地文件按天滚动
+ * 直接调用统计和写入，不启动定时线程
+ */
+class ThrottleAuditTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void aggregatePerSecond() {
+        List<ThrottleRecord> written = new ArrayList<>();
+        ThrottleAudit audit = new ThrottleAudit("node-1", written::addAll, 16, 2);
+        RateLimiter rateLimiter = limiter("audit-test");
+        acquire(rateLimiter, 5);
+        // 注册前的获取不计入
+        audit.register("audit-test", rateLimiter.getPriorityMetrics());
+        audit.collect(100L);
+        Assertions.assertEquals(0, audit.getQueued());
+
+        int granted = acquire(rateLimiter, 20);
+        audit.collect(101L);
+        audit.collect(102L);
+        acquire(rateLimiter, 3);
+        audit.collect(103L);
+        Assertions.assertEquals(2, audit.getQueued());
+        Assertions.assertEquals(2, audit.flush());
+
+        Assertions.assertEquals(2, written.size());
+        ThrottleRecord first = written.get(0);
+        Assertions.assertEquals("node-1", first.getNode());
+        Assertions.assertEquals("audit-test", first.getInterfaceNo());
+        Assertions.assertEquals(101L, first.getEpochSecond());
+        Assertions.assertEquals(granted, first.getGranted());
+        Assertions.assertEquals(20 - granted, first.getRejected());
+        Assertions.assertEquals(103L, written.get(1).getEpochSecond());
+        Assertions.assertEquals(3, written.get(1).getGranted() + written.get(1).getRejected());
+
+        // 注销时最后的统计也会写入
+        acquire(rateLimiter, 1);
+        audit.unregister("audit-test");
+        acquire(rateLimiter, 1);
+        audit.close();
+        Assertions.assertEquals(3, written.size());
+        Assertions.assertEquals(3L, audit.getWritten());
+        Assertions.assertEquals(0L, audit.getDropped());
+    }
+
+    @Test
+    void dropWhenQueueFull() {
+        List<ThrottleRecord> written = new ArrayList<>();
+        ThrottleAudit audit = new ThrottleAudit("node-1", written::addAll, 2, 10);
+        RateLimiter rateLimiter = limiter("audit-test-full");
+        audit.register("audit-test-full", rateLimiter.getPriorityMetrics());
+        for (long second = 0; second < 5; second++) {
+            acquire(rateLimiter, 1);
+            audit.collect(second);
+        }
+        Assertions.assertEquals(2, audit.getQueued());
+        Assertions.assertEquals(3L, audit.getDropped());
+        audit.flush();
+        Assertions.assertEquals(List.of(0L, 1L), written.stream().map(ThrottleRecord::getEpochSecond).toList());
+    }
+
+    @Test
+    void failedBatchIsCounted() {
+        List<ThrottleRecord> written = new ArrayList<>();
+        boolean[] fail = {true};
+        ThrottleAudit audit = new ThrottleAudit("node-1", records -> {
+            if (fail[0]) {
+                fail[0] = false;
+                throw new IOException("sink down");
+            }
+            written.addAll(records);
+        }, 16, 1);
+        RateLimiter rateLimiter = limiter("audit-test-failed");
+        audit.register("audit-test-failed", rateLimiter.getPriorityMetrics());
+        for (long second = 0; second < 3; second++) {
+            acquire(rateLimiter, 1);
+            audit.collect(second);
+        }
+        Assertions.assertEquals(2, audit.flush());
+        Assertions.assertEquals(1L, audit.getFailed());
+        Assertions.assertEquals(List.of(1L, 2L), written.stream().map(ThrottleRecord::getEpochSecond).toList());
+    }
+
+    @Test
+    void rollingFile() throws IOException {
+        RollingFileThrottleSink sink = new RollingFileThrottleSink(dir, 2, ZoneOffset.UTC);
+        long day = TimeUnit.DAYS.toSeconds(1);
+        // 2024-12-13 起连续 3 天，只保留最近 2 个文件
+        long start = 1734048000L;
+        for (int i = 0; i < 3; i++) {
+            sink.write(List.of(new ThrottleRecord("node-1", "order", start + i * day + 1, 10L, 2L),
+                    new ThrottleRecord("node-1", "pay", start + i * day + 2, 5L, 0L)));
+        }
+        sink.close();
+
+        List<String> files;
+        try (var stream = Files.list(dir)) {
+            files = stream.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+        Assertions.assertEquals(List.of("ratelimiter-throttle-20241214.csv", "ratelimiter-throttle-20241215.csv"), files);
+        List<String> lines = Files.readAllLines(dir.resolve("ratelimiter-throttle-20241215.csv"));
+        Assertions.assertEquals(3, lines.size());
+        Assertions.assertEquals("time,node,interfaceNo,epochSecond,granted,rejected", lines.get(0));
+        Assertions.assertEquals("2024-12-15 00:00:01,node-1,order," + (start + 2 * day + 1) + ",10,2", lines.get(1));
+    }
+
+    private static RateLimiter limiter(String name) {
+        RateLimiterConfig config = new RateLimiterConfig(name, 10L, null);
+        config.setStore(BucketStoreEnum.MEMORY);
+        return new RateLimiter(config);
+    }
+
+    /**
+     * 不等待地获取令牌
+     *
+     * @return 放行的次数
+     */
+    private static int acquire(RateLimiter rateLimiter, int times) {
+        int granted = 0;
+        for (int i = 0; i < times; i++) {
+            granted += rateLimiter.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS) ? 1 : 0;
+        }
+        return granted;
+    }
+}
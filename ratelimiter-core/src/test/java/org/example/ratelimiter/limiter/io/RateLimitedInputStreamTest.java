@@ -0,0 +1,80 @@
+package org.example.ratelimiter.limiter.io;
+
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 限速输入流：读取和跳过的字节都向限流器申请令牌，申请的令牌数按块计算
+ */
+class RateLimitedInputStreamTest {
+    private static final int CHUNK = 16;
+
+    /**
+     * 记录申请的令牌数，不等待
+     */
+    private static final class CountingLimiter implements Limiter {
+        private long acquired;
+
+        @Override
+        public double acquire() {
+            return acquire(1);
+        }
+
+        @Override
+        public double acquire(int permits) {
+            acquired += permits;
+            return 0D;
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            return tryAcquire(1L, 0L, TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        public boolean tryAcquire(long permits, long timeout, TimeUnit unit) {
+            acquired += permits;
+            return true;
+        }
+    }
+
+    @Test
+    void skipAcquiresPermits() throws IOException {
+        CountingLimiter limiter = new CountingLimiter();
+        InputStream in = new RateLimitedInputStream(new ByteArrayInputStream(new byte[100]), limiter, CHUNK, CHUNK);
+        long skipped = 0;
+        while (skipped < 64) {
+            skipped += in.skip(64 - skipped);
+        }
+        Assertions.assertEquals(64L, skipped);
+        Assertions.assertEquals(64L, limiter.acquired);
+
+        // 末尾只剩 36 个字节，只按实际跳过的字节消耗额度
+        Assertions.assertEquals(16L, in.skip(1_000L));
+        Assertions.assertEquals(16L, in.skip(1_000L));
+        Assertions.assertEquals(4L, in.skip(1_000L));
+        Assertions.assertEquals(0L, in.skip(1_000L));
+        Assertions.assertEquals(112L, limiter.acquired);
+        Assertions.assertEquals(0L, in.skip(0L));
+        Assertions.assertEquals(112L, limiter.acquired);
+    }
+
+    @Test
+    void skipNBytesAndReadShareCredit() throws IOException {
+        CountingLimiter limiter = new CountingLimiter();
+        InputStream in = new RateLimitedInputStream(new ByteArrayInputStream(new byte[100]), limiter, CHUNK, CHUNK);
+        in.skipNBytes(40L);
+        Assertions.assertEquals(48L, limiter.acquired);
+        // 剩余的 8 个字节额度留给之后的读取
+        Assertions.assertEquals(8, in.read(new byte[32]));
+        Assertions.assertEquals(48L, limiter.acquired);
+        Assertions.assertEquals(52, in.readAllBytes().length);
+        Assertions.assertEquals(112L, limiter.acquired);
+    }
+}
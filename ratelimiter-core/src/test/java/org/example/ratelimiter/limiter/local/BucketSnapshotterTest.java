@@ -0,0 +1,67 @@
+package org.example.ratelimiter.limiter.local;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 快照中的名称长度：不超过 65535 字节的名称原样恢复，超过的限流器不写入，其他条目不受影响；
+ * 定期快照运行时关闭，最后留下完整的快照且没有残留的临时文件
+ */
+class BucketSnapshotterTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void nameLength() {
+        String longest = "n".repeat(BucketSnapshotter.MAX_NAME_BYTES);
+        // 超过 Short.MAX_VALUE 但仍在无符号 2 字节范围内
+        String unsignedShort = "u".repeat(Short.MAX_VALUE + 1);
+        String tooLong = "t".repeat(BucketSnapshotter.MAX_NAME_BYTES + 1);
+        List<LocalRateLimiter> limiters = List.of(new LocalRateLimiter("order", 10L, 20L, 0F),
+                new LocalRateLimiter(tooLong, 30L, 30L, 0F),
+                new LocalRateLimiter(unsignedShort, 40L, 40L, 0F),
+                new LocalRateLimiter(longest, 50L, 50L, 0F));
+        Path path = dir.resolve("buckets.snapshot");
+        BucketSnapshotter snapshotter = new BucketSnapshotter(path, () -> limiters);
+        Assertions.assertEquals(3, snapshotter.write());
+
+        List<String> names = new ArrayList<>();
+        List<Long> rates = new ArrayList<>();
+        Assertions.assertEquals(3, snapshotter.restore((name, permitsPerSecond, maxPermits) -> {
+            names.add(name);
+            rates.add(permitsPerSecond);
+            return new LocalRateLimiter(name, permitsPerSecond, maxPermits, 0F);
+        }));
+        Assertions.assertEquals(List.of("order", unsignedShort, longest), names);
+        Assertions.assertEquals(List.of(10L, 40L, 50L), rates);
+    }
+
+    @Test
+    void closeWhileWriting() throws IOException, InterruptedException {
+        List<LocalRateLimiter> limiters = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++) {
+            limiters.add(new LocalRateLimiter("limiter-" + i, 100L, 100L, 0F));
+        }
+        Path path = dir.resolve("buckets.snapshot");
+        for (int round = 0; round < 5; round++) {
+            BucketSnapshotter snapshotter = new BucketSnapshotter(path, () -> limiters);
+            snapshotter.start(1L);
+            Thread.sleep(20L);
+            snapshotter.close();
+
+            Assertions.assertEquals(limiters.size(), snapshotter.restore((name, permitsPerSecond, maxPermits) ->
+                    new LocalRateLimiter(name, permitsPerSecond, maxPermits, 0F)));
+            try (Stream<Path> files = Files.list(dir)) {
+                Assertions.assertEquals(List.of(path), files.toList());
+            }
+        }
+    }
+}
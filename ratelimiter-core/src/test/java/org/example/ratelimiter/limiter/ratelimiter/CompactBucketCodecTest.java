@@ -0,0 +1,68 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 紧凑存储编码：往返、边界值、与脚本 struct.pack('&lt;i8i8i8i8') 相同的字节布局，
+ * 超出脚本能精确表示的范围时拒绝编码
+ */
+class CompactBucketCodecTest {
+    private static void assertRoundTrip(PermitBucket bucket) {
+        byte[] bytes = CompactBucketCodec.encode(bucket);
+        Assertions.assertEquals(CompactBucketCodec.SIZE, bytes.length);
+        PermitBucket decoded = CompactBucketCodec.decode(bucket.getName(), bytes);
+        Assertions.assertEquals(bucket.getName(), decoded.getName());
+        Assertions.assertEquals(bucket.getMaxPermits(), decoded.getMaxPermits());
+        Assertions.assertEquals(bucket.getStoredPermits(), decoded.getStoredPermits());
+        Assertions.assertEquals(bucket.getIntervalMicros(), decoded.getIntervalMicros());
+        Assertions.assertEquals(bucket.getNextFreeTicketMicros(), decoded.getNextFreeTicketMicros());
+    }
+
+    @Test
+    void roundTrip() {
+        assertRoundTrip(new PermitBucket("order", 100L, 37L, 10_000L, 1_734_048_000_123_456L));
+    }
+
+    @Test
+    void edgeValues() {
+        assertRoundTrip(new PermitBucket("zero", 0L, 0L, 0L, 0L));
+        long max = CompactBucketCodec.MAX_VALUE;
+        assertRoundTrip(new PermitBucket("max", max, max, max, max));
+        assertRoundTrip(new PermitBucket("min", -max, -max, -max, -max));
+        // 透支后 nextFreeTicketMicros 在未来，时钟回拨或测试时钟可能让它为负
+        assertRoundTrip(new PermitBucket("negative", 10L, 0L, 100_000L, -1L));
+        assertRoundTrip(new PermitBucket("negative", 10L, -5L, 100_000L, -1_734_048_000_000_000L));
+    }
+
+    @Test
+    void outOfScriptRange() {
+        // Long.MAX_VALUE 经过脚本的浮点数读写后会变成 Long.MIN_VALUE
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CompactBucketCodec.encode(
+                new PermitBucket("max", Long.MAX_VALUE, 0L, 10_000L, 0L)));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> CompactBucketCodec.encode(
+                new PermitBucket("min", 10L, 0L, 10_000L, -CompactBucketCodec.MAX_VALUE - 1)));
+    }
+
+    @Test
+    void littleEndianLayout() {
+        byte[] bytes = CompactBucketCodec.encode(new PermitBucket("layout", 2L, 4L, 1L, -1L));
+        byte[] expected = new byte[CompactBucketCodec.SIZE];
+        // intervalMicros、maxPermits、nextFreeTicketMicros、storedPermits，低字节在前
+        expected[0] = 1;
+        expected[8] = 2;
+        for (int i = 16; i < 24; i++) {
+            expected[i] = (byte) 0xFF;
+        }
+        expected[24] = 4;
+        Assertions.assertArrayEquals(expected, bytes);
+    }
+
+    @Test
+    void missingOrCorrupted() {
+        Assertions.assertNull(CompactBucketCodec.decode("missing", null));
+        Assertions.assertThrows(IllegalStateException.class, () -> CompactBucketCodec.decode("short", new byte[24]));
+        Assertions.assertThrows(IllegalStateException.class,
+                () -> CompactBucketCodec.decode("long", new byte[CompactBucketCodec.SIZE + 1]));
+    }
+}
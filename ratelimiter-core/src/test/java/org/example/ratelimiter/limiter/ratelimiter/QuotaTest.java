@@ -0,0 +1,43 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import org.example.ratelimiter.common.constant.QuotaPeriodEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * 配额窗口：同一个实例添加到多个限流器时各自使用自己的计数 key
+ */
+class QuotaTest {
+    private static final long NOW_MILLIS = Instant.parse("2024-12-13T10:30:00Z").toEpochMilli();
+
+    @Test
+    void sharedCalendarQuotaKeepsKeysPerLimiter() {
+        Quota daily = Quota.calendar(QuotaPeriodEnum.DAY, 2_000_000L, ZoneOffset.UTC);
+        Quota.Window order = daily.window("order", NOW_MILLIS);
+        Quota.Window pay = daily.window("pay", NOW_MILLIS);
+        Assertions.assertTrue(order.key().contains(":order:"), order.key());
+        Assertions.assertTrue(pay.key().contains(":pay:"), pay.key());
+        Assertions.assertNotEquals(order.key(), pay.key());
+        // 同一窗口内再次获取使用缓存
+        Assertions.assertSame(order, daily.window("order", NOW_MILLIS + 1_000L));
+        Assertions.assertEquals(Instant.parse("2024-12-13T00:00:00Z").toEpochMilli(), order.start());
+        Assertions.assertEquals(Instant.parse("2024-12-14T00:00:00Z").toEpochMilli(), order.end());
+    }
+
+    @Test
+    void sharedRollingQuotaKeepsKeysPerLimiter() {
+        Quota hourly = Quota.rolling(Duration.ofHours(1), 1_000L);
+        Quota.Window order = hourly.window("order", NOW_MILLIS);
+        Quota.Window pay = hourly.window("pay", NOW_MILLIS);
+        Assertions.assertNotEquals(order.key(), pay.key());
+        Assertions.assertNotEquals(order.previousKey(), pay.previousKey());
+        Assertions.assertTrue(pay.previousKey().contains(":pay:"), pay.previousKey());
+        // 进入下一个窗口后，原来的当前窗口成为上一窗口
+        Quota.Window next = hourly.window("order", order.end());
+        Assertions.assertEquals(order.key(), next.previousKey());
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.common.constant.LimiterModeEnum;
+import org.example.ratelimiter.common.mmap.config.MappedFileConfig;
+import org.example.ratelimiter.common.server.config.TokenServerConfig;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 核心模块不依赖 Spring：测试类路径上没有 Spring，直接 new 工厂得到可用的限流器
+ */
+class RateLimiterFactoryTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void limiterWithoutSpring() {
+        Assertions.assertThrows(ClassNotFoundException.class,
+                () -> Class.forName("org.springframework.context.ApplicationContext"));
+
+        RateLimiterFactory factory = new RateLimiterFactory();
+        RateLimiterConfig config = new RateLimiterConfig("core-factory-test", 10L, null);
+        config.setStore(BucketStoreEnum.MEMORY);
+        Limiter limiter = factory.getLimiter(config);
+        try {
+            Assertions.assertSame(limiter, factory.getLimiter(config));
+            // 每 100ms 生成 1 个令牌，不等待时连续 20 次只有开头的少数几次放行
+            int granted = 0;
+            for (int i = 0; i < 20; i++) {
+                granted += limiter.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS) ? 1 : 0;
+            }
+            Assertions.assertTrue(granted > 0 && granted < 20, "granted " + granted);
+            Assertions.assertTrue(limiter.tryAcquire(1L, 1L, TimeUnit.SECONDS));
+        } finally {
+            factory.destroy(limiter);
+            factory.close();
+        }
+    }
+
+    @Test
+    void factoriesAreIndependent() {
+        RateLimiterFactory first = mappedFactory("first.buckets");
+        RateLimiterFactory second = mappedFactory("second.buckets");
+        RateLimiterConfig config = new RateLimiterConfig("core-factory-independent", 1_000L, null);
+        config.setStore(BucketStoreEnum.MEMORY);
+        try {
+            // 同名的限流器属于各自的工厂
+            Assertions.assertNotSame(first.getPermitLimiter(config), second.getPermitLimiter(config));
+            Limiter firstMapped = first.getLimiter(config);
+            Limiter secondMapped = second.getLimiter(config);
+            Assertions.assertNotSame(firstMapped, secondMapped);
+
+            // 关闭一个工厂不影响另一个工厂的文件
+            first.close();
+            Assertions.assertTrue(secondMapped.tryAcquire(1L, 1L, TimeUnit.SECONDS));
+            Assertions.assertSame(secondMapped, second.getLimiter(config));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    private RateLimiterFactory mappedFactory(String file) {
+        TokenServerConfig tokenServerConfig = new TokenServerConfig();
+        tokenServerConfig.setMode(LimiterModeEnum.MAPPED.getCode());
+        MappedFileConfig mappedFileConfig = new MappedFileConfig();
+        mappedFileConfig.setPath(dir.resolve(file).toString());
+        mappedFileConfig.setSlots(16);
+        return new RateLimiterFactory(tokenServerConfig, mappedFileConfig);
+    }
+}
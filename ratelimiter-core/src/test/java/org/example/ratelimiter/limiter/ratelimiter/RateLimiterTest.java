@@ -0,0 +1,124 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import org.example.ratelimiter.common.constant.PriorityEnum;
+import org.example.ratelimiter.limiter.store.BucketStore;
+import org.example.ratelimiter.limiter.store.MemoryBucketStore;
+import org.example.ratelimiter.limiter.store.RedissonRateLimiterStore;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在运行时修改参数：存储端修改较慢时不阻塞本地参数刷新和获取令牌，参数整体替换；
+ * 存储引擎不支持的优先级预留和添加令牌在使用前拒绝
+ */
+class RateLimiterTest {
+    /**
+     * 修改速率时等待放行的存储引擎
+     */
+    private static final class SlowUpdateStore implements BucketStore {
+        private final MemoryBucketStore delegate = new MemoryBucketStore("rate-test", 100L, 10_000L);
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public CompletableFuture<Long> reserve(long permits, long timeoutMicros, long reservedPermits) {
+            return delegate.reserve(permits, timeoutMicros, reservedPermits);
+        }
+
+        @Override
+        public void updateRate(long maxPermits, long intervalMicros) {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            delegate.updateRate(maxPermits, intervalMicros);
+        }
+
+        @Override
+        public void addPermits(long permits) {
+            delegate.addPermits(permits);
+        }
+
+        @Override
+        public PermitBucket load() {
+            return delegate.load();
+        }
+
+        @Override
+        public void save(PermitBucket bucket) {
+            delegate.save(bucket);
+        }
+
+        @Override
+        public boolean saveIfAbsent(PermitBucket bucket) {
+            return delegate.saveIfAbsent(bucket);
+        }
+    }
+
+    @Test
+    void slowStoreDoesNotBlockLocalUpdates() throws Exception {
+        SlowUpdateStore store = new SlowUpdateStore();
+        RateLimiterConfig config = new RateLimiterConfig("rate-test", 100L, 100L, 0.5F, null);
+        config.setBucketStore(store);
+        RateLimiter rateLimiter = new RateLimiter(config);
+
+        CompletableFuture<Void> setRate = CompletableFuture.runAsync(() -> rateLimiter.setRate(50L, 40L));
+        Assertions.assertTrue(store.entered.await(5, TimeUnit.SECONDS));
+        // 其他节点的通知、缓存比例的修改和获取令牌都不等待正在进行的 setRate
+        CompletableFuture.runAsync(() -> {
+            rateLimiter.applyRate(200L, 100L);
+            rateLimiter.setCache(1F);
+            rateLimiter.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS);
+        }).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(200L, rateLimiter.getRate());
+        Assertions.assertEquals(5_000L * 200L, rateLimiter.getTimeoutMicros());
+        Assertions.assertFalse(setRate.isDone());
+
+        store.release.countDown();
+        setRate.get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(50L, rateLimiter.getRate());
+        Assertions.assertEquals(40L, rateLimiter.getMaxPermits());
+        Assertions.assertEquals(20_000L, rateLimiter.getIntervalMicros());
+        // 缓存比例保留，超时时间按新速率计算
+        Assertions.assertEquals(1F, rateLimiter.getCache());
+        Assertions.assertEquals(20_000L * 50L, rateLimiter.getTimeoutMicros());
+    }
+
+    @Test
+    void reservedPermitsFollowMaxPermits() {
+        RateLimiterConfig config = new RateLimiterConfig("rate-test-reserved", 100L, 100L, 0F, null);
+        config.setBucketStore(new MemoryBucketStore("rate-test-reserved", 100L, 10_000L));
+        config.setReservedRatio(PriorityEnum.LOW, 0.5F);
+        RateLimiter rateLimiter = new RateLimiter(config);
+        Assertions.assertEquals(50L, rateLimiter.reservedPermits(PriorityEnum.LOW));
+        rateLimiter.setMaxPermits(30L);
+        Assertions.assertEquals(15L, rateLimiter.reservedPermits(PriorityEnum.LOW));
+        Assertions.assertEquals(0L, rateLimiter.reservedPermits(PriorityEnum.HIGH));
+    }
+
+    @Test
+    void unsupportedStoreCapabilities() {
+        BucketStore store = new RedissonRateLimiterStore("rate-test-redisson", null, 100L, 10_000L);
+        Assertions.assertFalse(store.supportsReservedPermits());
+        Assertions.assertFalse(store.supportsAddPermits());
+
+        RateLimiterConfig reserved = new RateLimiterConfig("rate-test-redisson", 100L, 100L, 0F, null);
+        reserved.setBucketStore(store);
+        reserved.setReservedRatio(PriorityEnum.LOW, 0.5F);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> new RateLimiter(reserved));
+
+        RateLimiterConfig config = new RateLimiterConfig("rate-test-redisson", 100L, 100L, 0F, null);
+        config.setBucketStore(store);
+        RateLimiter rateLimiter = new RateLimiter(config);
+        Assertions.assertFalse(rateLimiter.supportsAddPermits());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> rateLimiter.addPermits(10L));
+    }
+}
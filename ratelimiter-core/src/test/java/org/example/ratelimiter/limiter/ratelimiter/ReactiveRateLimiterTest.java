@@ -0,0 +1,30 @@
+package org.example.ratelimiter.limiter.ratelimiter;
+
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.common.constant.PriorityEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应式获取：匀速获取不受 NORMAL 预留比例的限制，与同步的 acquire 一致
+ */
+class ReactiveRateLimiterTest {
+    @Test
+    void acquireIgnoresReservedRatio() {
+        // 每秒 10 个令牌，NORMAL 预留一半，新建的桶只有 1 个令牌
+        RateLimiterConfig config = new RateLimiterConfig("reactive-reserved-test", 10L, 10L, 1F, null);
+        config.setStore(BucketStoreEnum.MEMORY);
+        config.setReservedRatio(PriorityEnum.NORMAL, 0.5F);
+        ReactiveRateLimiter rateLimiter = new ReactiveRateLimiter(new RateLimiter(config), null);
+
+        // tryAcquire 受预留限制
+        Assertions.assertFalse(rateLimiter.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS).block(Duration.ofSeconds(1)));
+        // acquire 不受限制，超出桶内令牌的部分透支后等待，不会因预留被拒绝
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertDoesNotThrow(() -> rateLimiter.acquire(1L).block(Duration.ofSeconds(1)));
+        }
+    }
+}
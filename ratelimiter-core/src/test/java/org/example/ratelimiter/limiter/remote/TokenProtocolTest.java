@@ -0,0 +1,103 @@
+package org.example.ratelimiter.limiter.remote;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 令牌服务协议：请求帧编码后经帧解码器还原，分段到达的帧在完整后才交给处理器；名称长度在编码前校验
+ */
+class TokenProtocolTest {
+    private static ByteBuf register(int requestId, String name, long permitsPerSecond, long maxPermits) {
+        ByteBuf out = Unpooled.buffer();
+        TokenProtocol.writeRegister(out, requestId, TokenProtocol.encodeName(name), permitsPerSecond, maxPermits);
+        return out;
+    }
+
+    private static void assertRegister(ByteBuf frame, int requestId, String name, long permitsPerSecond, long maxPermits) {
+        try {
+            Assertions.assertEquals(TokenProtocol.OP_REGISTER, frame.readByte());
+            Assertions.assertEquals(requestId, frame.readInt());
+            Assertions.assertEquals(permitsPerSecond, frame.readLong());
+            Assertions.assertEquals(maxPermits, frame.readLong());
+            Assertions.assertEquals(name, frame.toString(frame.readerIndex(), frame.readableBytes(), StandardCharsets.UTF_8));
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Test
+    void roundTrip() {
+        EmbeddedChannel channel = new EmbeddedChannel(TokenProtocol.newFrameDecoder());
+        ByteBuf in = register(7, "订单-order", 100L, 200L);
+        TokenProtocol.writeAcquire(in, 8, 3, 5, -1L);
+        Assertions.assertTrue(channel.writeInbound(in));
+
+        assertRegister(channel.readInbound(), 7, "订单-order", 100L, 200L);
+        ByteBuf acquire = channel.readInbound();
+        Assertions.assertEquals(TokenProtocol.OP_ACQUIRE, acquire.readByte());
+        Assertions.assertEquals(8, acquire.readInt());
+        Assertions.assertEquals(3, acquire.readInt());
+        Assertions.assertEquals(5, acquire.readInt());
+        Assertions.assertEquals(-1L, acquire.readLong());
+        Assertions.assertFalse(acquire.isReadable());
+        acquire.release();
+        Assertions.assertNull(channel.readInbound());
+
+        ByteBuf response = Unpooled.buffer();
+        TokenProtocol.writeResponse(response, 8, TokenProtocol.UNKNOWN_LIMITER);
+        Assertions.assertEquals(TokenProtocol.RESPONSE_LENGTH, response.readableBytes());
+        Assertions.assertEquals(8, response.readInt());
+        Assertions.assertEquals(TokenProtocol.UNKNOWN_LIMITER, response.readLong());
+        Assertions.assertFalse(channel.finish());
+    }
+
+    @Test
+    void partialFrames() {
+        EmbeddedChannel channel = new EmbeddedChannel(TokenProtocol.newFrameDecoder());
+        ByteBuf in = register(1, "partial", 10L, 20L);
+        int registerLength = in.readableBytes();
+        TokenProtocol.writeAcquire(in, 2, 1, 1, 0L);
+        // 逐字节到达，包括长度字段被拆开，最后一个字节到达前不产生帧
+        for (int i = 1; i < registerLength; i++) {
+            channel.writeInbound(in.readRetainedSlice(1));
+            Assertions.assertNull(channel.readInbound());
+        }
+        channel.writeInbound(in.readRetainedSlice(1));
+        assertRegister(channel.readInbound(), 1, "partial", 10L, 20L);
+        // 第二个帧分两段到达
+        channel.writeInbound(in.readRetainedSlice(in.readableBytes() - 1));
+        Assertions.assertNull(channel.readInbound());
+        channel.writeInbound(in.readRetainedSlice(1));
+        ByteBuf acquire = channel.readInbound();
+        Assertions.assertEquals(TokenProtocol.OP_ACQUIRE, acquire.readByte());
+        Assertions.assertEquals(2, acquire.readInt());
+        acquire.release();
+        in.release();
+        Assertions.assertFalse(channel.finish());
+    }
+
+    @Test
+    void nameLength() {
+        String longest = "n".repeat(TokenProtocol.MAX_NAME_BYTES);
+        EmbeddedChannel channel = new EmbeddedChannel(TokenProtocol.newFrameDecoder());
+        ByteBuf in = register(1, longest, 1L, 1L);
+        Assertions.assertEquals(TokenProtocol.MAX_FRAME_LENGTH, in.readableBytes());
+        Assertions.assertTrue(channel.writeInbound(in));
+        assertRegister(channel.readInbound(), 1, longest, 1L, 1L);
+
+        // 按 UTF-8 字节数计算：每个汉字 3 字节
+        String tooLong = "n".repeat(TokenProtocol.MAX_NAME_BYTES - 2) + "名";
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TokenProtocol.encodeName(tooLong));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TokenProtocol.encodeName(longest + "n"));
+        ByteBuf out = Unpooled.buffer();
+        Assertions.assertThrows(IllegalArgumentException.class, () -> TokenProtocol.writeRegister(out, 1,
+                new byte[TokenProtocol.MAX_NAME_BYTES + 1], 1L, 1L));
+        Assertions.assertFalse(out.isReadable());
+        Assertions.assertFalse(channel.finish());
+    }
+}
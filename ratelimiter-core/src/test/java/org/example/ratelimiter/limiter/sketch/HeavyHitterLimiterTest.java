@@ -0,0 +1,208 @@
+package org.example.ratelimiter.limiter.sketch;
+
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 草图限流：hashCode 相同的 key 互不影响、估计值不低于真实值、滑动窗口切换、节点间合并、高频 key 的升级和降级
+ */
+class HeavyHitterLimiterTest {
+    private static final long WINDOW_MILLIS = 1_000L;
+
+    private static final long START_MILLIS = 10_000L;
+
+    /**
+     * 手动推进的时钟
+     */
+    private static final class ManualClock extends Clock {
+        private long millis = START_MILLIS;
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+    }
+
+    /**
+     * 拒绝所有请求的精确限流器，用于确认请求交给了精确限流器
+     */
+    private static final class RejectingLimiter implements Limiter {
+        private int calls;
+
+        @Override
+        public double acquire() {
+            return acquire(1);
+        }
+
+        @Override
+        public double acquire(int permits) {
+            calls++;
+            return -1D;
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            return tryAcquire(1L, 0L, TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        public boolean tryAcquire(long permits, long timeout, TimeUnit unit) {
+            calls++;
+            return false;
+        }
+    }
+
+    private final ManualClock clock = new ManualClock();
+
+    private HeavyHitterLimiter limiter(long permitsPerWindow, int depth, int width) {
+        return new HeavyHitterLimiter("sketch-test", permitsPerWindow, WINDOW_MILLIS, depth, width, clock);
+    }
+
+    @Test
+    void equalHashCodesDoNotCollide() {
+        Assertions.assertEquals("Aa".hashCode(), "BB".hashCode());
+        for (int row = 0; row < 4; row++) {
+            Assertions.assertNotEquals(HeavyHitterLimiter.hash("Aa", row), HeavyHitterLimiter.hash("BB", row));
+        }
+        HeavyHitterLimiter limiter = limiter(10L, 4, 64);
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertTrue(limiter.tryAcquire("Aa"));
+        }
+        Assertions.assertFalse(limiter.tryAcquire("Aa"));
+        Assertions.assertEquals(10L, limiter.estimate("Aa"));
+        Assertions.assertEquals(0L, limiter.estimate("BB"));
+        Assertions.assertTrue(limiter.tryAcquire("BB"));
+    }
+
+    @Test
+    void estimateNeverBelowTrueCount() {
+        HeavyHitterLimiter limiter = limiter(Long.MAX_VALUE, 4, 256);
+        Map<String, Long> counts = new HashMap<>();
+        Random random = new Random(42L);
+        for (int i = 0; i < 20_000; i++) {
+            String key = "10.0." + random.nextInt(8) + "." + random.nextInt(256);
+            Assertions.assertTrue(limiter.tryAcquire(key));
+            counts.merge(key, 1L, Long::sum);
+        }
+        counts.forEach((key, count) -> Assertions.assertTrue(limiter.estimate(key) >= count, key));
+    }
+
+    @Test
+    void windowRollover() {
+        HeavyHitterLimiter limiter = limiter(4L, 4, 1024);
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(limiter.tryAcquire("ip"));
+        }
+        Assertions.assertFalse(limiter.tryAcquire("ip"));
+
+        // 下一个窗口过去 1/4，上一窗口的计数按 3/4 计入
+        clock.millis = START_MILLIS + WINDOW_MILLIS + WINDOW_MILLIS / 4;
+        Assertions.assertEquals(3L, limiter.estimate("ip"));
+        Assertions.assertTrue(limiter.tryAcquire("ip"));
+        Assertions.assertFalse(limiter.tryAcquire("ip"));
+
+        // 两个窗口之后不再有计数
+        clock.millis = START_MILLIS + 3 * WINDOW_MILLIS;
+        Assertions.assertEquals(0L, limiter.estimate("ip"));
+        Assertions.assertTrue(limiter.tryAcquire("ip"));
+    }
+
+    @Test
+    void exportAndMerge() {
+        HeavyHitterLimiter local = limiter(100L, 4, 1024);
+        HeavyHitterLimiter peer = limiter(100L, 4, 1024);
+        HeavyHitterLimiter otherSize = limiter(100L, 4, 512);
+        for (int i = 0; i < 3; i++) {
+            Assertions.assertTrue(local.tryAcquire("ip"));
+        }
+        // 当前窗口还未结束
+        Assertions.assertNull(local.exportCompletedWindow());
+
+        clock.millis = START_MILLIS + WINDOW_MILLIS;
+        Assertions.assertTrue(local.tryAcquire("other"));
+        SketchSnapshot snapshot = local.exportCompletedWindow();
+        Assertions.assertNotNull(snapshot);
+        Assertions.assertEquals(START_MILLIS / WINDOW_MILLIS, snapshot.getEpoch());
+        // 每个窗口只导出一次
+        Assertions.assertNull(local.exportCompletedWindow());
+
+        peer.merge(snapshot);
+        Assertions.assertEquals(3L, peer.estimate("ip"));
+        Assertions.assertEquals(0L, peer.estimate("other"));
+        otherSize.merge(snapshot);
+        Assertions.assertEquals(0L, otherSize.estimate("ip"));
+    }
+
+    @Test
+    void promoteAndDemote() {
+        HeavyHitterLimiter limiter = limiter(10L, 4, 1024);
+        Map<String, RejectingLimiter> exact = new HashMap<>();
+        List<String> demoted = new ArrayList<>();
+        limiter.enablePromotion(new HeavyHitterPromoter() {
+            @Override
+            public Limiter promote(String key) {
+                return exact.computeIfAbsent(key, k -> new RejectingLimiter());
+            }
+
+            @Override
+            public void demote(String key, Limiter exactLimiter) {
+                demoted.add(key);
+            }
+        }, 0.5F, 1);
+
+        for (int i = 0; i < 4; i++) {
+            Assertions.assertTrue(limiter.tryAcquire("hot"));
+        }
+        Assertions.assertEquals(0, limiter.getPromotedCount());
+        // 第 5 个请求达到阈值，之后由精确限流器决定
+        Assertions.assertTrue(limiter.tryAcquire("hot"));
+        Assertions.assertEquals(1, limiter.getPromotedCount());
+        Assertions.assertFalse(limiter.tryAcquire("hot"));
+        Assertions.assertEquals(1, exact.get("hot").calls);
+        // 升级数量达到上限
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertTrue(limiter.tryAcquire("warm"));
+        }
+        Assertions.assertEquals(1, limiter.getPromotedCount());
+
+        // 上一窗口的计数仍高于阈值的一半，不降级
+        clock.millis = START_MILLIS + WINDOW_MILLIS;
+        Assertions.assertTrue(limiter.tryAcquire("cold"));
+        Assertions.assertEquals(1, limiter.getPromotedCount());
+
+        // 流量停止一个完整窗口后降级，重新由草图决定
+        clock.millis = START_MILLIS + 2 * WINDOW_MILLIS;
+        Assertions.assertTrue(limiter.tryAcquire("cold"));
+        Assertions.assertEquals(0, limiter.getPromotedCount());
+        Assertions.assertEquals(List.of("hot"), demoted);
+        Assertions.assertTrue(limiter.tryAcquire("hot"));
+        Assertions.assertEquals(1, exact.get("hot").calls);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example.ratelimiter.limiter.store;
+
+import org.example.ratelimiter.limiter.ratelimiter.PermitBucket;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * 内存引擎的优先级预留：低优先级不透支，桶内超出预留的令牌用完后直接拒绝，预留的令牌仍可立即被更高优先级使用
+ */
+class MemoryBucketStoreTest {
+    private static final long INTERVAL_MICROS = 100_000L;
+
+    private static final long ONE_SECOND_MICROS = 1_000_000L;
+
+    @Test
+    void lowerPriorityDoesNotBorrowReserved() {
+        // 每秒 10 个令牌，桶大小 10，时间不前进
+        Clock clock = Clock.fixed(Instant.parse("2024-12-13T00:00:00Z"), ZoneOffset.UTC);
+        MemoryBucketStore store = new MemoryBucketStore("memory-store-test", 10L, INTERVAL_MICROS, clock);
+        long nowMicros = clock.millis() * 1000;
+        store.save(new PermitBucket("memory-store-test", 10L, 10L, INTERVAL_MICROS, nowMicros));
+
+        // LOW 预留 5 个，超时 1 秒也只能拿到超出预留的 5 个
+        int lowGranted = 0;
+        for (int i = 0; i < 10; i++) {
+            long waitMicros = store.reserve(1L, ONE_SECOND_MICROS, 5L).join();
+            if (waitMicros >= 0) {
+                Assertions.assertEquals(0L, waitMicros);
+                lowGranted++;
+            }
+        }
+        Assertions.assertEquals(5, lowGranted);
+        // 一次请求超出预留之外的令牌数时同样拒绝
+        Assertions.assertEquals(-1L, store.reserve(1L, ONE_SECOND_MICROS, 5L).join());
+
+        PermitBucket bucket = store.load();
+        Assertions.assertEquals(5L, bucket.getStoredPermits());
+        Assertions.assertEquals(nowMicros, bucket.getNextFreeTicketMicros());
+
+        // HIGH 不预留、不等待，剩下的 5 个都能立即拿到
+        for (int i = 0; i < 5; i++) {
+            Assertions.assertEquals(0L, store.reserve(1L, 0L, 0L).join());
+        }
+        Assertions.assertEquals(-1L, store.reserve(1L, 0L, 0L).join());
+        // 不预留时仍可按超时时间透支
+        Assertions.assertEquals(INTERVAL_MICROS, store.reserve(1L, ONE_SECOND_MICROS, 0L).join());
+    }
+}
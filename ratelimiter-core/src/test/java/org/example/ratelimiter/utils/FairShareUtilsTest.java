@@ -0,0 +1,85 @@
+package org.example.ratelimiter.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 最大最小公平划分：按需分配、余量平分、零需求的参与方、单个参与方，结果总和等于总量且与输入顺序无关
+ */
+class FairShareUtilsTest {
+    private static final double DELTA = 1e-9;
+
+    private static Map<String, Double> demands(Object... pairs) {
+        Map<String, Double> demands = new LinkedHashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) {
+            demands.put((String) pairs[i], ((Number) pairs[i + 1]).doubleValue());
+        }
+        return demands;
+    }
+
+    private static void assertSum(double capacity, Map<String, Double> allocation) {
+        Assertions.assertEquals(capacity, allocation.values().stream().mapToDouble(Double::doubleValue).sum(), DELTA);
+    }
+
+    @Test
+    void lowDemandServedFirst() {
+        Map<String, Double> allocation = FairShareUtils.allocate(demands("a", 10, "b", 1000, "c", 1000), 300D, 0.1D, 0D);
+        Assertions.assertEquals(11D, allocation.get("a"), DELTA);
+        Assertions.assertEquals(144.5D, allocation.get("b"), DELTA);
+        Assertions.assertEquals(144.5D, allocation.get("c"), DELTA);
+        assertSum(300D, allocation);
+    }
+
+    @Test
+    void spareSplitEvenly() {
+        // 需求总和 30 低于总量 100，剩下的 70 平分
+        Map<String, Double> allocation = FairShareUtils.allocate(demands("a", 10, "b", 20), 100D, 0D, 0D);
+        Assertions.assertEquals(45D, allocation.get("a"), DELTA);
+        Assertions.assertEquals(55D, allocation.get("b"), DELTA);
+        assertSum(100D, allocation);
+    }
+
+    @Test
+    void remainderDoesNotLeak() {
+        Map<String, Double> allocation = FairShareUtils.allocate(demands("a", 500, "b", 500, "c", 500), 100D, 0D, 0D);
+        allocation.values().forEach(rate -> Assertions.assertEquals(100D / 3, rate, DELTA));
+        assertSum(100D, allocation);
+
+        allocation = FairShareUtils.allocate(demands("a", 1, "b", 2, "c", 4, "d", 1000, "e", 1000, "f", 1000, "g", 1000),
+                7D, 0.5D, 0D);
+        assertSum(7D, allocation);
+    }
+
+    @Test
+    void zeroDemand() {
+        // 没有需求的参与方只分到最低份额，缩放后总和仍等于总量
+        Map<String, Double> allocation = FairShareUtils.allocate(demands("a", 0, "b", 100, "c", 100), 90D, 0D, 0.05D);
+        Assertions.assertEquals(4.5D * 90D / 94.5D, allocation.get("a"), DELTA);
+        Assertions.assertEquals(45D * 90D / 94.5D, allocation.get("b"), DELTA);
+        Assertions.assertEquals(allocation.get("b"), allocation.get("c"), DELTA);
+        assertSum(90D, allocation);
+
+        // 都没有需求时平分
+        allocation = FairShareUtils.allocate(demands("a", 0, "b", 0, "c", 0, "d", 0), 100D, 0.1D, 0D);
+        allocation.values().forEach(rate -> Assertions.assertEquals(25D, rate, DELTA));
+    }
+
+    @Test
+    void singleParticipant() {
+        Assertions.assertEquals(Map.of("a", 100D), FairShareUtils.allocate(demands("a", 10), 100D, 0.1D, 0.05D));
+        Assertions.assertEquals(Map.of("a", 100D), FairShareUtils.allocate(demands("a", 1000), 100D, 0.1D, 0.05D));
+        Assertions.assertEquals(Map.of("a", 100D), FairShareUtils.allocate(demands("a", 0), 100D, 0D, 0D));
+        Assertions.assertTrue(FairShareUtils.allocate(Map.of(), 100D, 0.1D, 0.05D).isEmpty());
+    }
+
+    @Test
+    void orderIndependent() {
+        // 需求相同的参与方按名称排序，任何节点上的结果都相同
+        Map<String, Double> forward = FairShareUtils.allocate(demands("a", 50, "b", 50, "c", 10), 80D, 0.2D, 0.1D);
+        Map<String, Double> backward = FairShareUtils.allocate(demands("c", 10, "b", 50, "a", 50), 80D, 0.2D, 0.1D);
+        Assertions.assertEquals(forward, backward);
+    }
+}
@@ -0,0 +1,62 @@
+package org.example.ratelimiter.annotation;
+
+import org.example.ratelimiter.common.constant.Constants;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 声明式限流
+ * 方法返回 {@link java.util.concurrent.CompletableFuture}/{@link java.util.concurrent.CompletionStage}
+ * 或 Reactor 的 Mono/Flux 时异步获取令牌，不阻塞调用线程；其他方法同步获取，获取失败抛出 {@link RateLimitedException}
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RateLimited {
+    /**
+     * 限流器名称，为空时使用 类名#方法名
+     */
+    String name() default "";
+
+    /**
+     * 限流维度的 SpEL 表达式，例如 #req.tenantId，为空时整个方法共用一个限流器
+     * 不同的值使用不同的限流器，名称为 name:值
+     */
+    String key() default "";
+
+    /**
+     * 按 key 区分时最多缓存的限流器个数，超过后先移除空闲的，仍超过时移除最久未使用的
+     */
+    int maxKeys() default 10_000;
+
+    /**
+     * 按 key 区分时限流器的最长空闲时间，单位为秒，超过后移除，0 表示不按空闲时间移除
+     * 移除后再次出现的值重新创建限流器
+     */
+    long keyIdleSeconds() default 600L;
+
+    /**
+     * 每秒存入的令牌数
+     */
+    long permitsPerSecond() default Constants.PERMITS_PER_SECOND;
+
+    /**
+     * 每次调用获取的令牌数
+     */
+    long permits() default 1L;
+
+    /**
+     * 允许的最大等待时间，0 表示不等待
+     */
+    long timeout() default 0L;
+
+    /**
+     * timeout 的时间单位
+     */
+    TimeUnit unit() default TimeUnit.MILLISECONDS;
+}
@@ -0,0 +1,107 @@
+package org.example.ratelimiter.annotation;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * {@link RateLimited} 注解的切面
+ * 注解、key 表达式和限流器在方法第一次调用时解析并按方法缓存，之后每次调用只做一次 Map 查找和 key 求值。
+ * 有 AspectJ 时由 {@link org.example.ratelimiter.autoconfigure.RateLimiterAutoConfiguration} 注册。
+ * 异步获取令牌的结果在 Redisson 的 Netty 线程上完成，原方法不能在这个线程上调用（同步访问 Redis 会抛出异常，阻塞会卡住事件循环），
+ * 返回 CompletableFuture 的方法切换到 {@link #setExecutor} 设置的线程池，返回 Mono/Flux 的方法切换到 Reactor 的 boundedElastic
+ */
+@Aspect
+public class RateLimitedAspect {
+    private final RateLimiterFactory rateLimiterFactory;
+
+    private final RedissonService redisService;
+
+    private final Map<Method, RateLimitedMethod> methods = new ConcurrentHashMap<>();
+
+    /**
+     * 异步获取令牌成功后调用原方法的线程池
+     */
+    private Executor executor = ForkJoinPool.commonPool();
+
+    public RateLimitedAspect(RateLimiterFactory rateLimiterFactory, RedissonService redisService) {
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.redisService = redisService;
+    }
+
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    @Around("@annotation(org.example.ratelimiter.annotation.RateLimited)")
+    public Object around(ProceedingJoinPoint joinPoint) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        RateLimitedMethod limited = methods.get(method);
+        if (limited == null) {
+            limited = methods.computeIfAbsent(method, m -> resolve(m, joinPoint.getTarget()));
+        }
+        Limiter limiter = limited.isKeyed() ? limited.limiter(joinPoint.getArgs()) : limited.getDefaultLimiter();
+
+        switch (limited.getMode()) {
+            case FUTURE:
+                return acquireAsync(limited, limiter, joinPoint, executor);
+            case MONO:
+                return ReactorRateLimited.mono(limited, limiter, joinPoint);
+            case FLUX:
+                return ReactorRateLimited.flux(limited, limiter, joinPoint);
+            default:
+                if (!limiter.tryAcquire(limited.getPermits(), limited.getTimeoutMicros(), MICROSECONDS)) {
+                    throw new RateLimitedException(limited.getName());
+                }
+                return joinPoint.proceed();
+        }
+    }
+
+    /**
+     * 异步获取令牌，成功后在 executor 中调用原方法，返回的 CompletableFuture 在原方法的结果完成时完成
+     */
+    private static CompletionStage<Object> acquireAsync(RateLimitedMethod limited, Limiter limiter,
+                                                        ProceedingJoinPoint joinPoint, Executor executor) {
+        return limiter.tryAcquireAsync(limited.getPermits(), limited.getTimeoutMicros(), MICROSECONDS)
+                .thenComposeAsync(acquired -> {
+                    if (!acquired) {
+                        return CompletableFuture.failedFuture(new RateLimitedException(limited.getName()));
+                    }
+                    try {
+                        @SuppressWarnings("unchecked")
+                        CompletionStage<Object> result = (CompletionStage<Object>) joinPoint.proceed();
+                        return result != null ? result : CompletableFuture.completedFuture(null);
+                    } catch (Throwable e) {
+                        return CompletableFuture.failedFuture(e);
+                    }
+                }, executor);
+    }
+
+    /**
+     * 解析方法上的注解，JDK 代理时 method 为接口方法，需要找到目标类上的实现方法
+     */
+    private RateLimitedMethod resolve(Method method, Object target) {
+        Method specific = target != null ? AopUtils.getMostSpecificMethod(method, target.getClass()) : method;
+        RateLimited rateLimited = AnnotatedElementUtils.findMergedAnnotation(specific, RateLimited.class);
+        if (rateLimited == null) {
+            throw new IllegalStateException("No @RateLimited on " + method);
+        }
+        return new RateLimitedMethod(specific, rateLimited, rateLimiterFactory, redisService);
+    }
+}
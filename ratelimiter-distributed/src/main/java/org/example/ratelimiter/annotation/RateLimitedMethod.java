@@ -0,0 +1,287 @@
+package org.example.ratelimiter.annotation;
+
+import lombok.Getter;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.SimpleEvaluationContext;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 一个 {@link RateLimited} 方法解析后的限流信息，每个方法只解析一次
+ * key 表达式中的参数引用在解析时改写为参数数组下标，调用时以参数数组为根对象求值，不需要按调用创建求值上下文；
+ * 表达式按 MIXED 模式在运行若干次后编译为字节码。
+ * 按 key 的值缓存限流器，只有首次出现的值才会拼接名称并通过 {@link RateLimiterFactory} 创建；
+ * 缓存的个数不超过 {@link RateLimited#maxKeys()}，空闲超过 {@link RateLimited#keyIdleSeconds()} 的限流器在创建新 key 时一并清理，
+ * 移除的限流器通过 {@link RateLimiterFactory#destroy} 释放
+ */
+@Getter
+final class RateLimitedMethod {
+    private static final SpelExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, RateLimitedMethod.class.getClassLoader()));
+
+    /**
+     * 只读的求值上下文，不允许调用方法和构造对象，所有方法共用
+     */
+    private static final EvaluationContext CONTEXT = SimpleEvaluationContext.forReadOnlyDataBinding().build();
+
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    /**
+     * #参数名、#p0、#a0 形式的参数引用，#root 和 #this 不改写
+     */
+    private static final Pattern PARAMETER_REFERENCE = Pattern.compile("#([A-Za-z_$][A-Za-z0-9_$]*)");
+
+    /**
+     * 最近使用时间的更新粒度，同一粒度内不重复写，减少热点 key 上的缓存行争用
+     */
+    private static final long ACCESS_GRANULARITY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono",
+            RateLimitedMethod.class.getClassLoader());
+
+    /**
+     * 方法返回值的处理方式
+     */
+    enum Mode {
+        /**
+         * 同步获取令牌
+         */
+        SYNC,
+        /**
+         * 返回 CompletableFuture/CompletionStage
+         */
+        FUTURE,
+        /**
+         * 返回 Mono
+         */
+        MONO,
+        /**
+         * 返回 Flux
+         */
+        FLUX
+    }
+
+    /**
+     * 限流器名称，按 key 区分时为名称前缀
+     */
+    private final String name;
+
+    private final long permits;
+
+    private final long timeoutMicros;
+
+    private final Mode mode;
+
+    /**
+     * key 表达式，为 null 时整个方法共用 {@link #defaultLimiter}
+     */
+    private final Expression keyExpression;
+
+    private final Limiter defaultLimiter;
+
+    private final Map<Object, KeyedLimiter> limiters = new ConcurrentHashMap<>();
+
+    private final Function<Object, KeyedLimiter> limiterLoader;
+
+    private final RateLimiterFactory factory;
+
+    private final int maxKeys;
+
+    private final long keyIdleNanos;
+
+    /**
+     * 下一次清理空闲限流器的时间
+     */
+    private volatile long nextSweepNanos;
+
+    /**
+     * 同一时间只有一个线程清理，其他线程不等待
+     */
+    private final ReentrantLock evictLock = new ReentrantLock();
+
+    RateLimitedMethod(Method method, RateLimited rateLimited, RateLimiterFactory factory, RedissonService redisService) {
+        this.name = StringUtils.hasText(rateLimited.name()) ? rateLimited.name()
+                : method.getDeclaringClass().getName() + "#" + method.getName();
+        this.permits = rateLimited.permits();
+        this.timeoutMicros = rateLimited.unit().toMicros(rateLimited.timeout());
+        this.mode = modeOf(method.getReturnType());
+        if (rateLimited.maxKeys() <= 0) {
+            throw new IllegalArgumentException("maxKeys must be positive, method: " + method);
+        }
+        this.factory = factory;
+        this.maxKeys = rateLimited.maxKeys();
+        this.keyIdleNanos = rateLimited.keyIdleSeconds() > 0
+                ? TimeUnit.SECONDS.toNanos(rateLimited.keyIdleSeconds()) : Long.MAX_VALUE;
+        this.nextSweepNanos = keyIdleNanos == Long.MAX_VALUE ? Long.MAX_VALUE : System.nanoTime() + keyIdleNanos;
+        long permitsPerSecond = rateLimited.permitsPerSecond();
+        this.limiterLoader = key -> new KeyedLimiter(
+                factory.getLimiter(new RateLimiterConfig(name + ":" + key, permitsPerSecond, redisService)), System.nanoTime());
+        this.defaultLimiter = factory.getLimiter(new RateLimiterConfig(name, permitsPerSecond, redisService));
+        this.keyExpression = StringUtils.hasText(rateLimited.key())
+                ? PARSER.parseExpression(rewriteParameters(rateLimited.key(), method)) : null;
+    }
+
+    /**
+     * 按本次调用的参数取出限流器，key 的值为 null 时使用方法的默认限流器
+     *
+     * @param args 方法参数
+     * @return 限流器
+     */
+    Limiter limiter(Object[] args) {
+        Object key = keyExpression.getValue(CONTEXT, args);
+        if (key == null) {
+            return defaultLimiter;
+        }
+        long nowNanos = System.nanoTime();
+        KeyedLimiter keyed = limiters.get(key);
+        if (keyed == null) {
+            if (limiters.size() >= maxKeys || nowNanos - nextSweepNanos >= 0) {
+                evict(nowNanos);
+            }
+            keyed = limiters.computeIfAbsent(key, limiterLoader);
+        }
+        if (nowNanos - keyed.lastAccessNanos >= ACCESS_GRANULARITY_NANOS) {
+            keyed.lastAccessNanos = nowNanos;
+        }
+        return keyed.limiter;
+    }
+
+    /**
+     * 移除空闲的限流器，仍然达到上限时移除最久未使用的，一次多移除一些，避免每个新 key 都要排序
+     * 正在使用被移除的限流器的调用不受影响，之后同一个值会重新创建
+     */
+    private void evict(long nowNanos) {
+        if (!evictLock.tryLock()) {
+            return;
+        }
+        try {
+            if (keyIdleNanos != Long.MAX_VALUE) {
+                nextSweepNanos = nowNanos + keyIdleNanos;
+                limiters.forEach((key, keyed) -> {
+                    if (nowNanos - keyed.lastAccessNanos >= keyIdleNanos) {
+                        remove(key, keyed);
+                    }
+                });
+            }
+            int excess = limiters.size() - maxKeys + 1;
+            if (excess > 0) {
+                // 先取出最近使用时间，排序过程中的并发更新不影响比较
+                List<Candidate> candidates = new ArrayList<>(limiters.size());
+                limiters.forEach((key, keyed) -> candidates.add(new Candidate(key, keyed, keyed.lastAccessNanos)));
+                candidates.sort((a, b) -> Long.compare(a.lastAccessNanos() - nowNanos, b.lastAccessNanos() - nowNanos));
+                int count = Math.min(Math.max(excess, maxKeys / 10), candidates.size());
+                for (int i = 0; i < count; i++) {
+                    remove(candidates.get(i).key(), candidates.get(i).keyed());
+                }
+            }
+        } finally {
+            evictLock.unlock();
+        }
+    }
+
+    private void remove(Object key, KeyedLimiter keyed) {
+        if (limiters.remove(key, keyed)) {
+            factory.destroy(keyed.limiter);
+        }
+    }
+
+    /**
+     * 缓存的按 key 限流器和最近使用时间
+     */
+    private static final class KeyedLimiter {
+        private final Limiter limiter;
+
+        private volatile long lastAccessNanos;
+
+        private KeyedLimiter(Limiter limiter, long lastAccessNanos) {
+            this.limiter = limiter;
+            this.lastAccessNanos = lastAccessNanos;
+        }
+    }
+
+    private record Candidate(Object key, KeyedLimiter keyed, long lastAccessNanos) {
+    }
+
+    boolean isKeyed() {
+        return keyExpression != null;
+    }
+
+    private static Mode modeOf(Class<?> returnType) {
+        if (CompletionStage.class.isAssignableFrom(returnType)) {
+            return Mode.FUTURE;
+        }
+        if (REACTOR_PRESENT) {
+            if ("reactor.core.publisher.Mono".equals(returnType.getName())) {
+                return Mode.MONO;
+            }
+            if ("reactor.core.publisher.Flux".equals(returnType.getName())) {
+                return Mode.FLUX;
+            }
+        }
+        return Mode.SYNC;
+    }
+
+    /**
+     * 把 #参数名、#p0、#a0 改写为参数数组下标 [i]
+     * 例如 #req.tenantId 改写为 [0].tenantId
+     */
+    static String rewriteParameters(String expression, Method method) {
+        String[] names = PARAMETER_NAMES.getParameterNames(method);
+        Matcher matcher = PARAMETER_REFERENCE.matcher(expression);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            if ("root".equals(matcher.group(1)) || "this".equals(matcher.group(1))) {
+                matcher.appendReplacement(result, Matcher.quoteReplacement(matcher.group()));
+                continue;
+            }
+            int index = parameterIndex(matcher.group(1), names, method.getParameterCount());
+            if (index < 0) {
+                throw new IllegalArgumentException("Unknown parameter " + matcher.group() + " in key expression '"
+                        + expression + "' of " + method);
+            }
+            matcher.appendReplacement(result, "[" + index + "]");
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    private static int parameterIndex(String reference, String[] names, int parameterCount) {
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (names[i].equals(reference)) {
+                    return i;
+                }
+            }
+        }
+        if (reference.length() > 1 && (reference.charAt(0) == 'p' || reference.charAt(0) == 'a')) {
+            String digits = reference.substring(1);
+            if (digits.chars().allMatch(Character::isDigit)) {
+                int index = Integer.parseInt(digits);
+                return index < parameterCount ? index : -1;
+            }
+        }
+        return -1;
+    }
+}
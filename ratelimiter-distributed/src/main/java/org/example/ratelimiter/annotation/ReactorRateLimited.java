@@ -0,0 +1,43 @@
+package org.example.ratelimiter.annotation;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.reactivestreams.Publisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * 返回 Mono/Flux 的 {@link RateLimited} 方法
+ * 订阅时才异步获取令牌，获取成功后切换到 boundedElastic 再调用原方法（不占用 Redisson 的 Netty 线程）；
+ * 单独成类，没有 Reactor 时不会被加载
+ */
+final class ReactorRateLimited {
+    private ReactorRateLimited() {
+    }
+
+    static Mono<?> mono(RateLimitedMethod method, Limiter limiter, ProceedingJoinPoint joinPoint) {
+        return acquire(method, limiter).flatMap(acquired -> Mono.from(proceed(joinPoint)));
+    }
+
+    static Flux<?> flux(RateLimitedMethod method, Limiter limiter, ProceedingJoinPoint joinPoint) {
+        return acquire(method, limiter).flatMapMany(acquired -> Flux.from(proceed(joinPoint)));
+    }
+
+    private static Mono<Boolean> acquire(RateLimitedMethod method, Limiter limiter) {
+        return Mono.fromFuture(() -> limiter.tryAcquireAsync(method.getPermits(), method.getTimeoutMicros(), MICROSECONDS))
+                .flatMap(acquired -> acquired ? Mono.just(true) : Mono.error(new RateLimitedException(method.getName())))
+                .publishOn(Schedulers.boundedElastic());
+    }
+
+    private static Publisher<?> proceed(ProceedingJoinPoint joinPoint) {
+        try {
+            Publisher<?> publisher = (Publisher<?>) joinPoint.proceed();
+            return publisher != null ? publisher : Mono.empty();
+        } catch (Throwable e) {
+            return Mono.error(e);
+        }
+    }
+}
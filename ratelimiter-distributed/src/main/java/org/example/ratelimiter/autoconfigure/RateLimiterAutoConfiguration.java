@@ -0,0 +1,173 @@
+package org.example.ratelimiter.autoconfigure;
+
+import org.example.ratelimiter.annotation.RateLimited;
+import org.example.ratelimiter.annotation.RateLimitedAspect;
+import org.example.ratelimiter.common.constant.AuditSinkEnum;
+import org.example.ratelimiter.common.mmap.config.MappedFileConfig;
+import org.example.ratelimiter.common.redis.config.RedissonConfig;
+import org.example.ratelimiter.common.redis.config.factory.RedissonFactory;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.common.server.config.TokenServerConfig;
+import org.example.ratelimiter.limiter.audit.RollingFileThrottleSink;
+import org.example.ratelimiter.limiter.audit.ThrottleAudit;
+import org.example.ratelimiter.limiter.audit.ThrottleSink;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.example.ratelimiter.model.TAirRatelimitConfMapper;
+import org.example.ratelimiter.model.TRatelimitThrottleMapper;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationPackage;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * 限流器的 Spring Boot 自动配置
+ * 按 spring.data.redis.* 创建 Redisson 客户端，按 ratelimiter.mode、ratelimiter.token-server.*、ratelimiter.mapped.* 创建限流器工厂，
+ * 有 AspectJ 时注册 {@link RateLimited} 注解的切面，ratelimiter.audit.enabled=true 时开启限流统计。Web 和出站调用的限流配置依赖可选的 Spring MVC/WebFlux，
+ * 单独登记在 AutoConfiguration.imports 中，按各自的条件生效。
+ * 限流配置的 Mapper 所在的包登记为自动配置包，由 MyBatis 的自动配置扫描，应用不需要把启动类放在 org.example.ratelimiter 下。
+ * 应用自己定义了同类型的 Bean 时使用应用的
+ */
+@AutoConfiguration
+@AutoConfigurationPackage(basePackageClasses = TAirRatelimitConfMapper.class)
+@Import(RedissonConfig.class)
+public class RateLimiterAutoConfiguration {
+    @Value("${ratelimiter.mode:redis}")
+    private String mode;
+
+    @Value("${ratelimiter.token-server.host:127.0.0.1}")
+    private String tokenServerHost;
+
+    @Value("${ratelimiter.token-server.port:7380}")
+    private int tokenServerPort;
+
+    /**
+     * 单次请求的超时时间，超时后使用本地限流兜底
+     */
+    @Value("${ratelimiter.token-server.timeout:50}")
+    private long tokenServerTimeoutMillis;
+
+    @Value("${ratelimiter.mapped.path:${java.io.tmpdir}/ratelimiter.buckets}")
+    private String mappedPath;
+
+    /**
+     * 新建文件时的槽位数，即最多可以容纳的限流器个数
+     */
+    @Value("${ratelimiter.mapped.slots:1024}")
+    private int mappedSlots;
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean
+    public RedissonClient redissonClient(RedissonConfig redissonConfig) {
+        return RedissonFactory.create(redissonConfig.getHost(), redissonConfig.getPort(),
+                redissonConfig.getDatabase(), redissonConfig.getPassword());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RedissonService redissonService(RedissonClient redissonClient) {
+        return new RedissonService(redissonClient);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnMissingBean
+    public RateLimiterFactory rateLimiterFactory() {
+        TokenServerConfig tokenServerConfig = new TokenServerConfig();
+        tokenServerConfig.setMode(mode);
+        tokenServerConfig.setHost(tokenServerHost);
+        tokenServerConfig.setPort(tokenServerPort);
+        tokenServerConfig.setTimeoutMillis(tokenServerTimeoutMillis);
+        MappedFileConfig mappedFileConfig = new MappedFileConfig();
+        mappedFileConfig.setPath(mappedPath);
+        mappedFileConfig.setSlots(mappedSlots);
+        return new RateLimiterFactory(tokenServerConfig, mappedFileConfig);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.aspectj.lang.ProceedingJoinPoint")
+    static class RateLimitedAspectConfiguration {
+        /**
+         * 返回 CompletableFuture 的方法获取令牌后在这个线程池中调用，默认为 Spring Boot 的 applicationTaskExecutor，
+         * 不存在时使用 ForkJoinPool.commonPool()
+         */
+        @Value("${ratelimiter.annotation.executor:applicationTaskExecutor}")
+        private String executorName;
+
+        @Bean
+        @ConditionalOnMissingBean
+        public RateLimitedAspect rateLimitedAspect(BeanFactory beanFactory, RateLimiterFactory rateLimiterFactory,
+                                                   RedissonService redissonService) {
+            RateLimitedAspect aspect = new RateLimitedAspect(rateLimiterFactory, redissonService);
+            if (beanFactory.containsBean(executorName)) {
+                aspect.setExecutor(beanFactory.getBean(executorName, Executor.class));
+            }
+            return aspect;
+        }
+    }
+
+    /**
+     * 限流统计：每秒汇总各限流器的放行/拒绝次数，异步批量写入 t_ratelimite_throttle 表（sink=db）或本地文件（sink=file）
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(name = "ratelimiter.audit.enabled", havingValue = "true")
+    static class ThrottleAuditConfiguration {
+        @Value("${ratelimiter.audit.sink:db}")
+        private String sink;
+
+        /**
+         * 节点名称，默认为主机名
+         */
+        @Value("${ratelimiter.audit.node:}")
+        private String node;
+
+        @Value("${ratelimiter.audit.file.dir:${java.io.tmpdir}/ratelimiter-throttle}")
+        private String fileDir;
+
+        /**
+         * 保留的文件个数，每天一个
+         */
+        @Value("${ratelimiter.audit.file.max-files:7}")
+        private int fileMaxFiles;
+
+        /**
+         * 等待写入的最大条数，超过后丢弃新的统计
+         */
+        @Value("${ratelimiter.audit.capacity:10000}")
+        private int capacity;
+
+        @Value("${ratelimiter.audit.batch-size:500}")
+        private int batchSize;
+
+        @Value("${ratelimiter.audit.flush-interval:5000}")
+        private long flushMillis;
+
+        @Bean(destroyMethod = "close")
+        @ConditionalOnMissingBean
+        public ThrottleAudit throttleAudit(RateLimiterFactory rateLimiterFactory,
+                                           ObjectProvider<TRatelimitThrottleMapper> throttleMapper) throws IOException {
+            ThrottleSink throttleSink;
+            if (AuditSinkEnum.FILE.getCode().equals(sink)) {
+                throttleSink = new RollingFileThrottleSink(Path.of(fileDir), fileMaxFiles);
+            } else {
+                throttleSink = throttleMapper.getObject()::insertBatch;
+            }
+            ThrottleAudit audit = new ThrottleAudit(node.isEmpty() ? InetAddress.getLocalHost().getHostName() : node,
+                    throttleSink, capacity, batchSize);
+            rateLimiterFactory.setAudit(audit);
+            audit.start(flushMillis);
+            return audit;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package org.example.ratelimiter.client;
+
+import lombok.Getter;
+import org.example.ratelimiter.annotation.RateLimitedException;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.ReactiveRateLimiter;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一个下游渠道的出站限流
+ * 令牌不足时在限流器按缓存比例计算的超时时间内排队等待，而不是直接失败；
+ * 排队中的请求数即为该渠道的队列深度
+ */
+public class ChannelThrottle {
+    /**
+     * 渠道，即 channelType
+     */
+    @Getter
+    private final String channel;
+
+    @Getter
+    private final RateLimiter rateLimiter;
+
+    private final ReactiveRateLimiter reactiveRateLimiter;
+
+    /**
+     * 正在等待令牌的请求数
+     */
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final LongAdder granted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public ChannelThrottle(String channel, RateLimiter rateLimiter, ReactiveRateLimiter reactiveRateLimiter) {
+        this.channel = channel;
+        this.rateLimiter = rateLimiter;
+        this.reactiveRateLimiter = reactiveRateLimiter;
+    }
+
+    /**
+     * 同步获取 1 个令牌，最多等待到缓存比例对应的超时时间
+     *
+     * @throws RateLimitedException 超时时间内无法获取令牌
+     */
+    public void acquire() {
+        queued.incrementAndGet();
+        boolean acquired;
+        try {
+            acquired = rateLimiter.tryAcquire();
+        } finally {
+            queued.decrementAndGet();
+        }
+        record(acquired);
+    }
+
+    /**
+     * 异步获取 1 个令牌，等待期间不占用线程
+     *
+     * @return 获取成功后完成，超时时间内无法获取时以 {@link RateLimitedException} 结束
+     */
+    public Mono<Void> acquireReactive() {
+        return Mono.defer(() -> {
+            queued.incrementAndGet();
+            return reactiveRateLimiter.tryAcquire()
+                    .doFinally(signal -> queued.decrementAndGet())
+                    .doOnNext(this::record)
+                    .then();
+        });
+    }
+
+    private void record(boolean acquired) {
+        if (acquired) {
+            granted.increment();
+            return;
+        }
+        rejected.increment();
+        throw new RateLimitedException(channel);
+    }
+
+    /**
+     * 当前队列深度，即正在等待令牌的请求数
+     */
+    public int getQueueDepth() {
+        return queued.get();
+    }
+
+    public long getGranted() {
+        return granted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
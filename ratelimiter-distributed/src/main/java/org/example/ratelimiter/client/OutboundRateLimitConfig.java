@@ -0,0 +1,93 @@
+package org.example.ratelimiter.client;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.autoconfigure.RateLimiterAutoConfiguration;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.example.ratelimiter.model.TAirRatelimitConfMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.RestClientCustomizer;
+import org.springframework.boot.web.reactive.function.client.WebClientCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 出站请求的渠道限流配置
+ * ratelimiter.client.enabled=false 时关闭；ratelimiter.client.refresh-seconds 大于 0 时定期重新读取配置。
+ * 通过 Builder 创建的 RestClient 和 WebClient 会自动加上限流，手动创建的可以直接使用
+ * {@link RateLimitClientInterceptor}/{@link RateLimitExchangeFilter}
+ */
+@Slf4j
+@AutoConfiguration(after = RateLimiterAutoConfiguration.class)
+@ConditionalOnProperty(name = "ratelimiter.client.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboundRateLimitConfig {
+    @Value("${ratelimiter.client.refresh-seconds:0}")
+    private long refreshSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    @Bean
+    public OutboundRateLimiters outboundRateLimiters(RateLimiterFactory rateLimiterFactory, RedissonService redisService,
+                                                     TAirRatelimitConfMapper confMapper) {
+        OutboundRateLimiters rateLimiters = new OutboundRateLimiters(rateLimiterFactory, redisService, confMapper);
+        rateLimiters.refresh();
+        if (refreshSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "ratelimiter-client-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    rateLimiters.refresh();
+                } catch (RuntimeException e) {
+                    log.warn("Refresh outbound rateLimit matcher failed", e);
+                }
+            }, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+        return rateLimiters;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.web.client.RestClient")
+    static class RestClientRateLimitConfig {
+        @Bean
+        public RateLimitClientInterceptor rateLimitClientInterceptor(OutboundRateLimiters outboundRateLimiters) {
+            return new RateLimitClientInterceptor(outboundRateLimiters);
+        }
+
+        @Bean
+        public RestClientCustomizer rateLimitRestClientCustomizer(RateLimitClientInterceptor interceptor) {
+            return builder -> builder.requestInterceptor(interceptor);
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(name = "org.springframework.web.reactive.function.client.WebClient")
+    static class WebClientRateLimitConfig {
+        @Bean
+        public RateLimitExchangeFilter rateLimitExchangeFilter(OutboundRateLimiters outboundRateLimiters) {
+            return new RateLimitExchangeFilter(outboundRateLimiters);
+        }
+
+        @Bean
+        public WebClientCustomizer rateLimitWebClientCustomizer(RateLimitExchangeFilter filter) {
+            return builder -> builder.filter(filter);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package org.example.ratelimiter.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.example.ratelimiter.limiter.ratelimiter.ReactiveRateLimiter;
+import org.example.ratelimiter.model.TAirRatelimitConf;
+import org.example.ratelimiter.model.TAirRatelimitConfMapper;
+import org.example.ratelimiter.web.PathTrie;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 出站请求到渠道限流的映射
+ * t_ratelimite_conf 中 interfaceUrl 为完整 URL（例如 https://partner.com/api/**）的配置视为出站接口，
+ * 按 host 分组构建 {@link PathTrie}，匹配到的路径使用所属 channelType 的渠道限流。
+ * 渠道的速率为该渠道下所有开启的出站接口速率之和，缓存比例取其中的最大值
+ */
+@Slf4j
+public class OutboundRateLimiters {
+    /**
+     * 渠道限流器名称前缀，与入站接口的限流器区分
+     */
+    private static final String CHANNEL_PREFIX = "channel:";
+
+    private final RateLimiterFactory rateLimiterFactory;
+
+    private final RedissonService redisService;
+
+    private final TAirRatelimitConfMapper confMapper;
+
+    /**
+     * host -> 路径匹配树，重建时整体替换
+     */
+    private volatile Map<String, PathTrie<ChannelThrottle>> matchers = Map.of();
+
+    /**
+     * channelType -> 渠道限流，同一渠道在重建前后复用同一个实例，保留队列深度和统计；
+     * 新配置中不再出现的渠道在重建时移除并注销限流器
+     */
+    private final Map<String, ChannelThrottle> channels = new HashMap<>();
+
+    public OutboundRateLimiters(RateLimiterFactory rateLimiterFactory, RedissonService redisService,
+                                TAirRatelimitConfMapper confMapper) {
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.redisService = redisService;
+        this.confMapper = confMapper;
+    }
+
+    /**
+     * 重新读取限流配置并重建映射
+     */
+    public void refresh() {
+        rebuild(confMapper.getAirRatelimitConf());
+    }
+
+    /**
+     * 按给定配置重建映射
+     *
+     * @param confs 限流配置
+     */
+    public synchronized void rebuild(List<TAirRatelimitConf> confs) {
+        Map<String, Long> rates = new HashMap<>();
+        Map<String, Float> caches = new HashMap<>();
+        Map<String, Map<String, String>> routes = new HashMap<>();
+        for (TAirRatelimitConf conf : confs) {
+            if (!conf.isStatus() || conf.getChannelType() == null || conf.getRateLimit() == null
+                    || conf.getInterfaceUrl() == null || !conf.getInterfaceUrl().contains("://")) {
+                continue;
+            }
+            // 模式中可能有 {var}，不能按 URI 解析，直接按 scheme://authority/path 切分
+            String url = conf.getInterfaceUrl().trim();
+            int start = url.indexOf("://") + 3;
+            int slash = url.indexOf('/', start);
+            String authority = slash < 0 ? url.substring(start) : url.substring(start, slash);
+            String host = authority.substring(authority.indexOf('@') + 1);
+            host = host.indexOf(':') < 0 ? host : host.substring(0, host.indexOf(':'));
+            if (host.isEmpty()) {
+                continue;
+            }
+            String channel = conf.getChannelType();
+            rates.merge(channel, conf.getRateLimit().longValue(), Long::sum);
+            caches.merge(channel, conf.getCache() == null ? 0F : conf.getCache(), Math::max);
+            routes.computeIfAbsent(host.toLowerCase(Locale.ROOT), h -> new HashMap<>())
+                    .put(slash < 0 ? "/**" : url.substring(slash), channel);
+        }
+
+        rates.forEach((channel, rate) -> channels.put(channel, channel(channel, rate, caches.get(channel))));
+        Map<String, PathTrie<ChannelThrottle>> newMatchers = new HashMap<>();
+        routes.forEach((host, patterns) -> {
+            Map<String, ChannelThrottle> throttles = new HashMap<>();
+            patterns.forEach((pattern, channel) -> throttles.put(pattern, channels.get(channel)));
+            newMatchers.put(host, PathTrie.build(throttles));
+        });
+        matchers = newMatchers;
+        channels.entrySet().removeIf(entry -> {
+            if (rates.containsKey(entry.getKey())) {
+                return false;
+            }
+            // 已经拿到旧实例的请求仍可以正常获取令牌
+            rateLimiterFactory.destroy(entry.getValue().getRateLimiter());
+            log.info("Remove outbound channel: {}", entry.getKey());
+            return true;
+        });
+        log.info("Rebuild outbound rateLimit matcher, hosts: {}, channels: {}", newMatchers.size(), rates.size());
+    }
+
+    private ChannelThrottle channel(String channel, long rate, float cache) {
+        RateLimiterConfig config = new RateLimiterConfig(CHANNEL_PREFIX + channel, rate, cache, redisService);
+        ChannelThrottle throttle = channels.get(channel);
+        if (throttle != null) {
+            RateLimiter rateLimiter = throttle.getRateLimiter();
+            if (rateLimiter.getRate() != config.getPermitsPerSecond()
+                    || rateLimiter.getMaxPermits() != config.getMaxPermits()) {
+                rateLimiter.setRate(config.getPermitsPerSecond(), config.getMaxPermits());
+            }
+            if (Float.compare(rateLimiter.getCache(), config.getCache()) != 0) {
+                rateLimiter.setCache(config.getCache());
+            }
+            return throttle;
+        }
+        RateLimiter rateLimiter = rateLimiterFactory.getPermitLimiter(config);
+        return new ChannelThrottle(channel, rateLimiter, new ReactiveRateLimiter(rateLimiter, redisService));
+    }
+
+    /**
+     * 查找出站请求所属的渠道
+     *
+     * @param uri 请求地址
+     * @return 渠道限流，不限流时为 null
+     */
+    public ChannelThrottle match(URI uri) {
+        String host = uri.getHost();
+        if (host == null) {
+            return null;
+        }
+        PathTrie<ChannelThrottle> matcher = matchers.get(host);
+        if (matcher == null) {
+            matcher = matchers.get(host.toLowerCase(Locale.ROOT));
+        }
+        if (matcher == null) {
+            return null;
+        }
+        String path = uri.getRawPath();
+        return matcher.match(path == null || path.isEmpty() ? "/" : path, 0);
+    }
+
+    /**
+     * 各渠道当前的队列深度
+     *
+     * @return channelType -> 正在等待令牌的请求数
+     */
+    public synchronized Map<String, Integer> getQueueDepths() {
+        Map<String, Integer> depths = new LinkedHashMap<>();
+        channels.forEach((channel, throttle) -> depths.put(channel, throttle.getQueueDepth()));
+        return depths;
+    }
+
+    /**
+     * 按渠道获取出站限流
+     *
+     * @param channel channelType
+     * @return 渠道限流，没有配置时为 null
+     */
+    public synchronized ChannelThrottle getChannel(String channel) {
+        return channels.get(channel);
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.ratelimiter.client;
+
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+
+/**
+ * RestClient/RestTemplate 的出站限流拦截器
+ * 按请求地址找到所属渠道，发送前获取令牌，令牌不足时在缓存比例对应的超时时间内排队等待，超时仍无法获取时抛出
+ * {@link org.example.ratelimiter.annotation.RateLimitedException}，不会发出请求
+ */
+public class RateLimitClientInterceptor implements ClientHttpRequestInterceptor {
+    private final OutboundRateLimiters rateLimiters;
+
+    public RateLimitClientInterceptor(OutboundRateLimiters rateLimiters) {
+        this.rateLimiters = rateLimiters;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        ChannelThrottle throttle = rateLimiters.match(request.getURI());
+        if (throttle != null) {
+            throttle.acquire();
+        }
+        return execution.execute(request, body);
+    }
+}
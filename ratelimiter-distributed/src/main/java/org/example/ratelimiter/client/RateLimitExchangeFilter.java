@@ -0,0 +1,28 @@
+package org.example.ratelimiter.client;
+
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebClient 的出站限流过滤器，语义同 {@link RateLimitClientInterceptor}
+ * 订阅时才获取令牌，排队等待是调度器上的延迟信号，不占用事件循环
+ */
+public class RateLimitExchangeFilter implements ExchangeFilterFunction {
+    private final OutboundRateLimiters rateLimiters;
+
+    public RateLimitExchangeFilter(OutboundRateLimiters rateLimiters) {
+        this.rateLimiters = rateLimiters;
+    }
+
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        ChannelThrottle throttle = rateLimiters.match(request.url());
+        if (throttle == null) {
+            return next.exchange(request);
+        }
+        return throttle.acquireReactive().then(Mono.defer(() -> next.exchange(request)));
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.ratelimiter.model;
+
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.example.ratelimiter.limiter.audit.ThrottleRecord;
+
+import java.util.List;
+
+/**
+ * 限流统计的历史记录
+ */
+@Mapper
+public interface TRatelimitThrottleMapper {
+    /**
+     * 批量插入，一条多行的 insert 语句
+     *
+     * @param records 统计
+     * @return 插入的行数
+     */
+    int insertBatch(@Param("records") List<ThrottleRecord> records);
+
+    /**
+     * 按接口名查询一段时间内的统计
+     *
+     * @param interfaceNo 接口名
+     * @param fromSecond 开始的一秒（含）
+     * @param toSecond 结束的一秒（不含）
+     * @return 统计，按时间顺序
+     */
+    List<ThrottleRecord> getThrottle(@Param("interfaceNo") String interfaceNo,
+                                     @Param("fromSecond") long fromSecond, @Param("toSecond") long toSecond);
+}
@@ -0,0 +1,237 @@
+package org.example.ratelimiter.web;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按路径段组织的 URL 匹配树，构建后只读
+ * 支持的模式：精确段、{@code *} 或 {@code {var}} 匹配一个段、{@code **} 匹配剩余的零个或多个段；
+ * 同一位置优先级为 精确段 > 单段通配 > 多段通配。
+ * <p>
+ * 匹配时直接在原始路径上按字符区间计算段的哈希并比较，不切分字符串、不分配对象，耗时与路径长度成正比
+ *
+ * @param <T> 叶子节点上挂载的值
+ */
+public final class PathTrie<T> {
+    private final Node<T> root;
+
+    private final int size;
+
+    private PathTrie(Node<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * 按 模式 -> 值 构建匹配树，模式为空的条目会被忽略
+     *
+     * @param patterns 模式和对应的值
+     * @return 匹配树
+     */
+    public static <T> PathTrie<T> build(Map<String, T> patterns) {
+        MutableNode<T> root = new MutableNode<>();
+        int size = 0;
+        for (Map.Entry<String, T> entry : patterns.entrySet()) {
+            String pattern = entry.getKey();
+            if (pattern == null || pattern.isBlank()) {
+                continue;
+            }
+            MutableNode<T> node = root;
+            for (String segment : pattern.trim().split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if ("**".equals(segment)) {
+                    node = node.multi == null ? (node.multi = new MutableNode<>()) : node.multi;
+                } else if ("*".equals(segment) || (segment.startsWith("{") && segment.endsWith("}"))) {
+                    node = node.single == null ? (node.single = new MutableNode<>()) : node.single;
+                } else {
+                    node = node.child(segment);
+                }
+            }
+            node.value = entry.getValue();
+            size++;
+        }
+        return new PathTrie<>(root.freeze(), size);
+    }
+
+    /**
+     * 匹配的模式个数
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 匹配路径
+     *
+     * @param path 请求路径，可以带查询串，从 {@code from} 开始匹配（用于跳过 context path）
+     * @param from 开始位置
+     * @return 匹配到的值，没有匹配时为 null
+     */
+    public T match(CharSequence path, int from) {
+        int end = path.length();
+        for (int i = from; i < end; i++) {
+            char c = path.charAt(i);
+            if (c == '?' || c == '#' || c == ';') {
+                end = i;
+                break;
+            }
+        }
+        return match(root, path, from, end);
+    }
+
+    public T match(CharSequence path) {
+        return match(path, 0);
+    }
+
+    private static <T> T match(Node<T> node, CharSequence path, int pos, int end) {
+        // 跳过分隔符
+        while (pos < end && path.charAt(pos) == '/') {
+            pos++;
+        }
+        if (pos == end) {
+            if (node.value != null) {
+                return node.value;
+            }
+            // 末尾的 ** 可以匹配零个段
+            return node.multi != null ? node.multi.value : null;
+        }
+        int segmentEnd = pos;
+        int hash = 0;
+        while (segmentEnd < end && path.charAt(segmentEnd) != '/') {
+            hash = 31 * hash + path.charAt(segmentEnd);
+            segmentEnd++;
+        }
+
+        Node<T> exact = node.find(path, pos, segmentEnd, hash);
+        if (exact != null) {
+            T value = match(exact, path, segmentEnd, end);
+            if (value != null) {
+                return value;
+            }
+        }
+        if (node.single != null) {
+            T value = match(node.single, path, segmentEnd, end);
+            if (value != null) {
+                return value;
+            }
+        }
+        if (node.multi != null) {
+            // ** 之后没有更多模式时直接命中，否则尝试让 ** 吞掉 0..n 个段
+            Node<T> multi = node.multi;
+            if (multi.isLeafOnly()) {
+                return multi.value;
+            }
+            for (int p = pos; p <= end; p++) {
+                if (p == pos || p == end || path.charAt(p) == '/') {
+                    T value = match(multi, path, p, end);
+                    if (value != null) {
+                        return value;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 只读节点，精确段子节点存放在开放寻址的哈希表中
+     */
+    private static final class Node<T> {
+        private final String[] segments;
+        private final int[] hashes;
+        private final Node<T>[] children;
+        private final int mask;
+        private final Node<T> single;
+        private final Node<T> multi;
+        private final T value;
+
+        private Node(String[] segments, int[] hashes, Node<T>[] children, Node<T> single, Node<T> multi, T value) {
+            this.segments = segments;
+            this.hashes = hashes;
+            this.children = children;
+            this.mask = segments.length - 1;
+            this.single = single;
+            this.multi = multi;
+            this.value = value;
+        }
+
+        private Node<T> find(CharSequence path, int start, int end, int hash) {
+            if (segments.length == 0) {
+                return null;
+            }
+            int length = end - start;
+            for (int i = hash & mask; segments[i] != null; i = (i + 1) & mask) {
+                String segment = segments[i];
+                if (hashes[i] == hash && segment.length() == length && regionEquals(segment, path, start)) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        private boolean isLeafOnly() {
+            return segments.length == 0 && single == null && multi == null;
+        }
+
+        private static boolean regionEquals(String segment, CharSequence path, int start) {
+            for (int i = 0; i < segment.length(); i++) {
+                if (segment.charAt(i) != path.charAt(start + i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 构建用的节点
+     */
+    private static final class MutableNode<T> {
+        private final List<String> segments = new ArrayList<>();
+        private final List<MutableNode<T>> children = new ArrayList<>();
+        private MutableNode<T> single;
+        private MutableNode<T> multi;
+        private T value;
+
+        private MutableNode<T> child(String segment) {
+            int index = segments.indexOf(segment);
+            if (index >= 0) {
+                return children.get(index);
+            }
+            MutableNode<T> child = new MutableNode<>();
+            segments.add(segment);
+            children.add(child);
+            return child;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Node<T> freeze() {
+            int capacity = 0;
+            if (!segments.isEmpty()) {
+                // 装载因子不超过 0.5，保证探测链很短且一定有空位
+                capacity = Integer.highestOneBit(segments.size() * 2 - 1) << 1;
+            }
+            String[] table = new String[capacity];
+            int[] hashes = new int[capacity];
+            Node<T>[] nodes = new Node[capacity];
+            for (int i = 0; i < segments.size(); i++) {
+                String segment = segments.get(i);
+                int hash = segment.hashCode();
+                int slot = hash & (capacity - 1);
+                while (table[slot] != null) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+                table[slot] = segment;
+                hashes[slot] = hash;
+                nodes[slot] = children.get(i).freeze();
+            }
+            return new Node<>(table, hashes, nodes,
+                    single == null ? null : single.freeze(),
+                    multi == null ? null : multi.freeze(),
+                    value);
+        }
+    }
+}
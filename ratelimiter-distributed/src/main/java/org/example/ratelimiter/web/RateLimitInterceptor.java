@@ -0,0 +1,74 @@
+package org.example.ratelimiter.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.example.ratelimiter.model.TAirRatelimitConf;
+import org.example.ratelimiter.model.TAirRatelimitConfMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按 URL 限流的拦截器
+ * 用 t_ratelimite_conf 中所有开启的 interfaceUrl 构建 {@link PathTrie}，叶子节点直接挂载限流器，
+ * 每个请求只做一次无分配的路径匹配和一次 tryAcquire；被拒绝时返回 429，并按桶的下一个令牌时间设置 Retry-After
+ */
+@Slf4j
+public class RateLimitInterceptor implements HandlerInterceptor {
+    private final RateLimiterFactory rateLimiterFactory;
+
+    private final RedissonService redisService;
+
+    private final TAirRatelimitConfMapper confMapper;
+
+    /**
+     * 当前的匹配树，重建时整体替换
+     */
+    private volatile PathTrie<RateLimiter> matcher = PathTrie.build(Map.of());
+
+    public RateLimitInterceptor(RateLimiterFactory rateLimiterFactory, RedissonService redisService,
+                                TAirRatelimitConfMapper confMapper) {
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.redisService = redisService;
+        this.confMapper = confMapper;
+    }
+
+    /**
+     * 重新读取限流配置并重建匹配树
+     */
+    public void refresh() {
+        rebuild(confMapper.getAirRatelimitConf());
+    }
+
+    /**
+     * 按给定配置重建匹配树
+     * 新树完全构建好之后才替换，请求看到的要么是旧树要么是新树；
+     * 已存在的限流器速率与配置不一致时通过 {@link RateLimiter#setRate(long, long)} 在线修改，不重建实例
+     *
+     * @param confs 限流配置
+     */
+    public void rebuild(List<TAirRatelimitConf> confs) {
+        Map<String, RateLimiter> patterns = UrlRateLimiters.resolve(confs, rateLimiterFactory, redisService);
+        matcher = PathTrie.build(patterns);
+        log.info("Rebuild rateLimit url matcher, patterns: {}", patterns.size());
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RateLimiter rateLimiter = matcher.match(request.getRequestURI(), request.getContextPath().length());
+        if (rateLimiter == null || rateLimiter.tryAcquire()) {
+            return true;
+        }
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, UrlRateLimiters.retryAfterSeconds(rateLimiter.getRetryAfterMicros()));
+        return false;
+    }
+}
@@ -0,0 +1,73 @@
+package org.example.ratelimiter.web;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.autoconfigure.RateLimiterAutoConfiguration;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.example.ratelimiter.model.TAirRatelimitConfMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servlet Web 应用的 URL 限流配置
+ * ratelimiter.web.enabled=false 时关闭；ratelimiter.web.refresh-seconds 大于 0 时定期重新读取配置并重建匹配树
+ */
+@Slf4j
+@AutoConfiguration(after = RateLimiterAutoConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "ratelimiter.web.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitWebConfig {
+    @Value("${ratelimiter.web.refresh-seconds:0}")
+    private long refreshSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    @Bean
+    public RateLimitInterceptor rateLimitInterceptor(RateLimiterFactory rateLimiterFactory, RedissonService redisService,
+                                                     TAirRatelimitConfMapper confMapper) {
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(rateLimiterFactory, redisService, confMapper);
+        interceptor.refresh();
+        if (refreshSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "ratelimiter-web-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    interceptor.refresh();
+                } catch (RuntimeException e) {
+                    log.warn("Refresh rateLimit url matcher failed", e);
+                }
+            }, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+        return interceptor;
+    }
+
+    @Bean
+    public WebMvcConfigurer rateLimitWebMvcConfigurer(RateLimitInterceptor rateLimitInterceptor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(rateLimitInterceptor);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
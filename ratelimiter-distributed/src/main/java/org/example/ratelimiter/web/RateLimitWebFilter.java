@@ -0,0 +1,94 @@
+package org.example.ratelimiter.web;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.example.ratelimiter.limiter.ratelimiter.ReactiveRateLimiter;
+import org.example.ratelimiter.model.TAirRatelimitConf;
+import org.example.ratelimiter.model.TAirRatelimitConfMapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * WebFlux 应用按 URL 限流的过滤器，配置和匹配方式同 {@link RateLimitInterceptor}
+ * 通过 {@link ReactiveRateLimiter} 获取令牌，Redis 调用和等待都不会阻塞事件循环；获取结果在 Redisson 的 Netty 线程上发出，
+ * 之后的过滤器链和处理器切换到 {@link #setScheduler} 设置的调度器（默认 boundedElastic）继续执行；
+ * 被拒绝时返回 429，并按桶的下一个令牌时间设置 Retry-After
+ */
+@Slf4j
+public class RateLimitWebFilter implements WebFilter {
+    private final RateLimiterFactory rateLimiterFactory;
+
+    private final RedissonService redisService;
+
+    private final TAirRatelimitConfMapper confMapper;
+
+    /**
+     * 当前的匹配树，重建时整体替换
+     */
+    private volatile PathTrie<ReactiveRateLimiter> matcher = PathTrie.build(Map.of());
+
+    /**
+     * 获取令牌之后继续执行过滤器链的调度器
+     */
+    private Scheduler scheduler = Schedulers.boundedElastic();
+
+    public RateLimitWebFilter(RateLimiterFactory rateLimiterFactory, RedissonService redisService,
+                              TAirRatelimitConfMapper confMapper) {
+        this.rateLimiterFactory = rateLimiterFactory;
+        this.redisService = redisService;
+        this.confMapper = confMapper;
+    }
+
+    public void setScheduler(Scheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * 重新读取限流配置并重建匹配树
+     * NOTE: 读取配置是阻塞的数据库调用，只能在启动时或定时线程中调用，不能在事件循环上调用
+     */
+    public void refresh() {
+        rebuild(confMapper.getAirRatelimitConf());
+    }
+
+    /**
+     * 按给定配置重建匹配树，新树完全构建好之后才替换
+     *
+     * @param confs 限流配置
+     */
+    public void rebuild(List<TAirRatelimitConf> confs) {
+        Map<String, ReactiveRateLimiter> patterns = new HashMap<>();
+        UrlRateLimiters.resolve(confs, rateLimiterFactory, redisService).forEach((pattern, rateLimiter) ->
+                patterns.put(pattern, new ReactiveRateLimiter(rateLimiter, redisService)));
+        matcher = PathTrie.build(patterns);
+        log.info("Rebuild reactive rateLimit url matcher, patterns: {}", patterns.size());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        ReactiveRateLimiter rateLimiter = matcher.match(path, 0);
+        if (rateLimiter == null) {
+            return chain.filter(exchange);
+        }
+        return rateLimiter.tryAcquire().publishOn(scheduler).flatMap(acquired -> acquired ? chain.filter(exchange)
+                : rateLimiter.getRetryAfterMicros().flatMap(retryAfterMicros -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    response.getHeaders().set(HttpHeaders.RETRY_AFTER, UrlRateLimiters.retryAfterSeconds(retryAfterMicros));
+                    return response.setComplete();
+                }));
+    }
+}
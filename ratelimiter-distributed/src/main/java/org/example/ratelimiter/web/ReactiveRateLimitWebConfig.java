@@ -0,0 +1,61 @@
+package org.example.ratelimiter.web;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.autoconfigure.RateLimiterAutoConfiguration;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.example.ratelimiter.model.TAirRatelimitConfMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebFlux 应用的 URL 限流配置，属性与 {@link RateLimitWebConfig} 相同
+ * 配置在定时线程中读取，不占用事件循环
+ */
+@Slf4j
+@AutoConfiguration(after = RateLimiterAutoConfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnProperty(name = "ratelimiter.web.enabled", havingValue = "true", matchIfMissing = true)
+public class ReactiveRateLimitWebConfig {
+    @Value("${ratelimiter.web.refresh-seconds:0}")
+    private long refreshSeconds;
+
+    private ScheduledExecutorService scheduler;
+
+    @Bean
+    public RateLimitWebFilter rateLimitWebFilter(RateLimiterFactory rateLimiterFactory, RedissonService redisService,
+                                                 TAirRatelimitConfMapper confMapper) {
+        RateLimitWebFilter filter = new RateLimitWebFilter(rateLimiterFactory, redisService, confMapper);
+        filter.refresh();
+        if (refreshSeconds > 0) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "ratelimiter-web-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+            scheduler.scheduleWithFixedDelay(() -> {
+                try {
+                    filter.refresh();
+                } catch (RuntimeException e) {
+                    log.warn("Refresh reactive rateLimit url matcher failed", e);
+                }
+            }, refreshSeconds, refreshSeconds, TimeUnit.SECONDS);
+        }
+        return filter;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+}
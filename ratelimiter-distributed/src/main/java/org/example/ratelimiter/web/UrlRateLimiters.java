@@ -0,0 +1,64 @@
+package org.example.ratelimiter.web;
+
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.example.ratelimiter.model.TAirRatelimitConf;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * URL 限流配置到限流器的解析，Servlet 拦截器和 WebFlux 过滤器共用
+ */
+final class UrlRateLimiters {
+    private UrlRateLimiters() {
+    }
+
+    /**
+     * 解析所有开启的 interfaceUrl 对应的限流器
+     * 已存在的限流器速率或桶的大小与配置不一致时通过 {@link RateLimiter#setRate(long, long)} 在线修改，
+     * 缓存比例不一致时通过 {@link RateLimiter#setCache(float)} 修改，不重建实例
+     *
+     * @param confs 限流配置
+     * @param rateLimiterFactory 限流器工厂
+     * @param redisService redis服务
+     * @return URL 模式 -> 限流器
+     */
+    static Map<String, RateLimiter> resolve(List<TAirRatelimitConf> confs, RateLimiterFactory rateLimiterFactory,
+                                            RedissonService redisService) {
+        Map<String, RateLimiter> patterns = new HashMap<>();
+        for (TAirRatelimitConf conf : confs) {
+            if (!conf.isStatus() || conf.getInterfaceUrl() == null || conf.getInterfaceUrl().isBlank()
+                    || conf.getRateLimit() == null) {
+                continue;
+            }
+            float cache = conf.getCache() == null ? 0F : conf.getCache();
+            RateLimiterConfig config = new RateLimiterConfig(conf.getInterfaceNo(), conf.getRateLimit(), cache, redisService);
+            RateLimiter rateLimiter = rateLimiterFactory.getPermitLimiter(config);
+            if (rateLimiter.getRate() != config.getPermitsPerSecond()
+                    || rateLimiter.getMaxPermits() != config.getMaxPermits()) {
+                rateLimiter.setRate(config.getPermitsPerSecond(), config.getMaxPermits());
+            }
+            if (Float.compare(rateLimiter.getCache(), config.getCache()) != 0) {
+                rateLimiter.setCache(config.getCache());
+            }
+            patterns.put(conf.getInterfaceUrl(), rateLimiter);
+        }
+        return patterns;
+    }
+
+    /**
+     * Retry-After 以秒为单位，向上取整且至少为 1
+     *
+     * @param retryAfterMicros 等待时间，单位为微秒
+     * @return Retry-After 的值
+     */
+    static String retryAfterSeconds(long retryAfterMicros) {
+        return Long.toString(Math.max((retryAfterMicros + SECONDS.toMicros(1) - 1) / SECONDS.toMicros(1), 1L));
+    }
+}
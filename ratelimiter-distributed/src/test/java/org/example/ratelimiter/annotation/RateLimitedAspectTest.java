@@ -0,0 +1,114 @@
+package org.example.ratelimiter.annotation;
+
+import org.example.ratelimiter.common.mmap.config.MappedFileConfig;
+import org.example.ratelimiter.common.server.config.TokenServerConfig;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 切面按返回值类型分派：同步方法直接获取令牌，CompletableFuture 在指定线程池中调用原方法，Mono/Flux 在 boundedElastic 中调用，
+ * 获取失败时分别抛出、以异常完成或发出 {@link RateLimitedException}
+ */
+class RateLimitedAspectTest {
+    private static final String EXECUTOR_THREAD = "rate-limited-test";
+
+    @TempDir
+    Path dir;
+
+    private RateLimiterFactory factory;
+
+    private ExecutorService executor;
+
+    private Service service;
+
+    /**
+     * 每个方法每秒 1 个令牌，第二次调用被拒绝
+     */
+    public static class Service {
+        @RateLimited(name = "sync", permitsPerSecond = 1L)
+        public String sync() {
+            return Thread.currentThread().getName();
+        }
+
+        @RateLimited(name = "future", permitsPerSecond = 1L)
+        public CompletableFuture<String> future() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+
+        @RateLimited(name = "mono", permitsPerSecond = 1L)
+        public Mono<String> mono() {
+            return Mono.fromSupplier(() -> Thread.currentThread().getName());
+        }
+
+        @RateLimited(name = "flux", permitsPerSecond = 1L)
+        public Flux<String> flux() {
+            return Flux.just("a", "b");
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        TokenServerConfig tokenServerConfig = new TokenServerConfig();
+        tokenServerConfig.setMode("mapped");
+        MappedFileConfig mappedFileConfig = new MappedFileConfig();
+        mappedFileConfig.setPath(dir.resolve("ratelimiter.buckets").toString());
+        mappedFileConfig.setSlots(16);
+        factory = new RateLimiterFactory(tokenServerConfig, mappedFileConfig);
+        executor = Executors.newSingleThreadExecutor(r -> new Thread(r, EXECUTOR_THREAD));
+
+        RateLimitedAspect aspect = new RateLimitedAspect(factory, null);
+        aspect.setExecutor(executor);
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new Service());
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        service = proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        factory.close();
+    }
+
+    @Test
+    void sync() {
+        Assertions.assertEquals(Thread.currentThread().getName(), service.sync());
+        RateLimitedException e = Assertions.assertThrows(RateLimitedException.class, service::sync);
+        Assertions.assertTrue(e.getMessage().contains("sync"), e.getMessage());
+    }
+
+    @Test
+    void future() {
+        Assertions.assertEquals(EXECUTOR_THREAD, service.future().join());
+        CompletionException e = Assertions.assertThrows(CompletionException.class, () -> service.future().join());
+        Assertions.assertInstanceOf(RateLimitedException.class, e.getCause());
+    }
+
+    @Test
+    void mono() {
+        Mono<String> mono = service.mono();
+        Assertions.assertTrue(mono.block().startsWith("boundedElastic"));
+        // 每次订阅都重新获取令牌
+        Assertions.assertThrows(RateLimitedException.class, mono::block);
+    }
+
+    @Test
+    void flux() {
+        Assertions.assertEquals(List.of("a", "b"), service.flux().collectList().block());
+        Assertions.assertThrows(RateLimitedException.class, () -> service.flux().blockLast());
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.ratelimiter.annotation;
+
+import org.example.ratelimiter.common.mmap.config.MappedFileConfig;
+import org.example.ratelimiter.common.server.config.TokenServerConfig;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+
+/**
+ * key 表达式中参数引用的改写，按 key 缓存的限流器个数上限和空闲移除
+ */
+class RateLimitedMethodTest {
+    @TempDir
+    Path dir;
+
+    private RateLimiterFactory factory;
+
+    /**
+     * 请求参数
+     */
+    public static class Request {
+        private final String tenantId;
+
+        public Request(String tenantId) {
+            this.tenantId = tenantId;
+        }
+
+        public String getTenantId() {
+            return tenantId;
+        }
+    }
+
+    /**
+     * 被限流的方法
+     */
+    static class Service {
+        @RateLimited(name = "tenant", key = "#req.tenantId", maxKeys = 3)
+        public void bounded(Request req, String region) {
+        }
+
+        @RateLimited(name = "idle", key = "#p0", keyIdleSeconds = 1L)
+        public void idle(String user) {
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        TokenServerConfig tokenServerConfig = new TokenServerConfig();
+        tokenServerConfig.setMode("mapped");
+        MappedFileConfig mappedFileConfig = new MappedFileConfig();
+        mappedFileConfig.setPath(dir.resolve("ratelimiter.buckets").toString());
+        mappedFileConfig.setSlots(64);
+        factory = new RateLimiterFactory(tokenServerConfig, mappedFileConfig);
+    }
+
+    @AfterEach
+    void tearDown() {
+        factory.close();
+    }
+
+    private RateLimitedMethod resolve(String name) throws NoSuchMethodException {
+        Method method = name.equals("bounded") ? Service.class.getMethod(name, Request.class, String.class)
+                : Service.class.getMethod(name, String.class);
+        return new RateLimitedMethod(method, method.getAnnotation(RateLimited.class), factory, null);
+    }
+
+    @Test
+    void rewriteParameters() throws NoSuchMethodException {
+        Method method = Service.class.getMethod("bounded", Request.class, String.class);
+        Assertions.assertEquals("[0].tenantId", RateLimitedMethod.rewriteParameters("#req.tenantId", method));
+        Assertions.assertEquals("[0].tenantId + ':' + [1]",
+                RateLimitedMethod.rewriteParameters("#req.tenantId + ':' + #region", method));
+        Assertions.assertEquals("[1] + [0].tenantId", RateLimitedMethod.rewriteParameters("#p1 + #a0.tenantId", method));
+        Assertions.assertEquals("#root[1]", RateLimitedMethod.rewriteParameters("#root[1]", method));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RateLimitedMethod.rewriteParameters("#p2", method));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> RateLimitedMethod.rewriteParameters("#user", method));
+    }
+
+    @Test
+    void keyedLimiters() throws NoSuchMethodException {
+        RateLimitedMethod limited = resolve("bounded");
+        Limiter a = limited.limiter(new Object[]{new Request("a"), "eu"});
+        Assertions.assertSame(a, limited.limiter(new Object[]{new Request("a"), "us"}));
+        Assertions.assertSame(limited.getDefaultLimiter(), limited.limiter(new Object[]{new Request(null), "eu"}));
+        Assertions.assertNotSame(a, limited.limiter(new Object[]{new Request("b"), "eu"}));
+    }
+
+    @Test
+    void maxKeys() throws NoSuchMethodException {
+        RateLimitedMethod limited = resolve("bounded");
+        Limiter first = limited.limiter(new Object[]{new Request("t0"), "eu"});
+        for (int i = 1; i < 10; i++) {
+            limited.limiter(new Object[]{new Request("t" + i), "eu"});
+            Assertions.assertTrue(limited.getLimiters().size() <= 3, "keys: " + limited.getLimiters().size());
+        }
+        // 最早的 key 已被移除并释放，再次出现时重新创建
+        Assertions.assertFalse(limited.getLimiters().containsKey("t0"));
+        Assertions.assertNotSame(first, limited.limiter(new Object[]{new Request("t0"), "eu"}));
+    }
+
+    @Test
+    void idleKeysRemoved() throws NoSuchMethodException, InterruptedException {
+        RateLimitedMethod limited = resolve("idle");
+        Limiter alice = limited.limiter(new Object[]{"alice"});
+        Thread.sleep(1_100L);
+        // 创建新 key 时清理空闲的
+        limited.limiter(new Object[]{"bob"});
+        Assertions.assertEquals(1, limited.getLimiters().size());
+        Assertions.assertTrue(limited.getLimiters().containsKey("bob"));
+        Assertions.assertNotSame(alice, limited.limiter(new Object[]{"alice"}));
+    }
+}
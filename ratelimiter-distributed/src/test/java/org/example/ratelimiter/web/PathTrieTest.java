@@ -0,0 +1,74 @@
+package org.example.ratelimiter.web;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * URL 匹配树：同一位置 精确段 > 单段通配 > 多段通配，{@code **} 匹配零个或多个段，更长的模式优先
+ */
+class PathTrieTest {
+    private static PathTrie<String> trie(String... patterns) {
+        Map<String, String> map = new HashMap<>();
+        for (String pattern : patterns) {
+            map.put(pattern, pattern);
+        }
+        return PathTrie.build(map);
+    }
+
+    @Test
+    void wildcardPrecedence() {
+        PathTrie<String> trie = trie("/api/order/create", "/api/order/*", "/api/**");
+        Assertions.assertEquals("/api/order/create", trie.match("/api/order/create"));
+        Assertions.assertEquals("/api/order/*", trie.match("/api/order/pay"));
+        Assertions.assertEquals("/api/**", trie.match("/api/user/1/address"));
+        // 精确段之后没有匹配时回退到通配
+        Assertions.assertEquals("/api/**", trie.match("/api/order/create/extra"));
+        Assertions.assertNull(trie.match("/other/order/create"));
+    }
+
+    @Test
+    void pathVariable() {
+        PathTrie<String> trie = trie("/user/{id}/profile", "/user/me/profile");
+        Assertions.assertEquals("/user/me/profile", trie.match("/user/me/profile"));
+        Assertions.assertEquals("/user/{id}/profile", trie.match("/user/42/profile"));
+        Assertions.assertNull(trie.match("/user/42"));
+        Assertions.assertNull(trie.match("/user/42/profile/edit"));
+    }
+
+    @Test
+    void doubleWildcard() {
+        PathTrie<String> trie = trie("/static/**", "/a/**/z");
+        // 末尾的 ** 可以匹配零个段
+        Assertions.assertEquals("/static/**", trie.match("/static"));
+        Assertions.assertEquals("/static/**", trie.match("/static/js/app.js"));
+        // 中间的 ** 匹配零个或多个段
+        Assertions.assertEquals("/a/**/z", trie.match("/a/z"));
+        Assertions.assertEquals("/a/**/z", trie.match("/a/b/c/z"));
+        Assertions.assertNull(trie.match("/a/b/c"));
+    }
+
+    @Test
+    void longestMatch() {
+        PathTrie<String> trie = trie("/api/**", "/api/order/**", "/api/*/list", "/api/order/create");
+        Assertions.assertEquals("/api/order/**", trie.match("/api/order/refund/1"));
+        Assertions.assertEquals("/api/order/create", trie.match("/api/order/create"));
+        Assertions.assertEquals("/api/order/**", trie.match("/api/order/list"));
+        Assertions.assertEquals("/api/*/list", trie.match("/api/user/list"));
+        Assertions.assertEquals("/api/**", trie.match("/api/user/detail"));
+    }
+
+    @Test
+    void queryAndOffset() {
+        PathTrie<String> trie = trie("/api/order/create", " ", "");
+        Assertions.assertEquals(1, trie.size());
+        Assertions.assertEquals("/api/order/create", trie.match("/api/order/create?id=1"));
+        Assertions.assertEquals("/api/order/create", trie.match("/api/order/create;jsessionid=1"));
+        Assertions.assertEquals("/api/order/create", trie.match("//api//order/create/"));
+        // 跳过 context path
+        Assertions.assertEquals("/api/order/create", trie.match("/ctx/api/order/create", 4));
+        Assertions.assertNull(trie.match("/ctx/api/order/create"));
+    }
+}
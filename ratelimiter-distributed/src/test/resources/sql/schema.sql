@@ -6,4 +6,15 @@ CREATE TABLE t_ratelimite_conf
     rateLimit    INT,
     cache        DOUBLE,
     status       BOOLEAN
-);
\ No newline at end of file
+);
+
+CREATE TABLE t_ratelimite_throttle
+(
+    node        VARCHAR(255),
+    interfaceNo VARCHAR(255),
+    epochSecond BIGINT,
+    granted     BIGINT,
+    rejected    BIGINT
+);
+
+CREATE INDEX idx_ratelimite_throttle ON t_ratelimite_throttle (interfaceNo, epochSecond);
@@ -0,0 +1,109 @@
+package org.example.ratelimiter.server;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.limiter.local.LocalRateLimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 令牌服务中的限流器注册表
+ * 按名称注册后分配连续的编号，获取令牌时按编号直接定位，不做字符串查找
+ */
+@Slf4j
+public class BucketRegistry {
+    private final Map<String, Integer> ids;
+
+    private volatile AtomicReferenceArray<LocalRateLimiter> limiters;
+
+    private int size;
+
+    public BucketRegistry() {
+        this(64);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 预计的限流器个数
+     */
+    public BucketRegistry(int capacity) {
+        this.ids = new ConcurrentHashMap<>(capacity);
+        this.limiters = new AtomicReferenceArray<>(Math.max(capacity, 1));
+    }
+
+    /**
+     * 注册限流器，同名限流器已存在时返回已有编号
+     *
+     * @return 限流器编号
+     */
+    public int register(String name, long permitsPerSecond, long maxPermits) {
+        Integer id = ids.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (this) {
+            id = ids.get(name);
+            if (id != null) {
+                return id;
+            }
+            AtomicReferenceArray<LocalRateLimiter> current = ensureCapacity(size + 1);
+            // 服务端只做决策，等待由客户端完成，这里不需要缓存比例
+            current.set(size, new LocalRateLimiter(name, permitsPerSecond, maxPermits, 0F));
+            limiters = current;
+            id = size++;
+            ids.put(name, id);
+            log.debug("Register rateLimiter: {}, id: {}", name, id);
+            return id;
+        }
+    }
+
+    /**
+     * 扩容，保证至少可以容纳指定个数的限流器
+     *
+     * @param capacity 容量
+     * @return 扩容后的数组
+     */
+    synchronized AtomicReferenceArray<LocalRateLimiter> ensureCapacity(int capacity) {
+        AtomicReferenceArray<LocalRateLimiter> current = limiters;
+        if (capacity > current.length()) {
+            AtomicReferenceArray<LocalRateLimiter> grown = new AtomicReferenceArray<>(Math.max(capacity, current.length() * 2));
+            for (int i = 0; i < size; i++) {
+                grown.set(i, current.get(i));
+            }
+            limiters = grown;
+            current = grown;
+        }
+        return current;
+    }
+
+    /**
+     * 当前已注册的所有限流器，用于写快照
+     *
+     * @return 限流器列表
+     */
+    public List<LocalRateLimiter> limiters() {
+        AtomicReferenceArray<LocalRateLimiter> current = limiters;
+        List<LocalRateLimiter> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < current.length(); i++) {
+            LocalRateLimiter limiter = current.get(i);
+            if (limiter != null) {
+                result.add(limiter);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 按编号获取限流器
+     *
+     * @return 限流器，编号不存在时为 null
+     */
+    public LocalRateLimiter get(int id) {
+        AtomicReferenceArray<LocalRateLimiter> current = limiters;
+        return id >= 0 && id < current.length() ? current.get(id) : null;
+    }
+}
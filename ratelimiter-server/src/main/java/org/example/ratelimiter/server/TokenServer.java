@@ -0,0 +1,112 @@
+package org.example.ratelimiter.server;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.SocketChannel;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.limiter.local.BucketSnapshotter;
+import org.example.ratelimiter.limiter.local.LocalRateLimiter;
+import org.example.ratelimiter.limiter.remote.TokenProtocol;
+
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 令牌服务
+ * 令牌桶保存在内存中，由 {@link TokenServerHandler} 在 IO 线程中直接完成决策
+ */
+@Slf4j
+public class TokenServer implements AutoCloseable {
+    @Getter
+    private final BucketRegistry registry = new BucketRegistry();
+
+    private final EventLoopGroup bossGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("token-server-boss"));
+
+    private final EventLoopGroup workerGroup;
+
+    private Channel serverChannel;
+
+    /**
+     * 令牌桶状态快照，未开启时为 null
+     */
+    private BucketSnapshotter snapshotter;
+
+    /**
+     * 实际监听的端口
+     */
+    @Getter
+    private int port;
+
+    public TokenServer(int workerThreads) {
+        this.workerGroup = new NioEventLoopGroup(workerThreads, new DefaultThreadFactory("token-server-worker"));
+    }
+
+    /**
+     * 开启令牌桶状态快照，需要在 {@link #start} 之前调用
+     * 先从快照文件恢复令牌桶，再定期写快照，服务关闭时写入最后一次快照
+     *
+     * @param path 快照文件
+     * @param periodMillis 快照间隔，单位为毫秒
+     */
+    public TokenServer enableSnapshot(Path path, long periodMillis) {
+        snapshotter = new BucketSnapshotter(path, registry::limiters);
+        snapshotter.restore(new BucketSnapshotter.LimiterCreator() {
+            @Override
+            public LocalRateLimiter create(String name, long permitsPerSecond, long maxPermits) {
+                return registry.get(registry.register(name, permitsPerSecond, maxPermits));
+            }
+
+            @Override
+            public void expect(int count) {
+                registry.ensureCapacity(count);
+            }
+        });
+        snapshotter.start(periodMillis);
+        return this;
+    }
+
+    /**
+     * 启动服务
+     *
+     * @param port 监听端口，0 表示随机端口
+     */
+    public TokenServer start(int port) throws InterruptedException {
+        serverChannel = new ServerBootstrap()
+                .group(bossGroup, workerGroup)
+                .channel(NioServerSocketChannel.class)
+                .childOption(ChannelOption.TCP_NODELAY, true)
+                .childHandler(new ChannelInitializer<SocketChannel>() {
+                    @Override
+                    protected void initChannel(SocketChannel ch) {
+                        ch.pipeline()
+                                .addLast(TokenProtocol.newFrameDecoder())
+                                .addLast(new TokenServerHandler(registry));
+                    }
+                })
+                .bind(port).sync().channel();
+        this.port = ((InetSocketAddress) serverChannel.localAddress()).getPort();
+        log.info("Token server started on port {}", this.port);
+        return this;
+    }
+
+    @Override
+    public void close() {
+        if (serverChannel != null) {
+            serverChannel.close().syncUninterruptibly();
+        }
+        bossGroup.shutdownGracefully(0, 1, SECONDS).syncUninterruptibly();
+        workerGroup.shutdownGracefully(0, 1, SECONDS).syncUninterruptibly();
+        if (snapshotter != null) {
+            snapshotter.close();
+        }
+    }
+}
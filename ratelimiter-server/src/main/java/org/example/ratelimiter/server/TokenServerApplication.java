@@ -0,0 +1,24 @@
+package org.example.ratelimiter.server;
+
+import java.nio.file.Path;
+
+/**
+ * 令牌服务启动类
+ * 参数：[端口，默认 7380] [IO 线程数，默认 CPU 核数] [令牌桶快照文件，不指定则不做快照]
+ */
+public class TokenServerApplication {
+    private static final long SNAPSHOT_PERIOD_MILLIS = 1000L;
+
+    public static void main(String[] args) throws InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7380;
+        int workerThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        TokenServer server = new TokenServer(workerThreads);
+        if (args.length > 2) {
+            // 先恢复令牌桶再接收请求
+            server.enableSnapshot(Path.of(args[2]), SNAPSHOT_PERIOD_MILLIS);
+        }
+        server.start(port);
+        Runtime.getRuntime().addShutdownHook(new Thread(server::close, "token-server-shutdown"));
+    }
+
+}
@@ -0,0 +1,84 @@
+package org.example.ratelimiter.server;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.limiter.local.LocalRateLimiter;
+import org.example.ratelimiter.limiter.remote.TokenProtocol;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 令牌服务请求处理
+ * 每条连接一个实例：一次读事件内解析出的所有请求，其响应写入同一个缓冲区，读完成后一次写出
+ */
+@Slf4j
+public class TokenServerHandler extends ChannelInboundHandlerAdapter {
+    private final BucketRegistry registry;
+
+    /**
+     * 本次读事件累积的响应
+     */
+    private ByteBuf responses;
+
+    public TokenServerHandler(BucketRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void channelRead(ChannelHandlerContext ctx, Object msg) {
+        ByteBuf frame = (ByteBuf) msg;
+        try {
+            if (responses == null) {
+                responses = ctx.alloc().ioBuffer();
+            }
+            byte op = frame.readByte();
+            int requestId = frame.readInt();
+            switch (op) {
+                case TokenProtocol.OP_ACQUIRE -> {
+                    LocalRateLimiter limiter = registry.get(frame.readInt());
+                    int permits = frame.readInt();
+                    long timeoutMicros = frame.readLong();
+                    long result = limiter == null ? TokenProtocol.UNKNOWN_LIMITER : limiter.reserve(permits, timeoutMicros);
+                    TokenProtocol.writeResponse(responses, requestId, result);
+                }
+                case TokenProtocol.OP_REGISTER -> {
+                    long permitsPerSecond = frame.readLong();
+                    long maxPermits = frame.readLong();
+                    String name = frame.toString(frame.readerIndex(), frame.readableBytes(), StandardCharsets.UTF_8);
+                    TokenProtocol.writeResponse(responses, requestId, registry.register(name, permitsPerSecond, maxPermits));
+                }
+                default -> {
+                    log.warn("Unknown op: {}, close connection: {}", op, ctx.channel().remoteAddress());
+                    ctx.close();
+                }
+            }
+        } finally {
+            frame.release();
+        }
+    }
+
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) {
+        if (responses != null) {
+            ctx.writeAndFlush(responses, ctx.voidPromise());
+            responses = null;
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        if (responses != null) {
+            responses.release();
+            responses = null;
+        }
+        super.channelInactive(ctx);
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) {
+        log.warn("Token server connection error: {}, {}", ctx.channel().remoteAddress(), cause.toString());
+        ctx.close();
+    }
+}
@@ -0,0 +1,69 @@
+package org.example.ratelimiter.server;
+
+import org.example.ratelimiter.limiter.local.BucketSnapshotter;
+import org.example.ratelimiter.limiter.local.LocalRateLimiter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌桶快照基准测试
+ * 10 万个限流器写快照、在新的注册表中恢复的耗时，以及恢复后不会从新桶开始放行
+ */
+@Tag("benchmark")
+class BucketSnapshotBenchmark {
+    private static final int LIMITERS = 100_000;
+    private static final int ROUNDS = 5;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void restoreHundredThousandLimiters() {
+        Path path = dir.resolve("buckets.snapshot");
+        BucketRegistry registry = new BucketRegistry();
+        for (int i = 0; i < LIMITERS; i++) {
+            LocalRateLimiter limiter = registry.get(registry.register("interface-" + i, 100L, 100L));
+            // 用完桶内令牌并透支一段时间
+            limiter.reserve(200L, -1L);
+        }
+
+        BucketSnapshotter writer = new BucketSnapshotter(path, registry::limiters);
+        long writeStart = System.nanoTime();
+        Assertions.assertEquals(LIMITERS, writer.write());
+        long writeMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - writeStart);
+
+        // 多轮恢复取最好的一轮，排除类加载和 JIT 的影响
+        long bestMillis = Long.MAX_VALUE;
+        BucketRegistry restored = null;
+        for (int round = 0; round < ROUNDS; round++) {
+            restored = new BucketRegistry();
+            long start = System.nanoTime();
+            Assertions.assertEquals(LIMITERS, restore(path, restored));
+            bestMillis = Math.min(bestMillis, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+
+        System.out.printf("bucket snapshot: limiters=%,d, bytes=%,d, write=%dms, restore=%dms%n",
+                LIMITERS, path.toFile().length(), writeMillis, bestMillis);
+        // 恢复后仍处于透支状态，不能立即获取令牌
+        Assertions.assertEquals(-1L, restored.get(0).reserve(1L, 0L));
+    }
+
+    private static int restore(Path path, BucketRegistry registry) {
+        return new BucketSnapshotter(path, registry::limiters).restore(new BucketSnapshotter.LimiterCreator() {
+            @Override
+            public LocalRateLimiter create(String name, long permitsPerSecond, long maxPermits) {
+                return registry.get(registry.register(name, permitsPerSecond, maxPermits));
+            }
+
+            @Override
+            public void expect(int count) {
+                registry.ensureCapacity(count);
+            }
+        });
+    }
+}
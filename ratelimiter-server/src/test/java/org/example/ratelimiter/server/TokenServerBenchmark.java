@@ -0,0 +1,110 @@
+package org.example.ratelimiter.server;
+
+import org.example.ratelimiter.limiter.remote.RemoteRateLimiter;
+import org.example.ratelimiter.limiter.remote.TokenClient;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 令牌服务回环基准测试
+ * 多个客户端连接、每个连接多个线程以流水线方式发送请求，统计服务端每秒完成的决策数
+ */
+@Tag("benchmark")
+class TokenServerBenchmark {
+    private static final int CONNECTIONS = 4;
+    private static final int THREADS_PER_CONNECTION = 4;
+    /**
+     * 每个线程允许同时在途的请求数
+     */
+    private static final int IN_FLIGHT = 512;
+    private static final int LIMITERS = 64;
+    private static final long DURATION_MILLIS = 5_000L;
+
+    @Test
+    void decisionsPerSecond() throws Exception {
+        try (TokenServer server = new TokenServer(Runtime.getRuntime().availableProcessors()).start(0)) {
+            List<TokenClient> clients = new ArrayList<>();
+            for (int i = 0; i < CONNECTIONS; i++) {
+                clients.add(connect(server.getPort()));
+            }
+            int[] limiterIds = new int[LIMITERS];
+            for (int i = 0; i < LIMITERS; i++) {
+                limiterIds[i] = clients.get(0).register("benchmark-" + i, 100_000L, 100_000L).join().intValue();
+            }
+
+            // 预热
+            run(clients, limiterIds, 1_000L);
+            LongAdder decisions = run(clients, limiterIds, DURATION_MILLIS);
+            long perSecond = decisions.sum() * 1000L / DURATION_MILLIS;
+            System.out.printf("token server loopback: connections=%d, threads=%d, decisions/s=%,d%n",
+                    CONNECTIONS, CONNECTIONS * THREADS_PER_CONNECTION, perSecond);
+            clients.forEach(TokenClient::close);
+        }
+    }
+
+    @Test
+    void fallbackWhenServerUnreachable() {
+        int port;
+        try (TokenServer server = new TokenServer(1).start(0)) {
+            port = server.getPort();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        // 服务已关闭，客户端连接失败后使用本地限流
+        try (TokenClient client = new TokenClient("127.0.0.1", port, 50L)) {
+            RemoteRateLimiter limiter = new RemoteRateLimiter(new RateLimiterConfig("fallback", 10L, null), client);
+            int granted = 0;
+            for (int i = 0; i < 100; i++) {
+                if (limiter.tryAcquire(1, 0, TimeUnit.MICROSECONDS)) {
+                    granted++;
+                }
+            }
+            Assertions.assertTrue(granted >= 1 && granted < 100, "granted " + granted);
+            Assertions.assertEquals(100L, limiter.getFallbackCount());
+        }
+    }
+
+    private static TokenClient connect(int port) throws InterruptedException {
+        TokenClient client = new TokenClient("127.0.0.1", port, 1_000L);
+        while (!client.isAvailable()) {
+            TimeUnit.MILLISECONDS.sleep(10L);
+        }
+        return client;
+    }
+
+    private static LongAdder run(List<TokenClient> clients, int[] limiterIds, long durationMillis) throws InterruptedException {
+        LongAdder decisions = new LongAdder();
+        long deadline = System.currentTimeMillis() + durationMillis;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < CONNECTIONS * THREADS_PER_CONNECTION; t++) {
+            TokenClient client = clients.get(t % CONNECTIONS);
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                Semaphore inFlight = new Semaphore(IN_FLIGHT);
+                int i = offset;
+                while (System.currentTimeMillis() < deadline) {
+                    inFlight.acquireUninterruptibly();
+                    client.acquire(limiterIds[i++ % LIMITERS], 1, 0L).whenComplete((result, e) -> {
+                        decisions.increment();
+                        inFlight.release();
+                    });
+                }
+                inFlight.acquireUninterruptibly(IN_FLIGHT);
+            }, "benchmark-" + t);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return decisions;
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.ratelimiter.simulation;
+
+import java.util.Random;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 请求的到达模式
+ * 按上一个请求的到达时间计算下一个请求的到达时间，随机数由每个节点独立提供，实现本身不保存状态
+ */
+public interface ArrivalPattern {
+    /**
+     * 下一个请求的到达时间
+     *
+     * @param lastMicros 上一个请求的到达时间，单位为微秒；第一个请求传入 -1
+     * @param random 节点的随机数
+     * @return 下一个请求的到达时间，单位为微秒
+     */
+    long next(long lastMicros, Random random);
+
+    /**
+     * 泊松到达，请求间隔服从指数分布
+     *
+     * @param perSecond 平均每秒请求数
+     * @return 到达模式
+     */
+    static ArrivalPattern poisson(double perSecond) {
+        double meanMicros = SECONDS.toMicros(1) / perSecond;
+        return (lastMicros, random) -> lastMicros + 1 + (long) (-Math.log(1 - random.nextDouble()) * meanMicros);
+    }
+
+    /**
+     * 周期性的突发：每个周期开始时连续到达 size 个请求（间隔 1 微秒），其余时间没有请求
+     *
+     * @param size 每次突发的请求数
+     * @param periodMillis 突发周期，单位为毫秒
+     * @return 到达模式
+     */
+    static ArrivalPattern bursts(int size, long periodMillis) {
+        long periodMicros = MILLISECONDS.toMicros(periodMillis);
+        if (size <= 0 || size >= periodMicros) {
+            throw new IllegalArgumentException("Burst size " + size + " must be between 1 and period " + periodMicros + "us");
+        }
+        return (lastMicros, random) -> {
+            long offset = Math.floorMod(lastMicros, periodMicros);
+            return offset < size - 1 ? lastMicros + 1 : lastMicros - offset + periodMicros;
+        };
+    }
+
+    /**
+     * 按正弦曲线周期变化的泊松到达（昼夜流量），速率为 mean * (1 + amplitude * sin(2πt / period))，
+     * 按最大速率生成后随机舍弃
+     *
+     * @param meanPerSecond 平均每秒请求数
+     * @param amplitude 振幅，0~1
+     * @param periodMillis 变化周期，单位为毫秒
+     * @return 到达模式
+     */
+    static ArrivalPattern diurnal(double meanPerSecond, double amplitude, long periodMillis) {
+        if (amplitude < 0 || amplitude > 1) {
+            throw new IllegalArgumentException("Amplitude " + amplitude + " must be between 0 and 1");
+        }
+        ArrivalPattern peak = poisson(meanPerSecond * (1 + amplitude));
+        double periodMicros = MILLISECONDS.toMicros(periodMillis);
+        return (lastMicros, random) -> {
+            long candidate = lastMicros;
+            do {
+                candidate = peak.next(candidate, random);
+            } while (random.nextDouble() * (1 + amplitude) > 1 + amplitude * Math.sin(2 * Math.PI * candidate / periodMicros));
+            return candidate;
+        };
+    }
+}
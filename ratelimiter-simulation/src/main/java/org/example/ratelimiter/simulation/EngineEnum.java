@@ -0,0 +1,77 @@
+package org.example.ratelimiter.simulation;
+
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.example.ratelimiter.limiter.store.MemoryBucketStore;
+
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.max;
+
+/**
+ * 模拟中节点使用的限流方式
+ * 新的引擎在这里增加一项，即可在相同的场景下与已有引擎比较
+ */
+public enum EngineEnum {
+    /**
+     * 每次判断都访问共享的令牌桶，与默认的脚本引擎相同
+     */
+    SHARED("shared", "SHARED"),
+
+    /**
+     * 每个节点按 1/N 的速率和桶大小在本地判断，不访问后端，与成员不变时的 PartitionedRateLimiter 相同
+     */
+    SLICE("slice", "SLICE");
+
+    EngineEnum(String code, String desc) {
+        this.code = code;
+        this.desc = desc;
+    }
+
+    private final String code;
+
+    private final String desc;
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+    public static String getDesc(String code) {
+        EngineEnum[] enums = EngineEnum.values();
+        for (EngineEnum engineEnum : enums) {
+            if (engineEnum.getCode().equals(code)) {
+                return engineEnum.getDesc();
+            }
+        }
+        return "";
+    }
+
+    /**
+     * 节点的限流器配置
+     *
+     * @param scenario 模拟场景
+     * @param node 节点
+     * @param backend 共享的后端
+     * @return 限流器配置，存储引擎已设置
+     */
+    RateLimiterConfig nodeConfig(Scenario scenario, SimulatedNode node, SimulatedBackend backend) {
+        long permitsPerSecond = scenario.getPermitsPerSecond();
+        long maxPermits = scenario.getMaxPermits();
+        if (this == SLICE) {
+            int nodes = scenario.getNodes().size();
+            permitsPerSecond = max(permitsPerSecond / nodes, 1L);
+            maxPermits = max(maxPermits / nodes, 1L);
+        }
+        long intervalMicros = TimeUnit.SECONDS.toMicros(1) / permitsPerSecond;
+        RateLimiterConfig config = new RateLimiterConfig(scenario.getName(), permitsPerSecond, maxPermits,
+                scenario.getCache(), null);
+        config.setBucketStore(switch (this) {
+            case SHARED -> backend.client(scenario.getName(), maxPermits, intervalMicros, node);
+            case SLICE -> new MemoryBucketStore(scenario.getName(), maxPermits, intervalMicros, node.getClock());
+        });
+        return config;
+    }
+}
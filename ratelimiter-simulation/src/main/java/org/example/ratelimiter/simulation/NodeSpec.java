@@ -0,0 +1,80 @@
+package org.example.ratelimiter.simulation;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * 一个虚拟节点的请求和故障配置
+ */
+@Getter
+@ToString
+public class NodeSpec {
+    /**
+     * 请求的到达模式
+     */
+    private final ArrivalPattern arrivals;
+
+    /**
+     * 节点时钟相对虚拟时间的偏差，单位为毫秒，正数表示比虚拟时间快
+     * 节点访问后端时传入自己的时间（与脚本引擎的 ARGV[1] 相同），偏差会影响令牌的生成
+     */
+    @Setter
+    private long skewMillis;
+
+    /**
+     * 访问后端的最小往返时间，单位为微秒，请求和响应各占一半
+     */
+    @Setter
+    private long latencyMicros = 500L;
+
+    /**
+     * 往返时间在最小值之上的随机抖动，单位为微秒，均匀分布
+     */
+    @Setter
+    private long jitterMicros;
+
+    /**
+     * 节点暂停的时间段（例如 GC 停顿），按开始时间排列，每项为 {开始时间, 结束时间}，单位为微秒
+     * 暂停期间到达的请求和收到的响应在暂停结束后才处理
+     */
+    private final List<long[]> pauses = new ArrayList<>();
+
+    public NodeSpec(ArrivalPattern arrivals) {
+        this.arrivals = arrivals;
+    }
+
+    /**
+     * 添加一次暂停
+     *
+     * @param startMillis 开始时间，单位为毫秒
+     * @param durationMillis 持续时间，单位为毫秒
+     * @return this
+     */
+    public NodeSpec addPause(long startMillis, long durationMillis) {
+        long start = MILLISECONDS.toMicros(startMillis);
+        pauses.add(new long[]{start, start + MILLISECONDS.toMicros(durationMillis)});
+        pauses.sort((a, b) -> Long.compare(a[0], b[0]));
+        return this;
+    }
+
+    /**
+     * 该时间所在暂停的结束时间
+     *
+     * @param nowMicros 虚拟时间，单位为微秒
+     * @return 暂停的结束时间，没有暂停时返回 nowMicros
+     */
+    long resumeAt(long nowMicros) {
+        for (long[] pause : pauses) {
+            if (nowMicros >= pause[0] && nowMicros < pause[1]) {
+                return pause[1];
+            }
+        }
+        return nowMicros;
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.ratelimiter.simulation;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 模拟场景：所有节点共享的一个限流器，以及每个节点的请求和故障
+ */
+@Getter
+@ToString
+public class Scenario {
+    /**
+     * 场景名称，同时作为限流器名称
+     */
+    private final String name;
+
+    /**
+     * 所有节点共享的每秒令牌数
+     */
+    private final long permitsPerSecond;
+
+    /**
+     * 所有节点共享的最大存储令牌数
+     */
+    private final long maxPermits;
+
+    /**
+     * 缓存比例，决定请求最多等待多久
+     */
+    private final float cache;
+
+    /**
+     * 请求到达的时长，单位为毫秒
+     */
+    private final long durationMillis;
+
+    /**
+     * 随机数种子，种子相同时结果相同
+     */
+    private final long seed;
+
+    private final List<NodeSpec> nodes = new ArrayList<>();
+
+    public Scenario(String name, long permitsPerSecond, long maxPermits, float cache, long durationMillis, long seed) {
+        this.name = name;
+        this.permitsPerSecond = permitsPerSecond;
+        this.maxPermits = maxPermits;
+        this.cache = cache;
+        this.durationMillis = durationMillis;
+        this.seed = seed;
+    }
+
+    /**
+     * 添加一个节点
+     *
+     * @param node 节点配置
+     * @return this
+     */
+    public Scenario addNode(NodeSpec node) {
+        nodes.add(node);
+        return this;
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.ratelimiter.simulation;
+
+import lombok.Getter;
+import org.example.ratelimiter.limiter.ratelimiter.PermitBucket;
+import org.example.ratelimiter.limiter.store.BucketStore;
+import org.example.ratelimiter.limiter.store.MemoryBucketStore;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 所有节点共享的后端，代替 Redis
+ * 令牌桶使用 {@link MemoryBucketStore}（与 Lua 脚本的规则相同），时间取调用方节点发出请求时的时钟，与脚本的 ARGV[1] 一致；
+ * 每个节点通过 {@link #client} 得到自己的客户端，请求和响应按节点的往返时间在虚拟时钟上延迟
+ */
+public class SimulatedBackend {
+    private final VirtualClock virtualClock;
+
+    private final Map<String, MemoryBucketStore> buckets = new HashMap<>();
+
+    /**
+     * 正在执行的请求携带的调用方时间，单位为毫秒
+     */
+    private long requestMillis;
+
+    private final Clock requestClock = new RequestClock(ZoneOffset.UTC);
+
+    /**
+     * 后端收到的调用次数
+     */
+    @Getter
+    private long calls;
+
+    public SimulatedBackend(VirtualClock virtualClock) {
+        this.virtualClock = virtualClock;
+    }
+
+    /**
+     * 节点的后端客户端
+     *
+     * @param name 限流器名称，相同名称的客户端共享一个令牌桶
+     * @param maxPermits 最大存储令牌数
+     * @param intervalMicros 令牌生成间隔，单位为微秒
+     * @param node 调用方节点
+     * @return 存储引擎，作为节点限流器的 {@link org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig#setBucketStore}
+     */
+    public BucketStore client(String name, long maxPermits, long intervalMicros, SimulatedNode node) {
+        return new Client(name, maxPermits, intervalMicros, node);
+    }
+
+    /**
+     * 以调用方的时间访问令牌桶
+     */
+    private MemoryBucketStore bucket(Client client, long callerMillis) {
+        requestMillis = callerMillis;
+        calls++;
+        return buckets.computeIfAbsent(client.name,
+                name -> new MemoryBucketStore(name, client.maxPermits, client.intervalMicros, requestClock));
+    }
+
+    private class Client implements BucketStore {
+        private final String name;
+
+        private final long maxPermits;
+
+        private final long intervalMicros;
+
+        private final SimulatedNode node;
+
+        private Client(String name, long maxPermits, long intervalMicros, SimulatedNode node) {
+            this.name = name;
+            this.maxPermits = maxPermits;
+            this.intervalMicros = intervalMicros;
+            this.node = node;
+        }
+
+        @Override
+        public CompletableFuture<Long> reserve(long permits, long timeoutMicros, long reservedPermits) {
+            node.onBackendCall();
+            long callerMillis = node.getClock().millis();
+            long roundTripMicros = node.roundTripMicros();
+            CompletableFuture<Long> result = new CompletableFuture<>();
+            virtualClock.schedule(virtualClock.nowMicros() + roundTripMicros / 2, () -> {
+                long waitMicros = bucket(this, callerMillis).reserve(permits, timeoutMicros, reservedPermits).join();
+                virtualClock.schedule(virtualClock.nowMicros() + roundTripMicros - roundTripMicros / 2,
+                        () -> node.whenRunning(() -> result.complete(waitMicros)));
+            });
+            return result;
+        }
+
+        @Override
+        public void updateRate(long maxPermits, long intervalMicros) {
+            node.onBackendCall();
+            bucket(this, node.getClock().millis()).updateRate(maxPermits, intervalMicros);
+        }
+
+        @Override
+        public void addPermits(long permits) {
+            node.onBackendCall();
+            bucket(this, node.getClock().millis()).addPermits(permits);
+        }
+
+        @Override
+        public PermitBucket load() {
+            node.onBackendCall();
+            return bucket(this, node.getClock().millis()).load();
+        }
+
+        @Override
+        public void save(PermitBucket bucket) {
+            node.onBackendCall();
+            bucket(this, node.getClock().millis()).save(bucket);
+        }
+
+        @Override
+        public boolean saveIfAbsent(PermitBucket bucket) {
+            if (buckets.containsKey(name)) {
+                node.onBackendCall();
+                calls++;
+                return false;
+            }
+            save(bucket);
+            return true;
+        }
+    }
+
+    private class RequestClock extends Clock {
+        private final ZoneId zone;
+
+        private RequestClock(ZoneId zone) {
+            this.zone = zone;
+        }
+
+        @Override
+        public long millis() {
+            return requestMillis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(requestMillis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        /**
+         * 同样读取当前请求的时间，只改变时区
+         */
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return zone.equals(this.zone) ? this : new RequestClock(zone);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package org.example.ratelimiter.simulation;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+
+import java.time.Clock;
+import java.util.Random;
+
+/**
+ * 运行中的虚拟节点：自己的时钟、限流器和后端客户端，以及本节点的统计
+ */
+@Getter
+public class SimulatedNode {
+    private final int index;
+
+    private final NodeSpec spec;
+
+    private final VirtualClock virtualClock;
+
+    /**
+     * 带偏差的节点时钟
+     */
+    private final Clock clock;
+
+    /**
+     * 请求到达使用的随机数，与延迟分开，不同引擎下的请求序列相同
+     */
+    private final Random arrivalRandom;
+
+    private final Random latencyRandom;
+
+    @Setter
+    private RateLimiter rateLimiter;
+
+    private long offered;
+
+    private long admitted;
+
+    private long rejected;
+
+    private long backendCalls;
+
+    SimulatedNode(int index, NodeSpec spec, VirtualClock virtualClock, long seed) {
+        this.index = index;
+        this.spec = spec;
+        this.virtualClock = virtualClock;
+        this.clock = virtualClock.view(spec.getSkewMillis() * 1_000L);
+        this.arrivalRandom = new Random(seed * 31 + index);
+        this.latencyRandom = new Random(seed * 31 + index + 17);
+    }
+
+    /**
+     * 节点未暂停时立即执行，否则在暂停结束后执行
+     *
+     * @param action 要执行的动作
+     */
+    void whenRunning(Runnable action) {
+        long nowMicros = virtualClock.nowMicros();
+        long resumeMicros = spec.resumeAt(nowMicros);
+        if (resumeMicros > nowMicros) {
+            virtualClock.schedule(resumeMicros, () -> whenRunning(action));
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 本次访问后端的往返时间
+     *
+     * @return 往返时间，单位为微秒
+     */
+    long roundTripMicros() {
+        long jitter = spec.getJitterMicros() > 0 ? latencyRandom.nextLong(spec.getJitterMicros()) : 0L;
+        return spec.getLatencyMicros() + jitter;
+    }
+
+    void onOffered() {
+        offered++;
+    }
+
+    void onDecided(boolean granted) {
+        if (granted) {
+            admitted++;
+        } else {
+            rejected++;
+        }
+    }
+
+    void onBackendCall() {
+        backendCalls++;
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.ratelimiter.simulation;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 一次模拟的结果
+ * - 放行速率：请求到达时长内放行的请求数 / 时长，与配置的速率比较
+ * - 突发超发：任意 1 秒内放行数超出 速率 + 桶大小 的部分，即理想令牌桶不可能放行的数量
+ * - 拒绝比例：被拒绝的请求数 / 判断次数
+ * - 每次判断的后端调用数：后端收到的调用次数 / 判断次数
+ */
+@Getter
+public class SimulationReport {
+    private static final long WINDOW_MICROS = SECONDS.toMicros(1);
+
+    private final String scenario;
+
+    private final EngineEnum engine;
+
+    private final long permitsPerSecond;
+
+    private final long offered;
+
+    private final long admitted;
+
+    private final long rejected;
+
+    /**
+     * 请求到达时长内的放行速率
+     */
+    private final double admittedRate;
+
+    /**
+     * 任意 1 秒内的最大放行数
+     */
+    private final long peakWindowAdmitted;
+
+    /**
+     * 突发超发的令牌数
+     */
+    private final long burstOvershoot;
+
+    private final long backendCalls;
+
+    SimulationReport(Scenario scenario, EngineEnum engine, List<SimulatedNode> nodes, long[] admitMicros) {
+        this.scenario = scenario.getName();
+        this.engine = engine;
+        this.permitsPerSecond = scenario.getPermitsPerSecond();
+        this.offered = nodes.stream().mapToLong(SimulatedNode::getOffered).sum();
+        this.admitted = nodes.stream().mapToLong(SimulatedNode::getAdmitted).sum();
+        this.rejected = nodes.stream().mapToLong(SimulatedNode::getRejected).sum();
+        this.backendCalls = nodes.stream().mapToLong(SimulatedNode::getBackendCalls).sum();
+
+        long[] sorted = admitMicros.clone();
+        Arrays.sort(sorted);
+        long durationMicros = MILLISECONDS.toMicros(scenario.getDurationMillis());
+        long inDuration = Arrays.stream(sorted).filter(micros -> micros < durationMicros).count();
+        this.admittedRate = inDuration * 1e6 / durationMicros;
+        long peak = 0;
+        for (int start = 0, end = 0; start < sorted.length; start++) {
+            while (end < sorted.length && sorted[end] < sorted[start] + WINDOW_MICROS) {
+                end++;
+            }
+            peak = Math.max(peak, end - start);
+        }
+        this.peakWindowAdmitted = peak;
+        this.burstOvershoot = Math.max(peak - permitsPerSecond - scenario.getMaxPermits(), 0L);
+    }
+
+    /**
+     * 放行速率 / 配置的速率
+     */
+    public double getAdmittedRatio() {
+        return admittedRate / permitsPerSecond;
+    }
+
+    public double getRejectionRatio() {
+        long decisions = admitted + rejected;
+        return decisions == 0 ? 0D : (double) rejected / decisions;
+    }
+
+    public double getBackendCallsPerDecision() {
+        long decisions = admitted + rejected;
+        return decisions == 0 ? 0D : (double) backendCalls / decisions;
+    }
+
+    /**
+     * Markdown 表格，每个结果一行
+     *
+     * @param reports 模拟结果
+     * @return 表格
+     */
+    public static String table(List<SimulationReport> reports) {
+        StringBuilder table = new StringBuilder(
+                "| scenario | engine | offered | admitted/s | admitted/configured | peak 1s | overshoot | rejected | backend calls/decision |\n"
+                        + "|---|---|---|---|---|---|---|---|---|\n");
+        for (SimulationReport report : reports) {
+            table.append(String.format("| %s | %s | %d | %.1f | %.3f | %d | %d | %.1f%% | %.3f |%n",
+                    report.scenario, report.engine.getCode(), report.offered, report.admittedRate,
+                    report.getAdmittedRatio(), report.peakWindowAdmitted, report.burstOvershoot,
+                    report.getRejectionRatio() * 100, report.getBackendCallsPerDecision()));
+        }
+        return table.toString();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s/%s: offered=%d, admitted=%d (%.1f/s, %.3f of %d/s), peak 1s=%d, overshoot=%d, "
+                        + "rejected=%.1f%%, backend calls/decision=%.3f",
+                scenario, engine.getCode(), offered, admitted, admittedRate, getAdmittedRatio(), permitsPerSecond,
+                peakWindowAdmitted, burstOvershoot, getRejectionRatio() * 100, getBackendCallsPerDecision());
+    }
+}
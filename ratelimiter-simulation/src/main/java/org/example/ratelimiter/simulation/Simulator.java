@@ -0,0 +1,74 @@
+package org.example.ratelimiter.simulation;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * 确定性的多节点模拟
+ * 每个虚拟节点有自己的时钟（可带偏差）、限流器和后端客户端，所有节点共享一个 {@link SimulatedBackend}；
+ * 请求按节点的到达模式产生，通过 {@link RateLimiter#tryReserveAsync} 判断，放行时间 = 收到响应的时间 + 需要等待的时间。
+ * 全部事件在一个线程上按虚拟时间执行，不访问 Redis，也不真正等待，数十秒的场景在毫秒级完成
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class Simulator {
+    /**
+     * 运行一个场景
+     *
+     * @param scenario 模拟场景
+     * @param engine 节点使用的限流方式
+     * @return 模拟结果
+     */
+    public static SimulationReport run(Scenario scenario, EngineEnum engine) {
+        VirtualClock virtualClock = new VirtualClock();
+        SimulatedBackend backend = new SimulatedBackend(virtualClock);
+        long durationMicros = MILLISECONDS.toMicros(scenario.getDurationMillis());
+        long timeoutMicros = (long) (scenario.getCache() * TimeUnit.SECONDS.toMicros(1));
+        List<SimulatedNode> nodes = new ArrayList<>();
+        List<Long> admitMicros = new ArrayList<>();
+
+        for (int i = 0; i < scenario.getNodes().size(); i++) {
+            SimulatedNode node = new SimulatedNode(i, scenario.getNodes().get(i), virtualClock, scenario.getSeed());
+            node.setRateLimiter(new RateLimiter(engine.nodeConfig(scenario, node, backend)));
+            nodes.add(node);
+            scheduleArrival(node, -1L, durationMicros, () -> node.whenRunning(() ->
+                    node.getRateLimiter().tryReserveAsync(1L, timeoutMicros, TimeUnit.MICROSECONDS)
+                            .thenAccept(waitMicros -> {
+                                node.onDecided(waitMicros >= 0);
+                                if (waitMicros >= 0) {
+                                    admitMicros.add(virtualClock.nowMicros() + waitMicros);
+                                }
+                            })));
+        }
+        virtualClock.runUntil(durationMicros);
+        // 到达时长结束后不再产生请求，处理完还在途中的响应
+        virtualClock.drain();
+        return new SimulationReport(scenario, engine, nodes, admitMicros.stream().mapToLong(Long::longValue).toArray());
+    }
+
+    /**
+     * 调度节点的下一个请求，请求到达时再调度后一个
+     *
+     * @param node 节点
+     * @param lastMicros 上一个请求的到达时间
+     * @param durationMicros 请求到达的时长
+     * @param request 请求到达时执行的动作
+     */
+    private static void scheduleArrival(SimulatedNode node, long lastMicros, long durationMicros, Runnable request) {
+        long nextMicros = node.getSpec().getArrivals().next(lastMicros, node.getArrivalRandom());
+        if (nextMicros >= durationMicros) {
+            return;
+        }
+        node.getVirtualClock().schedule(nextMicros, () -> {
+            node.onOffered();
+            request.run();
+            scheduleArrival(node, nextMicros, durationMicros, request);
+        });
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.ratelimiter.simulation;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.PriorityQueue;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+
+/**
+ * 虚拟时钟和事件队列
+ * 所有事件在调用 {@link #runUntil} 的线程上按时间顺序执行，时间相同的按调度顺序执行；
+ * 时间只在取出事件时前进，不依赖真实时间，相同的输入总是得到相同的结果
+ */
+public class VirtualClock {
+    private final PriorityQueue<Event> events = new PriorityQueue<>();
+
+    /**
+     * 当前时间，单位为微秒，从 0 开始
+     */
+    private long nowMicros;
+
+    private long sequence;
+
+    public long nowMicros() {
+        return nowMicros;
+    }
+
+    /**
+     * 在指定时间执行，早于当前时间的按当前时间执行
+     *
+     * @param atMicros 执行时间，单位为微秒
+     * @param action 要执行的动作
+     */
+    public void schedule(long atMicros, Runnable action) {
+        events.add(new Event(Math.max(atMicros, nowMicros), sequence++, action));
+    }
+
+    /**
+     * 依次执行不晚于 endMicros 的事件，执行过程中新调度的事件同样会被执行
+     *
+     * @param endMicros 结束时间，单位为微秒
+     */
+    public void runUntil(long endMicros) {
+        while (!events.isEmpty() && events.peek().atMicros() <= endMicros) {
+            Event event = events.poll();
+            nowMicros = event.atMicros();
+            event.action().run();
+        }
+        nowMicros = Math.max(nowMicros, endMicros);
+    }
+
+    /**
+     * 执行所有剩余的事件
+     */
+    public void drain() {
+        runUntil(Long.MAX_VALUE);
+    }
+
+    /**
+     * 以该时钟为准、带固定偏差的 {@link Clock}，用于模拟节点之间的时钟偏差
+     *
+     * @param skewMicros 偏差，单位为微秒，正数表示比虚拟时间快
+     * @return 时钟
+     */
+    public Clock view(long skewMicros) {
+        return new SkewedClock(skewMicros, ZoneOffset.UTC);
+    }
+
+    private record Event(long atMicros, long sequence, Runnable action) implements Comparable<Event> {
+        @Override
+        public int compareTo(Event other) {
+            int byTime = Long.compare(atMicros, other.atMicros);
+            return byTime != 0 ? byTime : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    private class SkewedClock extends Clock {
+        private final long skewMicros;
+
+        private final ZoneId zone;
+
+        private SkewedClock(long skewMicros, ZoneId zone) {
+            this.skewMicros = skewMicros;
+            this.zone = zone;
+        }
+
+        @Override
+        public long millis() {
+            return MICROSECONDS.toMillis(nowMicros + skewMicros);
+        }
+
+        @Override
+        public Instant instant() {
+            long micros = nowMicros + skewMicros;
+            return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        /**
+         * 同一虚拟时间、同一偏差，只改变时区
+         */
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return zone.equals(this.zone) ? this : new SkewedClock(skewMicros, zone);
+        }
+    }
+}
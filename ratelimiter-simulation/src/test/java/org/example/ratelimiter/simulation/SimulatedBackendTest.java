@@ -0,0 +1,39 @@
+package org.example.ratelimiter.simulation;
+
+import org.example.ratelimiter.limiter.ratelimiter.PermitBucket;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+/**
+ * 共享后端中的桶：节点重启后重新创建同名限流器，不覆盖重启前通过 setRate 修改的速率
+ */
+class SimulatedBackendTest {
+    private static final String NAME = "restart";
+
+    @Test
+    void restartKeepsUpdatedRate() {
+        VirtualClock virtualClock = new VirtualClock();
+        SimulatedBackend backend = new SimulatedBackend(virtualClock);
+        SimulatedNode node = new SimulatedNode(0, new NodeSpec(ArrivalPattern.poisson(1)), virtualClock, 1L);
+
+        RateLimiter before = limiter(backend, node);
+        before.putDefaultBucket();
+        before.setRate(50L, 40L);
+
+        // 重启后按原配置创建
+        RateLimiter after = limiter(backend, node);
+        PermitBucket bucket = after.putDefaultBucket();
+        Assertions.assertEquals(20_000L, bucket.getIntervalMicros());
+        Assertions.assertEquals(40L, bucket.getMaxPermits());
+        Assertions.assertEquals(50L, after.getRate());
+        Assertions.assertEquals(20_000L, after.getBucket().getIntervalMicros());
+    }
+
+    private static RateLimiter limiter(SimulatedBackend backend, SimulatedNode node) {
+        RateLimiterConfig config = new RateLimiterConfig(NAME, 100L, 20L, 0.1F, null);
+        config.setBucketStore(backend.client(NAME, 20L, 10_000L, node));
+        return new RateLimiter(config);
+    }
+}
@@ -0,0 +1,132 @@
+package org.example.ratelimiter.simulation;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多节点模拟：4 个节点共享 200/s、桶大小 20、缓存比例 0.1 的限流器，每个场景模拟 10 秒，
+ * 分别使用共享令牌桶和按节点划分速率，结果汇总为一张表输出
+ * 不需要 Redis，随 mvn test 执行
+ */
+class SimulationTest {
+    private static final long PERMITS_PER_SECOND = 200L;
+
+    private static final long MAX_PERMITS = 20L;
+
+    private static final float CACHE = 0.1F;
+
+    private static final long DURATION_MILLIS = 10_000L;
+
+    private static final long SEED = 42L;
+
+    private static final List<SimulationReport> REPORTS = new ArrayList<>();
+
+    @AfterAll
+    static void printReport() {
+        System.out.print(SimulationReport.table(REPORTS));
+    }
+
+    private static SimulationReport run(Scenario scenario, EngineEnum engine) {
+        SimulationReport report = Simulator.run(scenario, engine);
+        REPORTS.add(report);
+        return report;
+    }
+
+    private static Scenario scenario(String name) {
+        return new Scenario(name, PERMITS_PER_SECOND, MAX_PERMITS, CACHE, DURATION_MILLIS, SEED);
+    }
+
+    /**
+     * 每个节点泊松到达 100/s，总请求量为速率的 2 倍
+     */
+    private static Scenario poissonOverload() {
+        Scenario scenario = scenario("poisson-overload");
+        for (int i = 0; i < 4; i++) {
+            NodeSpec node = new NodeSpec(ArrivalPattern.poisson(100));
+            node.setJitterMicros(1_000L);
+            scenario.addNode(node);
+        }
+        return scenario;
+    }
+
+    @Test
+    void sameSeedSameResult() {
+        Assertions.assertEquals(Simulator.run(poissonOverload(), EngineEnum.SHARED).toString(),
+                Simulator.run(poissonOverload(), EngineEnum.SHARED).toString());
+    }
+
+    @Test
+    void overloadAdmitsConfiguredRate() {
+        SimulationReport shared = run(poissonOverload(), EngineEnum.SHARED);
+        SimulationReport slice = run(poissonOverload(), EngineEnum.SLICE);
+        Assertions.assertEquals(1.0, shared.getAdmittedRatio(), 0.05);
+        Assertions.assertEquals(0L, shared.getBurstOvershoot());
+        Assertions.assertEquals(1.0, shared.getBackendCallsPerDecision(), 1e-9);
+        // 需求均匀时按节点划分同样准确，且不访问后端
+        Assertions.assertEquals(1.0, slice.getAdmittedRatio(), 0.05);
+        Assertions.assertEquals(0L, slice.getBackendCalls());
+    }
+
+    /**
+     * 一个节点每秒突发 150 个请求，其他节点泊松到达 30/s
+     */
+    @Test
+    void unevenBurstsFavourSharedBucket() {
+        Scenario scenario = scenario("uneven-bursts")
+                .addNode(new NodeSpec(ArrivalPattern.bursts(150, 1_000L)));
+        for (int i = 0; i < 3; i++) {
+            scenario.addNode(new NodeSpec(ArrivalPattern.poisson(30)));
+        }
+        SimulationReport shared = run(scenario, EngineEnum.SHARED);
+        SimulationReport slice = run(scenario, EngineEnum.SLICE);
+        // 固定划分时突发节点只能用到 1/4 的速率，其他节点的余量被浪费
+        Assertions.assertTrue(shared.getAdmitted() > slice.getAdmitted());
+        Assertions.assertTrue(shared.getRejectionRatio() < slice.getRejectionRatio());
+    }
+
+    /**
+     * 节点时钟偏差 ±150ms，一个节点在第 3 秒暂停 400ms，后端往返 2~10ms
+     */
+    @Test
+    void skewPauseAndLatency() {
+        long[] skews = {150L, -150L, 0L, 50L};
+        Scenario scenario = scenario("skew-pause-latency");
+        for (long skew : skews) {
+            NodeSpec node = new NodeSpec(ArrivalPattern.poisson(100));
+            node.setSkewMillis(skew);
+            node.setLatencyMicros(2_000L);
+            node.setJitterMicros(8_000L);
+            scenario.addNode(node);
+        }
+        scenario.getNodes().get(1).addPause(3_000L, 400L);
+        SimulationReport shared = run(scenario, EngineEnum.SHARED);
+        SimulationReport slice = run(scenario, EngineEnum.SLICE);
+        // 共享令牌桶按调用方的时间同步：时钟快的节点把 nextFree 推到自己的时间，时钟慢的节点随后看到的等待时间变长而被拒绝，
+        // 结果是放行量下降（没有偏差时约为 1.0）而不是超发；按节点划分时各节点只用自己的时钟，不受影响
+        long skewPermits = PERMITS_PER_SECOND * 300L / 1000;
+        Assertions.assertTrue(shared.getBurstOvershoot() <= skewPermits);
+        Assertions.assertTrue(shared.getAdmittedRatio() > 0.8 && shared.getAdmittedRatio() < slice.getAdmittedRatio());
+        Assertions.assertEquals(0L, slice.getBurstOvershoot());
+    }
+
+    /**
+     * 总请求量在 0.4~3.6 倍速率之间按 4 秒周期变化
+     */
+    @Test
+    void diurnalLoad() {
+        Scenario scenario = scenario("diurnal");
+        for (int i = 0; i < 4; i++) {
+            NodeSpec node = new NodeSpec(ArrivalPattern.diurnal(100, 0.8, 4_000L));
+            node.setJitterMicros(1_000L);
+            scenario.addNode(node);
+        }
+        SimulationReport shared = run(scenario, EngineEnum.SHARED);
+        SimulationReport slice = run(scenario, EngineEnum.SLICE);
+        Assertions.assertTrue(shared.getAdmittedRatio() <= 1.05 && slice.getAdmittedRatio() <= 1.05);
+        Assertions.assertEquals(0L, shared.getBurstOvershoot());
+    }
+}
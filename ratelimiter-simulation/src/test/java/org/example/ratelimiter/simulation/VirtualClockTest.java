@@ -0,0 +1,28 @@
+package org.example.ratelimiter.simulation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+/**
+ * 虚拟时钟的视图：带偏差读取虚拟时间，切换时区后时间不变
+ */
+class VirtualClockTest {
+    @Test
+    void viewWithZone() {
+        VirtualClock clock = new VirtualClock();
+        Clock view = clock.view(1_500L);
+        Assertions.assertSame(view, view.withZone(ZoneOffset.UTC));
+
+        ZoneId shanghai = ZoneId.of("Asia/Shanghai");
+        Clock zoned = view.withZone(shanghai);
+        Assertions.assertEquals(shanghai, zoned.getZone());
+        clock.runUntil(2_000_000L);
+        Assertions.assertEquals(2_001L, view.millis());
+        Assertions.assertEquals(view.instant(), zoned.instant());
+        Assertions.assertEquals(8, zoned.instant().atZone(zoned.getZone()).getHour());
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.ratelimiter.replay;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * 解析 combined/common 格式的访问日志（nginx、Apache 的默认格式）：
+ * {@code 127.0.0.1 - - [10/Oct/2024:13:55:36 +0800] "GET /api/order?id=1 HTTP/1.1" 200 2326 ...}
+ * 时间可以带毫秒（{@code 13:55:36.123}），不带毫秒时由调用方把同一秒内的请求均匀分布到这一秒中。
+ * <p>
+ * 按字符位置解析，不使用正则；同一秒的时间字符串只解析一次
+ */
+class AccessLogParser {
+    private static final DateTimeFormatter SECONDS_FORMAT =
+            DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH);
+
+    private static final DateTimeFormatter MILLIS_FORMAT =
+            DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss.SSS Z", Locale.ENGLISH);
+
+    private String lastTime;
+
+    private long lastMillis;
+
+    /**
+     * 上一次解析的时间是否带毫秒
+     */
+    private boolean lastHasMillis;
+
+    /**
+     * 最近一次解析出的请求时间，单位为毫秒
+     */
+    long timeMillis;
+
+    /**
+     * 最近一次解析出的时间是否带毫秒
+     */
+    boolean hasMillis;
+
+    /**
+     * 最近一次解析出的请求路径，不含查询串
+     */
+    String path;
+
+    /**
+     * 解析一行，结果保存在字段中
+     *
+     * @param line 日志行
+     * @return 是否解析成功
+     */
+    boolean parse(String line) {
+        int timeStart = line.indexOf('[');
+        int timeEnd = timeStart < 0 ? -1 : line.indexOf(']', timeStart);
+        int requestStart = timeEnd < 0 ? -1 : line.indexOf('"', timeEnd);
+        int requestEnd = requestStart < 0 ? -1 : line.indexOf('"', requestStart + 1);
+        if (requestEnd < 0) {
+            return false;
+        }
+        int pathStart = line.indexOf(' ', requestStart);
+        if (pathStart < 0 || pathStart >= requestEnd) {
+            return false;
+        }
+        int pathEnd = pathStart + 1;
+        while (pathEnd < requestEnd && " ?#".indexOf(line.charAt(pathEnd)) < 0) {
+            pathEnd++;
+        }
+        if (!parseTime(line.substring(timeStart + 1, timeEnd))) {
+            return false;
+        }
+        path = line.substring(pathStart + 1, pathEnd);
+        return true;
+    }
+
+    private boolean parseTime(String time) {
+        if (!time.equals(lastTime)) {
+            try {
+                boolean millis = time.indexOf('.') > 0;
+                lastMillis = OffsetDateTime.parse(time, millis ? MILLIS_FORMAT : SECONDS_FORMAT).toInstant().toEpochMilli();
+                lastHasMillis = millis;
+                lastTime = time;
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+        timeMillis = lastMillis;
+        hasMillis = lastHasMillis;
+        return true;
+    }
+}
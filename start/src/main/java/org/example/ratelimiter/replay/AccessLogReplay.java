@@ -0,0 +1,253 @@
+package org.example.ratelimiter.replay;
+
+import lombok.Getter;
+import org.example.ratelimiter.model.TAirRatelimitConf;
+import org.example.ratelimiter.simulation.EngineEnum;
+import org.example.ratelimiter.simulation.VirtualClock;
+import org.example.ratelimiter.web.PathTrie;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * 访问日志回放工具，用于在修改 t_ratelimite_conf 的 rateLimit/cache 之前评估效果
+ * 流式读取访问日志（.gz 自动解压），按 interfaceUrl 把每行映射到 interfaceNo，在虚拟时钟下按原始时间（或加速）回放，
+ * 统计每个接口的拒绝数、放行请求增加的等待时间和最大排队数。不启动 Spring、不访问 Redis，也不真正等待，
+ * 一天的日志在几分钟内回放完成。
+ * <p>
+ * 参数：日志文件 限流配置 [引擎 shared|slice，默认 shared] [节点数，默认 1] [加速倍数，默认 1] [输出的接口数，默认 50]
+ * <ul>
+ *     <li>限流配置为 t_ratelimite_conf 导出的 CSV，首行为列名（channelType,interfaceNo,interfaceUrl,rateLimit,cache,status），
+ *     只回放开启且 interfaceUrl 为路径的配置</li>
+ *     <li>shared 表示所有节点共享一个令牌桶（与 Redis 脚本相同）；slice 表示每个节点 1/N 的速率，请求轮流分给各节点</li>
+ *     <li>加速倍数为 2 时请求间隔减半，相当于流量翻倍</li>
+ * </ul>
+ */
+public class AccessLogReplay {
+    private final VirtualClock virtualClock = new VirtualClock();
+
+    private final PathTrie<InterfaceReplay> trie;
+
+    private final List<InterfaceReplay> interfaces = new ArrayList<>();
+
+    private final double speed;
+
+    private final AccessLogParser parser = new AccessLogParser();
+
+    /**
+     * 时间不带毫秒时，同一秒内已匹配、等待均匀分布的请求
+     */
+    private final List<InterfaceReplay> pendingSecond = new ArrayList<>();
+
+    private long pendingSecondMillis = Long.MIN_VALUE;
+
+    /**
+     * 第一个请求的时间，虚拟时钟从 0 开始，单位为微秒
+     */
+    private long firstMicros = Long.MIN_VALUE;
+
+    @Getter
+    private long lines;
+
+    @Getter
+    private long unparsed;
+
+    @Getter
+    private long unmatched;
+
+    public AccessLogReplay(List<TAirRatelimitConf> confs, EngineEnum engine, int nodes, double speed) {
+        if (speed <= 0) {
+            throw new IllegalArgumentException("Replay speed " + speed + " must be positive");
+        }
+        this.speed = speed;
+        Clock clock = virtualClock.view(0L);
+        Map<String, InterfaceReplay> patterns = new HashMap<>();
+        for (TAirRatelimitConf conf : confs) {
+            if (!conf.isStatus() || conf.getInterfaceUrl() == null || conf.getInterfaceUrl().isBlank()
+                    || conf.getInterfaceUrl().contains("://") || conf.getRateLimit() == null) {
+                continue;
+            }
+            InterfaceReplay replay = new InterfaceReplay(conf, engine, nodes, clock);
+            interfaces.add(replay);
+            patterns.put(conf.getInterfaceUrl(), replay);
+        }
+        this.trie = PathTrie.build(patterns);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: AccessLogReplay <access.log[.gz]> <conf.csv> [shared|slice] [nodes] [speed] [top]");
+            System.exit(1);
+        }
+        EngineEnum engine = args.length > 2 ? EngineEnum.valueOf(args[2].toUpperCase()) : EngineEnum.SHARED;
+        int nodes = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        double speed = args.length > 4 ? Double.parseDouble(args[4]) : 1D;
+        int top = args.length > 5 ? Integer.parseInt(args[5]) : 50;
+
+        AccessLogReplay replay = new AccessLogReplay(loadConfs(Path.of(args[1])), engine, nodes, speed);
+        long startNanos = System.nanoTime();
+        try (BufferedReader reader = open(Path.of(args[0]))) {
+            replay.replay(reader);
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        System.out.print(replay.report(top));
+        System.out.printf("engine=%s, nodes=%d, speed=%.2f; %d lines in %.1fs (%.0f lines/s), unparsed=%d, unmatched=%d%n",
+                engine.getCode(), nodes, speed, replay.getLines(), seconds, replay.getLines() / seconds,
+                replay.getUnparsed(), replay.getUnmatched());
+    }
+
+    /**
+     * 打开日志文件，.gz 结尾的按 gzip 解压
+     *
+     * @param log 日志文件
+     * @return 按行读取的 reader
+     */
+    static BufferedReader open(Path log) throws IOException {
+        InputStream in = Files.newInputStream(log);
+        if (log.getFileName().toString().endsWith(".gz")) {
+            in = new GZIPInputStream(in, 1 << 16);
+        }
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+    }
+
+    /**
+     * 读取 t_ratelimite_conf 导出的 CSV，按首行的列名取值，# 开头的行忽略
+     *
+     * @param csv CSV 文件
+     * @return 限流配置
+     */
+    static List<TAirRatelimitConf> loadConfs(Path csv) throws IOException {
+        List<String> rows = Files.readAllLines(csv, StandardCharsets.UTF_8);
+        List<TAirRatelimitConf> confs = new ArrayList<>();
+        if (rows.isEmpty()) {
+            return confs;
+        }
+        List<String> header = Arrays.stream(rows.get(0).split(",")).map(String::trim).toList();
+        for (String row : rows.subList(1, rows.size())) {
+            if (row.isBlank() || row.startsWith("#")) {
+                continue;
+            }
+            String[] values = row.split(",", -1);
+            Map<String, String> columns = new HashMap<>();
+            for (int i = 0; i < header.size() && i < values.length; i++) {
+                columns.put(header.get(i), values[i].trim());
+            }
+            TAirRatelimitConf conf = new TAirRatelimitConf();
+            conf.setChannelType(columns.get("channelType"));
+            conf.setInterfaceNo(columns.get("interfaceNo"));
+            conf.setInterfaceUrl(columns.get("interfaceUrl"));
+            String rateLimit = columns.get("rateLimit");
+            conf.setRateLimit(rateLimit == null || rateLimit.isEmpty() ? null : Integer.valueOf(rateLimit));
+            String cache = columns.get("cache");
+            conf.setCache(cache == null || cache.isEmpty() ? null : Float.valueOf(cache));
+            String status = columns.getOrDefault("status", "true");
+            conf.setStatus("true".equalsIgnoreCase(status) || "1".equals(status));
+            confs.add(conf);
+        }
+        return confs;
+    }
+
+    /**
+     * 回放所有行
+     *
+     * @param reader 日志
+     */
+    public void replay(BufferedReader reader) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lines++;
+            if (!parser.parse(line)) {
+                unparsed++;
+                continue;
+            }
+            InterfaceReplay target = trie.match(parser.path, 0);
+            if (target == null) {
+                unmatched++;
+                continue;
+            }
+            if (parser.hasMillis) {
+                flushSecond();
+                offer(target, MILLISECONDS.toMicros(parser.timeMillis));
+            } else {
+                if (parser.timeMillis != pendingSecondMillis) {
+                    flushSecond();
+                    pendingSecondMillis = parser.timeMillis;
+                }
+                pendingSecond.add(target);
+            }
+        }
+        flushSecond();
+    }
+
+    /**
+     * 把同一秒内的请求均匀分布到这一秒中回放
+     */
+    private void flushSecond() {
+        int size = pendingSecond.size();
+        for (int i = 0; i < size; i++) {
+            offer(pendingSecond.get(i), MILLISECONDS.toMicros(pendingSecondMillis) + SECONDS.toMicros(1) * i / size);
+        }
+        pendingSecond.clear();
+    }
+
+    private void offer(InterfaceReplay target, long epochMicros) {
+        if (firstMicros == Long.MIN_VALUE) {
+            firstMicros = epochMicros;
+        }
+        // 相对第一个请求的时间按加速倍数压缩；日志中轻微乱序的行按当前时间处理
+        virtualClock.runUntil((long) ((epochMicros - firstMicros) / speed));
+        target.offer(virtualClock.nowMicros());
+    }
+
+    /**
+     * 按拒绝数从高到低输出接口的统计
+     *
+     * @param top 输出的接口数
+     * @return Markdown 表格
+     */
+    public String report(int top) {
+        StringBuilder table = new StringBuilder(
+                "| interfaceNo | rateLimit | cache | requests | rejected | rejected % | avg wait ms | p99 wait ms | peak queue |\n"
+                        + "|---|---|---|---|---|---|---|---|---|\n");
+        interfaces.stream()
+                .filter(replay -> replay.getRequests() > 0)
+                .sorted(Comparator.comparingLong(InterfaceReplay::getRejected).reversed()
+                        .thenComparing(replay -> replay.getConf().getInterfaceNo()))
+                .limit(top)
+                .forEach(replay -> table.append(String.format("| %s | %d | %s | %d | %d | %.2f%% | %.1f | %d | %d |%n",
+                        replay.getConf().getInterfaceNo(), replay.getConf().getRateLimit(), replay.getConf().getCache(),
+                        replay.getRequests(), replay.getRejected(), replay.rejectionRatio() * 100,
+                        replay.averageWaitMillis(), replay.waitPercentileMillis(0.99), replay.getPeakQueue())));
+        return table.toString();
+    }
+
+    /**
+     * 所有接口被拒绝的请求数
+     */
+    public long getRejected() {
+        return interfaces.stream().mapToLong(InterfaceReplay::getRejected).sum();
+    }
+
+    /**
+     * 所有接口放行的请求数
+     */
+    public long getAdmitted() {
+        return interfaces.stream().mapToLong(InterfaceReplay::getAdmitted).sum();
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.ratelimiter.replay;
+
+import lombok.Getter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.example.ratelimiter.limiter.store.MemoryBucketStore;
+import org.example.ratelimiter.model.TAirRatelimitConf;
+import org.example.ratelimiter.simulation.EngineEnum;
+
+import java.time.Clock;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/**
+ * 一个接口的回放状态和统计
+ * 按引擎创建一个（shared，所有节点共享一个桶）或 nodes 个（slice，每个节点 1/N 的速率，请求轮流分给各节点）限流器，
+ * 令牌桶使用虚拟时钟下的 {@link MemoryBucketStore}，规则与 Redis 脚本相同
+ */
+@Getter
+class InterfaceReplay {
+    private final TAirRatelimitConf conf;
+
+    private final RateLimiter[] limiters;
+
+    private final long timeoutMicros;
+
+    /**
+     * 正在等待令牌的请求的放行时间
+     */
+    private final PriorityQueue<Long> waiting = new PriorityQueue<>();
+
+    /**
+     * 放行请求的等待时间分布，按毫秒分桶，最后一个桶包含所有更长的等待
+     */
+    private final long[] waitHistogram;
+
+    private long requests;
+
+    private long admitted;
+
+    private long rejected;
+
+    private long totalWaitMicros;
+
+    private int peakQueue;
+
+    private int next;
+
+    InterfaceReplay(TAirRatelimitConf conf, EngineEnum engine, int nodes, Clock clock) {
+        this.conf = conf;
+        float cache = conf.getCache() == null ? 0F : conf.getCache();
+        this.timeoutMicros = (long) (cache * TimeUnit.SECONDS.toMicros(1));
+        this.waitHistogram = new long[(int) TimeUnit.MICROSECONDS.toMillis(timeoutMicros) + 2];
+        int count = engine == EngineEnum.SLICE ? nodes : 1;
+        long permitsPerSecond = max(conf.getRateLimit() / count, 1L);
+        long intervalMicros = TimeUnit.SECONDS.toMicros(1) / permitsPerSecond;
+        this.limiters = new RateLimiter[count];
+        for (int i = 0; i < count; i++) {
+            RateLimiterConfig config = new RateLimiterConfig(conf.getInterfaceNo(), permitsPerSecond, cache, null);
+            config.setBucketStore(new MemoryBucketStore(conf.getInterfaceNo(), permitsPerSecond, intervalMicros, clock));
+            limiters[i] = new RateLimiter(config);
+        }
+    }
+
+    /**
+     * 回放一个请求，调用前虚拟时钟已经前进到请求时间
+     *
+     * @param nowMicros 请求时间，单位为微秒
+     */
+    void offer(long nowMicros) {
+        requests++;
+        while (!waiting.isEmpty() && waiting.peek() <= nowMicros) {
+            waiting.poll();
+        }
+        RateLimiter limiter = limiters[next];
+        next = (next + 1) % limiters.length;
+        long waitMicros = limiter.tryReserveAsync(1L, timeoutMicros, TimeUnit.MICROSECONDS).join();
+        if (waitMicros < 0) {
+            rejected++;
+            return;
+        }
+        admitted++;
+        totalWaitMicros += waitMicros;
+        waitHistogram[(int) min(TimeUnit.MICROSECONDS.toMillis(waitMicros), waitHistogram.length - 1)]++;
+        if (waitMicros > 0) {
+            waiting.add(nowMicros + waitMicros);
+            peakQueue = max(peakQueue, waiting.size());
+        }
+    }
+
+    double rejectionRatio() {
+        return requests == 0 ? 0D : (double) rejected / requests;
+    }
+
+    double averageWaitMillis() {
+        return admitted == 0 ? 0D : totalWaitMicros / 1000D / admitted;
+    }
+
+    /**
+     * 放行请求等待时间的分位数
+     *
+     * @param p 分位，0~1
+     * @return 等待时间，单位为毫秒
+     */
+    long waitPercentileMillis(double p) {
+        long rank = (long) Math.ceil(admitted * p);
+        long seen = 0;
+        for (int i = 0; i < waitHistogram.length; i++) {
+            seen += waitHistogram[i];
+            if (seen >= rank && seen > 0) {
+                return i;
+            }
+        }
+        return 0L;
+    }
+}
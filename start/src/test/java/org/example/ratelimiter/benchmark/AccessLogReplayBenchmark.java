@@ -0,0 +1,136 @@
+package org.example.ratelimiter.benchmark;
+
+import org.example.ratelimiter.model.TAirRatelimitConf;
+import org.example.ratelimiter.replay.AccessLogReplay;
+import org.example.ratelimiter.simulation.EngineEnum;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 访问日志回放的速度
+ * 生成一天（86400 秒）、约 300 万行的 gzip 访问日志（按昼夜曲线分布到 4 个接口，另有 10% 未配置的路径），
+ * 分别用 shared 和 slice（4 个节点）引擎回放，统计每秒处理的行数
+ * <p>
+ * 不需要 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=AccessLogReplayBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Tag("benchmark")
+class AccessLogReplayBenchmark {
+    private static final int SECONDS_PER_DAY = 86_400;
+
+    private static final double MEAN_LINES_PER_SECOND = 35D;
+
+    private static final String[] PATHS = {"/api/order/%d", "/api/order/%d/pay", "/api/user/%d", "/api/search", "/static/%d.js"};
+
+    /**
+     * 各路径的请求占比，最后一个未配置
+     */
+    private static final double[] WEIGHTS = {0.4, 0.1, 0.3, 0.1, 0.1};
+
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH).withZone(ZoneOffset.ofHours(8));
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void replayOneDay() throws IOException {
+        Path log = dir.resolve("access.log.gz");
+        long lines = generate(log);
+        List<TAirRatelimitConf> confs = List.of(
+                conf("order", "/api/order/{id}", 30, 0.1F),
+                conf("pay", "/api/order/{id}/pay", 5, 0F),
+                conf("user", "/api/user/*", 20, 0.5F),
+                conf("search", "/api/search", 10, 0F));
+        double sharedRate = 0D;
+        for (EngineEnum engine : EngineEnum.values()) {
+            AccessLogReplay replay = new AccessLogReplay(confs, engine, 4, 1D);
+            long start = System.nanoTime();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(log), 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+                replay.replay(reader);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.print(replay.report(10));
+            System.out.printf("%s: %d lines in %.1fs (%.0f lines/s), admitted=%d, rejected=%d, unmatched=%d%n",
+                    engine.getCode(), replay.getLines(), seconds, replay.getLines() / seconds,
+                    replay.getAdmitted(), replay.getRejected(), replay.getUnmatched());
+            Assertions.assertEquals(lines, replay.getLines());
+            Assertions.assertEquals(0L, replay.getUnparsed());
+            Assertions.assertTrue(replay.getRejected() > 0);
+            if (engine == EngineEnum.SHARED) {
+                sharedRate = replay.getLines() / seconds;
+            }
+        }
+        // 一天千万行级别的日志应在几分钟内回放完成
+        Assertions.assertTrue(sharedRate > 100_000D, "replay too slow: " + sharedRate + " lines/s");
+    }
+
+    /**
+     * 生成访问日志，每秒的行数按 24 小时周期的正弦曲线变化，时间只精确到秒
+     *
+     * @param log 日志文件
+     * @return 行数
+     */
+    private static long generate(Path log) throws IOException {
+        Random random = new Random(7L);
+        long startSecond = Instant.parse("2024-12-13T00:00:00Z").getEpochSecond();
+        long lines = 0;
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(log), 1 << 16), StandardCharsets.UTF_8), 1 << 16)) {
+            for (int second = 0; second < SECONDS_PER_DAY; second++) {
+                String time = TIME_FORMAT.format(Instant.ofEpochSecond(startSecond + second));
+                double rate = MEAN_LINES_PER_SECOND * (1 + 0.8 * Math.sin(2 * Math.PI * second / SECONDS_PER_DAY));
+                int count = (int) rate + (random.nextDouble() < rate - (int) rate ? 1 : 0);
+                for (int i = 0; i < count; i++) {
+                    String path = String.format(PATHS[pick(random)], random.nextInt(10_000));
+                    writer.write("10.0.0." + random.nextInt(256) + " - - [" + time + "] \"GET " + path
+                            + "?from=app HTTP/1.1\" 200 512 \"-\" \"okhttp/4.12\"\n");
+                    lines++;
+                }
+            }
+        }
+        return lines;
+    }
+
+    private static int pick(Random random) {
+        double r = random.nextDouble();
+        for (int i = 0; i < WEIGHTS.length - 1; i++) {
+            r -= WEIGHTS[i];
+            if (r < 0) {
+                return i;
+            }
+        }
+        return WEIGHTS.length - 1;
+    }
+
+    private static TAirRatelimitConf conf(String interfaceNo, String url, int rateLimit, float cache) {
+        TAirRatelimitConf conf = new TAirRatelimitConf();
+        conf.setInterfaceNo(interfaceNo);
+        conf.setInterfaceUrl(url);
+        conf.setRateLimit(rateLimit);
+        conf.setCache(cache);
+        conf.setStatus(true);
+        return conf;
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.ratelimiter.benchmark;
+
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.common.redis.key.common.PermitBucketKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 后端故障下的获取延迟
+ * Redisson 经 {@link FaultInjectionProxy} 连接本地 Redis，依次注入 0.2ms/2ms/20ms 的往返延迟、带宽限制和周期性的连接重置，
+ * 对 脚本引擎、开启请求合并的脚本引擎、Redisson RRateLimiter 分别用 16 个线程持续获取令牌（速率足够大，不会因令牌不足而等待），
+ * 统计吞吐量、获取延迟的分位数和失败次数
+ * <p>
+ * 需要本地 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=BackendFaultBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Tag("benchmark")
+class BackendFaultBenchmark {
+    private static final String NAME_PREFIX = "fault-benchmark-";
+
+    private static final long PERMITS_PER_SECOND = 1_000_000L;
+
+    private static final int THREADS = 16;
+
+    private static final long DURATION_MILLIS = 2_000L;
+
+    private static final long WARMUP_MILLIS = 1_000L;
+
+    private static final long BATCH_WINDOW_MICROS = 200L;
+
+    private static final List<String> ENGINES = List.of("script", "batched", "redisson");
+
+    private static final List<FaultInjectionProxy.FaultProfile> PROFILES = List.of(
+            FaultInjectionProxy.FaultProfile.NONE,
+            new FaultInjectionProxy.FaultProfile("0.2ms", 200L, 0L, 0L, 0L),
+            new FaultInjectionProxy.FaultProfile("2ms+1ms", 2_000L, 1_000L, 0L, 0L),
+            new FaultInjectionProxy.FaultProfile("20ms+5ms", 20_000L, 5_000L, 0L, 0L),
+            new FaultInjectionProxy.FaultProfile("64KB/s", 0L, 0L, 64 * 1024L, 0L),
+            new FaultInjectionProxy.FaultProfile("reset/500ms", 200L, 0L, 0L, 500L));
+
+    @Test
+    void latencyPerFaultProfile() throws Exception {
+        try (FaultInjectionProxy proxy = new FaultInjectionProxy("127.0.0.1",
+                Integer.getInteger("fault.redis.port", 6379))) {
+            Config config = new Config();
+            config.setCodec(StringCodec.INSTANCE);
+            config.useSingleServer()
+                    .setAddress("redis://127.0.0.1:" + proxy.getPort())
+                    .setConnectionPoolSize(8)
+                    .setConnectionMinimumIdleSize(4)
+                    .setTimeout(1_000)
+                    .setRetryAttempts(1)
+                    .setRetryInterval(50);
+            RedissonClient client = Redisson.create(config);
+            RedissonService redisService = new RedissonService(client);
+            System.out.println("| profile | engine | acquires/s | p50 ms | p99 ms | p99.9 ms | max ms | failed |");
+            System.out.println("|---|---|---|---|---|---|---|---|");
+            try {
+                // 预热 JIT、连接池和脚本缓存，不计入结果
+                for (String engine : ENGINES) {
+                    run(client, redisService, engine, WARMUP_MILLIS);
+                }
+                for (FaultInjectionProxy.FaultProfile profile : PROFILES) {
+                    proxy.setProfile(profile);
+                    for (String engine : ENGINES) {
+                        Result result = run(client, redisService, engine, DURATION_MILLIS);
+                        System.out.printf("| %s | %s | %.0f | %.2f | %.2f | %.2f | %.2f | %d |%n",
+                                profile.name(), engine, result.granted * 1000.0 / DURATION_MILLIS,
+                                result.percentile(0.5), result.percentile(0.99), result.percentile(0.999),
+                                result.percentile(1.0), result.failed);
+                        if (profile.resetEveryMillis() == 0) {
+                            Assertions.assertEquals(0L, result.failed, profile.name() + "/" + engine);
+                        }
+                        Assertions.assertTrue(result.granted > 0, profile.name() + "/" + engine);
+                    }
+                }
+                System.out.println("connection resets injected: " + proxy.getResets());
+            } finally {
+                proxy.setProfile(FaultInjectionProxy.FaultProfile.NONE);
+                client.shutdown();
+            }
+        }
+    }
+
+    private Result run(RedissonClient client, RedissonService redisService, String engine, long durationMillis)
+            throws InterruptedException {
+        String name = NAME_PREFIX + engine;
+        client.getKeys().delete(PermitBucketKey.permitBucket.getPrefix() + name,
+                PermitBucketKey.redissonLimiter.getPrefix() + name);
+        RateLimiterConfig config = new RateLimiterConfig(name, PERMITS_PER_SECOND, redisService);
+        if ("batched".equals(engine)) {
+            config.setBatchWindowMicros(BATCH_WINDOW_MICROS);
+        } else if ("redisson".equals(engine)) {
+            config.setStore(BucketStoreEnum.REDISSON);
+        }
+        RateLimiter rateLimiter = new RateLimiter(config);
+        rateLimiter.resetBucket();
+
+        ConcurrentLinkedQueue<long[]> latencies = new ConcurrentLinkedQueue<>();
+        LongAdder failed = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                long[] local = new long[1 << 16];
+                int size = 0;
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        if (rateLimiter.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS)) {
+                            if (size == local.length) {
+                                local = Arrays.copyOf(local, size * 2);
+                            }
+                            local[size++] = System.nanoTime() - start;
+                        }
+                    } catch (RuntimeException e) {
+                        // Redis 超时或连接被重置
+                        failed.increment();
+                    }
+                }
+                latencies.add(Arrays.copyOf(local, size));
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long[] all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, failed.sum());
+    }
+
+    private static class Result {
+        private final long[] sortedNanos;
+
+        private final long granted;
+
+        private final long failed;
+
+        private Result(long[] sortedNanos, long failed) {
+            this.sortedNanos = sortedNanos;
+            this.granted = sortedNanos.length;
+            this.failed = failed;
+        }
+
+        private double percentile(double p) {
+            if (sortedNanos.length == 0) {
+                return 0D;
+            }
+            return sortedNanos[Math.min((int) (sortedNanos.length * p), sortedNanos.length - 1)] / 1e6;
+        }
+    }
+}
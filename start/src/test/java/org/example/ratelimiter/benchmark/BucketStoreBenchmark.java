@@ -0,0 +1,87 @@
+package org.example.ratelimiter.benchmark;
+
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.common.redis.key.common.PermitBucketKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 存储引擎对比
+ * 每个引擎使用同样的限流参数，多个线程在固定时长内不等待地 tryAcquire，
+ * 统计每秒完成的判断次数（吞吐）以及放行数与理论值（初始令牌 + 速率 * 时长）的比值（准确度）
+ * <p>
+ * 需要本地 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=BucketStoreBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Tag("benchmark")
+@SpringBootTest
+class BucketStoreBenchmark {
+    private static final long PERMITS_PER_SECOND = 500L;
+
+    private static final int THREADS = 8;
+
+    private static final long DURATION_MILLIS = 3_000L;
+
+    private static final String NAME_PREFIX = "store-benchmark-";
+
+    @Autowired
+    private RedissonService redisService;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Test
+    void compareStores() throws InterruptedException {
+        for (BucketStoreEnum store : BucketStoreEnum.values()) {
+            String name = NAME_PREFIX + store.getCode();
+            redissonClient.getKeys().delete(PermitBucketKey.permitBucket.getPrefix() + name,
+                    PermitBucketKey.redissonLimiter.getPrefix() + name);
+            RateLimiterConfig config = new RateLimiterConfig(name, PERMITS_PER_SECOND, redisService);
+            config.setStore(store);
+            RateLimiter rateLimiter = new RateLimiter(config);
+            rateLimiter.resetBucket();
+
+            LongAdder decisions = new LongAdder();
+            LongAdder granted = new LongAdder();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            List<Thread> threads = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                Thread thread = new Thread(() -> {
+                    while (System.nanoTime() < deadline) {
+                        if (rateLimiter.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS)) {
+                            granted.increment();
+                        }
+                        decisions.increment();
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            // 令牌桶初始有 1 个令牌；RRateLimiter 在每个窗口开始时即可发出整个窗口的令牌，时长内共 3 个窗口
+            long burst = store == BucketStoreEnum.REDISSON ? 0L : 1L;
+            double expected = burst + PERMITS_PER_SECOND * DURATION_MILLIS / 1000.0;
+            System.out.printf("store=%s, decisions/s=%.0f, granted=%d, expected=%.0f, accuracy=%.3f%n",
+                    store.getCode(), decisions.sum() * 1000.0 / DURATION_MILLIS, granted.sum(), expected,
+                    granted.sum() / expected);
+            Assertions.assertTrue(granted.sum() <= expected * 1.05);
+            redissonClient.getKeys().delete(PermitBucketKey.permitBucket.getPrefix() + name,
+                    PermitBucketKey.redissonLimiter.getPrefix() + name);
+        }
+    }
+}
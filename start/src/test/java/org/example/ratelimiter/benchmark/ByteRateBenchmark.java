@@ -0,0 +1,161 @@
+package org.example.ratelimiter.benchmark;
+
+import com.google.common.util.concurrent.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.io.RateLimitedInputStream;
+import org.example.ratelimiter.limiter.io.RateLimitedOutputStream;
+import org.example.ratelimiter.limiter.io.RateLimitedReadableByteChannel;
+import org.example.ratelimiter.limiter.io.RateLimitedWritableByteChannel;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 字节限速流和通道的基准测试
+ * - 准确性：按限速复制数据，对比实际速率和设定速率
+ * - 开销：限速远高于实际吞吐时，对比限速流和原始流的吞吐
+ * 使用 Guava 单机限流器作为令牌来源，不需要 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=ByteRateBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Slf4j
+@Tag("benchmark")
+class ByteRateBenchmark {
+    private static final int MB = 1024 * 1024;
+
+    /**
+     * 实际速率与设定速率允许的相对误差
+     */
+    private static final double MAX_RATE_ERROR = 0.1;
+
+    private static final byte[] DATA = new byte[64 * MB];
+
+    @Test
+    void streamRateAccuracy() throws IOException {
+        double bytesPerSecond = 4.0 * MB;
+        byte[] data = slice(8 * MB);
+        long start = System.nanoTime();
+        try (InputStream in = new RateLimitedInputStream(new ByteArrayInputStream(data), guavaLimiter(bytesPerSecond))) {
+            assertEquals(data.length, in.transferTo(OutputStream.nullOutputStream()));
+        }
+        report("InputStream.transferTo", data.length, bytesPerSecond, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        try (OutputStream out = new RateLimitedOutputStream(OutputStream.nullOutputStream(), guavaLimiter(bytesPerSecond))) {
+            out.write(data);
+        }
+        report("OutputStream.write", data.length, bytesPerSecond, System.nanoTime() - start);
+    }
+
+    @Test
+    void channelRateAccuracy() throws IOException {
+        double bytesPerSecond = 4.0 * MB;
+        byte[] data = slice(8 * MB);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(256 * 1024);
+        long start = System.nanoTime();
+        try (ReadableByteChannel in = new RateLimitedReadableByteChannel(
+                Channels.newChannel(new ByteArrayInputStream(data)), guavaLimiter(bytesPerSecond));
+             WritableByteChannel out = Channels.newChannel(OutputStream.nullOutputStream())) {
+            assertEquals(data.length, copy(in, out, buffer));
+        }
+        report("ReadableByteChannel(direct)", data.length, bytesPerSecond, System.nanoTime() - start);
+
+        start = System.nanoTime();
+        try (ReadableByteChannel in = Channels.newChannel(new ByteArrayInputStream(data));
+             WritableByteChannel out = new RateLimitedWritableByteChannel(
+                     Channels.newChannel(OutputStream.nullOutputStream()), guavaLimiter(bytesPerSecond))) {
+            assertEquals(data.length, copy(in, out, buffer));
+        }
+        report("WritableByteChannel(direct)", data.length, bytesPerSecond, System.nanoTime() - start);
+    }
+
+    @Test
+    void overheadAgainstUnthrottled() throws IOException {
+        int rounds = 10;
+        long rawNanos = 0L;
+        long limitedNanos = 0L;
+        for (int i = 0; i < rounds; i++) {
+            // 套一层不做任何事情的 FilterInputStream，让两边都走同样的 read(byte[]) 复制路径
+            long start = System.nanoTime();
+            new FilterInputStream(new ByteArrayInputStream(DATA)) {
+            }.transferTo(OutputStream.nullOutputStream());
+            rawNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            new RateLimitedInputStream(new ByteArrayInputStream(DATA), guavaLimiter(1e15))
+                    .transferTo(OutputStream.nullOutputStream());
+            limitedNanos += System.nanoTime() - start;
+        }
+        double rawMbps = 1.0 * rounds * DATA.length / MB / (rawNanos / 1e9);
+        double limitedMbps = 1.0 * rounds * DATA.length / MB / (limitedNanos / 1e9);
+        log.info("Unthrottled: {} MB/s, throttled (unbounded rate): {} MB/s, overhead: {}%",
+                String.format("%.0f", rawMbps), String.format("%.0f", limitedMbps),
+                String.format("%.1f", (rawMbps - limitedMbps) / rawMbps * 100));
+    }
+
+    private static long copy(ReadableByteChannel in, WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        long total = 0L;
+        buffer.clear();
+        while (in.read(buffer) >= 0) {
+            buffer.flip();
+            total += out.write(buffer);
+            buffer.clear();
+        }
+        return total;
+    }
+
+    private static void report(String name, long bytes, double bytesPerSecond, long elapsedNanos) {
+        double actual = bytes / (elapsedNanos / 1e9);
+        double error = Math.abs(actual - bytesPerSecond) / bytesPerSecond;
+        log.info("{}: configured {} MB/s, actual {} MB/s, error {}%", name,
+                String.format("%.2f", bytesPerSecond / MB), String.format("%.2f", actual / MB),
+                String.format("%.1f", error * 100));
+        assertEquals(0, error, MAX_RATE_ERROR, name + " rate error too large");
+    }
+
+    private static byte[] slice(int length) {
+        byte[] data = new byte[length];
+        System.arraycopy(DATA, 0, data, 0, length);
+        return data;
+    }
+
+    /**
+     * 用 Guava 单机限流器作为令牌来源
+     */
+    private static Limiter guavaLimiter(double permitsPerSecond) {
+        RateLimiter rateLimiter = RateLimiter.create(permitsPerSecond);
+        return new Limiter() {
+            @Override
+            public double acquire() {
+                return rateLimiter.acquire();
+            }
+
+            @Override
+            public double acquire(int permits) {
+                return rateLimiter.acquire(permits);
+            }
+
+            @Override
+            public boolean tryAcquire() {
+                return rateLimiter.tryAcquire();
+            }
+
+            @Override
+            public boolean tryAcquire(long permits, long timeout, TimeUnit unit) {
+                return rateLimiter.tryAcquire(Math.toIntExact(permits), timeout, unit);
+            }
+        };
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.ratelimiter.benchmark;
+
+import org.example.ratelimiter.common.redis.key.common.PermitBucketKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.PermitBucket;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisNode;
+import org.redisson.api.redisnode.RedisNodes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 令牌桶存储占用对比
+ * 分别以 JSON 单 key 和按渠道紧凑存储创建同样数量的限流器，按 Redis used_memory 的增量计算每个限流器占用的字节数；
+ * 紧凑存储分别测试每个渠道 100 个（hash 为 listpack 编码）和 1000 个（hash 为 hashtable 编码）限流器的情况
+ * <p>
+ * 需要本地 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=CompactBucketStorageBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Tag("benchmark")
+@SpringBootTest
+class CompactBucketStorageBenchmark {
+    private static final int LIMITERS = 20_000;
+
+    private static final String NAME_PREFIX = "storage-benchmark-";
+
+    private static final String CHANNEL_PREFIX = "storage-benchmark-channel-";
+
+    @Autowired
+    private RedissonService redisService;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @AfterEach
+    void cleanUp() {
+        redissonClient.getKeys().deleteByPattern(PermitBucketKey.permitBucket.getPrefix() + NAME_PREFIX + "*");
+        redissonClient.getKeys().deleteByPattern(PermitBucketKey.channelBuckets.getPrefix() + CHANNEL_PREFIX + "*");
+    }
+
+    @Test
+    void bytesPerLimiter() {
+        double json = measure(0);
+        double compactSmall = measure(100);
+        double compactLarge = measure(1000);
+        System.out.printf("bytes per limiter: json=%.1f, compact(100/channel)=%.1f, compact(1000/channel)=%.1f%n",
+                json, compactSmall, compactLarge);
+        Assertions.assertTrue(compactSmall < json && compactLarge < json);
+    }
+
+    /**
+     * 创建限流器并返回每个限流器占用的字节数
+     *
+     * @param perChannel 每个渠道的限流器数量，0 表示使用 JSON 单 key 存储
+     * @return 字节数
+     */
+    private double measure(int perChannel) {
+        cleanUp();
+        long before = usedMemory();
+        List<RateLimiter> limiters = new ArrayList<>(LIMITERS);
+        for (int i = 0; i < LIMITERS; i++) {
+            RateLimiterConfig config = new RateLimiterConfig(NAME_PREFIX + i, 100L, redisService);
+            if (perChannel > 0) {
+                config.setChannel(CHANNEL_PREFIX + (i / perChannel));
+            }
+            RateLimiter rateLimiter = new RateLimiter(config);
+            rateLimiter.resetBucket();
+            limiters.add(rateLimiter);
+        }
+        long after = usedMemory();
+
+        // 抽查脚本写回后仍能按各自的存储方式读出
+        RateLimiter sample = limiters.get(LIMITERS / 2);
+        Assertions.assertTrue(sample.tryAcquire());
+        PermitBucket bucket = sample.getBucket();
+        Assertions.assertEquals(sample.getName(), bucket.getName());
+        Assertions.assertEquals(100L, bucket.getMaxPermits());
+        return (double) (after - before) / LIMITERS;
+    }
+
+    private long usedMemory() {
+        RedisNode node = redissonClient.getRedisNodes(RedisNodes.SINGLE).getInstance();
+        return Long.parseLong(node.info(RedisNode.InfoSection.MEMORY).get("used_memory"));
+    }
+}
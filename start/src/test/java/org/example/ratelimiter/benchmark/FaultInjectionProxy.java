@@ -0,0 +1,246 @@
+package org.example.ratelimiter.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 进程内的 TCP 代理，放在 Redisson 和 Redis 之间注入故障
+ * - 延迟和抖动：每个方向各增加 latency/2 + [0, jitter/2) 的延迟，同一连接上的数据保持顺序
+ * - 带宽：每个方向按 bytesPerSecond 限速
+ * - 重置：每隔 resetEveryMillis 以 RST 断开所有连接（SO_LINGER 为 0），客户端需要重连
+ * 故障配置可以在运行中切换，对已有连接立即生效。每个连接使用 4 个线程（两个方向各一读一写），只用于测试
+ */
+@Slf4j
+class FaultInjectionProxy implements AutoCloseable {
+    private final InetSocketAddress target;
+
+    private final ServerSocket serverSocket;
+
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+
+    private volatile FaultProfile profile = FaultProfile.NONE;
+
+    private volatile boolean running = true;
+
+    /**
+     * 注入的连接重置次数
+     */
+    private final LongAdder resets = new LongAdder();
+
+    FaultInjectionProxy(String targetHost, int targetPort) throws IOException {
+        this.target = new InetSocketAddress(targetHost, targetPort);
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        daemon("fault-proxy-accept", this::acceptLoop).start();
+        daemon("fault-proxy-reset", this::resetLoop).start();
+    }
+
+    int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    void setProfile(FaultProfile profile) {
+        this.profile = profile;
+    }
+
+    long getResets() {
+        return resets.sum();
+    }
+
+    private void acceptLoop() {
+        while (running) {
+            Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException e) {
+                if (running) {
+                    log.warn("Fault proxy accept failed", e);
+                }
+                continue;
+            }
+            Socket upstream = new Socket();
+            Connection connection;
+            try {
+                upstream.connect(target, 1_000);
+                client.setTcpNoDelay(true);
+                upstream.setTcpNoDelay(true);
+                connection = new Connection(client, upstream);
+            } catch (IOException e) {
+                log.warn("Fault proxy connect to {} failed", target, e);
+                closeQuietly(client);
+                closeQuietly(upstream);
+                continue;
+            }
+            connections.add(connection);
+            try {
+                connection.start();
+            } catch (IOException e) {
+                log.warn("Fault proxy start connection failed", e);
+                connection.reset();
+            }
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // 已经关闭
+        }
+    }
+
+    private void resetLoop() {
+        long lastResetNanos = System.nanoTime();
+        while (running) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            long every = profile.resetEveryMillis();
+            if (every > 0 && System.nanoTime() - lastResetNanos >= TimeUnit.MILLISECONDS.toNanos(every)) {
+                lastResetNanos = System.nanoTime();
+                for (Connection connection : connections) {
+                    connection.reset();
+                    resets.increment();
+                }
+            } else if (every <= 0) {
+                lastResetNanos = System.nanoTime();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.reset();
+        }
+    }
+
+    private static Thread daemon(String name, Runnable task) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    /**
+     * 故障配置
+     *
+     * @param name 名称
+     * @param latencyMicros 往返增加的延迟，单位为微秒
+     * @param jitterMicros 往返延迟在此之上的随机抖动，单位为微秒
+     * @param bytesPerSecond 每个方向的带宽，0 表示不限制
+     * @param resetEveryMillis 重置所有连接的周期，0 表示不重置
+     */
+    record FaultProfile(String name, long latencyMicros, long jitterMicros, long bytesPerSecond, long resetEveryMillis) {
+        static final FaultProfile NONE = new FaultProfile("none", 0L, 0L, 0L, 0L);
+    }
+
+    /**
+     * 一个客户端连接和对应的上游连接
+     */
+    private class Connection {
+        private final Socket client;
+
+        private final Socket upstream;
+
+        private Connection(Socket client, Socket upstream) {
+            this.client = client;
+            this.upstream = upstream;
+        }
+
+        private void start() throws IOException {
+            pipe(client.getInputStream(), upstream.getOutputStream(), "up");
+            pipe(upstream.getInputStream(), client.getOutputStream(), "down");
+        }
+
+        /**
+         * 读线程按到达时间加上延迟放入队列，写线程按时间和带宽写出
+         */
+        private void pipe(InputStream in, OutputStream out, String direction) {
+            LinkedBlockingQueue<Chunk> queue = new LinkedBlockingQueue<>();
+            daemon("fault-proxy-" + direction + "-read", () -> {
+                byte[] buffer = new byte[16 * 1024];
+                long lastDeliverNanos = 0L;
+                try {
+                    int read;
+                    while ((read = in.read(buffer)) >= 0) {
+                        FaultProfile current = profile;
+                        long delayMicros = current.latencyMicros() / 2 + (current.jitterMicros() > 0
+                                ? ThreadLocalRandom.current().nextLong(current.jitterMicros()) / 2 : 0L);
+                        lastDeliverNanos = Math.max(System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(delayMicros),
+                                lastDeliverNanos);
+                        byte[] data = new byte[read];
+                        System.arraycopy(buffer, 0, data, 0, read);
+                        queue.add(new Chunk(lastDeliverNanos, data));
+                    }
+                } catch (IOException e) {
+                    // 连接已关闭或被重置
+                } finally {
+                    queue.add(Chunk.EOF);
+                }
+            }).start();
+            daemon("fault-proxy-" + direction + "-write", () -> {
+                long nextFreeNanos = 0L;
+                try {
+                    while (true) {
+                        Chunk chunk = queue.take();
+                        if (chunk == Chunk.EOF) {
+                            break;
+                        }
+                        long bytesPerSecond = profile.bytesPerSecond();
+                        long deliverNanos = chunk.deliverNanos();
+                        if (bytesPerSecond > 0) {
+                            deliverNanos = Math.max(deliverNanos, nextFreeNanos);
+                            nextFreeNanos = Math.max(System.nanoTime(), deliverNanos)
+                                    + chunk.data().length * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond;
+                        }
+                        long waitNanos;
+                        while ((waitNanos = deliverNanos - System.nanoTime()) > 0) {
+                            LockSupport.parkNanos(waitNanos);
+                        }
+                        out.write(chunk.data());
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    // 连接已关闭或被重置
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    reset();
+                }
+            }).start();
+        }
+
+        /**
+         * 以 RST 关闭两端
+         */
+        private void reset() {
+            if (connections.remove(this)) {
+                for (Socket socket : new Socket[]{client, upstream}) {
+                    try {
+                        socket.setSoLinger(true, 0);
+                        socket.close();
+                    } catch (IOException e) {
+                        // 已经关闭
+                    }
+                }
+            }
+        }
+    }
+
+    private record Chunk(long deliverNanos, byte[] data) {
+        private static final Chunk EOF = new Chunk(0L, new byte[0]);
+    }
+}
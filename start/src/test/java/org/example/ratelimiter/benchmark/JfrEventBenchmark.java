@@ -0,0 +1,130 @@
+package org.example.ratelimiter.benchmark;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.common.jfr.RateLimitAcquire;
+import org.example.ratelimiter.common.jfr.RateLimitBackendCall;
+import org.example.ratelimiter.common.jfr.RateLimitLockWait;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JFR 事件的开销和内容
+ * 用内存引擎（不访问后端，单次获取在百纳秒级别，最能体现埋点本身的开销）单线程持续获取令牌，
+ * 分别统计 不开启 JFR 记录、开启记录但按默认阈值（正常速度的调用都不会提交）时的每次耗时，交替运行 3 轮；
+ * 多线程时内存引擎的锁竞争会掩盖这部分差异
+ * 再把阈值设为 0，检查每次获取都记录了 Acquire、BackendCall 和 LockWait 事件，结果与返回值一致
+ * <p>
+ * 不需要 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=JfrEventBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Tag("benchmark")
+class JfrEventBenchmark {
+    private static final long DURATION_MILLIS = 1_000L;
+
+    private static final int ROUNDS = 3;
+
+    private static final int RECORDED_CALLS = 1_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void overheadAndContent() throws IOException {
+        RateLimiter fast = limiter("jfr-benchmark-fast", 1_000_000L, false);
+        // 预热
+        run(fast, DURATION_MILLIS);
+        System.out.println("| round | off ns/acquire | default thresholds ns/acquire |\n|---|---|---|");
+        for (int round = 1; round <= ROUNDS; round++) {
+            double off = run(fast, DURATION_MILLIS);
+            double thresholds;
+            try (Recording recording = new Recording()) {
+                recording.enable(RateLimitAcquire.class);
+                recording.enable(RateLimitBackendCall.class);
+                recording.enable(RateLimitLockWait.class);
+                recording.start();
+                thresholds = run(fast, DURATION_MILLIS);
+            }
+            System.out.printf("| %d | %.1f | %.1f |%n", round, off, thresholds);
+        }
+
+        // 每秒 100 个令牌、不等待：桶内的令牌用完后其余请求被拒绝
+        RateLimiter slow = limiter("jfr-benchmark-slow", 100L, true);
+        Path file = dir.resolve("ratelimiter.jfr");
+        long granted = 0;
+        try (Recording recording = new Recording()) {
+            recording.enable(RateLimitAcquire.class).withThreshold(Duration.ZERO);
+            recording.enable(RateLimitBackendCall.class).withThreshold(Duration.ZERO);
+            recording.enable(RateLimitLockWait.class).withThreshold(Duration.ZERO);
+            recording.start();
+            for (int i = 0; i < RECORDED_CALLS; i++) {
+                if (slow.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS)) {
+                    granted++;
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        Map<String, Long> counts = new HashMap<>();
+        Map<String, Long> outcomes = new HashMap<>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+            if (!"jfr-benchmark-slow".equals(event.getString("limiter"))) {
+                continue;
+            }
+            counts.merge(event.getEventType().getName(), 1L, Long::sum);
+            if (event.getEventType().getName().endsWith(".Acquire")) {
+                outcomes.merge(event.getString("outcome"), 1L, Long::sum);
+            }
+        }
+        System.out.println("events: " + counts + ", outcomes: " + outcomes);
+        Assertions.assertEquals(RECORDED_CALLS, counts.get("org.example.ratelimiter.Acquire"));
+        Assertions.assertEquals(RECORDED_CALLS, counts.get("org.example.ratelimiter.BackendCall"));
+        Assertions.assertEquals(RECORDED_CALLS, counts.get("org.example.ratelimiter.LockWait"));
+        Assertions.assertEquals(granted, outcomes.get("granted"));
+        Assertions.assertEquals(RECORDED_CALLS - granted, outcomes.get("rejected"));
+    }
+
+    /**
+     * 内存引擎的限流器
+     *
+     * @param queued 是否设置等待队列（公平锁在多线程下的切换开销远大于埋点，只在检查事件内容时设置）
+     */
+    private static RateLimiter limiter(String name, long permitsPerSecond, boolean queued) {
+        RateLimiterConfig config = new RateLimiterConfig(name, permitsPerSecond, null);
+        config.setStore(BucketStoreEnum.MEMORY);
+        if (queued) {
+            config.setMaxQueued(16);
+        }
+        return new RateLimiter(config);
+    }
+
+    /**
+     * 单线程持续获取令牌
+     *
+     * @return 每次获取的平均耗时，单位为纳秒
+     */
+    private static double run(RateLimiter rateLimiter, long durationMillis) {
+        long calls = 0;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        while (System.nanoTime() < deadline) {
+            rateLimiter.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS);
+            calls++;
+        }
+        return (System.nanoTime() - start) / (double) calls;
+    }
+}
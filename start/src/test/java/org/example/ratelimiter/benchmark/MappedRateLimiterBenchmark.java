@@ -0,0 +1,70 @@
+package org.example.ratelimiter.benchmark;
+
+import org.example.ratelimiter.limiter.mmap.MappedBucketFile;
+import org.example.ratelimiter.limiter.mmap.MappedRateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 内存映射限流器基准测试
+ * 两次独立映射同一个文件模拟同一台机器上的两个进程，统计单次决策耗时以及两边合计放行的令牌数
+ */
+@Tag("benchmark")
+class MappedRateLimiterBenchmark {
+    private static final long PERMITS_PER_SECOND = 10_000L;
+    private static final long DURATION_MILLIS = 2_000L;
+    private static final int THREADS_PER_MAPPING = 2;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sharedBucketAcrossMappings() throws InterruptedException {
+        Path path = dir.resolve("ratelimiter.buckets");
+        RateLimiterConfig config = new RateLimiterConfig("mapped-benchmark", PERMITS_PER_SECOND, null);
+        try (MappedBucketFile first = MappedBucketFile.open(path, 64);
+             MappedBucketFile second = MappedBucketFile.open(path, 64)) {
+            MappedRateLimiter a = MappedRateLimiter.getOrCreate(first, config);
+            // 第二个"进程"只按名称解析
+            MappedRateLimiter b = MappedRateLimiter.find(second, "mapped-benchmark");
+            Assertions.assertNotNull(b);
+
+            LongAdder granted = new LongAdder();
+            LongAdder decisions = new LongAdder();
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 2 * THREADS_PER_MAPPING; i++) {
+                MappedRateLimiter limiter = i % 2 == 0 ? a : b;
+                Thread thread = new Thread(() -> {
+                    while (System.nanoTime() < deadline) {
+                        if (limiter.tryAcquire(1, 0, TimeUnit.MICROSECONDS)) {
+                            granted.increment();
+                        }
+                        decisions.increment();
+                    }
+                });
+                thread.start();
+                threads.add(thread);
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            long expected = PERMITS_PER_SECOND * DURATION_MILLIS / 1000L;
+            System.out.printf("mapped limiter: decisions=%,d, ns/decision=%.1f, granted=%,d, expected=%,d%n",
+                    decisions.sum(), (double) TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS) * threads.size() / decisions.sum(),
+                    granted.sum(), expected);
+            // 初始存有 1 个令牌，加上时间精度误差
+            Assertions.assertEquals(expected, granted.sum(), expected * 0.02);
+        }
+    }
+}
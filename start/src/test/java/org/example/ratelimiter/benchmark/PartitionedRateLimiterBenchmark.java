@@ -0,0 +1,166 @@
+package org.example.ratelimiter.benchmark;
+
+import org.example.ratelimiter.common.redis.key.common.MemberKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.partition.PartitionedRateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.redisnode.RedisNode;
+import org.redisson.api.redisnode.RedisNodes;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 按节点划分速率
+ * 在一个进程内模拟多个节点：先启动 a、b 两个节点，再加入 c，最后 a 退出，
+ * 记录每次成员变化后各节点的份额重新收敛所需的时间，以及请求量与 Redis 调用次数（心跳次数）的比例
+ * <p>
+ * 需要本地 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=PartitionedRateLimiterBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Tag("benchmark")
+@SpringBootTest
+class PartitionedRateLimiterBenchmark {
+    private static final String NAME = "partition-benchmark";
+
+    private static final long PERMITS_PER_SECOND = 300L;
+
+    private static final long HEARTBEAT_MILLIS = 500L;
+
+    /**
+     * 成员变化后份额收敛的最长时间
+     */
+    private static final long REBALANCE_TIMEOUT_MILLIS = 5_000L;
+
+    @Autowired
+    private RedissonService redisService;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    private final LongAdder requests = new LongAdder();
+
+    private final LongAdder granted = new LongAdder();
+
+    @Test
+    void rebalancesOnMembershipChange() throws InterruptedException {
+        redissonClient.getKeys().deleteByPattern(MemberKey.member.getPrefix() + "{" + NAME + "}*");
+        long startNanos = System.nanoTime();
+        long startCalls = scriptCalls();
+        PartitionedRateLimiter a = node();
+        PartitionedRateLimiter b = node();
+        List<Worker> workers = new ArrayList<>(List.of(new Worker(a), new Worker(b)));
+
+        long startMillis = awaitBalanced(List.of(a, b));
+        PartitionedRateLimiter c = node();
+        workers.add(new Worker(c));
+        long joinedMillis = awaitBalanced(List.of(a, b, c));
+
+        workers.get(0).stop();
+        a.close();
+        long leftMillis = awaitBalanced(List.of(b, c));
+        for (Worker worker : workers) {
+            worker.stop();
+        }
+        b.close();
+        c.close();
+
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        long calls = scriptCalls() - startCalls;
+        System.out.printf("balanced after start=%dms, join=%dms, leave=%dms; requests=%d, granted=%d (%.1f/s), "
+                        + "redis script calls=%d, requests per redis call=%.0f%n",
+                startMillis, joinedMillis, leftMillis, requests.sum(), granted.sum(), granted.sum() / seconds,
+                calls, (double) requests.sum() / calls);
+        Assertions.assertTrue(joinedMillis < REBALANCE_TIMEOUT_MILLIS && leftMillis < REBALANCE_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Redis 已执行的脚本次数
+     */
+    private long scriptCalls() {
+        Map<String, String> stats = redissonClient.getRedisNodes(RedisNodes.SINGLE).getInstance()
+                .info(RedisNode.InfoSection.COMMANDSTATS);
+        long calls = 0L;
+        for (String command : List.of("cmdstat_eval", "cmdstat_evalsha")) {
+            String stat = stats.get(command);
+            if (stat != null) {
+                calls += Long.parseLong(stat.substring(6, stat.indexOf(',')));
+            }
+        }
+        return calls;
+    }
+
+    private PartitionedRateLimiter node() {
+        PartitionedRateLimiter limiter = new PartitionedRateLimiter(
+                new RateLimiterConfig(NAME, PERMITS_PER_SECOND, redisService), HEARTBEAT_MILLIS);
+        limiter.start();
+        return limiter;
+    }
+
+    /**
+     * 等待各节点的份额之和接近总速率且相差不大（各节点需求相同）
+     *
+     * @param nodes 存活节点
+     * @return 等待时间，单位为毫秒
+     */
+    private long awaitBalanced(List<PartitionedRateLimiter> nodes) throws InterruptedException {
+        BooleanSupplier balanced = () -> {
+            long sum = 0;
+            for (PartitionedRateLimiter node : nodes) {
+                if (Math.abs(node.getSlice() - PERMITS_PER_SECOND / nodes.size()) > PERMITS_PER_SECOND / nodes.size() * 0.15) {
+                    return false;
+                }
+                sum += node.getSlice();
+            }
+            return Math.abs(sum - PERMITS_PER_SECOND) <= PERMITS_PER_SECOND * 0.1;
+        };
+        long start = System.nanoTime();
+        while (!balanced.getAsBoolean() && System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(REBALANCE_TIMEOUT_MILLIS)) {
+            Thread.sleep(20);
+        }
+        // 收敛后再运行几个心跳周期，确认不会来回波动
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Thread.sleep(HEARTBEAT_MILLIS * 3);
+        Assertions.assertTrue(balanced.getAsBoolean(), "slices not balanced for " + nodes.size() + " nodes");
+        return elapsed;
+    }
+
+    /**
+     * 以固定的高于份额的速率请求令牌
+     */
+    private class Worker {
+        private final AtomicBoolean running = new AtomicBoolean(true);
+
+        private final Thread thread;
+
+        Worker(Limiter limiter) {
+            thread = new Thread(() -> {
+                while (running.get()) {
+                    requests.increment();
+                    if (limiter.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS)) {
+                        granted.increment();
+                    }
+                    Limiter.parkMicrosUninterruptibly(500L);
+                }
+            });
+            thread.start();
+        }
+
+        void stop() throws InterruptedException {
+            running.set(false);
+            thread.join();
+        }
+    }
+}
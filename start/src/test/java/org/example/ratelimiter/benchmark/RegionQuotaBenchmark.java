@@ -0,0 +1,144 @@
+package org.example.ratelimiter.benchmark;
+
+import org.example.ratelimiter.common.redis.key.common.PermitBucketKey;
+import org.example.ratelimiter.common.redis.key.common.RegionKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.region.RedisRegionPeer;
+import org.example.ratelimiter.limiter.region.RegionPeer;
+import org.example.ratelimiter.limiter.region.RegionQuotaLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.config.Config;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 多区域共享配额
+ * 两个区域分别使用一个本地 Redis 作为各自的后端（east 为应用配置的 Redis，west 默认为 127.0.0.1:6380），
+ * 区域间的计数同步经过模拟的链路延迟。east 持续以最快速度请求，west 以固定的较低速率请求，
+ * 检查 west 的请求基本都能通过、两个区域的总放行量不超过 全局速率 * 时长 + 全局速率 * (同步周期 + 链路延迟) + 突发
+ * <p>
+ * 需要两个本地 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=RegionQuotaBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * 第二个 Redis 的端口可以用 -Dregion.west.port 指定
+ */
+@Tag("benchmark")
+@SpringBootTest
+class RegionQuotaBenchmark {
+    private static final String NAME = "region-benchmark";
+
+    private static final long PERMITS_PER_SECOND = 200L;
+
+    private static final long SYNC_INTERVAL_MILLIS = 250L;
+
+    private static final long LINK_DELAY_MILLIS = 40L;
+
+    private static final long DURATION_MILLIS = 6_000L;
+
+    /**
+     * west 每秒请求数，低于平均份额
+     */
+    private static final long WEST_REQUESTS_PER_SECOND = 40L;
+
+    @Autowired
+    private RedissonService eastRedis;
+
+    @Autowired
+    private RedissonClient eastClient;
+
+    @Test
+    void sharesGlobalRate() throws InterruptedException {
+        Config config = new Config();
+        config.setCodec(StringCodec.INSTANCE);
+        config.useSingleServer().setAddress("redis://127.0.0.1:" + System.getProperty("region.west.port", "6380"));
+        RedissonClient westClient = Redisson.create(config);
+        RedissonService westRedis = new RedissonService(westClient);
+        for (RedissonClient client : List.of(eastClient, westClient)) {
+            client.getKeys().delete(PermitBucketKey.permitBucket.getPrefix() + NAME, RegionKey.regionCounter.getPrefix() + NAME);
+        }
+
+        RegionQuotaLimiter east = new RegionQuotaLimiter(new RateLimiterConfig(NAME, PERMITS_PER_SECOND, eastRedis),
+                "east", List.of(new DelayedPeer(new RedisRegionPeer("west", westRedis))), SYNC_INTERVAL_MILLIS);
+        RegionQuotaLimiter west = new RegionQuotaLimiter(new RateLimiterConfig(NAME, PERMITS_PER_SECOND, westRedis),
+                "west", List.of(new DelayedPeer(new RedisRegionPeer("east", eastRedis))), SYNC_INTERVAL_MILLIS);
+        east.start();
+        west.start();
+
+        LongAdder eastGranted = new LongAdder();
+        LongAdder westGranted = new LongAdder();
+        LongAdder westRequested = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        Thread eastThread = new Thread(() -> {
+            while (System.nanoTime() < deadline) {
+                if (east.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS)) {
+                    eastGranted.increment();
+                }
+            }
+        });
+        Thread westThread = new Thread(() -> {
+            long pauseMillis = 1000L / WEST_REQUESTS_PER_SECOND;
+            while (System.nanoTime() < deadline) {
+                westRequested.increment();
+                if (west.tryAcquire(1L, 0L, TimeUnit.MICROSECONDS)) {
+                    westGranted.increment();
+                }
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        eastThread.start();
+        westThread.start();
+        eastThread.join();
+        westThread.join();
+
+        long total = eastGranted.sum() + westGranted.sum();
+        double limit = PERMITS_PER_SECOND * DURATION_MILLIS / 1000.0;
+        double bound = limit + PERMITS_PER_SECOND * (SYNC_INTERVAL_MILLIS + LINK_DELAY_MILLIS) / 1000.0 + PERMITS_PER_SECOND;
+        System.out.printf("east granted=%d allowance=%d, west granted=%d/%d allowance=%d, total=%d, limit=%.0f, bound=%.0f%n",
+                eastGranted.sum(), east.getAllowance(), westGranted.sum(), westRequested.sum(), west.getAllowance(),
+                total, limit, bound);
+        east.close();
+        west.close();
+        westClient.shutdown();
+
+        Assertions.assertTrue(total <= bound);
+        Assertions.assertTrue(westGranted.sum() >= westRequested.sum() * 0.8);
+    }
+
+    /**
+     * 模拟跨区域链路延迟
+     */
+    private static class DelayedPeer implements RegionPeer {
+        private final RegionPeer peer;
+
+        DelayedPeer(RegionPeer peer) {
+            this.peer = peer;
+        }
+
+        @Override
+        public String getRegion() {
+            return peer.getRegion();
+        }
+
+        @Override
+        public CompletableFuture<Map<String, Long>> fetch(String name) {
+            return CompletableFuture.supplyAsync(() -> name,
+                            CompletableFuture.delayedExecutor(LINK_DELAY_MILLIS, TimeUnit.MILLISECONDS))
+                    .thenCompose(peer::fetch);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package org.example.ratelimiter.benchmark;
+
+import org.example.ratelimiter.common.constant.BucketStoreEnum;
+import org.example.ratelimiter.limiter.audit.ThrottleAudit;
+import org.example.ratelimiter.limiter.audit.ThrottleRecord;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.example.ratelimiter.model.TRatelimitThrottleMapper;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 限流统计的开销和写入
+ * 1. 内存引擎的 64 个限流器，8 个线程持续获取令牌，分别统计 不开启统计、开启统计且写入目标很慢（每批 500ms、队列只能缓存 16 条）
+ * 时的每次耗时，交替运行 3 轮；写入跟不上时统计被丢弃并计数，获取令牌不受影响
+ * 2. 开启 ratelimiter.audit.enabled，获取令牌后查询 t_ratelimite_throttle 表，各秒的放行/拒绝次数之和与限流器的累计值一致
+ * <p>
+ * 不需要 Redis（Spring 上下文中的 Redisson 客户端会尝试连接），运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=ThrottleAuditBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = {"ratelimiter.audit.enabled=true", "ratelimiter.audit.node=benchmark",
+        "ratelimiter.audit.flush-interval=200"})
+class ThrottleAuditBenchmark {
+    private static final int LIMITERS = 64;
+
+    private static final int THREADS = 8;
+
+    private static final long DURATION_MILLIS = 2_000L;
+
+    private static final int ROUNDS = 3;
+
+    @Autowired
+    private RateLimiterFactory rateLimiterFactory;
+
+    @Autowired
+    private ThrottleAudit throttleAudit;
+
+    @Autowired
+    private TRatelimitThrottleMapper throttleMapper;
+
+    @Test
+    void slowSinkDoesNotBlockAcquire() throws InterruptedException {
+        List<RateLimiter> limiters = new ArrayList<>(LIMITERS);
+        for (int i = 0; i < LIMITERS; i++) {
+            limiters.add(limiter("audit-benchmark-" + i, 10_000L));
+        }
+        // 预热
+        run(limiters, DURATION_MILLIS / 2);
+        System.out.println("| round | off ns/acquire | slow sink ns/acquire | dropped |\n|---|---|---|---|");
+        for (int round = 1; round <= ROUNDS; round++) {
+            double off = run(limiters, DURATION_MILLIS);
+            double on;
+            ThrottleAudit audit = new ThrottleAudit("benchmark", records -> {
+                try {
+                    Thread.sleep(500L);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, 16, 4);
+            try {
+                for (RateLimiter rateLimiter : limiters) {
+                    audit.register(rateLimiter.getName(), rateLimiter.getPriorityMetrics());
+                }
+                audit.start(100L);
+                on = run(limiters, DURATION_MILLIS);
+            } finally {
+                audit.close();
+            }
+            System.out.printf("| %d | %.1f | %.1f | %d |%n", round, off, on, audit.getDropped());
+            Assertions.assertTrue(audit.getDropped() > 0, "round " + round);
+            Assertions.assertEquals(0, audit.getQueued());
+        }
+    }
+
+    @Test
+    void writeToTable() throws InterruptedException {
+        String name = "audit-benchmark-db";
+        RateLimiter rateLimiter = rateLimiterFactory.getPermitLimiter(config(name, 100L));
+        long fromSecond = System.currentTimeMillis() / 1000 - 1;
+        run(List.of(rateLimiter), DURATION_MILLIS);
+        // 注销时最后不足一秒的统计也放入队列
+        rateLimiterFactory.destroy(rateLimiter);
+        long granted = rateLimiter.getPriorityMetrics().getGranted();
+        long rejected = rateLimiter.getPriorityMetrics().getRejected();
+
+        List<ThrottleRecord> records = List.of();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            records = throttleMapper.getThrottle(name, fromSecond, System.currentTimeMillis() / 1000 + 2);
+            if (records.stream().mapToLong(ThrottleRecord::getGranted).sum() == granted) {
+                break;
+            }
+            Thread.sleep(100L);
+        }
+        records.forEach(System.out::println);
+        System.out.printf("granted=%d, rejected=%d, written=%d, dropped=%d%n",
+                granted, rejected, throttleAudit.getWritten(), throttleAudit.getDropped());
+        Assertions.assertTrue(records.size() >= 2, "records " + records.size());
+        Assertions.assertEquals(granted, records.stream().mapToLong(ThrottleRecord::getGranted).sum());
+        Assertions.assertEquals(rejected, records.stream().mapToLong(ThrottleRecord::getRejected).sum());
+        Assertions.assertTrue(records.stream().allMatch(record -> "benchmark".equals(record.getNode())));
+        Assertions.assertEquals(0L, throttleAudit.getDropped());
+    }
+
+    private static RateLimiterConfig config(String name, long permitsPerSecond) {
+        RateLimiterConfig config = new RateLimiterConfig(name, permitsPerSecond, null);
+        config.setStore(BucketStoreEnum.MEMORY);
+        return config;
+    }
+
+    private static RateLimiter limiter(String name, long permitsPerSecond) {
+        return new RateLimiter(config(name, permitsPerSecond));
+    }
+
+    /**
+     * 多个线程轮流在各限流器上不等待地获取令牌
+     *
+     * @return 每次获取的平均耗时（线程耗时之和 / 次数），单位为纳秒
+     */
+    private static double run(List<RateLimiter> limiters, long durationMillis) throws InterruptedException {
+        LongAdder calls = new LongAdder();
+        LongAdder nanos = new LongAdder();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            int offset = t;
+            Thread thread = new Thread(() -> {
+                long local = 0;
+                long start = System.nanoTime();
+                while (System.nanoTime() < deadline) {
+                    limiters.get((int) ((local + offset) % limiters.size())).tryAcquire(1L, 0L, TimeUnit.MICROSECONDS);
+                    local++;
+                }
+                nanos.add(System.nanoTime() - start);
+                calls.add(local);
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return nanos.sum() / (double) calls.sum();
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.ratelimiter.benchmark;
+
+import org.example.ratelimiter.common.redis.key.common.PermitBucketKey;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.base.Limiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 有界等待队列在过载下的延迟
+ * 64 个线程持续请求一个 100/s、缓存比例 1 的限流器（超时时间 1 秒），分别在不设置队列和
+ * 设置 最多排队 20 个、最长等待 200ms 时统计放行/拒绝请求的延迟分位数
+ * <p>
+ * 需要本地 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=WaitQueueBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ */
+@Tag("benchmark")
+@SpringBootTest
+class WaitQueueBenchmark {
+    private static final String NAME = "wait-queue-benchmark";
+
+    private static final long PERMITS_PER_SECOND = 100L;
+
+    private static final int THREADS = 64;
+
+    private static final long DURATION_MILLIS = 5_000L;
+
+    private static final int MAX_QUEUED = 20;
+
+    private static final long MAX_WAIT_MICROS = TimeUnit.MILLISECONDS.toMicros(200);
+
+    private static final long REJECT_BACKOFF_MICROS = TimeUnit.MILLISECONDS.toMicros(5);
+
+    @Autowired
+    private RedissonService redisService;
+
+    @Autowired
+    private RedissonClient redissonClient;
+
+    @Test
+    void tailLatencyUnderOverload() throws InterruptedException {
+        long[][] unbounded = run(false);
+        long[][] bounded = run(true);
+        report("unbounded", unbounded);
+        report("bounded", bounded);
+        // 放行的请求等待不超过最长等待时间（留出 Redis 往返和调度的余量），拒绝的请求不排队
+        Assertions.assertTrue(percentile(bounded[0], 0.99) <= MAX_WAIT_MICROS + TimeUnit.MILLISECONDS.toMicros(50));
+        Assertions.assertTrue(percentile(bounded[0], 0.99) < percentile(unbounded[0], 0.99));
+    }
+
+    /**
+     * 运行一轮过载
+     *
+     * @param bounded 是否设置等待队列
+     * @return 放行和拒绝请求的延迟，单位为微秒
+     */
+    private long[][] run(boolean bounded) throws InterruptedException {
+        redissonClient.getKeys().delete(PermitBucketKey.permitBucket.getPrefix() + NAME);
+        RateLimiterConfig config = new RateLimiterConfig(NAME, PERMITS_PER_SECOND, 1F, redisService);
+        if (bounded) {
+            config.setMaxQueued(MAX_QUEUED);
+            config.setMaxWaitMicros(MAX_WAIT_MICROS);
+        }
+        RateLimiter rateLimiter = new RateLimiter(config);
+        rateLimiter.resetBucket();
+
+        ConcurrentLinkedQueue<Long> granted = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<Long> rejected = new ConcurrentLinkedQueue<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    boolean acquired = rateLimiter.tryAcquire();
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+                    (acquired ? granted : rejected).add(micros);
+                    if (!acquired) {
+                        // 被拒绝的客户端稍后重试
+                        Limiter.parkMicrosUninterruptibly(REJECT_BACKOFF_MICROS);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new long[][]{sorted(granted), sorted(rejected)};
+    }
+
+    private static long[] sorted(ConcurrentLinkedQueue<Long> latencies) {
+        long[] values = latencies.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(values);
+        return values;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0L;
+        }
+        return sorted[Math.min((int) (sorted.length * p), sorted.length - 1)];
+    }
+
+    private static void report(String label, long[][] latencies) {
+        System.out.printf("%s: granted=%d p50=%.1fms p99=%.1fms max=%.1fms; rejected=%d p50=%.2fms p99=%.2fms%n",
+                label, latencies[0].length, percentile(latencies[0], 0.5) / 1000.0,
+                percentile(latencies[0], 0.99) / 1000.0, percentile(latencies[0], 1.0) / 1000.0,
+                latencies[1].length, percentile(latencies[1], 0.5) / 1000.0, percentile(latencies[1], 0.99) / 1000.0);
+    }
+}
@@ -0,0 +1,126 @@
+package org.example.ratelimiter.benchmark;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import lombok.extern.slf4j.Slf4j;
+import org.example.ratelimiter.common.redis.service.RedissonService;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiter;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterConfig;
+import org.example.ratelimiter.limiter.ratelimiter.RateLimiterFactory;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 虚拟线程并发获取令牌基准测试
+ * 10 万个虚拟线程同时从同一个限流器获取令牌，用 JFR 的 jdk.VirtualThreadPinned 事件（默认阈值 20ms）检查获取令牌时没有 pin 住载体线程。
+ * 另起一个探测虚拟线程周期性 park 1ms，记录它的最大唤醒延迟，只作参考：10 万个可运行的虚拟线程按先进先出调度，
+ * 即使没有 pin，探测线程也要排在它们之后，载体线程越少延迟越大
+ * <p>
+ * 需要 JDK 21 及本地 Redis，运行方式：
+ * mvn test -pl start -am -Pbenchmark -Dtest=VirtualThreadAcquireBenchmark -Dsurefire.failIfNoSpecifiedTests=false
+ * 可追加 -DargLine=-Djdk.tracePinnedThreads=short 打印发生 pin 的调用栈
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest
+class VirtualThreadAcquireBenchmark {
+    private static final int CALLERS = 100_000;
+
+    private static final long PROBE_INTERVAL_NANOS = MILLISECONDS.toNanos(1);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @TempDir
+    Path dir;
+
+    @Autowired
+    private RateLimiterFactory rateLimiterFactory;
+
+    @Autowired
+    private RedissonService redissonService;
+
+    @Test
+    void acquireFromVirtualThreads() throws InterruptedException, IOException {
+        // 5 秒的缓存刚好容纳全部请求，绝大多数调用方会进入等待
+        RateLimiterConfig config = new RateLimiterConfig("benchmark-virtual-thread", 20_000L, 5F, redissonService);
+        RateLimiter rateLimiter = rateLimiterFactory.getPermitLimiter(config);
+
+        LongAdder granted = new LongAdder();
+        LongAdder rejected = new LongAdder();
+        // Redis 命令超时等异常，按异常类型计数
+        Map<String, LongAdder> failed = new ConcurrentHashMap<>();
+        AtomicLong maxProbeLagNanos = new AtomicLong();
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread probe = Thread.ofVirtual().name("carrier-probe").start(() -> {
+            while (running.get()) {
+                long start = System.nanoTime();
+                LockSupport.parkNanos(PROBE_INTERVAL_NANOS);
+                long lag = System.nanoTime() - start - PROBE_INTERVAL_NANOS;
+                maxProbeLagNanos.accumulateAndGet(lag, Math::max);
+            }
+        });
+
+        Path file = dir.resolve("virtual-thread.jfr");
+        long start = System.nanoTime();
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT);
+            recording.start();
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < CALLERS; i++) {
+                    executor.submit(() -> {
+                        try {
+                            if (rateLimiter.tryAcquire()) {
+                                granted.increment();
+                            } else {
+                                rejected.increment();
+                            }
+                        } catch (RuntimeException e) {
+                            Throwable cause = e.getCause() != null ? e.getCause() : e;
+                            failed.computeIfAbsent(cause.getClass().getSimpleName(), key -> new LongAdder()).increment();
+                        }
+                    });
+                }
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        long elapsedMillis = NANOSECONDS.toMillis(System.nanoTime() - start);
+        running.set(false);
+        probe.join();
+
+        long maxProbeLagMillis = NANOSECONDS.toMillis(maxProbeLagNanos.get());
+        List<RecordedEvent> pinned = RecordingFile.readAllEvents(file).stream()
+                .filter(event -> PINNED_EVENT.equals(event.getEventType().getName()))
+                .toList();
+        long failedCount = failed.values().stream().mapToLong(LongAdder::sum).sum();
+        log.info("Virtual thread callers: {}, granted: {}, rejected: {}, failed: {} {}, elapsed: {}ms, carriers: {}, "
+                        + "pinned events: {}, max probe lag: {}ms",
+                CALLERS, granted.sum(), rejected.sum(), failedCount, failed, elapsedMillis,
+                Runtime.getRuntime().availableProcessors(), pinned.size(), maxProbeLagMillis);
+        pinned.stream().limit(3).forEach(event -> log.info("Pinned: {}", event));
+        assertEquals(CALLERS, granted.sum() + rejected.sum() + failedCount);
+        assertTrue(granted.sum() > 0);
+        assertEquals(0, pinned.size(), "carrier threads pinned " + pinned.size() + " times");
+    }
+}